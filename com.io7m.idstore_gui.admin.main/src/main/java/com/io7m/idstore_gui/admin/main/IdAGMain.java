@@ -21,14 +21,39 @@ import com.io7m.idstore_gui.admin.IdAGUI;
 import com.io7m.jade.api.ApplicationDirectories;
 import com.io7m.jade.api.ApplicationDirectoryConfiguration;
 import javafx.application.Platform;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
- * The main GUI entrypoint.
+ * <p>The main GUI entrypoint.</p>
+ *
+ * <p>If the {@code com.io7m.idstore.jfr.file} system property is set, a
+ * flight recording is started at launch and written to the named file when
+ * the application exits. The {@code com.io7m.idstore.jfr.settings} property
+ * names the JFR settings to use, and defaults to the low-overhead
+ * {@code default} settings.</p>
+ *
+ * <p>If the {@code com.io7m.idstore.cds.training} system property is
+ * {@code TRUE}, the application runs a scripted training session against a
+ * local training server, waits for the server's responses to be handled,
+ * and then exits. Running the training session with
+ * {@code -XX:ArchiveClassesAtExit} produces a class data sharing archive
+ * that later launches can use with {@code -XX:SharedArchiveFile}.</p>
+ *
+ * <p>The time from JVM start to the first frame of the main window is
+ * logged. If the {@code com.io7m.idstore.startup.exit_on_first_frame}
+ * system property is {@code TRUE}, the application exits as soon as the
+ * first frame has been produced. This is used by startup benchmarks.</p>
  */
 
 public final class IdAGMain
@@ -36,11 +61,95 @@ public final class IdAGMain
   private static final Logger LOG =
     LoggerFactory.getLogger(IdAGMain.class);
 
+  private static final String JFR_FILE =
+    "com.io7m.idstore.jfr.file";
+  private static final String JFR_SETTINGS =
+    "com.io7m.idstore.jfr.settings";
+  private static final String CDS_TRAINING =
+    "com.io7m.idstore.cds.training";
+  private static final String EXIT_ON_FIRST_FRAME =
+    "com.io7m.idstore.startup.exit_on_first_frame";
+
   private IdAGMain()
   {
 
   }
 
+  private static void startFlightRecording()
+  {
+    final var file = System.getProperty(JFR_FILE);
+    if (file == null || file.isBlank()) {
+      return;
+    }
+
+    final var settings =
+      System.getProperty(JFR_SETTINGS, "default");
+
+    try {
+      final var recording =
+        new Recording(Configuration.getConfiguration(settings));
+      final var path =
+        Path.of(file).toAbsolutePath();
+
+      recording.setName("com.io7m.idstore_gui");
+      recording.setToDisk(true);
+      recording.setDumpOnExit(true);
+      recording.setDestination(path);
+      recording.start();
+
+      LOG.info("Flight recording started ({}): {}", settings, path);
+    } catch (final Exception e) {
+      LOG.error("Unable to start flight recording: ", e);
+    }
+  }
+
+  private static boolean isEnabled(
+    final String name)
+  {
+    return Objects.equals(
+      System.getProperty(name, "FALSE").toUpperCase(Locale.ROOT),
+      "TRUE"
+    );
+  }
+
+  private static void onFirstFrame()
+  {
+    final var startTime =
+      ProcessHandle.current()
+        .info()
+        .startInstant()
+        .orElse(Instant.now());
+
+    final var duration =
+      Duration.between(startTime, Instant.now());
+
+    LOG.info("First frame after {} ms", Long.valueOf(duration.toMillis()));
+
+    if (isEnabled(EXIT_ON_FIRST_FRAME)) {
+      System.exit(0);
+    }
+  }
+
+  private static void runTrainingSession(
+    final IdAGUI ui)
+    throws IOException
+  {
+    final var server =
+      IdAGTrainingServer.create();
+
+    ui.runTrainingSession(server.host(), server.port())
+      .thenCompose(x -> server.idle(Duration.ofSeconds(1L)))
+      .whenComplete((ignored, exception) -> {
+        server.close();
+        if (exception != null) {
+          LOG.error("Training session failed: ", exception);
+          System.exit(1);
+        }
+        LOG.info("Training session completed.");
+        System.exit(0);
+      });
+  }
+
   /**
    * The main GUI entrypoint.
    *
@@ -50,6 +159,8 @@ public final class IdAGMain
   public static void main(
     final String[] args)
   {
+    startFlightRecording();
+
     final var directoryConfiguration =
       ApplicationDirectoryConfiguration.builder()
         .setApplicationName("com.io7m.idstore")
@@ -66,9 +177,15 @@ public final class IdAGMain
         Optional.empty()
       );
 
+    IdAGUI.markPlatformStartup();
     Platform.startup(() -> {
       try {
-        IdAGUI.start(configuration);
+        final var ui = IdAGUI.start(configuration);
+        ui.firstFrame().thenRun(IdAGMain::onFirstFrame);
+
+        if (isEnabled(CDS_TRAINING)) {
+          runTrainingSession(ui);
+        }
       } catch (final Exception e) {
         LOG.error("startup failed: ", e);
         System.exit(1);
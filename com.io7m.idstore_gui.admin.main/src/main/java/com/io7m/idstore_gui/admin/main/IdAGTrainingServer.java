@@ -0,0 +1,440 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.main;
+
+import com.io7m.idstore.model.IdAdmin;
+import com.io7m.idstore.model.IdAdminPermissionSet;
+import com.io7m.idstore.model.IdAdminSummary;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdEmail;
+import com.io7m.idstore.model.IdName;
+import com.io7m.idstore.model.IdNonEmptyList;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdPasswordAlgorithmPBKDF2HmacSHA256;
+import com.io7m.idstore.model.IdRealName;
+import com.io7m.idstore.model.IdUserSummary;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSelf;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdACommandLogin;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAMessageType;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSelf;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseLogin;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchPrevious;
+import com.io7m.idstore.protocol.admin.cb.IdACB1Messages;
+import com.io7m.verdant.core.VProtocolSupported;
+import com.io7m.verdant.core.VProtocols;
+import com.io7m.verdant.core.cb.VProtocolMessages;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A minimal admin server used by training sessions.</p>
+ *
+ * <p>The server answers the version negotiation and the admin protocol
+ * using the same message formats as a real server, so that a training
+ * session exercises the client's protocol encoding and decoding. It accepts
+ * any login, and answers {@code AdminSelf} and the user, admin, and audit
+ * searches from a small generated dataset; search parameters other than
+ * the page size are ignored, and all connections share one set of search
+ * cursors. Any other command is answered with a 400 error, which the
+ * client reports as a failed command.</p>
+ */
+
+final class IdAGTrainingServer implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGTrainingServer.class);
+
+  private static final String ENDPOINT = "/admin/1/0/";
+  private static final int USERS = 200;
+  private static final int ADMINS = 10;
+  private static final int AUDIT_EVENTS = 200;
+
+  private final HttpServer server;
+  private final IdACB1Messages messages;
+  private final byte[] versions;
+  private final IdAdmin admin;
+  private final List<IdUserSummary> users;
+  private final List<IdAdminSummary> admins;
+  private final List<IdAuditEvent> auditEvents;
+  private Cursor<IdUserSummary> userCursor;
+  private Cursor<IdAdminSummary> adminCursor;
+  private Cursor<IdAuditEvent> auditCursor;
+  private volatile long requestTimeLast;
+
+  private static final class Cursor<T>
+  {
+    private final List<T> items;
+    private final int limit;
+    private final int pageCount;
+    private int pageIndex;
+
+    Cursor(
+      final List<T> inItems,
+      final int inLimit)
+    {
+      this.items = inItems;
+      this.limit = Math.max(1, inLimit);
+      this.pageCount =
+        Math.max(1, (this.items.size() + this.limit - 1) / this.limit);
+      this.pageIndex = 1;
+    }
+
+    IdPage<T> page()
+    {
+      final var first = (this.pageIndex - 1) * this.limit;
+      final var last = Math.min(this.items.size(), first + this.limit);
+      return new IdPage<>(
+        List.copyOf(this.items.subList(first, last)),
+        this.pageIndex,
+        this.pageCount,
+        first
+      );
+    }
+
+    IdPage<T> next()
+    {
+      this.pageIndex = Math.min(this.pageCount, this.pageIndex + 1);
+      return this.page();
+    }
+
+    IdPage<T> previous()
+    {
+      this.pageIndex = Math.max(1, this.pageIndex - 1);
+      return this.page();
+    }
+  }
+
+  private IdAGTrainingServer(
+    final HttpServer inServer,
+    final byte[] inVersions,
+    final IdAdmin inAdmin)
+  {
+    this.server =
+      Objects.requireNonNull(inServer, "server");
+    this.versions =
+      Objects.requireNonNull(inVersions, "versions");
+    this.admin =
+      Objects.requireNonNull(inAdmin, "admin");
+    this.messages =
+      new IdACB1Messages();
+    this.requestTimeLast =
+      System.nanoTime();
+
+    final var time =
+      OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    final var userList = new ArrayList<IdUserSummary>(USERS);
+    for (int index = 0; index < USERS; ++index) {
+      userList.add(new IdUserSummary(
+        new UUID(0L, index),
+        new IdName("user" + index),
+        new IdRealName("User " + index),
+        time.plusMinutes(index),
+        time.plusMinutes(index)
+      ));
+    }
+    this.users = List.copyOf(userList);
+
+    final var adminList = new ArrayList<IdAdminSummary>(ADMINS);
+    for (int index = 0; index < ADMINS; ++index) {
+      adminList.add(new IdAdminSummary(
+        new UUID(1L, index),
+        new IdName("admin" + index),
+        new IdRealName("Admin " + index),
+        time.plusMinutes(index),
+        time.plusMinutes(index)
+      ));
+    }
+    this.admins = List.copyOf(adminList);
+
+    final var auditList = new ArrayList<IdAuditEvent>(AUDIT_EVENTS);
+    for (int index = 0; index < AUDIT_EVENTS; ++index) {
+      auditList.add(new IdAuditEvent(
+        index,
+        adminList.get(index % ADMINS).id(),
+        time.plusSeconds(index),
+        "USER_UPDATED",
+        "Updated user " + (index % USERS)
+      ));
+    }
+    this.auditEvents = List.copyOf(auditList);
+
+    this.userCursor = new Cursor<>(this.users, 1);
+    this.adminCursor = new Cursor<>(this.admins, 1);
+    this.auditCursor = new Cursor<>(this.auditEvents, 1);
+  }
+
+  /**
+   * Start a training server on an ephemeral port on the loopback address.
+   *
+   * @return A running server
+   *
+   * @throws IOException On I/O errors
+   */
+
+  static IdAGTrainingServer create()
+    throws IOException
+  {
+    final byte[] versions;
+    final IdAdmin admin;
+    try {
+      versions =
+        VProtocolMessages.create()
+          .serialize(
+            new VProtocols(List.of(
+              new VProtocolSupported(
+                IdACB1Messages.protocolId(), 1L, 0L, ENDPOINT)
+            )),
+            1
+          );
+
+      final var time =
+        OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+      admin =
+        new IdAdmin(
+          UUID.randomUUID(),
+          new IdName("training"),
+          new IdRealName("Training"),
+          new IdNonEmptyList<>(new IdEmail("training@example.com"), List.of()),
+          time,
+          time,
+          IdPasswordAlgorithmPBKDF2HmacSHA256.create()
+            .createHashed("training"),
+          IdAdminPermissionSet.all()
+        );
+    } catch (final Exception e) {
+      throw new IOException(e);
+    }
+
+    final var server =
+      HttpServer.create(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        0
+      );
+
+    final var training =
+      new IdAGTrainingServer(server, versions, admin);
+
+    server.createContext("/", training::handle);
+    server.start();
+    return training;
+  }
+
+  private void handle(
+    final HttpExchange exchange)
+    throws IOException
+  {
+    try (exchange) {
+      this.requestTimeLast = System.nanoTime();
+
+      final var data = exchange.getRequestBody().readAllBytes();
+      final var path = exchange.getRequestURI().getPath();
+      if (!path.startsWith(ENDPOINT)) {
+        send(exchange, VProtocolMessages.contentType(), this.versions);
+        return;
+      }
+
+      final Optional<IdAResponseType> response;
+      try {
+        response = this.respond(this.messages.parse(data));
+      } catch (final Exception e) {
+        LOG.debug("unparseable message: ", e);
+        exchange.sendResponseHeaders(400, -1L);
+        return;
+      }
+
+      if (response.isEmpty()) {
+        exchange.sendResponseHeaders(400, -1L);
+        return;
+      }
+
+      final byte[] responseData;
+      try {
+        responseData = this.messages.serialize(response.get());
+      } catch (final Exception e) {
+        throw new IOException(e);
+      }
+      send(exchange, IdACB1Messages.contentType(), responseData);
+    }
+  }
+
+  private static void send(
+    final HttpExchange exchange,
+    final String contentType,
+    final byte[] data)
+    throws IOException
+  {
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, data.length);
+    exchange.getResponseBody().write(data);
+  }
+
+  private synchronized Optional<IdAResponseType> respond(
+    final IdAMessageType message)
+  {
+    final var requestId = UUID.randomUUID();
+
+    if (message instanceof IdACommandLogin) {
+      return Optional.of(new IdAResponseLogin(requestId, this.admin));
+    }
+    if (message instanceof IdACommandAdminSelf) {
+      return Optional.of(new IdAResponseAdminSelf(requestId, this.admin));
+    }
+
+    if (message instanceof final IdACommandUserSearchBegin c) {
+      this.userCursor = new Cursor<>(this.users, c.parameters().limit());
+      return Optional.of(
+        new IdAResponseUserSearchBegin(requestId, this.userCursor.page()));
+    }
+    if (message instanceof IdACommandUserSearchNext) {
+      return Optional.of(
+        new IdAResponseUserSearchNext(requestId, this.userCursor.next()));
+    }
+    if (message instanceof IdACommandUserSearchPrevious) {
+      return Optional.of(
+        new IdAResponseUserSearchPrevious(
+          requestId, this.userCursor.previous()));
+    }
+
+    if (message instanceof final IdACommandAdminSearchBegin c) {
+      this.adminCursor = new Cursor<>(this.admins, c.parameters().limit());
+      return Optional.of(
+        new IdAResponseAdminSearchBegin(requestId, this.adminCursor.page()));
+    }
+    if (message instanceof IdACommandAdminSearchNext) {
+      return Optional.of(
+        new IdAResponseAdminSearchNext(requestId, this.adminCursor.next()));
+    }
+    if (message instanceof IdACommandAdminSearchPrevious) {
+      return Optional.of(
+        new IdAResponseAdminSearchPrevious(
+          requestId, this.adminCursor.previous()));
+    }
+
+    if (message instanceof final IdACommandAuditSearchBegin c) {
+      this.auditCursor =
+        new Cursor<>(this.auditEvents, c.parameters().limit());
+      return Optional.of(
+        new IdAResponseAuditSearchBegin(requestId, this.auditCursor.page()));
+    }
+    if (message instanceof IdACommandAuditSearchNext) {
+      return Optional.of(
+        new IdAResponseAuditSearchNext(requestId, this.auditCursor.next()));
+    }
+    if (message instanceof IdACommandAuditSearchPrevious) {
+      return Optional.of(
+        new IdAResponseAuditSearchPrevious(
+          requestId, this.auditCursor.previous()));
+    }
+
+    LOG.debug("unsupported message: {}", message.getClass().getSimpleName());
+    return Optional.empty();
+  }
+
+  /**
+   * Wait until the server has received no requests for the given period,
+   * so that responses to the requests made by a training session have been
+   * received and decoded before the session exits.
+   *
+   * @param period The period
+   *
+   * @return A future that completes when the server has been idle
+   */
+
+  CompletableFuture<Void> idle(
+    final Duration period)
+  {
+    final var future = new CompletableFuture<Void>();
+    this.checkIdle(future, period.toNanos());
+    return future;
+  }
+
+  private void checkIdle(
+    final CompletableFuture<Void> future,
+    final long periodNanos)
+  {
+    final var elapsed = System.nanoTime() - this.requestTimeLast;
+    if (elapsed >= periodNanos) {
+      future.complete(null);
+      return;
+    }
+
+    CompletableFuture.delayedExecutor(
+      periodNanos - elapsed,
+      TimeUnit.NANOSECONDS
+    ).execute(() -> this.checkIdle(future, periodNanos));
+  }
+
+  /**
+   * @return The host on which the server is listening
+   */
+
+  String host()
+  {
+    return this.server.getAddress().getHostString();
+  }
+
+  /**
+   * @return The port on which the server is listening
+   */
+
+  int port()
+  {
+    return this.server.getAddress().getPort();
+  }
+
+  @Override
+  public void close()
+  {
+    this.server.stop(0);
+  }
+}
@@ -23,12 +23,19 @@ module com.io7m.idstore_gui.admin.main
   requires static org.osgi.annotation.versioning;
   requires static org.osgi.annotation.bundle;
 
+  requires com.io7m.idstore.model;
+  requires com.io7m.idstore.protocol.admin.cb;
+  requires com.io7m.idstore.protocol.admin;
   requires com.io7m.idstore_gui.admin;
   requires com.io7m.jade.api;
   requires com.io7m.jade.vanilla;
+  requires com.io7m.verdant.core.cb;
+  requires com.io7m.verdant.core;
   requires javafx.base;
   requires javafx.controls;
   requires javafx.graphics;
+  requires jdk.httpserver;
+  requires jdk.jfr;
   requires org.slf4j;
 
   exports com.io7m.idstore_gui.admin.main;
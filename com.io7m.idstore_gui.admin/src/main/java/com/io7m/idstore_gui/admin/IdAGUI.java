@@ -18,9 +18,12 @@
 package com.io7m.idstore_gui.admin;
 
 import com.io7m.idstore_gui.admin.internal.IdAGApplication;
+import com.io7m.idstore_gui.admin.internal.IdAGStartupTimeline;
+import com.io7m.idstore_gui.admin.internal.main.IdAGTrainingSession;
 import javafx.stage.Stage;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Functions to start the GUI.
@@ -36,6 +39,18 @@ public final class IdAGUI
     this.app = Objects.requireNonNull(inApp, "app");
   }
 
+  /**
+   * Record that the JavaFX platform is about to be started. Call this
+   * immediately before {@code Platform.startup} so that startup
+   * measurements begin at the right point.
+   */
+
+  public static void markPlatformStartup()
+  {
+    IdAGStartupTimeline.shared()
+      .mark(IdAGStartupTimeline.PLATFORM_STARTUP);
+  }
+
   /**
    * Start a new UI.
    *
@@ -55,4 +70,32 @@ public final class IdAGUI
     app.start(stage);
     return new IdAGUI(app);
   }
+
+  /**
+   * @return A future that completes when the main window has completed its
+   * first layout pulse
+   */
+
+  public CompletableFuture<Void> firstFrame()
+  {
+    return this.app.firstFrame();
+  }
+
+  /**
+   * Run a scripted session that boots, logs in to the given server, and
+   * opens each tab. This is used as the training run for class data sharing
+   * archives.
+   *
+   * @param host The server host
+   * @param port The server port
+   *
+   * @return A future that completes when the session has finished
+   */
+
+  public CompletableFuture<Void> runTrainingSession(
+    final String host,
+    final int port)
+  {
+    return IdAGTrainingSession.run(this.app.mainController(), host, port);
+  }
 }
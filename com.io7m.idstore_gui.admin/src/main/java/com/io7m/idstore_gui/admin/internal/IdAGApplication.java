@@ -18,12 +18,15 @@
 package com.io7m.idstore_gui.admin.internal;
 
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.main.IdAGMainScreenController;
 import com.io7m.idstore_gui.admin.internal.main.IdAGMainScreenControllers;
 import com.io7m.repetoir.core.RPServiceDirectory;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The main application class responsible for starting up the "main" view.
@@ -32,6 +35,8 @@ import java.util.Objects;
 public final class IdAGApplication extends Application
 {
   private final IdAGConfiguration configuration;
+  private final CompletableFuture<Void> firstFrame;
+  private IdAGMainScreenController mainController;
 
   /**
    * The main application class responsible for starting up the "main" view.
@@ -44,6 +49,27 @@ public final class IdAGApplication extends Application
   {
     this.configuration =
       Objects.requireNonNull(inConfiguration, "configuration");
+    this.firstFrame =
+      new CompletableFuture<>();
+  }
+
+  /**
+   * @return The main screen controller, after the application has started
+   */
+
+  public IdAGMainScreenController mainController()
+  {
+    return Objects.requireNonNull(this.mainController, "mainController");
+  }
+
+  /**
+   * @return A future that completes when the main stage completes its first
+   * layout pulse after being shown
+   */
+
+  public CompletableFuture<Void> firstFrame()
+  {
+    return this.firstFrame;
   }
 
   @Override
@@ -51,11 +77,31 @@ public final class IdAGApplication extends Application
     final Stage stage)
     throws Exception
   {
+    IdAGStartupTimeline.shared()
+      .mark(IdAGStartupTimeline.APPLICATION_START);
+
     final var strings =
       new IdAGStrings(this.configuration.locale());
 
-    new IdAGMainScreenControllers(new RPServiceDirectory(), this.configuration, strings)
-      .createViewControllerForStage(null, stage);
+    this.mainController =
+      new IdAGMainScreenControllers(
+        new RPServiceDirectory(), this.configuration, strings)
+        .createViewControllerForStage(null, stage);
+
+    final var scene = stage.getScene();
+    scene.addPostLayoutPulseListener(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        if (!IdAGApplication.this.firstFrame.isDone()) {
+          IdAGStartupTimeline.shared()
+            .mark(IdAGStartupTimeline.FIRST_FRAME);
+          IdAGApplication.this.firstFrame.complete(null);
+        }
+        Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+      }
+    });
 
     stage.show();
   }
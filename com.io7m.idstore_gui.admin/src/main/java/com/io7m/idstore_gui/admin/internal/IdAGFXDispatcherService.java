@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal;
+
+import com.io7m.repetoir.core.RPServiceType;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>A dispatcher that runs UI updates on the FX application thread.</p>
+ *
+ * <p>Updates submitted from any thread are placed onto a lock-free queue.
+ * An animation timer drains the queue once per pulse, running every update
+ * that was queued when the pulse began. Updates queued by other updates run
+ * on the next pulse. The timer only runs while the queue is non-empty, so
+ * an idle dispatcher does not request pulses.</p>
+ */
+
+public final class IdAGFXDispatcherService
+  implements RPServiceType, Executor, AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGFXDispatcherService.class);
+
+  private final ConcurrentLinkedQueue<Runnable> queue;
+  private final AtomicInteger queueDepth;
+  private final AtomicBoolean armed;
+  private final AtomicBoolean closed;
+  private final AnimationTimer timer;
+  private volatile long drainTimeLast;
+  private volatile long drainTimeMaximum;
+  private volatile int drainCountLast;
+
+  /**
+   * A dispatcher that runs UI updates on the FX application thread.
+   */
+
+  public IdAGFXDispatcherService()
+  {
+    this.queue =
+      new ConcurrentLinkedQueue<>();
+    this.queueDepth =
+      new AtomicInteger();
+    this.armed =
+      new AtomicBoolean(false);
+    this.closed =
+      new AtomicBoolean(false);
+    this.timer = new AnimationTimer()
+    {
+      @Override
+      public void handle(
+        final long now)
+      {
+        IdAGFXDispatcherService.this.drain();
+      }
+    };
+  }
+
+  /**
+   * Queue an update to run on the FX application thread during the next
+   * pulse.
+   *
+   * @param update The update
+   */
+
+  @Override
+  public void execute(
+    final Runnable update)
+  {
+    Objects.requireNonNull(update, "update");
+
+    if (this.closed.get()) {
+      return;
+    }
+
+    this.queue.add(update);
+    this.queueDepth.incrementAndGet();
+
+    if (this.armed.compareAndSet(false, true)) {
+      Platform.runLater(this::arm);
+    }
+  }
+
+  /**
+   * Queue a series of updates to run on the FX application thread, one
+   * update per pulse. Each update is only queued once the previous update
+   * has run, so a series of expensive updates delays any one pulse by at
+   * most one update.
+   *
+   * @param updates The updates
+   */
+
+  public void executeEachPulse(
+    final List<Runnable> updates)
+  {
+    Objects.requireNonNull(updates, "updates");
+    this.executeNext(List.copyOf(updates).iterator());
+  }
+
+  private void executeNext(
+    final Iterator<Runnable> updates)
+  {
+    if (!updates.hasNext()) {
+      return;
+    }
+
+    final var update = updates.next();
+    this.execute(() -> {
+      try {
+        update.run();
+      } finally {
+        this.executeNext(updates);
+      }
+    });
+  }
+
+  private void arm()
+  {
+    if (!this.closed.get()) {
+      this.timer.start();
+    }
+  }
+
+  private void drain()
+  {
+    final var timeThen = System.nanoTime();
+    final var count = this.queueDepth.get();
+
+    for (int index = 0; index < count; ++index) {
+      final var update = this.queue.poll();
+      if (update == null) {
+        break;
+      }
+      this.queueDepth.decrementAndGet();
+
+      try {
+        update.run();
+      } catch (final Throwable e) {
+        LOG.error("UI update failed: ", e);
+      }
+    }
+
+    final var timeTaken = System.nanoTime() - timeThen;
+    this.drainTimeLast = timeTaken;
+    this.drainCountLast = count;
+    if (timeTaken > this.drainTimeMaximum) {
+      this.drainTimeMaximum = timeTaken;
+    }
+
+    /*
+     * Stop the timer if there is nothing left to do. An update submitted
+     * after the queue was observed to be empty will have failed to arm the
+     * timer, so check again after disarming.
+     */
+
+    if (this.queue.isEmpty()) {
+      this.timer.stop();
+      this.armed.set(false);
+      if (!this.queue.isEmpty() && this.armed.compareAndSet(false, true)) {
+        this.timer.start();
+      }
+    }
+  }
+
+  /**
+   * @return The number of updates waiting to run
+   */
+
+  public int queueDepth()
+  {
+    return this.queueDepth.get();
+  }
+
+  /**
+   * @return The time taken to run the updates in the most recent pulse
+   */
+
+  public Duration drainTimeLast()
+  {
+    return Duration.ofNanos(this.drainTimeLast);
+  }
+
+  /**
+   * @return The longest time taken to run the updates in any pulse
+   */
+
+  public Duration drainTimeMaximum()
+  {
+    return Duration.ofNanos(this.drainTimeMaximum);
+  }
+
+  /**
+   * @return The number of updates run in the most recent pulse
+   */
+
+  public int drainCountLast()
+  {
+    return this.drainCountLast;
+  }
+
+  @Override
+  public void close()
+  {
+    if (this.closed.compareAndSet(false, true)) {
+      Platform.runLater(this.timer::stop);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGFXDispatcherService 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+
+  @Override
+  public String description()
+  {
+    return "UI update dispatcher";
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal;
+
+import com.io7m.repetoir.core.RPServiceType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A cache of FXML files.</p>
+ *
+ * <p>FXML files are classpath resources that never change while the
+ * application is running, so each file is located and read once, and every
+ * subsequent dialog, view, or cell that uses the file is loaded from memory.
+ * The cache is shared by the whole application, and is preloaded during
+ * boot.</p>
+ *
+ * <p>Only the contents of files are cached: {@link javafx.fxml.FXMLLoader}
+ * offers no way to reuse the result of parsing a file, so each load still
+ * parses the document. Views that are loaded repeatedly avoid the parse by
+ * being reused instead; see
+ * {@link com.io7m.idstore_gui.admin.internal.dialogs.IdAGDialogPoolService}.
+ * </p>
+ */
+
+public final class IdAGFXMLCache implements RPServiceType
+{
+  private static final String BASE =
+    "/com/io7m/idstore_gui/admin/internal/";
+
+  private static final List<String> PRELOADED =
+    List.of(
+      "about.fxml",
+      "adminCreate.fxml",
+      "adminDeleteConfirm.fxml",
+      "connect.fxml",
+      "emailAdd.fxml",
+      "error.fxml",
+      "errorCell.fxml",
+      "loginHistoryCell.fxml",
+      "main.fxml",
+      "mainContent.fxml",
+      "passwordChange.fxml",
+      "tabAdmins.fxml",
+      "tabAudit.fxml",
+      "tabDiagnostics.fxml",
+      "tabProfile.fxml",
+      "tabUsers.fxml",
+      "userCreate.fxml",
+      "userDeleteBulkConfirm.fxml",
+      "userDeleteConfirm.fxml"
+    );
+
+  private static final IdAGFXMLCache SHARED =
+    new IdAGFXMLCache();
+
+  private final ConcurrentHashMap<String, IdAGFXMLDocument> documents;
+  private final LongAdder hits;
+  private final LongAdder misses;
+
+  private IdAGFXMLCache()
+  {
+    this.documents =
+      new ConcurrentHashMap<>();
+    this.hits =
+      new LongAdder();
+    this.misses =
+      new LongAdder();
+  }
+
+  /**
+   * @return The application's FXML cache
+   */
+
+  public static IdAGFXMLCache shared()
+  {
+    return SHARED;
+  }
+
+  /**
+   * @return The absolute names of the resources read by {@link #preload()}
+   */
+
+  public static List<String> preloadedResources()
+  {
+    return PRELOADED.stream()
+      .map(name -> BASE + name)
+      .toList();
+  }
+
+  /**
+   * Retrieve an FXML document, reading it from the classpath if it has not
+   * been read already.
+   *
+   * @param resource The absolute name of the resource
+   *
+   * @return The document
+   *
+   * @throws IOException If the resource does not exist or cannot be read
+   */
+
+  public IdAGFXMLDocument document(
+    final String resource)
+    throws IOException
+  {
+    Objects.requireNonNull(resource, "resource");
+
+    final var existing = this.documents.get(resource);
+    if (existing != null) {
+      this.hits.increment();
+      return existing;
+    }
+
+    this.misses.increment();
+
+    final var url = IdAGFXMLCache.class.getResource(resource);
+    if (url == null) {
+      throw new IOException("No such FXML resource: %s".formatted(resource));
+    }
+
+    final byte[] data;
+    try (var stream = url.openStream()) {
+      data = stream.readAllBytes();
+    }
+
+    final var document = new IdAGFXMLDocument(url, data);
+    final var raced = this.documents.putIfAbsent(resource, document);
+    return raced != null ? raced : document;
+  }
+
+  /**
+   * Read every FXML file used by the application into the cache.
+   *
+   * @return The number of bytes cached
+   *
+   * @throws IOException On errors
+   */
+
+  public long preload()
+    throws IOException
+  {
+    var total = 0L;
+    for (final var resource : preloadedResources()) {
+      total += this.document(resource).size();
+    }
+    return total;
+  }
+
+  /**
+   * @return The number of lookups that found a cached document
+   */
+
+  public long hits()
+  {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return The number of lookups that read a document from the classpath
+   */
+
+  public long misses()
+  {
+    return this.misses.sum();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGFXMLCache 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+
+  @Override
+  public String description()
+  {
+    return "FXML cache";
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal;
+
+import javafx.fxml.FXMLLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+/**
+ * The cached contents of an FXML file.
+ */
+
+public final class IdAGFXMLDocument
+{
+  private final URL url;
+  private final byte[] data;
+
+  IdAGFXMLDocument(
+    final URL inURL,
+    final byte[] inData)
+  {
+    this.url =
+      Objects.requireNonNull(inURL, "url");
+    this.data =
+      Objects.requireNonNull(inData, "data");
+  }
+
+  /**
+   * @return The URL of the FXML file
+   */
+
+  public URL url()
+  {
+    return this.url;
+  }
+
+  /**
+   * @return The size of the FXML file in bytes
+   */
+
+  public int size()
+  {
+    return this.data.length;
+  }
+
+  /**
+   * Create a new loader for the document. The loader's location is set to
+   * the URL of the document, so that relative references such as
+   * {@code fx:include} resolve as usual.
+   *
+   * @param resources The resource bundle
+   *
+   * @return A new loader
+   */
+
+  public FXMLLoader loader(
+    final ResourceBundle resources)
+  {
+    return new FXMLLoader(this.url, resources);
+  }
+
+  /**
+   * Load the document using the given loader. The document is read from
+   * memory rather than from the classpath.
+   *
+   * @param loader The loader
+   * @param <T>    The type of the root node
+   *
+   * @return The root node
+   *
+   * @throws IOException On errors
+   */
+
+  public <T> T load(
+    final FXMLLoader loader)
+    throws IOException
+  {
+    Objects.requireNonNull(loader, "loader");
+    return loader.load(new ByteArrayInputStream(this.data));
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal;
+
+import java.util.Objects;
+
+/**
+ * A point on the startup timeline.
+ *
+ * @param name      The name of the point, such as {@code boot.completed}
+ * @param detail    Extra detail, such as the boot step message, or an empty
+ *                  string
+ * @param timeNanos The monotonic time at which the point was reached
+ */
+
+public record IdAGStartupMark(
+  String name,
+  String detail,
+  long timeNanos)
+{
+  /**
+   * A point on the startup timeline.
+   *
+   * @param name      The name of the point
+   * @param detail    Extra detail, or an empty string
+   * @param timeNanos The monotonic time at which the point was reached
+   */
+
+  public IdAGStartupMark
+  {
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(detail, "detail");
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * <p>The startup timeline.</p>
+ *
+ * <p>The application marks each notable point during startup: the start of
+ * the JavaFX platform, the start of the application, each boot event, the
+ * first frame, and the completion of boot. Startup benchmarks read the
+ * marks to measure where startup time goes. Marking a point costs one
+ * {@link System#nanoTime()} call and one queue insertion, and the timeline
+ * is shared by the whole application.</p>
+ */
+
+public final class IdAGStartupTimeline
+{
+  /**
+   * The JavaFX platform is being started.
+   */
+
+  public static final String PLATFORM_STARTUP = "platform.startup";
+
+  /**
+   * The application has been asked to start.
+   */
+
+  public static final String APPLICATION_START = "application.start";
+
+  /**
+   * A boot event was published.
+   */
+
+  public static final String BOOT_EVENT = "boot.event";
+
+  /**
+   * The main window produced its first frame.
+   */
+
+  public static final String FIRST_FRAME = "first.frame";
+
+  /**
+   * Boot completed and the main content was created.
+   */
+
+  public static final String BOOT_COMPLETED = "boot.completed";
+
+  private static final IdAGStartupTimeline SHARED =
+    new IdAGStartupTimeline();
+
+  private final ConcurrentLinkedQueue<IdAGStartupMark> marks;
+
+  private IdAGStartupTimeline()
+  {
+    this.marks = new ConcurrentLinkedQueue<>();
+  }
+
+  /**
+   * @return The application's startup timeline
+   */
+
+  public static IdAGStartupTimeline shared()
+  {
+    return SHARED;
+  }
+
+  /**
+   * Mark a point on the timeline.
+   *
+   * @param name The name of the point
+   */
+
+  public void mark(
+    final String name)
+  {
+    this.mark(name, "");
+  }
+
+  /**
+   * Mark a point on the timeline.
+   *
+   * @param name   The name of the point
+   * @param detail Extra detail
+   */
+
+  public void mark(
+    final String name,
+    final String detail)
+  {
+    this.marks.add(new IdAGStartupMark(name, detail, System.nanoTime()));
+  }
+
+  /**
+   * @return The marks recorded so far, in the order they were recorded
+   */
+
+  public List<IdAGStartupMark> marks()
+  {
+    return List.copyOf(this.marks);
+  }
+
+  /**
+   * Discard all marks. This is used when the application is started more
+   * than once in the same JVM, such as in benchmarks.
+   */
+
+  public void clear()
+  {
+    this.marks.clear();
+  }
+
+  /**
+   * Find the first mark with the given name.
+   *
+   * @param name The name
+   *
+   * @return The first mark, if any
+   */
+
+  public Optional<IdAGStartupMark> first(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+    return this.marks.stream()
+      .filter(mark -> mark.name().equals(name))
+      .findFirst();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGStartupTimeline 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
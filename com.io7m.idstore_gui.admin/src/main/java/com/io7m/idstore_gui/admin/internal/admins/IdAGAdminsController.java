@@ -19,6 +19,7 @@ package com.io7m.idstore_gui.admin.internal.admins;
 import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
 import com.io7m.idstore.model.IdAdmin;
@@ -33,7 +34,6 @@ import com.io7m.idstore.model.IdPassword;
 import com.io7m.idstore.model.IdRealName;
 import com.io7m.idstore.model.IdTimeRange;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -68,6 +68,7 @@ public final class IdAGAdminsController implements Initializable
   private final RPServiceDirectoryType mainServices;
   private final IdAGStringsType strings;
   private final IdAGClientService client;
+  private final IdAGFXDispatcherService dispatcher;
   private final ObservableList<IdAGAdmin> admins;
   private final ObservableList<IdEmail> adminEmails;
   private final ObservableList<IdLogin> adminLoginHistory;
@@ -113,6 +114,8 @@ public final class IdAGAdminsController implements Initializable
       this.mainServices.requireService(IdAGStringsType.class);
     this.client =
       this.mainServices.requireService(IdAGClientService.class);
+    this.dispatcher =
+      this.mainServices.requireService(IdAGFXDispatcherService.class);
     this.admins =
       FXCollections.observableArrayList();
     this.adminEmails =
@@ -127,7 +130,7 @@ public final class IdAGAdminsController implements Initializable
     final HBStateType<?, ?, ?, ?> statusNew)
   {
     if (statusNew instanceof HBStateDisconnected) {
-      Platform.runLater(() -> {
+      this.dispatcher.execute(() -> {
         this.admins.clear();
         this.admin = null;
         this.adminDetailsLock();
@@ -294,7 +297,7 @@ public final class IdAGAdminsController implements Initializable
   private void onAdminReceived(
     final Optional<IdAdmin> adminOpt)
   {
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
       this.adminDetailsLock();
 
       if (adminOpt.isEmpty()) {
@@ -471,7 +474,7 @@ public final class IdAGAdminsController implements Initializable
   private void onPageReceived(
     final IdPage<IdAdminSummary> page)
   {
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
       final var pageIndex = page.pageIndex();
       final var pageCount = page.pageCount();
 
@@ -19,17 +19,17 @@ package com.io7m.idstore_gui.admin.internal.audit;
 import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.IdAGBackgroundSchedulerService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.paging.IdAGRingList;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore.model.IdAuditEvent;
 import com.io7m.idstore.model.IdPage;
 import com.io7m.idstore.model.IdTimeRange;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.application.Platform;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
@@ -39,14 +39,24 @@ import javafx.scene.control.Spinner;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.stage.FileChooser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.net.URI;
 import java.net.URL;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static javafx.scene.control.SelectionMode.SINGLE;
 
@@ -56,11 +66,25 @@ import static javafx.scene.control.SelectionMode.SINGLE;
 
 public final class IdAGAuditController implements Initializable
 {
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditController.class);
+
   private final IdAGConfiguration configuration;
   private final RPServiceDirectoryType mainServices;
   private final IdAGStringsType strings;
   private final IdAGClientService client;
-  private final ObservableList<IdAuditEvent> events;
+  private final IdAGFXDispatcherService dispatcher;
+  private final IdAGEventBus eventBus;
+  private final IdAGBackgroundSchedulerService scheduler;
+  private final IdAGAuditStoreService auditStores;
+  private final IdAGPreferencesServiceType preferences;
+  private final IdAGRingList<IdAuditEvent> events;
+  private IdAGAuditExport export;
+  private IdAGAuditTail tail;
+  private IdAGAuditStoreSearch localSearch;
+  private int localPageIndex;
+  private boolean storeFilling;
+  private long searchSerial;
 
   @FXML private DatePicker lowerDate;
   @FXML private Spinner<OffsetDateTime> lowerTime;
@@ -73,6 +97,9 @@ public final class IdAGAuditController implements Initializable
   @FXML private Button auditPageNext;
   @FXML private Button auditPagePrev;
   @FXML private Label auditPageLabel;
+  @FXML private Button auditExportButton;
+  @FXML private Button auditSearchButton;
+  @FXML private ToggleButton auditFollow;
 
   /**
    * The audit tab controller.
@@ -93,9 +120,40 @@ public final class IdAGAuditController implements Initializable
       this.mainServices.requireService(IdAGStringsType.class);
     this.client =
       this.mainServices.requireService(IdAGClientService.class);
+    this.dispatcher =
+      this.mainServices.requireService(IdAGFXDispatcherService.class);
+    this.eventBus =
+      this.mainServices.requireService(IdAGEventBus.class);
+    this.scheduler =
+      this.mainServices.requireService(IdAGBackgroundSchedulerService.class);
+    this.auditStores =
+      this.mainServices.requireService(IdAGAuditStoreService.class);
+    this.preferences =
+      this.mainServices.requireService(IdAGPreferencesServiceType.class);
 
     this.events =
-      FXCollections.observableArrayList();
+      new IdAGRingList<>(
+        this.preferences.preferences().auditTail().rowsRetained());
+  }
+
+  /**
+   * The decision of how to answer a search, made in the background.
+   *
+   * @param store The store for the server, if it could be opened
+   * @param gaps  The parts of the time range that the store is missing
+   * @param local The local search, if the search can be answered locally
+   */
+
+  private record SearchPlan(
+    Optional<IdAGAuditStore> store,
+    List<IdTimeRange> gaps,
+    Optional<IdAGAuditStoreSearch> local)
+  {
+    SearchPlan withLocal(
+      final IdAGAuditStoreSearch search)
+    {
+      return new SearchPlan(this.store, this.gaps, Optional.of(search));
+    }
   }
 
   private static Optional<String> nonBlank(
@@ -152,41 +210,28 @@ public final class IdAGAuditController implements Initializable
 
     tableIDColumn.setSortable(true);
     tableIDColumn.setReorderable(false);
-    tableIDColumn.setComparator(Long::compareUnsigned);
-    tableIDColumn.setCellValueFactory(
-      param -> {
-        return new SimpleObjectProperty<>(
-          Long.valueOf(param.getValue().id())
-        );
-      });
+    tableIDColumn.setComparator(IdAGAuditTableColumns.ID_COMPARATOR);
+    tableIDColumn.setCellValueFactory(IdAGAuditTableColumns::id);
 
     tableTimeColumn.setSortable(true);
     tableTimeColumn.setReorderable(false);
-    tableTimeColumn.setComparator(OffsetDateTime::compareTo);
-    tableTimeColumn.setCellValueFactory(
-      param -> {
-        return new SimpleObjectProperty<>(
-          param.getValue().time()
-        );
-      });
+    tableTimeColumn.setComparator(IdAGAuditTableColumns.TIME_COMPARATOR);
+    tableTimeColumn.setCellValueFactory(IdAGAuditTableColumns::time);
 
     tableTypeColumn.setSortable(true);
     tableTypeColumn.setReorderable(false);
-    tableTypeColumn.setComparator(String::compareToIgnoreCase);
-    tableTypeColumn.setCellValueFactory(
-      param -> new SimpleStringProperty(param.getValue().type()));
+    tableTypeColumn.setComparator(IdAGAuditTableColumns.TEXT_COMPARATOR);
+    tableTypeColumn.setCellValueFactory(IdAGAuditTableColumns::type);
 
     tableOwnerColumn.setSortable(true);
     tableOwnerColumn.setReorderable(false);
-    tableOwnerColumn.setComparator(String::compareToIgnoreCase);
-    tableOwnerColumn.setCellValueFactory(
-      param -> new SimpleStringProperty(param.getValue().owner().toString()));
+    tableOwnerColumn.setComparator(IdAGAuditTableColumns.TEXT_COMPARATOR);
+    tableOwnerColumn.setCellValueFactory(IdAGAuditTableColumns::owner);
 
     tableMessageColumn.setSortable(true);
     tableMessageColumn.setReorderable(false);
-    tableMessageColumn.setComparator(String::compareToIgnoreCase);
-    tableMessageColumn.setCellValueFactory(
-      param -> new SimpleStringProperty(param.getValue().data().toString()));
+    tableMessageColumn.setComparator(IdAGAuditTableColumns.TEXT_COMPARATOR);
+    tableMessageColumn.setCellValueFactory(IdAGAuditTableColumns::message);
 
     this.eventTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
     this.eventTable.getSelectionModel().setSelectionMode(SINGLE);
@@ -202,7 +247,13 @@ public final class IdAGAuditController implements Initializable
     final HBStateType<?, ?, ?, ?> statusNew)
   {
     if (statusNew instanceof HBStateDisconnected) {
-      Platform.runLater(() -> {
+      this.dispatcher.execute(() -> {
+        if (this.export != null) {
+          this.export.cancel();
+        }
+        this.followStop();
+        this.localSearch = null;
+        ++this.searchSerial;
         this.events.clear();
         this.eventTableControlsLock();
       });
@@ -212,38 +263,335 @@ public final class IdAGAuditController implements Initializable
   @FXML
   private void onAuditPageNext()
   {
-    final var future =
-      this.client.auditSearchNext();
+    if (this.localSearch != null) {
+      this.localPage(this.localSearch, this.localPageIndex + 1);
+      return;
+    }
 
-    future.whenComplete((page, exception) -> {
-      if (page != null) {
-        this.onPageReceived(page);
-      }
-    });
+    this.client.auditSearchNext()
+      .whenComplete((page, exception) -> {
+        if (page != null) {
+          this.onPageReceived(page);
+        }
+      });
   }
 
   @FXML
   private void onAuditPagePrevious()
   {
-    final var future =
-      this.client.auditSearchPrevious();
+    if (this.localSearch != null) {
+      this.localPage(this.localSearch, this.localPageIndex - 1);
+      return;
+    }
 
-    future.whenComplete((page, exception) -> {
-      if (page != null) {
-        this.onPageReceived(page);
+    this.client.auditSearchPrevious()
+      .whenComplete((page, exception) -> {
+        if (page != null) {
+          this.onPageReceived(page);
+        }
+      });
+  }
+
+  /*
+   * If the background fill filled the store and discarded it, the events
+   * that a local search found may no longer be in the store. The search is
+   * then repeated against the server, at the page the operator asked for.
+   */
+
+  private void localPage(
+    final IdAGAuditStoreSearch search,
+    final int pageIndex)
+  {
+    if (!search.isCurrent()) {
+      this.onLocalSearchDiscarded(search, pageIndex);
+      return;
+    }
+
+    search.page(pageIndex)
+      .whenComplete((page, exception) -> {
+        if (page != null) {
+          this.onPageReceived(page);
+          return;
+        }
+        this.dispatcher.execute(() -> {
+          if (this.localSearch != search) {
+            return;
+          }
+          if (!search.isCurrent()) {
+            this.onLocalSearchDiscarded(search, pageIndex);
+          } else {
+            LOG.error("unable to read audit store: ", exception);
+          }
+        });
+      });
+  }
+
+  private void onLocalSearchDiscarded(
+    final IdAGAuditStoreSearch search,
+    final int pageIndex)
+  {
+    LOG.debug("audit store discarded; repeating the search on the server");
+
+    this.localSearch = null;
+    ++this.searchSerial;
+
+    final var filter = search.filter();
+    this.client.auditSearchBegin(
+        search.timeRange(),
+        filter.owner(),
+        filter.type(),
+        filter.message())
+      .thenCompose(first -> {
+        if (pageIndex <= 1) {
+          return CompletableFuture.completedFuture(first);
+        }
+        return this.client.auditSearchPage(pageIndex);
+      })
+      .whenComplete((page, exception) -> {
+        if (page != null) {
+          this.onPageReceived(page);
+        }
+      });
+  }
+
+  @FXML
+  private void onAuditFollowSelected()
+  {
+    if (this.auditFollow.isSelected()) {
+      this.followStart();
+    } else {
+      this.followStop();
+      this.onAuditSearch();
+    }
+  }
+
+  private void followStart()
+  {
+    /*
+     * Follow on from the newest event currently shown, or from the present
+     * if nothing is shown.
+     */
+
+    var lastId = -1L;
+    var lastTime = OffsetDateTime.now(ZoneOffset.UTC);
+    for (final var event : this.events) {
+      if (event.id() > lastId) {
+        lastId = event.id();
+        lastTime = event.time();
       }
-    });
+    }
+
+    this.localSearch = null;
+    ++this.searchSerial;
+    this.eventTableControlsLock();
+    this.tail =
+      IdAGAuditTail.start(
+        this.client,
+        this.scheduler.executor(),
+        this.preferences.preferences().auditTail(),
+        this.owner(),
+        this.type(),
+        this.message(),
+        this.preferences.preferences().paging().auditPageSize(),
+        lastId,
+        lastTime,
+        received -> this.dispatcher.execute(() -> this.onTailReceived(received))
+      );
+
+    this.onTailReceived(List.of());
+  }
+
+  private void followStop()
+  {
+    if (this.tail != null) {
+      this.tail.cancel();
+      this.tail = null;
+    }
+    this.auditFollow.setSelected(false);
+  }
+
+  private void onTailReceived(
+    final List<IdAuditEvent> received)
+  {
+    if (this.tail == null) {
+      return;
+    }
+
+    this.events.addAll(received);
+    if (!received.isEmpty()) {
+      this.eventTable.scrollTo(this.events.size() - 1);
+    }
+
+    this.auditPageLabel.setText(
+      this.strings.format(
+        "audit.following",
+        Integer.valueOf(this.events.size()))
+    );
   }
 
   @FXML
   private void onAuditSearch()
+  {
+    this.followStop();
+
+    final var timeRange = this.timeRange();
+    final var filter =
+      new IdAGAuditFilter(this.owner(), this.type(), this.message());
+
+    this.localSearch = null;
+
+    /*
+     * Opening the store may rebuild its indexes from disk, and computing
+     * the gaps contends with the background fill for the store, so both
+     * happen in the background. Only the decision returns to the UI, and
+     * it is discarded if another search has been started in the meantime.
+     */
+
+    final var serial =
+      ++this.searchSerial;
+    final var server =
+      this.client.server();
+    final var executor =
+      this.scheduler.executor();
+    final var pageSize =
+      this.preferences.preferences().paging().auditPageSize();
+
+    CompletableFuture.supplyAsync(() -> {
+        return this.searchPlan(server, timeRange);
+      }, executor)
+      .thenCompose(plan -> this.searchPlanLocal(
+        plan, executor, pageSize, timeRange, filter))
+      .whenComplete((plan, exception) -> {
+        this.dispatcher.execute(() -> {
+          if (serial != this.searchSerial) {
+            return;
+          }
+          if (plan == null) {
+            LOG.error("unable to plan audit search: ", exception);
+            this.serverSearch(timeRange, filter);
+            return;
+          }
+          this.onSearchPlanned(plan, timeRange, filter);
+        });
+      });
+  }
+
+  private SearchPlan searchPlan(
+    final URI server,
+    final IdTimeRange timeRange)
+  {
+    final IdAGAuditStore store;
+    try {
+      store = this.auditStores.storeFor(server);
+    } catch (final IOException e) {
+      LOG.error("unable to open audit store: ", e);
+      return new SearchPlan(Optional.empty(), List.of(), Optional.empty());
+    }
+    return new SearchPlan(
+      Optional.of(store), store.gaps(timeRange), Optional.empty());
+  }
+
+  /*
+   * The search is answered locally only if the store already holds every
+   * event in the time range, and can evaluate the criteria exactly as the
+   * server would. Otherwise, the search goes to the server immediately,
+   * and the parts of the time range that the store is missing are fetched
+   * in the background so that later searches can be answered locally.
+   */
+
+  private CompletableFuture<SearchPlan> searchPlanLocal(
+    final SearchPlan plan,
+    final Executor executor,
+    final int pageSize,
+    final IdTimeRange timeRange,
+    final IdAGAuditFilter filter)
+  {
+    if (plan.store().isEmpty()
+        || !plan.gaps().isEmpty()
+        || !filter.isLocallyAnswerable()) {
+      return CompletableFuture.completedFuture(plan);
+    }
+
+    return IdAGAuditStoreSearch.begin(
+        plan.store().get(), executor, pageSize, timeRange, filter)
+      .handle((search, exception) -> {
+        if (search == null) {
+          LOG.error("unable to search audit store: ", exception);
+          return plan;
+        }
+        return plan.withLocal(search);
+      });
+  }
+
+  private void onSearchPlanned(
+    final SearchPlan plan,
+    final IdTimeRange timeRange,
+    final IdAGAuditFilter filter)
+  {
+    if (plan.local().isPresent()) {
+      this.onLocalSearchStarted(plan.local().get());
+      return;
+    }
+
+    this.serverSearch(timeRange, filter);
+    if (plan.store().isPresent() && !plan.gaps().isEmpty()) {
+      this.storeFill(plan.store().get(), plan.gaps());
+    }
+  }
+
+  private void storeFill(
+    final IdAGAuditStore store,
+    final List<IdTimeRange> gaps)
+  {
+    if (this.storeFilling) {
+      return;
+    }
+    this.storeFilling = true;
+
+    final var executor =
+      this.scheduler.executor();
+    final var pageSize =
+      this.preferences.preferences().paging().auditPageSize();
+
+    this.client.openConnection()
+      .thenCompose(connection -> {
+        return IdAGAuditStoreSync.start(
+            connection,
+            this.eventBus,
+            this.strings,
+            executor,
+            store,
+            gaps,
+            pageSize)
+          .whenComplete((count, exception) -> connection.close());
+      })
+      .whenComplete((count, exception) -> {
+        if (exception != null) {
+          LOG.debug("audit store synchronization stopped: ", exception);
+        }
+        this.dispatcher.execute(() -> {
+          this.storeFilling = false;
+        });
+      });
+  }
+
+  private void onLocalSearchStarted(
+    final IdAGAuditStoreSearch search)
+  {
+    this.localSearch = search;
+    this.localPage(search, 1);
+  }
+
+  private void serverSearch(
+    final IdTimeRange timeRange,
+    final IdAGAuditFilter filter)
   {
     final var future =
       this.client.auditSearchBegin(
-        this.timeRange(),
-        this.owner(),
-        this.type(),
-        this.message()
+        timeRange,
+        filter.owner(),
+        filter.type(),
+        filter.message()
       );
 
     future.whenComplete((page, exception) -> {
@@ -253,6 +601,85 @@ public final class IdAGAuditController implements Initializable
     });
   }
 
+  @FXML
+  private void onAuditExport()
+  {
+    if (this.export != null) {
+      this.export.cancel();
+      return;
+    }
+
+    final var filterCSV =
+      new FileChooser.ExtensionFilter(
+        this.strings.format("audit.export.csv"), "*.csv");
+    final var filterJSON =
+      new FileChooser.ExtensionFilter(
+        this.strings.format("audit.export.jsonLines"), "*.jsonl");
+
+    final var chooser = new FileChooser();
+    chooser.setTitle(this.strings.format("audit.export.title"));
+    chooser.getExtensionFilters().setAll(filterCSV, filterJSON);
+    chooser.setInitialFileName("audit.csv");
+
+    final var file =
+      chooser.showSaveDialog(this.eventTable.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+
+    final IdAGAuditExportFormat format;
+    if (chooser.getSelectedExtensionFilter() == filterJSON
+        || file.getName().toLowerCase(Locale.ROOT).endsWith(".jsonl")) {
+      format = IdAGAuditExportFormat.JSON_LINES;
+    } else {
+      format = IdAGAuditExportFormat.CSV;
+    }
+
+    this.followStop();
+    this.export =
+      IdAGAuditExport.start(
+        this.client,
+        this.eventBus,
+        this.strings,
+        this.scheduler.executor(),
+        this.timeRange(),
+        this.owner(),
+        this.type(),
+        this.message(),
+        file.toPath(),
+        format
+      );
+
+    /*
+     * The export moves the client's audit search, so no other search may be
+     * started until it has finished.
+     */
+
+    this.eventTableControlsLock();
+    this.auditSearchButton.setDisable(true);
+    this.auditFollow.setDisable(true);
+    this.auditExportButton.setText(this.strings.format("audit.export.cancel"));
+    this.export.future()
+      .whenComplete((count, exception) -> {
+        this.dispatcher.execute(this::onAuditExportFinished);
+      });
+  }
+
+  private void onAuditExportFinished()
+  {
+    this.export = null;
+    this.auditSearchButton.setDisable(false);
+    this.auditFollow.setDisable(false);
+    this.auditExportButton.setText(this.strings.format("audit.export"));
+
+    /*
+     * The export moved the client's audit search to its last page, so the
+     * search is restarted to bring the table back to the first page.
+     */
+
+    this.onAuditSearch();
+  }
+
   private void eventTableControlsLock()
   {
     this.auditPageNext.setDisable(true);
@@ -263,10 +690,15 @@ public final class IdAGAuditController implements Initializable
   private void onPageReceived(
     final IdPage<IdAuditEvent> page)
   {
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
+      if (this.tail != null) {
+        return;
+      }
+
       final var pageIndex = page.pageIndex();
       final var pageCount = page.pageCount();
 
+      this.localPageIndex = pageIndex;
       this.auditPagePrev.setDisable(pageIndex == 1);
       this.auditPageNext.setDisable(pageIndex == pageCount);
 
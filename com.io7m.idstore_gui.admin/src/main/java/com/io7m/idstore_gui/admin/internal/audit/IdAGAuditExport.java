@@ -0,0 +1,336 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.admin_client.api.IdAClientException;
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>An export of every audit event matching a search to a file.</p>
+ *
+ * <p>The export begins a new audit search and then moves through the
+ * search one page at a time until the last page has been written. Only one
+ * page is held in memory at any given time. Progress is published on the
+ * event bus after each page.</p>
+ *
+ * <p>The export uses the client's audit search, and so replaces any audit
+ * search that was in progress. The audit controller does not start other
+ * searches whilst an export is running; if the search is nevertheless
+ * replaced, the export is reported as cancelled rather than failed.</p>
+ */
+
+public final class IdAGAuditExport
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditExport.class);
+
+  private final IdAGClientService client;
+  private final IdAGEventBus events;
+  private final IdAGStringsType strings;
+  private final Executor executor;
+  private final Path file;
+  private IdAGAuditExportWriter writer;
+  private final AtomicBoolean cancelled;
+  private final CompletableFuture<Long> future;
+  private int pageExpected;
+
+  private IdAGAuditExport(
+    final IdAGClientService inClient,
+    final IdAGEventBus inEvents,
+    final IdAGStringsType inStrings,
+    final Executor inExecutor,
+    final Path inFile)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+    this.events =
+      Objects.requireNonNull(inEvents, "events");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.file =
+      Objects.requireNonNull(inFile, "file");
+    this.cancelled =
+      new AtomicBoolean(false);
+    this.future =
+      new CompletableFuture<>();
+    this.pageExpected =
+      1;
+  }
+
+  /**
+   * Start exporting audit events. Failures, including failing to create
+   * the output file, are published on the event bus and cause the returned
+   * export's future to fail.
+   *
+   * @param client    The client
+   * @param events    The event bus
+   * @param strings   The strings
+   * @param executor  The executor on which events are written
+   * @param timeRange The time range
+   * @param owner     The owner
+   * @param type      The type
+   * @param message   The message
+   * @param file      The output file
+   * @param format    The output format
+   *
+   * @return The export in progress
+   */
+
+  public static IdAGAuditExport start(
+    final IdAGClientService client,
+    final IdAGEventBus events,
+    final IdAGStringsType strings,
+    final Executor executor,
+    final IdTimeRange timeRange,
+    final Optional<String> owner,
+    final Optional<String> type,
+    final Optional<String> message,
+    final Path file,
+    final IdAGAuditExportFormat format)
+  {
+    final var export =
+      new IdAGAuditExport(client, events, strings, executor, file);
+
+    try {
+      export.writer = IdAGAuditExportWriter.open(file, format);
+    } catch (final IOException e) {
+      export.finishFailed(e);
+      return export;
+    }
+
+    export.publishProgress(OptionalDouble.empty());
+    client.auditSearchBegin(timeRange, owner, type, message)
+      .whenCompleteAsync(export::onPageReceived, executor);
+    return export;
+  }
+
+  /**
+   * @return A future that completes with the number of events exported
+   */
+
+  public CompletableFuture<Long> future()
+  {
+    return this.future;
+  }
+
+  /**
+   * Cancel the export. The export stops after the page currently being
+   * written, and the partially written file is deleted.
+   */
+
+  public void cancel()
+  {
+    this.cancelled.set(true);
+  }
+
+  private void onPageReceived(
+    final IdPage<IdAuditEvent> page,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      if (causeOf(exception) instanceof CancellationException) {
+        this.finishCancelled();
+      } else {
+        this.finishFailed(exception);
+      }
+      return;
+    }
+
+    /*
+     * If the client's audit search was replaced by another search, the page
+     * received is not the next page of this export.
+     */
+
+    if (page == null || page.pageIndex() != this.pageExpected) {
+      LOG.debug("audit search was replaced during export");
+      this.finishCancelled();
+      return;
+    }
+
+    try {
+      for (final var event : page.items()) {
+        this.writer.write(event);
+      }
+    } catch (final IOException e) {
+      this.finishFailed(e);
+      return;
+    }
+
+    final var pageIndex = page.pageIndex();
+    final var pageCount = page.pageCount();
+    if (pageIndex >= pageCount) {
+      this.finishCompleted();
+      return;
+    }
+
+    if (this.cancelled.get()) {
+      this.finishCancelled();
+      return;
+    }
+
+    this.publishProgress(
+      OptionalDouble.of((double) pageIndex / (double) pageCount));
+
+    this.pageExpected = pageIndex + 1;
+
+    this.client.auditSearchNext()
+      .whenCompleteAsync(this::onPageReceived, this.executor);
+  }
+
+  private void publishProgress(
+    final OptionalDouble progress)
+  {
+    this.events.submit(
+      new IdAGAuditExportEvent(
+        this.strings.format(
+          "audit.export.progress",
+          Long.valueOf(this.writer.eventCount())),
+        new IdAGEventStatusInProgress(progress)
+      )
+    );
+  }
+
+  private void finishCompleted()
+  {
+    try {
+      this.writer.commit();
+    } catch (final IOException e) {
+      this.finishFailed(e);
+      return;
+    }
+
+    final var count = this.writer.eventCount();
+    this.events.submit(
+      new IdAGAuditExportEvent(
+        this.strings.format(
+          "audit.export.completed",
+          Long.valueOf(count),
+          this.file),
+        new IdAGEventStatusCompleted()
+      )
+    );
+    this.future.complete(Long.valueOf(count));
+  }
+
+  private void finishCancelled()
+  {
+    this.closeQuietly();
+    this.events.submit(
+      new IdAGAuditExportEvent(
+        this.strings.format("audit.export.cancelled"),
+        new IdAGEventStatusCancelled()
+      )
+    );
+    this.future.completeExceptionally(
+      new CancellationException("The export was cancelled."));
+  }
+
+  private void finishFailed(
+    final Throwable exception)
+  {
+    this.closeQuietly();
+
+    final var cause = causeOf(exception);
+
+    final var message =
+      this.strings.format("audit.export.failed", cause.getMessage());
+
+    /*
+     * Client errors have already been published on the event bus by the
+     * client service, so the export is simply reported as having stopped.
+     */
+
+    if (cause instanceof IdAClientException) {
+      this.events.submit(
+        new IdAGAuditExportEvent(message, new IdAGEventStatusCancelled())
+      );
+      this.future.completeExceptionally(cause);
+      return;
+    }
+
+    final var recorder =
+      TRTaskRecorder.create(LOG, "Exporting audit events...");
+    recorder.setStepFailed(message);
+    recorder.setTaskFailed(message, Optional.of(cause));
+    final var task = recorder.toTask();
+
+    this.events.submit(
+      new IdAGAuditExportEvent(
+        message,
+        new IdAGEventStatusFailed(
+          task,
+          IdStandardErrorCodes.IO_ERROR,
+          message,
+          Map.of("File", this.file.toString()),
+          Optional.empty(),
+          Optional.of(cause)
+        )
+      )
+    );
+    this.future.completeExceptionally(cause);
+  }
+
+  private static Throwable causeOf(
+    final Throwable exception)
+  {
+    if (exception instanceof CompletionException && exception.getCause() != null) {
+      return exception.getCause();
+    }
+    return exception;
+  }
+
+  private void closeQuietly()
+  {
+    if (this.writer == null) {
+      return;
+    }
+
+    try {
+      this.writer.close();
+    } catch (final IOException e) {
+      LOG.debug("unable to delete temporary file: ", e);
+    }
+  }
+}
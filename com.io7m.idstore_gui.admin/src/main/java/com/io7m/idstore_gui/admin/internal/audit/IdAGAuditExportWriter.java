@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.model.IdAuditEvent;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * <p>A writer of audit events.</p>
+ *
+ * <p>Events are written one at a time through a buffered writer on top of a
+ * file channel, so the memory used is independent of the number of events
+ * written. Events are written to a temporary file next to the output file,
+ * and the temporary file only replaces the output file when the writer is
+ * committed. Closing an uncommitted writer deletes the temporary file.</p>
+ */
+
+public final class IdAGAuditExportWriter implements Closeable
+{
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path file;
+  private final Path fileTmp;
+  private final IdAGAuditExportFormat format;
+  private final FileChannel channel;
+  private final BufferedWriter writer;
+  private final StringBuilder line;
+  private long eventCount;
+  private boolean committed;
+
+  private IdAGAuditExportWriter(
+    final Path inFile,
+    final Path inFileTmp,
+    final IdAGAuditExportFormat inFormat,
+    final FileChannel inChannel)
+  {
+    this.file =
+      Objects.requireNonNull(inFile, "file");
+    this.fileTmp =
+      Objects.requireNonNull(inFileTmp, "fileTmp");
+    this.format =
+      Objects.requireNonNull(inFormat, "format");
+    this.channel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.writer =
+      new BufferedWriter(Channels.newWriter(inChannel, UTF_8), BUFFER_SIZE);
+    this.line =
+      new StringBuilder(256);
+  }
+
+  /**
+   * Open a writer.
+   *
+   * @param file   The output file
+   * @param format The output format
+   *
+   * @return A writer
+   *
+   * @throws IOException On errors
+   */
+
+  public static IdAGAuditExportWriter open(
+    final Path file,
+    final IdAGAuditExportFormat format)
+    throws IOException
+  {
+    final var fileAbsolute =
+      file.toAbsolutePath();
+    final var fileTmp =
+      fileAbsolute.resolveSibling(
+        String.format("%s.%s.tmp", fileAbsolute.getFileName(), UUID.randomUUID())
+      );
+
+    final var channel =
+      FileChannel.open(fileTmp, CREATE_NEW, WRITE);
+    final var writer =
+      new IdAGAuditExportWriter(fileAbsolute, fileTmp, format, channel);
+
+    try {
+      writer.writeHeader();
+    } catch (final IOException e) {
+      writer.close();
+      throw e;
+    }
+    return writer;
+  }
+
+  private static void csvField(
+    final StringBuilder output,
+    final String text)
+  {
+    var quote = false;
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+        quote = true;
+        break;
+      }
+    }
+
+    if (!quote) {
+      output.append(text);
+      return;
+    }
+
+    output.append('"');
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      if (c == '"') {
+        output.append('"');
+      }
+      output.append(c);
+    }
+    output.append('"');
+  }
+
+  private static void jsonString(
+    final StringBuilder output,
+    final String text)
+  {
+    output.append('"');
+    for (int index = 0; index < text.length(); ++index) {
+      final var c = text.charAt(index);
+      switch (c) {
+        case '"' -> output.append("\\\"");
+        case '\\' -> output.append("\\\\");
+        case '\n' -> output.append("\\n");
+        case '\r' -> output.append("\\r");
+        case '\t' -> output.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            output.append(String.format("\\u%04x", Integer.valueOf(c)));
+          } else {
+            output.append(c);
+          }
+        }
+      }
+    }
+    output.append('"');
+  }
+
+  private void writeHeader()
+    throws IOException
+  {
+    if (this.format == IdAGAuditExportFormat.CSV) {
+      this.writer.write("id,time,owner,type,data\r\n");
+    }
+  }
+
+  /**
+   * Write an event.
+   *
+   * @param event The event
+   *
+   * @throws IOException On errors
+   */
+
+  public void write(
+    final IdAuditEvent event)
+    throws IOException
+  {
+    Objects.requireNonNull(event, "event");
+
+    final var output = this.line;
+    output.setLength(0);
+
+    switch (this.format) {
+      case CSV -> {
+        output.append(event.id());
+        output.append(',');
+        output.append(event.time());
+        output.append(',');
+        output.append(event.owner());
+        output.append(',');
+        csvField(output, event.type());
+        output.append(',');
+        csvField(output, event.data());
+        output.append("\r\n");
+      }
+      case JSON_LINES -> {
+        output.append("{\"id\":");
+        output.append(event.id());
+        output.append(",\"time\":\"");
+        output.append(event.time());
+        output.append("\",\"owner\":\"");
+        output.append(event.owner());
+        output.append("\",\"type\":");
+        jsonString(output, event.type());
+        output.append(",\"data\":");
+        jsonString(output, event.data());
+        output.append("}\n");
+      }
+    }
+
+    this.writer.append(output);
+    ++this.eventCount;
+  }
+
+  /**
+   * @return The number of events written so far
+   */
+
+  public long eventCount()
+  {
+    return this.eventCount;
+  }
+
+  /**
+   * Flush all written events to disk and replace the output file.
+   *
+   * @throws IOException On errors
+   */
+
+  public void commit()
+    throws IOException
+  {
+    this.writer.flush();
+    this.channel.force(true);
+    this.writer.close();
+    Files.move(this.fileTmp, this.file, ATOMIC_MOVE, REPLACE_EXISTING);
+    this.committed = true;
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    if (this.committed) {
+      return;
+    }
+
+    try {
+      this.writer.close();
+    } finally {
+      Files.deleteIfExists(this.fileTmp);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>The owner, type and message criteria of an audit search.</p>
+ *
+ * <p>The local audit store answers a search only if it can evaluate the
+ * criteria exactly as the server would. Owners are compared as UUIDs, and
+ * types are compared exactly. The server evaluates message criteria with a
+ * database pattern match whose case and wildcard handling are not part of
+ * the protocol, and so searches with a message criterion (or with an owner
+ * that is not a UUID) are always sent to the server.</p>
+ *
+ * @param owner   The owner, if any
+ * @param type    The type, if any
+ * @param message The message, if any
+ */
+
+public record IdAGAuditFilter(
+  Optional<String> owner,
+  Optional<String> type,
+  Optional<String> message)
+{
+  /**
+   * The owner, type and message criteria of an audit search.
+   *
+   * @param owner   The owner, if any
+   * @param type    The type, if any
+   * @param message The message, if any
+   */
+
+  public IdAGAuditFilter
+  {
+    Objects.requireNonNull(owner, "owner");
+    Objects.requireNonNull(type, "type");
+    Objects.requireNonNull(message, "message");
+  }
+
+  /**
+   * @return The owner as a UUID, if an owner is present and is a UUID
+   */
+
+  public Optional<UUID> ownerId()
+  {
+    return this.owner.flatMap(IdAGAuditFilter::parseUUID);
+  }
+
+  /**
+   * @return {@code true} if the local store can answer searches with these
+   * criteria exactly as the server would
+   */
+
+  public boolean isLocallyAnswerable()
+  {
+    if (this.message.isPresent()) {
+      return false;
+    }
+    return this.owner.isEmpty() || this.ownerId().isPresent();
+  }
+
+  /**
+   * Evaluate the criteria against an event's owner and type. The criteria
+   * must be locally answerable.
+   *
+   * @param eventOwner The event owner
+   * @param eventType  The event type
+   *
+   * @return {@code true} if the event matches
+   */
+
+  public boolean matches(
+    final UUID eventOwner,
+    final String eventType)
+  {
+    if (!this.isLocallyAnswerable()) {
+      throw new IllegalStateException(
+        "Criteria %s cannot be evaluated locally.".formatted(this));
+    }
+
+    final var ownerId = this.ownerId();
+    if (ownerId.isPresent() && !ownerId.get().equals(eventOwner)) {
+      return false;
+    }
+    return this.type.isEmpty() || this.type.get().equals(eventType);
+  }
+
+  private static Optional<UUID> parseUUID(
+    final String text)
+  {
+    try {
+      return Optional.of(UUID.fromString(text.trim()));
+    } catch (final IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
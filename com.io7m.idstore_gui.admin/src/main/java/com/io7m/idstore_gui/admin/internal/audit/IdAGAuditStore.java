@@ -0,0 +1,719 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdTimeRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * <p>A local, disk-backed mirror of the audit events of a single server.</p>
+ *
+ * <p>Events are appended to a single segment file, and are never modified
+ * or removed individually. Each event is stored at most once, keyed by its
+ * (server assigned, monotonically increasing) ID. Indexes by ID, time, owner
+ * and type are held in memory and are rebuilt by scanning the segment file
+ * when the store is opened; a partially written record at the end of the
+ * segment file (left by a crash, for example) is discarded.</p>
+ *
+ * <p>The store holds at most a fixed number of events, so that the memory
+ * used by the indexes is bounded. Appending an event to a full store
+ * discards the entire contents of the store (including its coverage) and
+ * starts again, incrementing the store's generation.</p>
+ *
+ * <p>The store additionally records the time ranges for which it is known
+ * to hold every event that exists on the server. Searches can only be
+ * answered locally when the searched time range is entirely covered, and
+ * the search criteria are locally answerable (see
+ * {@link IdAGAuditFilter}).</p>
+ */
+
+public final class IdAGAuditStore implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditStore.class);
+
+  private static final int RECORD_FIXED_SIZE =
+    8 + 8 + 4 + 4 + 8 + 8 + 4 + 4;
+
+  /**
+   * The default maximum number of events held in a store.
+   */
+
+  public static final int DEFAULT_CAPACITY = 500_000;
+
+  private final Path segmentFile;
+  private final Path coverageFile;
+  private final FileChannel channel;
+  private final int capacity;
+  private final TreeMap<Long, Entry> entriesById;
+  private final TreeMap<Instant, List<Long>> idsByTime;
+  private final HashMap<UUID, List<Long>> idsByOwner;
+  private final HashMap<String, List<Long>> idsByType;
+  private final TreeMap<Instant, Instant> coverage;
+  private long segmentSize;
+  private long generation;
+
+  private IdAGAuditStore(
+    final Path inSegmentFile,
+    final Path inCoverageFile,
+    final FileChannel inChannel,
+    final int inCapacity)
+  {
+    this.capacity =
+      Math.max(1, inCapacity);
+    this.segmentFile =
+      Objects.requireNonNull(inSegmentFile, "segmentFile");
+    this.coverageFile =
+      Objects.requireNonNull(inCoverageFile, "coverageFile");
+    this.channel =
+      Objects.requireNonNull(inChannel, "channel");
+    this.entriesById =
+      new TreeMap<>();
+    this.idsByTime =
+      new TreeMap<>();
+    this.idsByOwner =
+      new HashMap<>();
+    this.idsByType =
+      new HashMap<>();
+    this.coverage =
+      new TreeMap<>();
+  }
+
+  /**
+   * Open (or create) a store in the given directory, with the default
+   * capacity.
+   *
+   * @param directory The directory
+   *
+   * @return A store
+   *
+   * @throws IOException On errors
+   */
+
+  public static IdAGAuditStore open(
+    final Path directory)
+    throws IOException
+  {
+    return open(directory, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Open (or create) a store in the given directory.
+   *
+   * @param directory The directory
+   * @param capacity  The maximum number of events held in the store
+   *
+   * @return A store
+   *
+   * @throws IOException On errors
+   */
+
+  public static IdAGAuditStore open(
+    final Path directory,
+    final int capacity)
+    throws IOException
+  {
+    Files.createDirectories(directory);
+
+    final var segmentFile =
+      directory.resolve("events.seg");
+    final var coverageFile =
+      directory.resolve("coverage.txt");
+    final var channel =
+      FileChannel.open(segmentFile, CREATE, READ, WRITE);
+
+    final var store =
+      new IdAGAuditStore(segmentFile, coverageFile, channel, capacity);
+
+    try {
+      store.loadSegment();
+      store.loadCoverage();
+      if (store.entriesById.size() > store.capacity) {
+        store.discard();
+      }
+    } catch (final IOException e) {
+      channel.close();
+      throw e;
+    }
+    return store;
+  }
+
+  private static byte[] encode(
+    final IdAuditEvent event)
+  {
+    final var type =
+      event.type().getBytes(UTF_8);
+    final var data =
+      event.data().getBytes(UTF_8);
+    final var time =
+      event.time();
+    final var instant =
+      time.toInstant();
+
+    final var buffer =
+      ByteBuffer.allocate(4 + RECORD_FIXED_SIZE + type.length + data.length);
+
+    buffer.putInt(RECORD_FIXED_SIZE + type.length + data.length);
+    buffer.putLong(event.id());
+    buffer.putLong(instant.getEpochSecond());
+    buffer.putInt(instant.getNano());
+    buffer.putInt(time.getOffset().getTotalSeconds());
+    buffer.putLong(event.owner().getMostSignificantBits());
+    buffer.putLong(event.owner().getLeastSignificantBits());
+    buffer.putInt(type.length);
+    buffer.put(type);
+    buffer.putInt(data.length);
+    buffer.put(data);
+    return buffer.array();
+  }
+
+  private static IdAuditEvent decode(
+    final ByteBuffer body)
+  {
+    final var id =
+      body.getLong();
+    final var seconds =
+      body.getLong();
+    final var nanos =
+      body.getInt();
+    final var offset =
+      ZoneOffset.ofTotalSeconds(body.getInt());
+    final var owner =
+      new UUID(body.getLong(), body.getLong());
+
+    final var type = new byte[body.getInt()];
+    body.get(type);
+    final var data = new byte[body.getInt()];
+    body.get(data);
+
+    return new IdAuditEvent(
+      id,
+      owner,
+      OffsetDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), offset),
+      new String(type, UTF_8),
+      new String(data, UTF_8)
+    );
+  }
+
+  private static OffsetDateTime toTime(
+    final Instant instant)
+  {
+    return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+  }
+
+  private void loadSegment()
+    throws IOException
+  {
+    final var size = this.channel.size();
+    final var header = ByteBuffer.allocate(4);
+
+    var position = 0L;
+    while (position + 4L <= size) {
+      header.clear();
+      this.readFully(header, position);
+      header.flip();
+
+      final var length = header.getInt();
+      if (length < RECORD_FIXED_SIZE || position + 4L + length > size) {
+        break;
+      }
+
+      final var body = ByteBuffer.allocate(length);
+      this.readFully(body, position + 4L);
+      body.flip();
+
+      final IdAuditEvent event;
+      try {
+        event = decode(body);
+      } catch (final RuntimeException e) {
+        break;
+      }
+
+      this.index(event, position);
+      position += 4L + length;
+    }
+
+    if (position != size) {
+      LOG.warn(
+        "{}: discarding {} bytes of incomplete data",
+        this.segmentFile,
+        Long.valueOf(size - position)
+      );
+      this.channel.truncate(position);
+    }
+    this.segmentSize = position;
+  }
+
+  private void loadCoverage()
+    throws IOException
+  {
+    if (!Files.exists(this.coverageFile)) {
+      return;
+    }
+
+    for (final var line : Files.readAllLines(this.coverageFile, UTF_8)) {
+      final var parts = line.trim().split("\\s+");
+      if (parts.length != 2) {
+        continue;
+      }
+      this.coverage.put(Instant.parse(parts[0]), Instant.parse(parts[1]));
+    }
+  }
+
+  private void readFully(
+    final ByteBuffer buffer,
+    final long position)
+    throws IOException
+  {
+    var offset = position;
+    while (buffer.hasRemaining()) {
+      final var count = this.channel.read(buffer, offset);
+      if (count < 0) {
+        throw new IOException(
+          "Unexpected end of file in %s".formatted(this.segmentFile));
+      }
+      offset += count;
+    }
+  }
+
+  private void index(
+    final IdAuditEvent event,
+    final long offset)
+  {
+    final var id =
+      Long.valueOf(event.id());
+    final var time =
+      event.time().toInstant();
+    final var owner =
+      this.idsByOwner.computeIfAbsent(
+        event.owner(), k -> new ArrayList<>());
+    final var type =
+      this.idsByType.computeIfAbsent(
+        event.type(), k -> new ArrayList<>());
+
+    owner.add(id);
+    type.add(id);
+    this.idsByTime.computeIfAbsent(time, k -> new ArrayList<>(1)).add(id);
+    this.entriesById.put(
+      id,
+      new Entry(offset, time, event.owner(), event.type())
+    );
+  }
+
+  /**
+   * Append an event to the store, if the store does not already contain
+   * an event with the same ID. If the store is full, its contents are
+   * discarded first.
+   *
+   * @param event The event
+   *
+   * @return {@code true} if the event was appended
+   *
+   * @throws IOException On errors
+   */
+
+  public synchronized boolean append(
+    final IdAuditEvent event)
+    throws IOException
+  {
+    Objects.requireNonNull(event, "event");
+
+    if (this.entriesById.containsKey(Long.valueOf(event.id()))) {
+      return false;
+    }
+
+    if (this.entriesById.size() >= this.capacity) {
+      LOG.info(
+        "{}: store is full ({} events), discarding",
+        this.segmentFile,
+        Integer.valueOf(this.capacity)
+      );
+      this.discard();
+    }
+
+    final var buffer = ByteBuffer.wrap(encode(event));
+    final var offset = this.segmentSize;
+    var position = offset;
+    while (buffer.hasRemaining()) {
+      position += this.channel.write(buffer, position);
+    }
+
+    this.segmentSize = position;
+    this.index(event, offset);
+    return true;
+  }
+
+  private void discard()
+    throws IOException
+  {
+    this.channel.truncate(0L);
+    this.segmentSize = 0L;
+    this.entriesById.clear();
+    this.idsByTime.clear();
+    this.idsByOwner.clear();
+    this.idsByType.clear();
+    this.coverage.clear();
+    this.saveCoverage();
+    ++this.generation;
+  }
+
+  /**
+   * The generation of the store. The generation is incremented each time
+   * the contents of the store are discarded.
+   *
+   * @return The current generation
+   */
+
+  public synchronized long generation()
+  {
+    return this.generation;
+  }
+
+  /**
+   * Record that the store holds every server event in the given time
+   * range. All appended events are flushed to disk first.
+   *
+   * @param lower The lower bound
+   * @param upper The upper bound
+   *
+   * @throws IOException On errors
+   */
+
+  public synchronized void markCovered(
+    final Instant lower,
+    final Instant upper)
+    throws IOException
+  {
+    this.markCovered(lower, upper, this.generation);
+  }
+
+  /**
+   * Record that the store holds every server event in the given time
+   * range, if the store has not been discarded since the given generation.
+   * All appended events are flushed to disk first.
+   *
+   * @param lower              The lower bound
+   * @param upper              The upper bound
+   * @param expectedGeneration The generation at which fetching the range
+   *                           began
+   *
+   * @return {@code true} if the range was marked as covered
+   *
+   * @throws IOException On errors
+   */
+
+  public synchronized boolean markCovered(
+    final Instant lower,
+    final Instant upper,
+    final long expectedGeneration)
+    throws IOException
+  {
+    Objects.requireNonNull(lower, "lower");
+    Objects.requireNonNull(upper, "upper");
+
+    if (expectedGeneration != this.generation) {
+      return false;
+    }
+    if (upper.isBefore(lower)) {
+      return true;
+    }
+
+    this.channel.force(false);
+
+    var mergedLower = lower;
+    var mergedUpper = upper;
+
+    final var before = this.coverage.floorEntry(lower);
+    if (before != null && !before.getValue().isBefore(lower)) {
+      mergedLower = before.getKey();
+      if (before.getValue().isAfter(mergedUpper)) {
+        mergedUpper = before.getValue();
+      }
+      this.coverage.remove(before.getKey());
+    }
+
+    while (true) {
+      final var after = this.coverage.ceilingEntry(mergedLower);
+      if (after == null || after.getKey().isAfter(mergedUpper)) {
+        break;
+      }
+      if (after.getValue().isAfter(mergedUpper)) {
+        mergedUpper = after.getValue();
+      }
+      this.coverage.remove(after.getKey());
+    }
+
+    this.coverage.put(mergedLower, mergedUpper);
+    this.saveCoverage();
+    return true;
+  }
+
+  private void saveCoverage()
+    throws IOException
+  {
+    final var text = new StringBuilder(128);
+    for (final var entry : this.coverage.entrySet()) {
+      text.append(entry.getKey());
+      text.append(' ');
+      text.append(entry.getValue());
+      text.append('\n');
+    }
+
+    final var tmp =
+      this.coverageFile.resolveSibling(
+        String.format("%s.tmp", UUID.randomUUID()));
+
+    try {
+      Files.writeString(tmp, text, UTF_8);
+    } catch (final IOException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+
+    Files.move(tmp, this.coverageFile, ATOMIC_MOVE, REPLACE_EXISTING);
+  }
+
+  /**
+   * Determine the parts of the given time range that are not covered by
+   * the store.
+   *
+   * @param range The time range
+   *
+   * @return The uncovered parts of the range, in ascending order
+   */
+
+  public synchronized List<IdTimeRange> gaps(
+    final IdTimeRange range)
+  {
+    Objects.requireNonNull(range, "range");
+
+    final var lower = range.timeLower().toInstant();
+    final var upper = range.timeUpper().toInstant();
+    final var results = new ArrayList<IdTimeRange>();
+
+    var cursor = lower;
+    final var start = this.coverage.floorKey(lower);
+    final var covered =
+      start == null ? this.coverage : this.coverage.tailMap(start, true);
+
+    for (final var entry : covered.entrySet()) {
+      final var coveredLower = entry.getKey();
+      final var coveredUpper = entry.getValue();
+      if (coveredLower.isAfter(upper)) {
+        break;
+      }
+      if (coveredLower.isAfter(cursor)) {
+        results.add(new IdTimeRange(toTime(cursor), toTime(coveredLower)));
+      }
+      if (coveredUpper.isAfter(cursor)) {
+        cursor = coveredUpper;
+      }
+      if (!cursor.isBefore(upper)) {
+        return List.copyOf(results);
+      }
+    }
+
+    if (cursor.isBefore(upper)) {
+      results.add(new IdTimeRange(toTime(cursor), toTime(upper)));
+    }
+    return List.copyOf(results);
+  }
+
+  /**
+   * Search the store. The criteria must be locally answerable.
+   *
+   * @param range  The time range
+   * @param filter The owner and type criteria
+   *
+   * @return The IDs of the matching events, in ascending order
+   *
+   * @see IdAGAuditFilter#isLocallyAnswerable()
+   */
+
+  public synchronized long[] search(
+    final IdTimeRange range,
+    final IdAGAuditFilter filter)
+  {
+    Objects.requireNonNull(range, "range");
+    Objects.requireNonNull(filter, "filter");
+
+    if (!filter.isLocallyAnswerable()) {
+      throw new IllegalArgumentException(
+        "Criteria %s cannot be evaluated locally.".formatted(filter));
+    }
+
+    final var lower =
+      range.timeLower().toInstant();
+    final var upper =
+      range.timeUpper().toInstant();
+    final var ownerId =
+      filter.ownerId();
+
+    /*
+     * Start from the most selective index available, and filter the
+     * candidates by every other criterion.
+     */
+
+    final Iterable<Long> candidates;
+    if (ownerId.isPresent()) {
+      candidates = this.idsByOwner.getOrDefault(ownerId.get(), List.of());
+    } else if (filter.type().isPresent()) {
+      candidates = this.idsByType.getOrDefault(filter.type().get(), List.of());
+    } else {
+      final var ids = new ArrayList<Long>();
+      final var times =
+        this.idsByTime.subMap(lower, true, upper, true);
+      for (final var timeIds : times.values()) {
+        ids.addAll(timeIds);
+      }
+      candidates = ids;
+    }
+
+    var results = new long[64];
+    var count = 0;
+    for (final var id : candidates) {
+      final var entry = this.entriesById.get(id);
+      if (entry.time.isBefore(lower) || entry.time.isAfter(upper)) {
+        continue;
+      }
+      if (!filter.matches(entry.owner, entry.type)) {
+        continue;
+      }
+
+      if (count == results.length) {
+        results = Arrays.copyOf(results, count * 2);
+      }
+      results[count] = id.longValue();
+      ++count;
+    }
+
+    final var sorted = Arrays.copyOf(results, count);
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Read the events with the given IDs.
+   *
+   * @param ids The event IDs
+   *
+   * @return The events, in the order of the given IDs
+   *
+   * @throws IOException On errors
+   */
+
+  public synchronized List<IdAuditEvent> read(
+    final long[] ids)
+    throws IOException
+  {
+    Objects.requireNonNull(ids, "ids");
+
+    final var results = new ArrayList<IdAuditEvent>(ids.length);
+    for (final var id : ids) {
+      final var entry = this.entriesById.get(Long.valueOf(id));
+      if (entry == null) {
+        throw new IOException("No event with ID %d".formatted(Long.valueOf(id)));
+      }
+      results.add(this.readAt(entry.offset));
+    }
+    return List.copyOf(results);
+  }
+
+  private IdAuditEvent readAt(
+    final long offset)
+    throws IOException
+  {
+    final var header = ByteBuffer.allocate(4);
+    this.readFully(header, offset);
+    header.flip();
+
+    final var body = ByteBuffer.allocate(header.getInt());
+    this.readFully(body, offset + 4L);
+    body.flip();
+    return decode(body);
+  }
+
+  /**
+   * @return The number of events in the store
+   */
+
+  public synchronized int size()
+  {
+    return this.entriesById.size();
+  }
+
+  /**
+   * @return The time ranges covered by the store
+   */
+
+  public synchronized Map<Instant, Instant> coverage()
+  {
+    return Map.copyOf(this.coverage);
+  }
+
+  @Override
+  public synchronized void close()
+    throws IOException
+  {
+    this.channel.close();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGAuditStore %s]",
+      this.segmentFile
+    );
+  }
+
+  private record Entry(
+    long offset,
+    Instant time,
+    UUID owner,
+    String type)
+  {
+
+  }
+}
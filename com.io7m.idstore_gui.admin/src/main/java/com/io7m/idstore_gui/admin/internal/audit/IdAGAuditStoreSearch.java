@@ -0,0 +1,180 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.paging.IdAGPageSourceType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>An audit search answered entirely from a local audit event store.
+ * Unlike server searches, any page can be fetched directly.</p>
+ *
+ * <p>The search holds the IDs of the events it found. If the store is
+ * discarded after the search began (see {@link IdAGAuditStore#generation()}),
+ * the search is no longer current and its pages fail; the search must then
+ * be repeated against the server.</p>
+ */
+
+public final class IdAGAuditStoreSearch
+  implements IdAGPageSourceType<IdAuditEvent>
+{
+  private final IdAGAuditStore store;
+  private final long generation;
+  private final IdTimeRange timeRange;
+  private final IdAGAuditFilter filter;
+  private final long[] ids;
+  private final int pageSize;
+  private final Executor executor;
+
+  private IdAGAuditStoreSearch(
+    final IdAGAuditStore inStore,
+    final long inGeneration,
+    final IdTimeRange inTimeRange,
+    final IdAGAuditFilter inFilter,
+    final long[] inIds,
+    final int inPageSize,
+    final Executor inExecutor)
+  {
+    this.store =
+      Objects.requireNonNull(inStore, "store");
+    this.generation =
+      inGeneration;
+    this.timeRange =
+      Objects.requireNonNull(inTimeRange, "timeRange");
+    this.filter =
+      Objects.requireNonNull(inFilter, "filter");
+    this.ids =
+      Objects.requireNonNull(inIds, "ids");
+    this.pageSize =
+      Math.max(1, inPageSize);
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+  }
+
+  /**
+   * Search the given store.
+   *
+   * @param store     The store
+   * @param executor  The executor on which the store is read
+   * @param pageSize  The number of events per page
+   * @param timeRange The time range
+   * @param filter    The owner and type criteria, which must be locally
+   *                  answerable
+   *
+   * @return A future representing the search in progress
+   */
+
+  public static CompletableFuture<IdAGAuditStoreSearch> begin(
+    final IdAGAuditStore store,
+    final Executor executor,
+    final int pageSize,
+    final IdTimeRange timeRange,
+    final IdAGAuditFilter filter)
+  {
+    return CompletableFuture.supplyAsync(() -> {
+      synchronized (store) {
+        return new IdAGAuditStoreSearch(
+          store,
+          store.generation(),
+          timeRange,
+          filter,
+          store.search(timeRange, filter),
+          pageSize,
+          executor
+        );
+      }
+    }, executor);
+  }
+
+  /**
+   * @return The time range searched
+   */
+
+  public IdTimeRange timeRange()
+  {
+    return this.timeRange;
+  }
+
+  /**
+   * @return The criteria searched
+   */
+
+  public IdAGAuditFilter filter()
+  {
+    return this.filter;
+  }
+
+  /**
+   * @return {@code true} if the store has not been discarded since the
+   * search began
+   */
+
+  public boolean isCurrent()
+  {
+    return this.store.generation() == this.generation;
+  }
+
+  /**
+   * @return The number of pages in the search
+   */
+
+  public int pageCount()
+  {
+    return Math.max(1, (this.ids.length + this.pageSize - 1) / this.pageSize);
+  }
+
+  @Override
+  public CompletableFuture<IdPage<IdAuditEvent>> page(
+    final int pageIndex)
+  {
+    final var index =
+      Math.max(1, Math.min(pageIndex, this.pageCount()));
+    final var from =
+      Math.min(this.ids.length, (index - 1) * this.pageSize);
+    final var to =
+      Math.min(this.ids.length, from + this.pageSize);
+
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        synchronized (this.store) {
+          if (!this.isCurrent()) {
+            throw new IOException(
+              "The audit store has been discarded since the search began.");
+          }
+          return new IdPage<>(
+            this.store.read(Arrays.copyOfRange(this.ids, from, to)),
+            index,
+            this.pageCount(),
+            from
+          );
+        }
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, this.executor);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.repetoir.core.RPServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A service that provides local audit event stores, one per server, in the
+ * application's cache directory.
+ */
+
+public final class IdAGAuditStoreService
+  implements RPServiceType, AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditStoreService.class);
+
+  private final Path directory;
+  private final Map<URI, IdAGAuditStore> stores;
+
+  /**
+   * A service that provides local audit event stores.
+   *
+   * @param configuration The application configuration
+   */
+
+  public IdAGAuditStoreService(
+    final IdAGConfiguration configuration)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+
+    this.directory =
+      configuration.directories()
+        .cacheDirectory()
+        .resolve("audit");
+    this.stores =
+      new HashMap<>();
+  }
+
+  private static String directoryNameOf(
+    final URI server)
+  {
+    try {
+      final var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of()
+        .formatHex(digest.digest(server.toString().getBytes(UTF_8)));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Open the store for the given server, if it is not already open.
+   *
+   * @param server The server
+   *
+   * @return The store
+   *
+   * @throws IOException On errors
+   */
+
+  public synchronized IdAGAuditStore storeFor(
+    final URI server)
+    throws IOException
+  {
+    Objects.requireNonNull(server, "server");
+
+    final var existing = this.stores.get(server);
+    if (existing != null) {
+      return existing;
+    }
+
+    final var store =
+      IdAGAuditStore.open(this.directory.resolve(directoryNameOf(server)));
+    this.stores.put(server, store);
+    return store;
+  }
+
+  @Override
+  public synchronized void close()
+  {
+    for (final var store : this.stores.values()) {
+      try {
+        store.close();
+      } catch (final IOException e) {
+        LOG.debug("unable to close audit store: ", e);
+      }
+    }
+    this.stores.clear();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGAuditStoreService 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+
+  @Override
+  public String description()
+  {
+    return "Audit event store service";
+  }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.admin_client.api.IdAClientException;
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientConnection;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A synchronization of a local audit event store with the server.</p>
+ *
+ * <p>Each time range that the store does not cover is fetched in turn with
+ * an unfiltered audit search, one page at a time, and every event received
+ * is appended to the store. Once the last page of a range has been stored,
+ * the range is marked as covered (unless the store discarded its contents
+ * in the meantime). Events may still be arriving on the
+ * server for times close to the present (and the server's clock may differ
+ * from ours), so coverage never extends beyond a short margin before the
+ * time at which the synchronization started; the most recent part of a
+ * range is therefore fetched again on the next synchronization.</p>
+ *
+ * <p>The synchronization runs on its own client connection, and so does not
+ * disturb the operator's audit searches.</p>
+ */
+
+public final class IdAGAuditStoreSync
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditStoreSync.class);
+
+  private static final Duration COVERAGE_MARGIN =
+    Duration.ofMinutes(5L);
+
+  private final IdAGClientConnection connection;
+  private final IdAGEventBus events;
+  private final IdAGStringsType strings;
+  private final Executor executor;
+  private final IdAGAuditStore store;
+  private final List<IdTimeRange> gaps;
+  private final Instant coverageLimit;
+  private final int pageSize;
+  private final CompletableFuture<Long> future;
+  private int gapIndex;
+  private long gapGeneration;
+  private long eventCount;
+
+  private IdAGAuditStoreSync(
+    final IdAGClientConnection inConnection,
+    final IdAGEventBus inEvents,
+    final IdAGStringsType inStrings,
+    final Executor inExecutor,
+    final IdAGAuditStore inStore,
+    final List<IdTimeRange> inGaps,
+    final int inPageSize)
+  {
+    this.connection =
+      Objects.requireNonNull(inConnection, "connection");
+    this.events =
+      Objects.requireNonNull(inEvents, "events");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.store =
+      Objects.requireNonNull(inStore, "store");
+    this.gaps =
+      List.copyOf(inGaps);
+    this.pageSize =
+      Math.max(1, inPageSize);
+    this.coverageLimit =
+      Instant.now().minus(COVERAGE_MARGIN);
+    this.future =
+      new CompletableFuture<>();
+  }
+
+  /**
+   * Start fetching the given time ranges into the store. Failures are
+   * published on the event bus and cause the returned future to fail.
+   *
+   * @param connection The client connection
+   * @param events     The event bus
+   * @param strings    The strings
+   * @param executor   The executor on which events are stored
+   * @param store      The store
+   * @param gaps       The time ranges not covered by the store
+   * @param pageSize   The number of events requested per page
+   *
+   * @return A future that completes with the number of events fetched
+   */
+
+  public static CompletableFuture<Long> start(
+    final IdAGClientConnection connection,
+    final IdAGEventBus events,
+    final IdAGStringsType strings,
+    final Executor executor,
+    final IdAGAuditStore store,
+    final List<IdTimeRange> gaps,
+    final int pageSize)
+  {
+    final var sync =
+      new IdAGAuditStoreSync(
+        connection,
+        events,
+        strings,
+        executor,
+        store,
+        gaps,
+        pageSize
+      );
+
+    if (sync.gaps.isEmpty()) {
+      sync.future.complete(Long.valueOf(0L));
+      return sync.future;
+    }
+
+    sync.publishProgress(OptionalDouble.empty());
+    sync.gapBegin();
+    return sync.future;
+  }
+
+  private void gapBegin()
+  {
+    this.gapGeneration = this.store.generation();
+    this.connection.auditSearchBegin(
+        this.gaps.get(this.gapIndex),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        this.pageSize)
+      .whenCompleteAsync(this::onPageReceived, this.executor);
+  }
+
+  private void onPageReceived(
+    final IdPage<IdAuditEvent> page,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      this.finishFailed(exception);
+      return;
+    }
+
+    try {
+      for (final var event : page.items()) {
+        if (this.store.append(event)) {
+          ++this.eventCount;
+        }
+      }
+    } catch (final IOException e) {
+      this.finishFailed(e);
+      return;
+    }
+
+    final var pageIndex = page.pageIndex();
+    final var pageCount = page.pageCount();
+    if (pageIndex < pageCount) {
+      this.publishProgress(this.progress(pageIndex, pageCount));
+      this.connection.auditSearchNext()
+        .whenCompleteAsync(this::onPageReceived, this.executor);
+      return;
+    }
+
+    try {
+      this.gapCovered(this.gaps.get(this.gapIndex));
+    } catch (final IOException e) {
+      this.finishFailed(e);
+      return;
+    }
+
+    ++this.gapIndex;
+    if (this.gapIndex < this.gaps.size()) {
+      this.publishProgress(this.progress(0, 1));
+      this.gapBegin();
+      return;
+    }
+
+    this.finishCompleted();
+  }
+
+  private void gapCovered(
+    final IdTimeRange gap)
+    throws IOException
+  {
+    final var lower = gap.timeLower().toInstant();
+    final var upper = gap.timeUpper().toInstant();
+    final var limit =
+      upper.isAfter(this.coverageLimit) ? this.coverageLimit : upper;
+
+    if (!this.store.markCovered(lower, limit, this.gapGeneration)) {
+      LOG.debug("store was discarded whilst fetching {}", gap);
+    }
+  }
+
+  private OptionalDouble progress(
+    final int pageIndex,
+    final int pageCount)
+  {
+    final var gapCount = (double) this.gaps.size();
+    final var gapProgress = (double) pageIndex / (double) pageCount;
+    return OptionalDouble.of(((double) this.gapIndex + gapProgress) / gapCount);
+  }
+
+  private void publishProgress(
+    final OptionalDouble progress)
+  {
+    this.events.submit(
+      new IdAGAuditStoreSyncEvent(
+        this.strings.format(
+          "audit.sync.progress",
+          Long.valueOf(this.eventCount)),
+        new IdAGEventStatusInProgress(progress)
+      )
+    );
+  }
+
+  private void finishCompleted()
+  {
+    this.events.submit(
+      new IdAGAuditStoreSyncEvent(
+        this.strings.format(
+          "audit.sync.completed",
+          Long.valueOf(this.eventCount)),
+        new IdAGEventStatusCompleted()
+      )
+    );
+    this.future.complete(Long.valueOf(this.eventCount));
+  }
+
+  private void finishFailed(
+    final Throwable exception)
+  {
+    final Throwable cause;
+    if (exception instanceof CompletionException && exception.getCause() != null) {
+      cause = exception.getCause();
+    } else {
+      cause = exception;
+    }
+
+    final var message =
+      this.strings.format("audit.sync.failed", cause.getMessage());
+
+    /*
+     * The synchronization runs in the background and searches are answered
+     * by the server until it succeeds, so client errors are only reported
+     * in the status bar. Local I/O errors are reported in full.
+     */
+
+    if (cause instanceof IdAClientException) {
+      LOG.warn("audit synchronization failed: ", cause);
+      this.events.submit(
+        new IdAGAuditStoreSyncEvent(message, new IdAGEventStatusCancelled())
+      );
+      this.future.completeExceptionally(cause);
+      return;
+    }
+
+    final var recorder =
+      TRTaskRecorder.create(LOG, "Synchronizing audit events...");
+    recorder.setStepFailed(message);
+    recorder.setTaskFailed(message, Optional.of(cause));
+    final var task = recorder.toTask();
+
+    this.events.submit(
+      new IdAGAuditStoreSyncEvent(
+        message,
+        new IdAGEventStatusFailed(
+          task,
+          IdStandardErrorCodes.IO_ERROR,
+          message,
+          Map.of("Store", this.store.toString()),
+          Optional.empty(),
+          Optional.of(cause)
+        )
+      )
+    );
+    this.future.completeExceptionally(cause);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+
+/**
+ * The comparators and cell value factories for the columns of the audit
+ * event table.
+ */
+
+public final class IdAGAuditTableColumns
+{
+  /**
+   * The ID column comparator.
+   */
+
+  public static final Comparator<Long> ID_COMPARATOR =
+    Long::compareUnsigned;
+
+  /**
+   * The time column comparator.
+   */
+
+  public static final Comparator<OffsetDateTime> TIME_COMPARATOR =
+    OffsetDateTime::compareTo;
+
+  /**
+   * The comparator for the owner, type, and message columns.
+   */
+
+  public static final Comparator<String> TEXT_COMPARATOR =
+    String::compareToIgnoreCase;
+
+  private IdAGAuditTableColumns()
+  {
+
+  }
+
+  /**
+   * @param param The cell
+   *
+   * @return The ID of the cell's event
+   */
+
+  public static ObservableValue<Long> id(
+    final CellDataFeatures<IdAuditEvent, Long> param)
+  {
+    return new SimpleObjectProperty<>(Long.valueOf(param.getValue().id()));
+  }
+
+  /**
+   * @param param The cell
+   *
+   * @return The time of the cell's event
+   */
+
+  public static ObservableValue<OffsetDateTime> time(
+    final CellDataFeatures<IdAuditEvent, OffsetDateTime> param)
+  {
+    return new SimpleObjectProperty<>(param.getValue().time());
+  }
+
+  /**
+   * @param param The cell
+   *
+   * @return The owner of the cell's event
+   */
+
+  public static ObservableValue<String> owner(
+    final CellDataFeatures<IdAuditEvent, String> param)
+  {
+    return new SimpleStringProperty(param.getValue().owner().toString());
+  }
+
+  /**
+   * @param param The cell
+   *
+   * @return The type of the cell's event
+   */
+
+  public static ObservableValue<String> type(
+    final CellDataFeatures<IdAuditEvent, String> param)
+  {
+    return new SimpleStringProperty(param.getValue().type());
+  }
+
+  /**
+   * @param param The cell
+   *
+   * @return The message of the cell's event
+   */
+
+  public static ObservableValue<String> message(
+    final CellDataFeatures<IdAuditEvent, String> param)
+  {
+    return new SimpleStringProperty(param.getValue().data());
+  }
+}
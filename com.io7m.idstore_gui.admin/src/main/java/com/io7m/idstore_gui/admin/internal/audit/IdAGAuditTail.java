@@ -0,0 +1,303 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.audit;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientConnection;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * <p>A follower of the audit log.</p>
+ *
+ * <p>The tail periodically searches for audit events no older than the
+ * newest event it has seen, and passes on only those events with IDs
+ * greater than the greatest ID it has seen, in ID order. If a poll fails,
+ * the time until the next poll is doubled up to a configured maximum, and
+ * is reset to the configured poll interval after the next successful
+ * poll.</p>
+ *
+ * <p>The tail polls on its own client connection, and so does not disturb
+ * the client's audit search or its page cache. The connection is opened
+ * on the first poll, and is closed and reopened on the next poll if a poll
+ * fails.</p>
+ */
+
+public final class IdAGAuditTail
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGAuditTail.class);
+
+  private final IdAGClientService client;
+  private final ScheduledExecutorService executor;
+  private final IdAGPreferencesAuditTail settings;
+  private final Optional<String> owner;
+  private final Optional<String> type;
+  private final Optional<String> message;
+  private final int pageSize;
+  private final Consumer<List<IdAuditEvent>> receiver;
+  private final AtomicBoolean cancelled;
+  private final ArrayList<IdAuditEvent> received;
+  private volatile ScheduledFuture<?> scheduled;
+  private IdAGClientConnection connection;
+  private long lastId;
+  private OffsetDateTime lastTime;
+  private Duration delay;
+
+  private IdAGAuditTail(
+    final IdAGClientService inClient,
+    final ScheduledExecutorService inExecutor,
+    final IdAGPreferencesAuditTail inSettings,
+    final Optional<String> inOwner,
+    final Optional<String> inType,
+    final Optional<String> inMessage,
+    final int inPageSize,
+    final long inLastId,
+    final OffsetDateTime inLastTime,
+    final Consumer<List<IdAuditEvent>> inReceiver)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.settings =
+      Objects.requireNonNull(inSettings, "settings");
+    this.owner =
+      Objects.requireNonNull(inOwner, "owner");
+    this.type =
+      Objects.requireNonNull(inType, "type");
+    this.message =
+      Objects.requireNonNull(inMessage, "message");
+    this.lastTime =
+      Objects.requireNonNull(inLastTime, "lastTime");
+    this.receiver =
+      Objects.requireNonNull(inReceiver, "receiver");
+    this.pageSize =
+      Math.max(1, inPageSize);
+    this.lastId =
+      inLastId;
+    this.delay =
+      inSettings.pollInterval();
+    this.cancelled =
+      new AtomicBoolean(false);
+    this.received =
+      new ArrayList<>();
+  }
+
+  /**
+   * Start following the audit log. The first poll happens immediately.
+   *
+   * @param client   The client
+   * @param executor The executor on which polls are scheduled
+   * @param settings The poll settings
+   * @param owner    The owner
+   * @param type     The type
+   * @param message  The message
+   * @param pageSize The number of events requested per page
+   * @param lastId   The greatest event ID already seen
+   * @param lastTime The time of the newest event already seen
+   * @param receiver A receiver of new events, called on the executor
+   *
+   * @return The tail
+   */
+
+  public static IdAGAuditTail start(
+    final IdAGClientService client,
+    final ScheduledExecutorService executor,
+    final IdAGPreferencesAuditTail settings,
+    final Optional<String> owner,
+    final Optional<String> type,
+    final Optional<String> message,
+    final int pageSize,
+    final long lastId,
+    final OffsetDateTime lastTime,
+    final Consumer<List<IdAuditEvent>> receiver)
+  {
+    final var tail =
+      new IdAGAuditTail(
+        client,
+        executor,
+        settings,
+        owner,
+        type,
+        message,
+        pageSize,
+        lastId,
+        lastTime,
+        receiver
+      );
+
+    tail.scheduled = executor.schedule(tail::poll, 0L, TimeUnit.MILLISECONDS);
+    return tail;
+  }
+
+  /**
+   * Stop following the audit log. A poll that is in progress is
+   * abandoned, and the tail's connection is closed.
+   */
+
+  public void cancel()
+  {
+    this.cancelled.set(true);
+
+    final var future = this.scheduled;
+    if (future != null) {
+      future.cancel(false);
+    }
+    this.executor.execute(this::connectionClose);
+  }
+
+  private void connectionClose()
+  {
+    if (this.connection != null) {
+      this.connection.close();
+      this.connection = null;
+    }
+  }
+
+  private void poll()
+  {
+    if (this.cancelled.get()) {
+      return;
+    }
+
+    if (this.connection == null) {
+      this.client.openConnection()
+        .whenCompleteAsync(this::onConnected, this.executor);
+      return;
+    }
+
+    this.received.clear();
+    this.connection.auditSearchBegin(
+        new IdTimeRange(this.lastTime, IdTimeRange.largest().timeUpper()),
+        this.owner,
+        this.type,
+        this.message,
+        this.pageSize)
+      .whenCompleteAsync(this::onPageReceived, this.executor);
+  }
+
+  private void onConnected(
+    final IdAGClientConnection newConnection,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      this.onPollFailed(exception);
+      return;
+    }
+
+    this.connection = newConnection;
+    if (this.cancelled.get()) {
+      this.connectionClose();
+      return;
+    }
+    this.poll();
+  }
+
+  private void onPageReceived(
+    final IdPage<IdAuditEvent> page,
+    final Throwable exception)
+  {
+    if (this.cancelled.get()) {
+      return;
+    }
+
+    if (exception != null) {
+      this.onPollFailed(exception);
+      return;
+    }
+
+    for (final var event : page.items()) {
+      if (event.id() > this.lastId) {
+        this.received.add(event);
+      }
+    }
+
+    if (page.pageIndex() < page.pageCount()) {
+      this.connection.auditSearchNext()
+        .whenCompleteAsync(this::onPageReceived, this.executor);
+      return;
+    }
+
+    this.onPollCompleted();
+  }
+
+  private void onPollCompleted()
+  {
+    if (!this.received.isEmpty()) {
+      this.received.sort(Comparator.comparingLong(IdAuditEvent::id));
+
+      final var newest = this.received.get(this.received.size() - 1);
+      this.lastId = newest.id();
+      this.lastTime = newest.time();
+      this.receiver.accept(List.copyOf(this.received));
+      this.received.clear();
+    }
+
+    this.delay = this.settings.pollInterval();
+    this.schedule();
+  }
+
+  private void onPollFailed(
+    final Throwable exception)
+  {
+    this.connectionClose();
+
+    final var doubled = this.delay.multipliedBy(2L);
+    final var maximum = this.settings.backoffMaximum();
+    this.delay = doubled.compareTo(maximum) > 0 ? maximum : doubled;
+
+    LOG.debug(
+      "audit poll failed, retrying in {}ms: ",
+      Long.valueOf(this.delay.toMillis()),
+      exception
+    );
+    this.schedule();
+  }
+
+  private void schedule()
+  {
+    if (this.cancelled.get()) {
+      return;
+    }
+
+    this.scheduled =
+      this.executor.schedule(
+        this::poll,
+        this.delay.toMillis(),
+        TimeUnit.MILLISECONDS
+      );
+  }
+}
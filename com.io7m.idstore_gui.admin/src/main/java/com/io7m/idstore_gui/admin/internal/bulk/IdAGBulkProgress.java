@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.bulk;
+
+/**
+ * The progress of a bulk operation.
+ *
+ * @param finished The number of items for which the operation has finished
+ * @param failed   The number of finished items for which the operation failed
+ * @param total    The total number of items
+ */
+
+public record IdAGBulkProgress(
+  int finished,
+  int failed,
+  int total)
+{
+  /**
+   * @return The fraction of items finished, in the range {@code [0, 1]}
+   */
+
+  public double fraction()
+  {
+    if (this.total == 0) {
+      return 1.0;
+    }
+    return (double) this.finished / (double) this.total;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.bulk;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The result of a bulk operation on a single item.
+ *
+ * @param item      The item
+ * @param attempts  The number of attempts made
+ * @param failure   The failure of the last attempt, if the operation failed
+ * @param cancelled {@code true} if the operation was cancelled before it
+ *                  could succeed or fail
+ * @param <K>       The type of items
+ */
+
+public record IdAGBulkResult<K>(
+  K item,
+  int attempts,
+  Optional<Throwable> failure,
+  boolean cancelled)
+{
+  /**
+   * The result of a bulk operation on a single item.
+   *
+   * @param item      The item
+   * @param attempts  The number of attempts made
+   * @param failure   The failure of the last attempt, if the operation failed
+   * @param cancelled {@code true} if the operation was cancelled before it
+   *                  could succeed or fail
+   */
+
+  public IdAGBulkResult
+  {
+    Objects.requireNonNull(item, "item");
+    Objects.requireNonNull(failure, "failure");
+    if (cancelled && failure.isPresent()) {
+      throw new IllegalArgumentException(
+        "A cancelled operation cannot have failed.");
+    }
+  }
+
+  /**
+   * @param item     The item
+   * @param attempts The number of attempts made
+   * @param <K>      The type of items
+   *
+   * @return A result for an operation that succeeded
+   */
+
+  public static <K> IdAGBulkResult<K> ofSuccess(
+    final K item,
+    final int attempts)
+  {
+    return new IdAGBulkResult<>(item, attempts, Optional.empty(), false);
+  }
+
+  /**
+   * @param item     The item
+   * @param attempts The number of attempts made
+   * @param failure  The failure of the last attempt
+   * @param <K>      The type of items
+   *
+   * @return A result for an operation that failed
+   */
+
+  public static <K> IdAGBulkResult<K> ofFailure(
+    final K item,
+    final int attempts,
+    final Throwable failure)
+  {
+    return new IdAGBulkResult<>(item, attempts, Optional.of(failure), false);
+  }
+
+  /**
+   * @param item     The item
+   * @param attempts The number of attempts made
+   * @param <K>      The type of items
+   *
+   * @return A result for an operation that was cancelled
+   */
+
+  public static <K> IdAGBulkResult<K> ofCancelled(
+    final K item,
+    final int attempts)
+  {
+    return new IdAGBulkResult<>(item, attempts, Optional.empty(), true);
+  }
+
+  /**
+   * @return {@code true} if the operation succeeded
+   */
+
+  public boolean succeeded()
+  {
+    return this.failure.isEmpty() && !this.cancelled;
+  }
+
+  /**
+   * @return {@code true} if the operation failed
+   */
+
+  public boolean failed()
+  {
+    return this.failure.isPresent();
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.bulk;
+
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <p>A runner that executes an operation on each of a list of items.</p>
+ *
+ * <p>At most {@link IdAGPreferencesBulk#window()} operations are in progress
+ * at any one time; as each operation finishes, the operation for the next
+ * item is started. Keeping several operations in flight hides the round trip
+ * to the server without submitting every item at once. An operation that
+ * fails with a retryable error is attempted again after a delay, up to
+ * {@link IdAGPreferencesBulk#attempts()} times in total, and the item
+ * keeps its place in the window while it waits.</p>
+ *
+ * <p>The runner never fails as a whole: the returned future completes with
+ * one result per item, in the order the items were given. Items that were
+ * not finished when the runner was cancelled have cancelled results rather
+ * than failures.</p>
+ *
+ * <p>Progress updates and the completion of the future are recorded in order
+ * while the runner's state is locked, and are delivered after the lock is
+ * released. Cancelling delivers them on the executor, so the thread that
+ * cancels the runner never runs progress receivers or completion
+ * handlers.</p>
+ *
+ * @param <K> The type of items
+ */
+
+public final class IdAGBulkRunner<K>
+{
+  private final List<K> items;
+  private final Function<K, CompletableFuture<?>> operation;
+  private final Predicate<Throwable> retryable;
+  private final IdAGPreferencesBulk settings;
+  private final ScheduledExecutorService executor;
+  private final Consumer<IdAGBulkProgress> progress;
+  private final IdAGBulkResult<K>[] results;
+  private final CompletableFuture<List<IdAGBulkResult<K>>> future;
+  private final ConcurrentLinkedQueue<Update<K>> updates;
+  private final AtomicBoolean delivering;
+  private int next;
+  private int inFlight;
+  private int finished;
+  private int failed;
+  private boolean cancelled;
+
+  @SuppressWarnings("unchecked")
+  private IdAGBulkRunner(
+    final List<K> inItems,
+    final Function<K, CompletableFuture<?>> inOperation,
+    final Predicate<Throwable> inRetryable,
+    final IdAGPreferencesBulk inSettings,
+    final ScheduledExecutorService inExecutor,
+    final Consumer<IdAGBulkProgress> inProgress)
+  {
+    this.items =
+      List.copyOf(inItems);
+    this.operation =
+      Objects.requireNonNull(inOperation, "operation");
+    this.retryable =
+      Objects.requireNonNull(inRetryable, "retryable");
+    this.settings =
+      Objects.requireNonNull(inSettings, "settings");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.progress =
+      Objects.requireNonNull(inProgress, "progress");
+    this.results =
+      new IdAGBulkResult[this.items.size()];
+    this.future =
+      new CompletableFuture<>();
+    this.updates =
+      new ConcurrentLinkedQueue<>();
+    this.delivering =
+      new AtomicBoolean(false);
+  }
+
+  /**
+   * Start executing an operation on each item.
+   *
+   * @param items     The items
+   * @param operation The operation
+   * @param retryable A predicate that returns {@code true} for failures
+   *                  that are worth retrying
+   * @param settings  The window and retry settings
+   * @param executor  The executor on which operations are started
+   * @param progress  A receiver of progress updates
+   * @param <K>       The type of items
+   *
+   * @return A runner
+   */
+
+  public static <K> IdAGBulkRunner<K> start(
+    final List<K> items,
+    final Function<K, CompletableFuture<?>> operation,
+    final Predicate<Throwable> retryable,
+    final IdAGPreferencesBulk settings,
+    final ScheduledExecutorService executor,
+    final Consumer<IdAGBulkProgress> progress)
+  {
+    final var runner =
+      new IdAGBulkRunner<>(
+        items, operation, retryable, settings, executor, progress);
+
+    synchronized (runner) {
+      runner.fill();
+      runner.checkFinished();
+    }
+    runner.executor.execute(runner::deliver);
+    return runner;
+  }
+
+  /**
+   * @return A future that completes with one result per item
+   */
+
+  public CompletableFuture<List<IdAGBulkResult<K>>> future()
+  {
+    return this.future;
+  }
+
+  /**
+   * Stop starting new operations. Operations already in progress are
+   * allowed to finish, but are not retried. Items that were never started,
+   * and items waiting to be retried, are reported as cancelled.
+   */
+
+  public void cancel()
+  {
+    synchronized (this) {
+      if (this.cancelled || this.finished == this.items.size()) {
+        return;
+      }
+
+      this.cancelled = true;
+      while (this.next < this.items.size()) {
+        final var index = this.next++;
+        this.results[index] =
+          IdAGBulkResult.ofCancelled(this.items.get(index), 0);
+        ++this.finished;
+      }
+      this.publishProgress();
+      this.checkFinished();
+    }
+    this.executor.execute(this::deliver);
+  }
+
+  private void fill()
+  {
+    while (!this.cancelled
+           && this.inFlight < this.settings.window()
+           && this.next < this.items.size()) {
+      final var index = this.next++;
+      ++this.inFlight;
+      this.executor.execute(() -> this.attempt(index, 1));
+    }
+  }
+
+  private void attempt(
+    final int index,
+    final int attempt)
+  {
+    if (attempt > 1 && this.isCancelled()) {
+      this.onAttemptCancelled(index, attempt - 1);
+      return;
+    }
+
+    CompletableFuture<?> result;
+    try {
+      result = this.operation.apply(this.items.get(index));
+    } catch (final Throwable e) {
+      result = CompletableFuture.failedFuture(e);
+    }
+
+    result.whenComplete((ignored, exception) -> {
+      this.onAttemptFinished(index, attempt, exception);
+    });
+  }
+
+  private synchronized boolean isCancelled()
+  {
+    return this.cancelled;
+  }
+
+  private void onAttemptFinished(
+    final int index,
+    final int attempt,
+    final Throwable exception)
+  {
+    synchronized (this) {
+      this.recordAttempt(index, attempt, exception);
+    }
+    this.deliver();
+  }
+
+  private void recordAttempt(
+    final int index,
+    final int attempt,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      final var cause = unwrap(exception);
+      if (!this.cancelled
+          && attempt < this.settings.attempts()
+          && this.retryable.test(cause)) {
+        final var delay =
+          this.settings.retryDelay().multipliedBy(attempt).toMillis();
+        this.executor.schedule(
+          () -> this.attempt(index, attempt + 1),
+          delay,
+          TimeUnit.MILLISECONDS
+        );
+        return;
+      }
+
+      this.results[index] =
+        IdAGBulkResult.ofFailure(this.items.get(index), attempt, cause);
+      ++this.failed;
+    } else {
+      this.results[index] =
+        IdAGBulkResult.ofSuccess(this.items.get(index), attempt);
+    }
+
+    --this.inFlight;
+    ++this.finished;
+    this.publishProgress();
+    this.fill();
+    this.checkFinished();
+  }
+
+  private void onAttemptCancelled(
+    final int index,
+    final int attempts)
+  {
+    synchronized (this) {
+      this.results[index] =
+        IdAGBulkResult.ofCancelled(this.items.get(index), attempts);
+
+      --this.inFlight;
+      ++this.finished;
+      this.publishProgress();
+      this.checkFinished();
+    }
+    this.deliver();
+  }
+
+  private void publishProgress()
+  {
+    this.updates.add(
+      new Update<>(
+        Optional.of(
+          new IdAGBulkProgress(this.finished, this.failed, this.items.size())),
+        Optional.empty()
+      )
+    );
+  }
+
+  private void checkFinished()
+  {
+    if (this.finished == this.items.size()) {
+      this.updates.add(
+        new Update<>(
+          Optional.empty(),
+          Optional.of(List.copyOf(Arrays.asList(this.results)))
+        )
+      );
+    }
+  }
+
+  /**
+   * Deliver queued updates in the order they were recorded. Only one thread
+   * delivers at a time; a thread that finds another thread delivering leaves
+   * its updates to that thread.
+   */
+
+  private void deliver()
+  {
+    while (this.delivering.compareAndSet(false, true)) {
+      try {
+        var update = this.updates.poll();
+        while (update != null) {
+          update.progress().ifPresent(this.progress);
+          update.results().ifPresent(this.future::complete);
+          update = this.updates.poll();
+        }
+      } finally {
+        this.delivering.set(false);
+      }
+
+      if (this.updates.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  private static Throwable unwrap(
+    final Throwable exception)
+  {
+    var cause = exception;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private record Update<K>(
+    Optional<IdAGBulkProgress> progress,
+    Optional<List<IdAGBulkResult<K>>> results)
+  {
+
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGBulkRunner 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
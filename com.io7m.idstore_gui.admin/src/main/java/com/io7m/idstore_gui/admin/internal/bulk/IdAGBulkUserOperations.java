@@ -0,0 +1,394 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.bulk;
+
+import com.io7m.idstore.admin_client.api.IdAClientException;
+import com.io7m.idstore.error_codes.IdErrorCode;
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore.model.IdBan;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserBanCreate;
+import com.io7m.idstore.protocol.admin.IdACommandUserBanDelete;
+import com.io7m.idstore.protocol.admin.IdACommandUserDelete;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientConnection;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityChangedEvent;
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityKind;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.io7m.idstore_gui.admin.internal.client.IdAGClientFailureReporting.FAILURE_UNPUBLISHED;
+
+/**
+ * <p>Operations applied to many users at once.</p>
+ *
+ * <p>Failures of the individual commands are not published on the event bus
+ * as they occur; instead, a single report listing every user for which the
+ * operation failed is published when the operation as a whole finishes.</p>
+ *
+ * <p>The commands are spread over {@link IdAGPreferencesBulk#connections()}
+ * connections to the server, opened for the duration of the operation, so
+ * that several commands are executed by the server at once rather than one
+ * after another on the main connection. If no connection can be opened,
+ * the commands are executed on the main connection.</p>
+ *
+ * <p>An {@link IdAGEntityChangedEvent} is published for each user that the
+ * operation changed, so that cached copies of the user are discarded.</p>
+ */
+
+public final class IdAGBulkUserOperations
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGBulkUserOperations.class);
+
+  private final IdAGClientService client;
+  private final IdAGEventBus events;
+  private final IdAGStringsType strings;
+  private final ScheduledExecutorService executor;
+  private final Supplier<IdAGPreferencesBulk> settings;
+
+  /**
+   * Operations applied to many users at once.
+   *
+   * @param inClient   The client
+   * @param inEvents   The event bus
+   * @param inStrings  The strings
+   * @param inExecutor The executor used to start and retry operations
+   * @param inSettings The bulk operation settings
+   */
+
+  public IdAGBulkUserOperations(
+    final IdAGClientService inClient,
+    final IdAGEventBus inEvents,
+    final IdAGStringsType inStrings,
+    final ScheduledExecutorService inExecutor,
+    final Supplier<IdAGPreferencesBulk> inSettings)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+    this.events =
+      Objects.requireNonNull(inEvents, "events");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.settings =
+      Objects.requireNonNull(inSettings, "settings");
+  }
+
+  /**
+   * Determine whether a failed operation is worth retrying. Only failures
+   * that suggest a problem communicating with the server are retried; a
+   * server that has rejected a command will reject it again.
+   *
+   * @param exception The failure
+   *
+   * @return {@code true} if the operation should be retried
+   */
+
+  public static boolean isRetryable(
+    final Throwable exception)
+  {
+    if (exception instanceof final IdAClientException e) {
+      return Objects.equals(e.errorCode(), IdStandardErrorCodes.IO_ERROR);
+    }
+    return exception instanceof IOException;
+  }
+
+  /**
+   * Delete the given users.
+   *
+   * @param users The users
+   *
+   * @return The operation in progress
+   */
+
+  public IdAGBulkRunner<UUID> delete(
+    final List<UUID> users)
+  {
+    return this.run(
+      "bulk.delete",
+      users,
+      IdACommandUserDelete::new,
+      id -> this.client.userDelete(id, FAILURE_UNPUBLISHED)
+    );
+  }
+
+  /**
+   * Ban the given users.
+   *
+   * @param users   The users
+   * @param reason  The reason for the ban
+   * @param expires The time the ban expires, if any
+   *
+   * @return The operation in progress
+   */
+
+  public IdAGBulkRunner<UUID> ban(
+    final List<UUID> users,
+    final String reason,
+    final Optional<OffsetDateTime> expires)
+  {
+    Objects.requireNonNull(reason, "reason");
+    Objects.requireNonNull(expires, "expires");
+
+    return this.run(
+      "bulk.ban",
+      users,
+      id -> new IdACommandUserBanCreate(new IdBan(id, reason, expires)),
+      id -> this.client.userBanCreate(
+        new IdBan(id, reason, expires), FAILURE_UNPUBLISHED)
+    );
+  }
+
+  /**
+   * Remove the bans on the given users.
+   *
+   * @param users The users
+   *
+   * @return The operation in progress
+   */
+
+  public IdAGBulkRunner<UUID> unban(
+    final List<UUID> users)
+  {
+    return this.run(
+      "bulk.unban",
+      users,
+      IdACommandUserBanDelete::new,
+      id -> this.client.userBanDelete(id, FAILURE_UNPUBLISHED)
+    );
+  }
+
+  private IdAGBulkRunner<UUID> run(
+    final String name,
+    final List<UUID> users,
+    final Function<UUID, IdACommandType<?>> command,
+    final Function<UUID, CompletableFuture<?>> fallback)
+  {
+    final var total = Integer.valueOf(users.size());
+    this.publishProgress(name, new IdAGBulkProgress(0, 0, users.size()));
+
+    final var settings =
+      this.settings.get();
+    final var connections =
+      this.connectionsOpen(Math.min(settings.connections(), users.size()));
+    final var connectionNext =
+      new AtomicInteger(0);
+
+    final Function<UUID, CompletableFuture<?>> operation = id -> {
+      return connections.thenCompose(opened -> {
+        if (opened.isEmpty()) {
+          return fallback.apply(id);
+        }
+        final var index =
+          Math.floorMod(connectionNext.getAndIncrement(), opened.size());
+        return opened.get(index).execute(command.apply(id));
+      });
+    };
+
+    final var runner =
+      IdAGBulkRunner.start(
+        users,
+        id -> operation.apply(id).thenRun(() -> this.userChanged(id)),
+        IdAGBulkUserOperations::isRetryable,
+        settings,
+        this.executor,
+        p -> this.publishProgress(name, p)
+      );
+
+    runner.future().whenComplete((results, exception) -> {
+      connections.thenAccept(opened -> {
+        opened.forEach(IdAGClientConnection::close);
+      });
+    });
+
+    runner.future().thenAccept(results -> {
+      final var failures =
+        results.stream()
+          .filter(IdAGBulkResult::failed)
+          .toList();
+      final var succeeded =
+        results.stream()
+          .filter(IdAGBulkResult::succeeded)
+          .count();
+      final var cancelled =
+        results.stream()
+          .anyMatch(IdAGBulkResult::cancelled);
+
+      if (!failures.isEmpty()) {
+        this.publishFailures(name, results.size(), failures);
+      } else if (cancelled) {
+        this.events.submit(
+          new IdAGBulkEvent(
+            this.strings.format(
+              name + ".cancelled", Long.valueOf(succeeded), total),
+            new IdAGEventStatusCancelled()
+          )
+        );
+      } else {
+        this.events.submit(
+          new IdAGBulkEvent(
+            this.strings.format(name + ".completed", total),
+            new IdAGEventStatusCompleted()
+          )
+        );
+      }
+    });
+    return runner;
+  }
+
+  private CompletableFuture<List<IdAGClientConnection>> connectionsOpen(
+    final int count)
+  {
+    final var futures =
+      new ArrayList<CompletableFuture<IdAGClientConnection>>(count);
+    for (int index = 0; index < count; ++index) {
+      futures.add(this.client.openConnection());
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+      .handle((ignored, exception) -> {
+        final var opened = new ArrayList<IdAGClientConnection>(count);
+        for (final var future : futures) {
+          if (!future.isCompletedExceptionally()) {
+            opened.add(future.join());
+          }
+        }
+        if (opened.isEmpty() && exception != null) {
+          LOG.warn(
+            "unable to open connections, using the main connection: ",
+            exception
+          );
+        }
+        return List.copyOf(opened);
+      });
+  }
+
+  private void userChanged(
+    final UUID id)
+  {
+    this.client.entityChanged(IdAGEntityKind.USER, id);
+  }
+
+  private void publishProgress(
+    final String name,
+    final IdAGBulkProgress progress)
+  {
+    this.events.submit(
+      new IdAGBulkEvent(
+        this.strings.format(
+          name + ".progress",
+          Integer.valueOf(progress.finished()),
+          Integer.valueOf(progress.total())),
+        new IdAGEventStatusInProgress(OptionalDouble.of(progress.fraction()))
+      )
+    );
+  }
+
+  private void publishFailures(
+    final String name,
+    final int total,
+    final List<IdAGBulkResult<UUID>> failures)
+  {
+    final var message =
+      this.strings.format(
+        name + ".failed",
+        Integer.valueOf(failures.size()),
+        Integer.valueOf(total));
+
+    final var recorder =
+      TRTaskRecorder.create(LOG, this.strings.format(name + ".title"));
+
+    for (final var failure : failures) {
+      final var cause = failure.failure().orElseThrow();
+      recorder.beginStep(
+        this.strings.format(
+          "bulk.item",
+          failure.item(),
+          Integer.valueOf(failure.attempts()))
+      );
+      recorder.setStepFailed(
+        Objects.requireNonNullElse(
+          cause.getMessage(), cause.getClass().getName())
+      );
+    }
+
+    recorder.setTaskFailed(message);
+    final var task = recorder.toTask();
+
+    final var first =
+      failures.get(0).failure().orElseThrow();
+
+    final IdErrorCode errorCode;
+    if (first instanceof final IdAClientException e) {
+      errorCode = e.errorCode();
+    } else {
+      errorCode = IdStandardErrorCodes.IO_ERROR;
+    }
+
+    this.events.submit(
+      new IdAGBulkEvent(
+        message,
+        new IdAGEventStatusFailed(
+          task,
+          errorCode,
+          message,
+          Map.of(
+            "Users", Integer.toString(total),
+            "Failed", Integer.toString(failures.size())
+          ),
+          Optional.empty(),
+          Optional.of(first)
+        )
+      )
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGBulkUserOperations 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
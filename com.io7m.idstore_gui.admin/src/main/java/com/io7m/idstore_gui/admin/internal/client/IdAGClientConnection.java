@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdAuditSearchParameters;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>An additional connection to the server, opened with
+ * {@link IdAGClientService#openConnection()}.</p>
+ *
+ * <p>A connection has its own server session and therefore its own search
+ * cursors. Commands executed on a connection are recorded in the client
+ * service's command timings, but failures are not published on the event
+ * bus; the code using the connection is responsible for reporting them.</p>
+ */
+
+public final class IdAGClientConnection implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGClientConnection.class);
+
+  private final IdAClientAsynchronousType client;
+  private final IdAGCommandTimings timings;
+
+  IdAGClientConnection(
+    final IdAClientAsynchronousType inClient,
+    final IdAGCommandTimings inTimings)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+    this.timings =
+      Objects.requireNonNull(inTimings, "timings");
+  }
+
+  /**
+   * Execute a command.
+   *
+   * @param command The command
+   *
+   * @return A future representing the command in progress
+   */
+
+  public CompletableFuture<IdAResponseType> execute(
+    final IdACommandType<?> command)
+  {
+    Objects.requireNonNull(command, "command");
+    return IdAGClientService.executeTimed(
+      this.client,
+      this.timings,
+      command,
+      IdAGClientService.FAILURE_IGNORED
+    );
+  }
+
+  /**
+   * Start searching for audit events on this connection.
+   *
+   * @param timeRange The time range
+   * @param owner     The owner
+   * @param type      The type
+   * @param message   The message
+   * @param pageSize  The page size
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdAuditEvent>> auditSearchBegin(
+    final IdTimeRange timeRange,
+    final Optional<String> owner,
+    final Optional<String> type,
+    final Optional<String> message,
+    final int pageSize)
+  {
+    return this.execute(
+        new IdACommandAuditSearchBegin(
+          new IdAuditSearchParameters(
+            timeRange,
+            owner,
+            type,
+            message,
+            pageSize
+          )))
+      .thenApply(IdAResponseAuditSearchBegin.class::cast)
+      .thenApply(IdAResponseAuditSearchBegin::page);
+  }
+
+  /**
+   * @return The next page of the audit search on this connection
+   */
+
+  public CompletableFuture<IdPage<IdAuditEvent>> auditSearchNext()
+  {
+    return this.execute(new IdACommandAuditSearchNext())
+      .thenApply(IdAResponseAuditSearchNext.class::cast)
+      .thenApply(IdAResponseAuditSearchNext::page);
+  }
+
+  @Override
+  public void close()
+  {
+    try {
+      this.client.close();
+    } catch (final Exception e) {
+      LOG.debug("unable to close connection: ", e);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGClientConnection 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
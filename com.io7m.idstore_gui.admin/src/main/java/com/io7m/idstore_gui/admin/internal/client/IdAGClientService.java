@@ -19,9 +19,6 @@ package com.io7m.idstore_gui.admin.internal.client;
 import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
 import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandFailed;
-import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
-import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginFailed;
-import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginSucceeded;
 import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
 import com.io7m.idstore.admin_client.api.IdAClientConfiguration;
 import com.io7m.idstore.admin_client.api.IdAClientCredentials;
@@ -29,9 +26,8 @@ import com.io7m.idstore.admin_client.api.IdAClientException;
 import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
 import com.io7m.idstore_gui.admin.internal.IdAGPerpetualSubscriber;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
-import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
-import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
-import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import com.io7m.idstore_gui.admin.internal.jfr.IdAGJFRCommandEvent;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore.model.IdAdmin;
 import com.io7m.idstore.model.IdAdminColumn;
 import com.io7m.idstore.model.IdAdminColumnOrdering;
@@ -67,6 +63,7 @@ import com.io7m.idstore.protocol.admin.IdACommandAdminSearchByEmailPrevious;
 import com.io7m.idstore.protocol.admin.IdACommandAdminSearchNext;
 import com.io7m.idstore.protocol.admin.IdACommandAdminSearchPrevious;
 import com.io7m.idstore.protocol.admin.IdACommandAdminSelf;
+import com.io7m.idstore.protocol.admin.IdACommandAdminUpdate;
 import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
 import com.io7m.idstore.protocol.admin.IdACommandAuditSearchNext;
 import com.io7m.idstore.protocol.admin.IdACommandAuditSearchPrevious;
@@ -87,6 +84,7 @@ import com.io7m.idstore.protocol.admin.IdACommandUserSearchByEmailNext;
 import com.io7m.idstore.protocol.admin.IdACommandUserSearchByEmailPrevious;
 import com.io7m.idstore.protocol.admin.IdACommandUserSearchNext;
 import com.io7m.idstore.protocol.admin.IdACommandUserSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdACommandUserUpdate;
 import com.io7m.idstore.protocol.admin.IdAResponseAdminCreate;
 import com.io7m.idstore.protocol.admin.IdAResponseAdminDelete;
 import com.io7m.idstore.protocol.admin.IdAResponseAdminGet;
@@ -118,13 +116,11 @@ import com.io7m.idstore.protocol.admin.IdAResponseUserSearchNext;
 import com.io7m.idstore.protocol.admin.IdAResponseUserSearchPrevious;
 import com.io7m.idstore.protocol.admin.IdAResponseUserUpdate;
 import com.io7m.repetoir.core.RPServiceType;
-import com.io7m.taskrecorder.core.TRTaskRecorder;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -132,6 +128,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 import static com.io7m.idstore.model.IdUserColumn.BY_IDNAME;
 
@@ -141,16 +140,23 @@ import static com.io7m.idstore.model.IdUserColumn.BY_IDNAME;
 
 public final class IdAGClientService implements RPServiceType, AutoCloseable
 {
-  private static final Logger LOG =
-    LoggerFactory.getLogger(IdAGClientService.class);
-
   private static final IdUserColumnOrdering DEFAULT_USER_ORDERING =
     new IdUserColumnOrdering(BY_IDNAME, true);
 
   private static final IdAdminColumnOrdering DEFAULT_ADMIN_ORDERING =
     new IdAdminColumnOrdering(IdAdminColumn.BY_IDNAME, true);
 
+  static final BiConsumer<IdACommandType<?>, Throwable> FAILURE_IGNORED =
+    (command, exception) -> {
+    };
+
+  private static final int PAGE_CACHE_CAPACITY = 64;
+  private static final int ENTITY_CACHE_CAPACITY = 256;
+  private static final Duration ENTITY_CACHE_EXPIRY = Duration.ofSeconds(30L);
+
   private final IdAGEventBus eventBus;
+  private final IdAClientFactoryType clients;
+  private final Locale locale;
   private final SimpleObjectProperty<
     HBStateType<
       IdACommandType<?>,
@@ -158,15 +164,42 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
       IdAResponseError,
       IdAClientCredentials>> status;
   private final IdAClientAsynchronousType client;
+  private final IdAGPageCache<IdUserSummary> userPageCache;
+  private final IdAGPageSizer userPageSizes;
+  private final IdAGPagedSearch<IdUserSearchParameters, IdUserSummary> userSearch;
+  private final IdAGPagedSearch<IdUserSearchByEmailParameters, IdUserSummary> userSearchByEmail;
+  private final IdAGPageCache<IdAdminSummary> adminPageCache;
+  private final IdAGPageSizer adminPageSizes;
+  private final IdAGPagedSearch<IdAdminSearchParameters, IdAdminSummary> adminSearch;
+  private final IdAGPagedSearch<IdAdminSearchByEmailParameters, IdAdminSummary> adminSearchByEmail;
+  private final IdAGPageCache<IdAuditEvent> auditPageCache;
+  private final IdAGPageSizer auditPageSizes;
+  private final IdAGPagedSearch<IdAuditSearchParameters, IdAuditEvent> auditSearch;
+  private final List<IdAGPagedSearch<?, ?>> searches;
+  private final IdAGLatestOnly<UUID, Optional<IdAGUserDetails>> userDetailsLoads;
+  private final IdAGEntityCache<UUID, IdUser> userCache;
+  private final IdAGEntityCache<UUID, Optional<IdBan>> userBanCache;
+  private final IdAGEntityCache<UUID, List<IdLogin>> userLoginHistoryCache;
+  private final IdAGEntityCache<UUID, IdAdmin> adminCache;
+  private final BiConsumer<IdACommandType<?>, Throwable> failurePublisher;
+  private final IdAGCommandTimings timings;
   private URI serverLatest;
+  private volatile IdAClientCredentials credentialsLatest;
   private IdAdmin self;
 
   private IdAGClientService(
     final IdAGEventBus inEventBus,
-    final IdAClientAsynchronousType inClient)
+    final IdAClientFactoryType inClients,
+    final Locale inLocale,
+    final IdAClientAsynchronousType inClient,
+    final Supplier<IdAGPreferencesPaging> inPaging)
   {
     this.eventBus =
       Objects.requireNonNull(inEventBus, "eventBus");
+    this.clients =
+      Objects.requireNonNull(inClients, "clients");
+    this.locale =
+      Objects.requireNonNull(inLocale, "locale");
     this.client =
       Objects.requireNonNull(inClient, "client");
 
@@ -174,10 +207,92 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
       URI.create("urn:unspecified");
     this.status =
       new SimpleObjectProperty<>(new HBStateDisconnected<>());
+
+    this.userPageCache =
+      new IdAGPageCache<>(PAGE_CACHE_CAPACITY);
+    this.userPageSizes =
+      new IdAGPageSizer("users", inPaging, IdAGPreferencesPaging::userPageSize);
+    this.userSearch =
+      new IdAGPagedSearch<>(
+        this.userPageCache,
+        this.userPageSizes,
+        this::executeUserSearchBegin,
+        this::executeUserSearchNext,
+        this::executeUserSearchPrevious
+      );
+    this.userSearchByEmail =
+      new IdAGPagedSearch<>(
+        this.userPageCache,
+        this.userPageSizes,
+        this::executeUserSearchByEmailBegin,
+        this::executeUserSearchByEmailNext,
+        this::executeUserSearchByEmailPrevious
+      );
+
+    this.adminPageCache =
+      new IdAGPageCache<>(PAGE_CACHE_CAPACITY);
+    this.adminPageSizes =
+      new IdAGPageSizer("admins", inPaging, IdAGPreferencesPaging::adminPageSize);
+    this.adminSearch =
+      new IdAGPagedSearch<>(
+        this.adminPageCache,
+        this.adminPageSizes,
+        this::executeAdminSearchBegin,
+        this::executeAdminSearchNext,
+        this::executeAdminSearchPrevious
+      );
+    this.adminSearchByEmail =
+      new IdAGPagedSearch<>(
+        this.adminPageCache,
+        this.adminPageSizes,
+        this::executeAdminSearchByEmailBegin,
+        this::executeAdminSearchByEmailNext,
+        this::executeAdminSearchByEmailPrevious
+      );
+
+    this.auditPageCache =
+      new IdAGPageCache<>(PAGE_CACHE_CAPACITY);
+    this.auditPageSizes =
+      new IdAGPageSizer("audit", inPaging, IdAGPreferencesPaging::auditPageSize);
+    this.auditSearch =
+      new IdAGPagedSearch<>(
+        this.auditPageCache,
+        this.auditPageSizes,
+        this::executeAuditSearchBegin,
+        this::executeAuditSearchNext,
+        this::executeAuditSearchPrevious
+      );
+
+    this.searches =
+      List.of(
+        this.userSearch,
+        this.userSearchByEmail,
+        this.adminSearch,
+        this.adminSearchByEmail,
+        this.auditSearch
+      );
+
+    this.userDetailsLoads =
+      new IdAGLatestOnly<>(this::executeUserDetails);
+
+    this.userCache =
+      new IdAGEntityCache<>(ENTITY_CACHE_CAPACITY, ENTITY_CACHE_EXPIRY);
+    this.userBanCache =
+      new IdAGEntityCache<>(ENTITY_CACHE_CAPACITY, ENTITY_CACHE_EXPIRY);
+    this.userLoginHistoryCache =
+      new IdAGEntityCache<>(ENTITY_CACHE_CAPACITY, ENTITY_CACHE_EXPIRY);
+    this.adminCache =
+      new IdAGEntityCache<>(ENTITY_CACHE_CAPACITY, ENTITY_CACHE_EXPIRY);
+    this.failurePublisher =
+      this::publishFailure;
+    this.timings =
+      new IdAGCommandTimings();
+
+    this.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NEXT);
   }
 
   /**
-   * Create a new client service.
+   * Create a new client service using the default paging preferences.
    *
    * @param eventBus The event bus
    * @param clients  The client factory
@@ -194,120 +309,145 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final IdAClientFactoryType clients,
     final Locale locale)
     throws IdAClientException, InterruptedException
+  {
+    return create(eventBus, clients, locale, IdAGPreferencesPaging::defaults);
+  }
+
+  /**
+   * Create a new client service. The paging preferences are consulted each
+   * time a search begins, so changes to the preferences take effect for the
+   * next search.
+   *
+   * @param eventBus The event bus
+   * @param clients  The client factory
+   * @param locale   The locale
+   * @param paging   A supplier of paging preferences
+   *
+   * @return A new service
+   *
+   * @throws IdAClientException   On errors
+   * @throws InterruptedException On interruption
+   */
+
+  public static IdAGClientService create(
+    final IdAGEventBus eventBus,
+    final IdAClientFactoryType clients,
+    final Locale locale,
+    final Supplier<IdAGPreferencesPaging> paging)
+    throws IdAClientException, InterruptedException
   {
     final var client =
       clients.openAsynchronousClient(new IdAClientConfiguration(locale));
     final var service =
-      new IdAGClientService(eventBus, client);
+      new IdAGClientService(eventBus, clients, locale, client, paging);
 
     client.state()
       .subscribe(new IdAGPerpetualSubscriber<>(s -> {
         service.status.set(s);
-        transformState(s).ifPresent(eventBus::submit);
+        if (service.isPublished(s)) {
+          final var event = IdAGClientStateTransformer.transform(s);
+          if (event.isPresent()) {
+            eventBus.submit(event.get());
+          }
+        }
       }));
 
+    eventBus.subscribe(new IdAGPerpetualSubscriber<>(e -> {
+      if (e instanceof final IdAGEntityChangedEvent changed) {
+        service.onEntityChanged(changed);
+      }
+    }));
     return service;
   }
 
-  private static Optional<IdAGEventType> transformState(
+  /*
+   * Command failures are not published from the client's state stream.
+   * They are published by the completion handler of each command, which is
+   * the only place that knows whether the caller asked for the failure to
+   * be published. Keeping the decision with the call means that nothing
+   * has to be remembered between the call and the state change.
+   */
+
+  private boolean isPublished(
     final HBStateType<IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> e)
   {
-    if (e instanceof final HBStateExecutingCommandFailed<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> cmd) {
-      return transformStateCommandFailed(cmd);
-    }
-    if (e instanceof final HBStateExecutingLoginFailed<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login) {
-      return transformStateLoginFailed(login);
-    }
-    if (e instanceof final HBStateExecutingCommandSucceeded<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> cmd) {
-      return transformStateCommandSucceeded(cmd);
+    return !(e instanceof HBStateExecutingCommandFailed);
+  }
+
+  private void publishFailure(
+    final IdACommandType<?> command,
+    final Throwable exception)
+  {
+    var cause = exception;
+    while (cause instanceof CompletionException
+           && cause.getCause() != null) {
+      cause = cause.getCause();
     }
-    if (e instanceof final HBStateExecutingLoginSucceeded<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login) {
-      return transformStateLoginSucceeded(login);
+
+    if (cause instanceof final IdAClientException e) {
+      this.eventBus.submit(
+        IdAGClientStateTransformer.transformCommandFailed(command, e));
     }
-    return Optional.empty();
   }
 
-  private static Optional<IdAGEventType> transformStateLoginSucceeded(
-    final HBStateExecutingLoginSucceeded<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login)
+  private CompletableFuture<IdAResponseType> execute(
+    final IdACommandType<?> command)
   {
-    return Optional.of(
-      new IdAGClientEvent(
-        "Logged in successfully.",
-        new IdAGEventStatusCompleted()
-      )
-    );
+    return this.execute(command, IdAGClientFailureReporting.FAILURE_PUBLISHED);
   }
 
-  private static Optional<IdAGEventType> transformStateCommandSucceeded(
-    final HBStateExecutingCommandSucceeded<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> cmd)
+  /*
+   * Every command is executed here so that it is timed. The timing is
+   * recorded from the completion of the client's own future, and the
+   * recording itself performs no allocation. A flight recorder event is
+   * only created when a recording is capturing command events.
+   */
+
+  private CompletableFuture<IdAResponseType> execute(
+    final IdACommandType<?> command,
+    final IdAGClientFailureReporting reporting)
   {
-    return Optional.of(
-      new IdAGClientEvent(
-        "Executed %s successfully.".formatted(cmd.command().getClass().getSimpleName()),
-        new IdAGEventStatusCompleted()
-      )
-    );
-  }
+    final var failures =
+      switch (reporting) {
+        case FAILURE_PUBLISHED -> this.failurePublisher;
+        case FAILURE_UNPUBLISHED -> FAILURE_IGNORED;
+      };
 
-  private static Optional<IdAGEventType> transformStateLoginFailed(
-    final HBStateExecutingLoginFailed<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login)
-  {
-    final var recorder =
-      TRTaskRecorder.create(LOG, "Logging in...");
-
-    final var error = login.response();
-    recorder.setStepFailed(error.message());
-    recorder.setTaskFailed(error.message());
-    final var task = recorder.toTask();
-
-    return Optional.of(
-      new IdAGClientEvent(
-        error.message(),
-        new IdAGEventStatusFailed(
-          task,
-          error.errorCode(),
-          error.message(),
-          error.attributes(),
-          error.remediatingAction(),
-          error.exception()
-        )
-      )
-    );
+    return executeTimed(this.client, this.timings, command, failures);
   }
 
-  private static Optional<IdAGEventType>
-  transformStateCommandFailed(
-    final HBStateExecutingCommandFailed<
-      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> cmd)
-  {
-    final var recorder =
-      TRTaskRecorder.create(LOG, "Executing " + cmd.command());
-
-    final var error = cmd.response();
-    recorder.setStepFailed(error.message());
-    recorder.setTaskFailed(error.message());
-    final var task = recorder.toTask();
-
-    return Optional.of(
-      new IdAGClientEvent(
-        error.message(),
-        new IdAGEventStatusFailed(
-          task,
-          error.errorCode(),
-          error.message(),
-          error.attributes(),
-          error.remediatingAction(),
-          error.exception()
-        )
-      )
-    );
+  static CompletableFuture<IdAResponseType> executeTimed(
+    final IdAClientAsynchronousType client,
+    final IdAGCommandTimings timings,
+    final IdACommandType<?> command,
+    final BiConsumer<IdACommandType<?>, Throwable> failures)
+  {
+    final var timing =
+      timings.timing(command.getClass());
+    final var event =
+      IdAGJFRCommandEvent.start(timing.name());
+    final var timeThen =
+      timing.start();
+
+    final CompletableFuture<IdAResponseType> future;
+    try {
+      future = client.executeAsyncOrElseThrow(
+        command,
+        IdAClientException::ofError);
+    } catch (final RuntimeException e) {
+      timing.finish(timeThen, false);
+      IdAGJFRCommandEvent.finish(event, e);
+      throw e;
+    }
+
+    future.whenComplete((response, exception) -> {
+      timing.finish(timeThen, exception == null);
+      IdAGJFRCommandEvent.finish(event, exception);
+      if (exception != null) {
+        failures.accept(command, exception);
+      }
+    });
+    return future;
   }
 
   private static URI uriOf(
@@ -361,6 +501,165 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     this.client.close();
   }
 
+  /**
+   * @return The per-command-class timings
+   */
+
+  public IdAGCommandTimings commandTimings()
+  {
+    return this.timings;
+  }
+
+  /**
+   * @return The statistics for the user search page cache
+   */
+
+  public IdAGPageCacheStatistics userPageCacheStatistics()
+  {
+    return this.userPageCache.statistics();
+  }
+
+  /**
+   * @return The statistics for the admin search page cache
+   */
+
+  public IdAGPageCacheStatistics adminPageCacheStatistics()
+  {
+    return this.adminPageCache.statistics();
+  }
+
+  /**
+   * @return The statistics for the audit search page cache
+   */
+
+  public IdAGPageCacheStatistics auditPageCacheStatistics()
+  {
+    return this.auditPageCache.statistics();
+  }
+
+  /**
+   * Set the page prefetch mode for all searches. Prefetched pages are held
+   * in the page caches, and prefetching is cancelled whenever a new search
+   * begins.
+   *
+   * @param mode The prefetch mode
+   */
+
+  public void setPagePrefetch(
+    final IdAGPagePrefetch mode)
+  {
+    Objects.requireNonNull(mode, "mode");
+
+    for (final var search : this.searches) {
+      search.setPrefetch(mode);
+    }
+  }
+
+  private void userPagesInvalidate()
+  {
+    this.userPageCache.clear();
+  }
+
+  private void adminPagesInvalidate()
+  {
+    this.adminPageCache.clear();
+  }
+
+  private IdUser userRemember(
+    final IdUser user)
+  {
+    this.userCache.put(user.id(), user);
+    return user;
+  }
+
+  private void userForget(
+    final UUID id)
+  {
+    this.userCache.remove(id);
+    this.userBanCache.remove(id);
+    this.userLoginHistoryCache.remove(id);
+  }
+
+  private IdAdmin adminRemember(
+    final IdAdmin admin)
+  {
+    this.adminCache.put(admin.id(), admin);
+    return admin;
+  }
+
+  /*
+   * Entities read from the server are cached only if they have not been
+   * written or invalidated since the read started, so that a slow read
+   * cannot replace a newer entity.
+   */
+
+  private Optional<IdUser> userRememberRead(
+    final Optional<IdUser> user,
+    final long version)
+  {
+    user.ifPresent(u -> this.userCache.putIfUnchanged(u.id(), u, version));
+    return user;
+  }
+
+  private Optional<IdAdmin> adminRememberRead(
+    final Optional<IdAdmin> admin,
+    final long version)
+  {
+    admin.ifPresent(a -> this.adminCache.putIfUnchanged(a.id(), a, version));
+    return admin;
+  }
+
+  private void onEntityChanged(
+    final IdAGEntityChangedEvent event)
+  {
+    switch (event.kind()) {
+      case USER -> {
+        this.userForget(event.id());
+        this.userPagesInvalidate();
+      }
+      case ADMIN -> {
+        this.adminCache.remove(event.id());
+        this.adminPagesInvalidate();
+      }
+    }
+  }
+
+  /**
+   * Indicate that an entity was changed on the server by an operation that
+   * did not go through this service (such as an operation executed on a
+   * connection opened with {@link #openConnection()}). Any cached copies of
+   * the entity, and any cached search pages that might contain it, are
+   * discarded immediately, and an {@link IdAGEntityChangedEvent} is
+   * published on the event bus.
+   *
+   * @param kind The kind of entity
+   * @param id   The entity ID
+   */
+
+  public void entityChanged(
+    final IdAGEntityKind kind,
+    final UUID id)
+  {
+    final var event = new IdAGEntityChangedEvent(kind, id);
+    this.onEntityChanged(event);
+    this.eventBus.submit(event);
+  }
+
+  private void searchesReset()
+  {
+    this.userPageCache.clear();
+    this.adminPageCache.clear();
+    this.auditPageCache.clear();
+    this.userCache.clear();
+    this.userBanCache.clear();
+    this.userLoginHistoryCache.clear();
+    this.adminCache.clear();
+
+    for (final var search : this.searches) {
+      search.reset();
+    }
+  }
+
   /**
    * Connect to the server and log in.
    *
@@ -382,27 +681,91 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   {
     this.serverLatest =
       uriOf(https, host, port);
+    this.searchesReset();
 
     final var credentials =
       new IdAClientCredentials(username, password, this.serverLatest, Map.of());
+    this.credentialsLatest = credentials;
+
+    final var timing =
+      this.timings.login();
+    final var event =
+      IdAGJFRCommandEvent.start(timing.name());
+    final var timeThen =
+      timing.start();
 
-    return this.client.loginAsyncOrElseThrow(
+    final var future =
+      this.client.loginAsyncOrElseThrow(
         credentials,
-        IdAClientException::ofError)
+        IdAClientException::ofError);
+
+    future.whenComplete((response, exception) -> {
+      timing.finish(timeThen, exception == null);
+      IdAGJFRCommandEvent.finish(event, exception);
+    });
+
+    return future
       .thenApply(IdAResponseLogin.class::cast)
-      .thenCompose(x -> this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSelf(),
-        IdAClientException::ofError))
+      .thenCompose(x -> this.execute(new IdACommandAdminSelf()))
       .thenApply(IdAResponseAdminSelf.class::cast)
       .thenApply(IdAResponseAdminSelf::admin);
   }
 
+  /**
+   * Open an additional connection to the server, logged in with the same
+   * credentials as the most recent login. The connection has its own server
+   * session, and therefore its own search cursors, so it can be used for
+   * background work without disturbing the searches made through this
+   * service. The caller is responsible for closing the connection.
+   *
+   * @return A future representing the connection in progress
+   */
+
+  public CompletableFuture<IdAGClientConnection> openConnection()
+  {
+    final var credentials = this.credentialsLatest;
+    if (credentials == null) {
+      return CompletableFuture.failedFuture(
+        new IllegalStateException("Not logged in."));
+    }
+
+    final IdAClientAsynchronousType connection;
+    try {
+      connection =
+        this.clients.openAsynchronousClient(
+          new IdAClientConfiguration(this.locale));
+    } catch (final IdAClientException e) {
+      return CompletableFuture.failedFuture(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return CompletableFuture.failedFuture(e);
+    }
+
+    final var result =
+      new CompletableFuture<IdAGClientConnection>();
+
+    connection.loginAsyncOrElseThrow(credentials, IdAClientException::ofError)
+      .whenComplete((response, exception) -> {
+        final var opened = new IdAGClientConnection(connection, this.timings);
+        if (exception != null) {
+          opened.close();
+          result.completeExceptionally(exception);
+        } else {
+          result.complete(opened);
+        }
+      });
+
+    return result;
+  }
+
   /**
    * Disconnect from the server.
    */
 
   public void disconnect()
   {
+    this.credentialsLatest = null;
+    this.searchesReset();
     this.client.disconnectAsync();
   }
 
@@ -421,49 +784,74 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final IdTimeRange timeUpdatedRange,
     final Optional<String> search)
   {
-    final var command =
-      new IdACommandUserSearchBegin(
-        new IdUserSearchParameters(
-          timeCreatedRange,
-          timeUpdatedRange,
-          search,
-          DEFAULT_USER_ORDERING,
-          100
-        ));
-
-    return this.client.executeAsyncOrElseThrow(
-        command,
-        IdAClientException::ofError)
-      .thenApply(IdAResponseUserSearchBegin.class::cast)
-      .thenApply(IdAResponseUserSearchBegin::page);
+    return this.userSearch.begin(
+      new IdUserSearchParameters(
+        timeCreatedRange,
+        timeUpdatedRange,
+        search,
+        DEFAULT_USER_ORDERING,
+        this.userPageSizes.pageSize()
+      ));
   }
 
   /**
-   * Get the next page of users.
+   * Get the next page of users. The page is served from the page cache if
+   * it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdUserSummary>> userSearchNext()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserSearchNext(),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseUserSearchNext.class::cast)
-      .thenApply(IdAResponseUserSearchNext::page);
+    return this.userSearch.next();
   }
 
   /**
-   * Get the previous page of users.
+   * Get the previous page of users. The page is served from the page cache
+   * if it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdUserSummary>> userSearchPrevious()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserSearchPrevious(),
-        IdAClientException::ofError)
+    return this.userSearch.previous();
+  }
+
+  /**
+   * Get an arbitrary page of users from the current search. Pages that
+   * are not cached are reached by moving the server cursor one page at a
+   * time.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdUserSummary>> userSearchPage(
+    final int pageIndex)
+  {
+    return this.userSearch.page(pageIndex);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchBegin(
+    final IdUserSearchParameters parameters)
+  {
+    return this.execute(new IdACommandUserSearchBegin(parameters))
+      .thenApply(IdAResponseUserSearchBegin.class::cast)
+      .thenApply(IdAResponseUserSearchBegin::page);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchNext()
+  {
+    return this.execute(new IdACommandUserSearchNext())
+      .thenApply(IdAResponseUserSearchNext.class::cast)
+      .thenApply(IdAResponseUserSearchNext::page);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchPrevious()
+  {
+    return this.execute(new IdACommandUserSearchPrevious())
       .thenApply(IdAResponseUserSearchPrevious.class::cast)
       .thenApply(IdAResponseUserSearchPrevious::page);
   }
@@ -471,6 +859,9 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   /**
    * Retrieve a user.
    *
+   * <p>The user is served from the entity cache if it was retrieved or
+   * modified recently.</p>
+   *
    * @param id The user ID
    *
    * @return A future representing the operation in progress
@@ -479,11 +870,60 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Optional<IdUser>> userGet(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserGet(id),
-        IdAClientException::ofError)
+    final var cached = this.userCache.get(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    final var version = this.userCache.version();
+    return this.execute(new IdACommandUserGet(id))
       .thenApply(IdAResponseUserGet.class::cast)
-      .thenApply(IdAResponseUserGet::user);
+      .thenApply(IdAResponseUserGet::user)
+      .thenApply(user -> this.userRememberRead(user, version));
+  }
+
+  /**
+   * Retrieve a user along with the user's ban and login history. The three
+   * commands are submitted together without waiting for each other, and the
+   * returned future completes when all three have completed.
+   *
+   * <p>Only the most recently requested details are ever loaded: if details
+   * are requested whilst another load is in progress, any load still waiting
+   * to start is abandoned and its future is cancelled. Cancelling the
+   * returned future likewise prevents a waiting load from starting.</p>
+   *
+   * @param id The user ID
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<Optional<IdAGUserDetails>> userDetails(
+    final UUID id)
+  {
+    return this.userDetailsLoads.submit(id);
+  }
+
+  private CompletableFuture<Optional<IdAGUserDetails>> executeUserDetails(
+    final UUID id)
+  {
+    final var userFuture =
+      this.userGet(id);
+    final var banFuture =
+      this.userBanGet(id);
+    final var historyFuture =
+      this.userLoginHistory(id);
+
+    return CompletableFuture.allOf(userFuture, banFuture, historyFuture)
+      .thenApply(ignored -> {
+        return userFuture.join()
+          .map(user -> {
+            return new IdAGUserDetails(
+              user,
+              banFuture.join(),
+              historyFuture.join()
+            );
+          });
+      });
   }
 
   /**
@@ -503,11 +943,12 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final Optional<IdRealName> realName,
     final Optional<IdPassword> password)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserUpdate(id, idName, realName, password),
-        IdAClientException::ofError)
+    return this.execute(
+        new IdACommandUserUpdate(id, idName, realName, password))
       .thenApply(IdAResponseUserUpdate.class::cast)
-      .thenApply(IdAResponseUserUpdate::user);
+      .thenApply(IdAResponseUserUpdate::user)
+      .thenApply(this::userRemember)
+      .whenComplete((x, e) -> this.userPagesInvalidate());
   }
 
   /**
@@ -521,11 +962,11 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Optional<IdUser>> userGetForEmail(
     final IdEmail email)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserGetByEmail(email),
-        IdAClientException::ofError)
+    final var version = this.userCache.version();
+    return this.execute(new IdACommandUserGetByEmail(email))
       .thenApply(IdAResponseUserGet.class::cast)
-      .thenApply(IdAResponseUserGet::user);
+      .thenApply(IdAResponseUserGet::user)
+      .thenApply(user -> this.userRememberRead(user, version));
   }
 
   /**
@@ -545,45 +986,74 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final Optional<String> type,
     final Optional<String> message)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAuditSearchBegin(new IdAuditSearchParameters(
-          timeRange,
-          owner,
-          type,
-          message,
-          100
-        )),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAuditSearchBegin.class::cast)
-      .thenApply(IdAResponseAuditSearchBegin::page);
+    return this.auditSearch.begin(
+      new IdAuditSearchParameters(
+        timeRange,
+        owner,
+        type,
+        message,
+        this.auditPageSizes.pageSize()
+      ));
   }
 
   /**
-   * Get the previous page of events.
+   * Get the previous page of events. The page is served from the page cache
+   * if it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAuditEvent>> auditSearchPrevious()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAuditSearchPrevious(),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAuditSearchPrevious.class::cast)
-      .thenApply(IdAResponseAuditSearchPrevious::page);
+    return this.auditSearch.previous();
   }
 
   /**
-   * Get the next page of events.
+   * Get the next page of events. The page is served from the page cache if
+   * it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAuditEvent>> auditSearchNext()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAuditSearchNext(),
-        IdAClientException::ofError)
+    return this.auditSearch.next();
+  }
+
+  /**
+   * Get an arbitrary page of events from the current search. Pages that
+   * are not cached are reached by moving the server cursor one page at a
+   * time.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdAuditEvent>> auditSearchPage(
+    final int pageIndex)
+  {
+    return this.auditSearch.page(pageIndex);
+  }
+
+  private CompletableFuture<IdPage<IdAuditEvent>> executeAuditSearchBegin(
+    final IdAuditSearchParameters parameters)
+  {
+    return this.execute(new IdACommandAuditSearchBegin(parameters))
+      .thenApply(IdAResponseAuditSearchBegin.class::cast)
+      .thenApply(IdAResponseAuditSearchBegin::page);
+  }
+
+  private CompletableFuture<IdPage<IdAuditEvent>> executeAuditSearchPrevious()
+  {
+    return this.execute(new IdACommandAuditSearchPrevious())
+      .thenApply(IdAResponseAuditSearchPrevious.class::cast)
+      .thenApply(IdAResponseAuditSearchPrevious::page);
+  }
+
+  private CompletableFuture<IdPage<IdAuditEvent>> executeAuditSearchNext()
+  {
+    return this.execute(new IdACommandAuditSearchNext())
       .thenApply(IdAResponseAuditSearchNext.class::cast)
       .thenApply(IdAResponseAuditSearchNext::page);
   }
@@ -603,47 +1073,74 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final IdTimeRange timeUpdatedRange,
     final String search)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserSearchByEmailBegin(
-          new IdUserSearchByEmailParameters(
-            timeCreatedRange,
-            timeUpdatedRange,
-            search,
-            DEFAULT_USER_ORDERING,
-            100
-          )
-        ),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseUserSearchByEmailBegin.class::cast)
-      .thenApply(IdAResponseUserSearchByEmailBegin::page);
+    return this.userSearchByEmail.begin(
+      new IdUserSearchByEmailParameters(
+        timeCreatedRange,
+        timeUpdatedRange,
+        search,
+        DEFAULT_USER_ORDERING,
+        this.userPageSizes.pageSize()
+      ));
   }
 
   /**
-   * Get the next page of users.
+   * Get the next page of users. The page is served from the page cache if
+   * it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdUserSummary>> userSearchByEmailNext()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserSearchByEmailNext(),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseUserSearchByEmailNext.class::cast)
-      .thenApply(IdAResponseUserSearchByEmailNext::page);
+    return this.userSearchByEmail.next();
   }
 
   /**
-   * Get the previous page of users.
+   * Get the previous page of users. The page is served from the page cache
+   * if it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdUserSummary>> userSearchByEmailPrevious()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserSearchByEmailPrevious(),
-        IdAClientException::ofError)
+    return this.userSearchByEmail.previous();
+  }
+
+  /**
+   * Get an arbitrary page of users from the current search. Pages that
+   * are not cached are reached by moving the server cursor one page at a
+   * time.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdUserSummary>> userSearchByEmailPage(
+    final int pageIndex)
+  {
+    return this.userSearchByEmail.page(pageIndex);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchByEmailBegin(
+    final IdUserSearchByEmailParameters parameters)
+  {
+    return this.execute(new IdACommandUserSearchByEmailBegin(parameters))
+      .thenApply(IdAResponseUserSearchByEmailBegin.class::cast)
+      .thenApply(IdAResponseUserSearchByEmailBegin::page);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchByEmailNext()
+  {
+    return this.execute(new IdACommandUserSearchByEmailNext())
+      .thenApply(IdAResponseUserSearchByEmailNext.class::cast)
+      .thenApply(IdAResponseUserSearchByEmailNext::page);
+  }
+
+  private CompletableFuture<IdPage<IdUserSummary>> executeUserSearchByEmailPrevious()
+  {
+    return this.execute(new IdACommandUserSearchByEmailPrevious())
       .thenApply(IdAResponseUserSearchByEmailPrevious.class::cast)
       .thenApply(IdAResponseUserSearchByEmailPrevious::page);
   }
@@ -659,11 +1156,25 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Void> userDelete(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserDelete(id),
-        IdAClientException::ofError)
-      .thenRun(() -> {
-      });
+    return this.userDelete(id, IdAGClientFailureReporting.FAILURE_PUBLISHED);
+  }
+
+  /**
+   * Delete a user.
+   *
+   * @param id        The user ID
+   * @param reporting Whether a failure is published on the event bus
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<Void> userDelete(
+    final UUID id,
+    final IdAGClientFailureReporting reporting)
+  {
+    return this.execute(new IdACommandUserDelete(id), reporting)
+      .thenRun(() -> this.userForget(id))
+      .whenComplete((x, e) -> this.userPagesInvalidate());
   }
 
   /**
@@ -681,6 +1192,15 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     return this.self;
   }
 
+  /**
+   * @return The server to which the client most recently tried to log in
+   */
+
+  public URI server()
+  {
+    return this.serverLatest;
+  }
+
   /**
    * Get the admin's own profile.
    *
@@ -689,11 +1209,10 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
 
   public CompletableFuture<IdAdmin> adminSelf()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSelf(),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandAdminSelf())
       .thenApply(IdAResponseAdminSelf.class::cast)
       .thenApply(IdAResponseAdminSelf::admin)
+      .thenApply(this::adminRemember)
       .thenApply(a -> {
         this.self = a;
         return a;
@@ -713,11 +1232,11 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final UUID id,
     final IdEmail email)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminEmailAdd(id, email),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandAdminEmailAdd(id, email))
       .thenApply(IdAResponseAdminUpdate.class::cast)
-      .thenApply(IdAResponseAdminUpdate::admin);
+      .thenApply(IdAResponseAdminUpdate::admin)
+      .thenApply(this::adminRemember)
+      .whenComplete((x, e) -> this.adminPagesInvalidate());
   }
 
   /**
@@ -733,11 +1252,11 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final UUID id,
     final IdEmail email)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminEmailRemove(id, email),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandAdminEmailRemove(id, email))
       .thenApply(IdAResponseAdminUpdate.class::cast)
-      .thenApply(IdAResponseAdminUpdate::admin);
+      .thenApply(IdAResponseAdminUpdate::admin)
+      .thenApply(this::adminRemember)
+      .whenComplete((x, e) -> this.adminPagesInvalidate());
   }
 
   /**
@@ -753,11 +1272,11 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final UUID id,
     final IdEmail email)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserEmailAdd(id, email),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandUserEmailAdd(id, email))
       .thenApply(IdAResponseUserUpdate.class::cast)
-      .thenApply(IdAResponseUserUpdate::user);
+      .thenApply(IdAResponseUserUpdate::user)
+      .thenApply(this::userRemember)
+      .whenComplete((x, e) -> this.userPagesInvalidate());
   }
 
   /**
@@ -773,16 +1292,19 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final UUID id,
     final IdEmail email)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserEmailRemove(id, email),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandUserEmailRemove(id, email))
       .thenApply(IdAResponseUserUpdate.class::cast)
-      .thenApply(IdAResponseUserUpdate::user);
+      .thenApply(IdAResponseUserUpdate::user)
+      .thenApply(this::userRemember)
+      .whenComplete((x, e) -> this.userPagesInvalidate());
   }
 
   /**
    * Get the ban for the given user.
    *
+   * <p>The ban is served from the entity cache if it was retrieved or
+   * modified recently.</p>
+   *
    * @param id The ID
    *
    * @return A future representing the operation in progress
@@ -791,11 +1313,19 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Optional<IdBan>> userBanGet(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserBanGet(id),
-        IdAClientException::ofError)
+    final var cached = this.userBanCache.get(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached.get());
+    }
+
+    final var version = this.userBanCache.version();
+    return this.execute(new IdACommandUserBanGet(id))
       .thenApply(IdAResponseUserBanGet.class::cast)
-      .thenApply(IdAResponseUserBanGet::ban);
+      .thenApply(IdAResponseUserBanGet::ban)
+      .thenApply(ban -> {
+        this.userBanCache.putIfUnchanged(id, ban, version);
+        return ban;
+      });
   }
 
   /**
@@ -809,11 +1339,29 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<IdBan> userBanCreate(
     final IdBan ban)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserBanCreate(ban),
-        IdAClientException::ofError)
+    return this.userBanCreate(ban, IdAGClientFailureReporting.FAILURE_PUBLISHED);
+  }
+
+  /**
+   * Create a ban for the given user.
+   *
+   * @param ban       The ban
+   * @param reporting Whether a failure is published on the event bus
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdBan> userBanCreate(
+    final IdBan ban,
+    final IdAGClientFailureReporting reporting)
+  {
+    return this.execute(new IdACommandUserBanCreate(ban), reporting)
       .thenApply(IdAResponseUserBanCreate.class::cast)
-      .thenApply(IdAResponseUserBanCreate::ban);
+      .thenApply(IdAResponseUserBanCreate::ban)
+      .thenApply(created -> {
+        this.userBanCache.put(created.user(), Optional.of(created));
+        return created;
+      });
   }
 
   /**
@@ -827,16 +1375,36 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Optional<IdBan>> userBanDelete(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserBanDelete(id),
-        IdAClientException::ofError)
+    return this.userBanDelete(id, IdAGClientFailureReporting.FAILURE_PUBLISHED);
+  }
+
+  /**
+   * Delete a ban for the given user.
+   *
+   * @param id        The user ID
+   * @param reporting Whether a failure is published on the event bus
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<Optional<IdBan>> userBanDelete(
+    final UUID id,
+    final IdAGClientFailureReporting reporting)
+  {
+    return this.execute(new IdACommandUserBanDelete(id), reporting)
       .thenApply(IdAResponseUserBanDelete.class::cast)
-      .thenApply(x -> Optional.empty());
+      .thenApply(x -> {
+        this.userBanCache.put(id, Optional.empty());
+        return Optional.empty();
+      });
   }
 
   /**
    * Get the login history for the given user.
    *
+   * <p>The history is served from the entity cache if it was retrieved
+   * recently.</p>
+   *
    * @param id The user ID
    *
    * @return A future representing the operation in progress
@@ -845,11 +1413,19 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<List<IdLogin>> userLoginHistory(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserLoginHistory(id),
-        IdAClientException::ofError)
+    final var cached = this.userLoginHistoryCache.get(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached.get());
+    }
+
+    final var version = this.userLoginHistoryCache.version();
+    return this.execute(new IdACommandUserLoginHistory(id))
       .thenApply(IdAResponseUserLoginHistory.class::cast)
-      .thenApply(IdAResponseUserLoginHistory::history);
+      .thenApply(IdAResponseUserLoginHistory::history)
+      .thenApply(history -> {
+        this.userLoginHistoryCache.putIfUnchanged(id, history, version);
+        return history;
+      });
   }
 
   /**
@@ -863,16 +1439,35 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<IdUser> userCreate(
     final IdUserCreate create)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandUserCreate(
-          create.id(),
-          create.idName(),
-          create.realName(),
-          create.email(),
-          create.password()),
-        IdAClientException::ofError)
+    return this.userCreate(create, IdAGClientFailureReporting.FAILURE_PUBLISHED);
+  }
+
+  /**
+   * Create a user.
+   *
+   * @param create    The user creation info
+   * @param reporting Whether a failure is published on the event bus
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdUser> userCreate(
+    final IdUserCreate create,
+    final IdAGClientFailureReporting reporting)
+  {
+    final var command =
+      new IdACommandUserCreate(
+        create.id(),
+        create.idName(),
+        create.realName(),
+        create.email(),
+        create.password());
+
+    return this.execute(command, reporting)
       .thenApply(IdAResponseUserCreate.class::cast)
-      .thenApply(IdAResponseUserCreate::user);
+      .thenApply(IdAResponseUserCreate::user)
+      .thenApply(this::userRemember)
+      .whenComplete((x, e) -> this.userPagesInvalidate());
   }
 
   /**
@@ -886,22 +1481,26 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<IdAdmin> adminCreate(
     final IdAdminCreate create)
   {
-    return this.client.executeAsyncOrElseThrow(
+    return this.execute(
         new IdACommandAdminCreate(
           create.id(),
           create.idName(),
           create.realName(),
           create.email(),
           create.password(),
-          create.permissions().impliedPermissions()),
-        IdAClientException::ofError)
+          create.permissions().impliedPermissions()))
       .thenApply(IdAResponseAdminCreate.class::cast)
-      .thenApply(IdAResponseAdminCreate::admin);
+      .thenApply(IdAResponseAdminCreate::admin)
+      .thenApply(this::adminRemember)
+      .whenComplete((x, e) -> this.adminPagesInvalidate());
   }
 
   /**
    * Retrieve an admin.
    *
+   * <p>The admin is served from the entity cache if it was retrieved or
+   * modified recently.</p>
+   *
    * @param id The admin ID
    *
    * @return A future representing the operation in progress
@@ -910,11 +1509,16 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Optional<IdAdmin>> adminGet(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminGet(id),
-        IdAClientException::ofError)
+    final var cached = this.adminCache.get(id);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    final var version = this.adminCache.version();
+    return this.execute(new IdACommandAdminGet(id))
       .thenApply(IdAResponseAdminGet.class::cast)
-      .thenApply(IdAResponseAdminGet::admin);
+      .thenApply(IdAResponseAdminGet::admin)
+      .thenApply(admin -> this.adminRememberRead(admin, version));
   }
 
   /**
@@ -932,46 +1536,74 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final IdTimeRange timeUpdatedRange,
     final String search)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchByEmailBegin(
-          new IdAdminSearchByEmailParameters(
-            timeCreatedRange,
-            timeUpdatedRange,
-            search,
-            DEFAULT_ADMIN_ORDERING,
-            100
-          )),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAdminSearchByEmailBegin.class::cast)
-      .thenApply(IdAResponseAdminSearchByEmailBegin::page);
+    return this.adminSearchByEmail.begin(
+      new IdAdminSearchByEmailParameters(
+        timeCreatedRange,
+        timeUpdatedRange,
+        search,
+        DEFAULT_ADMIN_ORDERING,
+        this.adminPageSizes.pageSize()
+      ));
   }
 
   /**
-   * Get the next page of admins.
+   * Get the next page of admins. The page is served from the page cache if
+   * it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAdminSummary>> adminSearchByEmailNext()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchByEmailNext(),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAdminSearchByEmailNext.class::cast)
-      .thenApply(IdAResponseAdminSearchByEmailNext::page);
+    return this.adminSearchByEmail.next();
   }
 
   /**
-   * Get the previous page of admins.
+   * Get the previous page of admins. The page is served from the page cache
+   * if it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAdminSummary>> adminSearchByEmailPrevious()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchByEmailPrevious(),
-        IdAClientException::ofError)
+    return this.adminSearchByEmail.previous();
+  }
+
+  /**
+   * Get an arbitrary page of admins from the current search. Pages that
+   * are not cached are reached by moving the server cursor one page at a
+   * time.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdAdminSummary>> adminSearchByEmailPage(
+    final int pageIndex)
+  {
+    return this.adminSearchByEmail.page(pageIndex);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchByEmailBegin(
+    final IdAdminSearchByEmailParameters parameters)
+  {
+    return this.execute(new IdACommandAdminSearchByEmailBegin(parameters))
+      .thenApply(IdAResponseAdminSearchByEmailBegin.class::cast)
+      .thenApply(IdAResponseAdminSearchByEmailBegin::page);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchByEmailNext()
+  {
+    return this.execute(new IdACommandAdminSearchByEmailNext())
+      .thenApply(IdAResponseAdminSearchByEmailNext.class::cast)
+      .thenApply(IdAResponseAdminSearchByEmailNext::page);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchByEmailPrevious()
+  {
+    return this.execute(new IdACommandAdminSearchByEmailPrevious())
       .thenApply(IdAResponseAdminSearchByEmailPrevious.class::cast)
       .thenApply(IdAResponseAdminSearchByEmailPrevious::page);
   }
@@ -991,46 +1623,74 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final IdTimeRange timeUpdatedRange,
     final Optional<String> search)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchBegin(
-          new IdAdminSearchParameters(
-            timeCreatedRange,
-            timeUpdatedRange,
-            search,
-            DEFAULT_ADMIN_ORDERING,
-            100
-          )),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAdminSearchBegin.class::cast)
-      .thenApply(IdAResponseAdminSearchBegin::page);
+    return this.adminSearch.begin(
+      new IdAdminSearchParameters(
+        timeCreatedRange,
+        timeUpdatedRange,
+        search,
+        DEFAULT_ADMIN_ORDERING,
+        this.adminPageSizes.pageSize()
+      ));
   }
 
   /**
-   * Get the next page of admins.
+   * Get the next page of admins. The page is served from the page cache if
+   * it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAdminSummary>> adminSearchNext()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchNext(),
-        IdAClientException::ofError)
-      .thenApply(IdAResponseAdminSearchNext.class::cast)
-      .thenApply(IdAResponseAdminSearchNext::page);
+    return this.adminSearch.next();
   }
 
   /**
-   * Get the previous page of admins.
+   * Get the previous page of admins. The page is served from the page cache
+   * if it has been seen or prefetched recently.
    *
    * @return A future representing the operation in progress
    */
 
   public CompletableFuture<IdPage<IdAdminSummary>> adminSearchPrevious()
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminSearchPrevious(),
-        IdAClientException::ofError)
+    return this.adminSearch.previous();
+  }
+
+  /**
+   * Get an arbitrary page of admins from the current search. Pages that
+   * are not cached are reached by moving the server cursor one page at a
+   * time.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return A future representing the operation in progress
+   */
+
+  public CompletableFuture<IdPage<IdAdminSummary>> adminSearchPage(
+    final int pageIndex)
+  {
+    return this.adminSearch.page(pageIndex);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchBegin(
+    final IdAdminSearchParameters parameters)
+  {
+    return this.execute(new IdACommandAdminSearchBegin(parameters))
+      .thenApply(IdAResponseAdminSearchBegin.class::cast)
+      .thenApply(IdAResponseAdminSearchBegin::page);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchNext()
+  {
+    return this.execute(new IdACommandAdminSearchNext())
+      .thenApply(IdAResponseAdminSearchNext.class::cast)
+      .thenApply(IdAResponseAdminSearchNext::page);
+  }
+
+  private CompletableFuture<IdPage<IdAdminSummary>> executeAdminSearchPrevious()
+  {
+    return this.execute(new IdACommandAdminSearchPrevious())
       .thenApply(IdAResponseAdminSearchPrevious.class::cast)
       .thenApply(IdAResponseAdminSearchPrevious::page);
   }
@@ -1052,11 +1712,12 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
     final Optional<IdRealName> realName,
     final Optional<IdPassword> password)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminUpdate(id, idName, realName, password),
-        IdAClientException::ofError)
+    return this.execute(
+        new IdACommandAdminUpdate(id, idName, realName, password))
       .thenApply(IdAResponseAdminUpdate.class::cast)
-      .thenApply(IdAResponseAdminUpdate::admin);
+      .thenApply(IdAResponseAdminUpdate::admin)
+      .thenApply(this::adminRemember)
+      .whenComplete((x, e) -> this.adminPagesInvalidate());
   }
 
   /**
@@ -1070,11 +1731,9 @@ public final class IdAGClientService implements RPServiceType, AutoCloseable
   public CompletableFuture<Void> adminDelete(
     final UUID id)
   {
-    return this.client.executeAsyncOrElseThrow(
-        new IdACommandAdminDelete(id),
-        IdAClientException::ofError)
+    return this.execute(new IdACommandAdminDelete(id))
       .thenApply(IdAResponseAdminDelete.class::cast)
-      .thenRun(() -> {
-      });
+      .thenRun(() -> this.adminCache.remove(id))
+      .whenComplete((x, e) -> this.adminPagesInvalidate());
   }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginFailed;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginSucceeded;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientException;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>Functions to transform client states into events.</p>
+ *
+ * <p>Every successful command produces an event, and so the success path
+ * must not allocate. Events for successful commands are immutable and
+ * carry no per-command information, so a single event is created for
+ * each command class the first time a command of that class succeeds, and
+ * that event is published for every subsequent success.</p>
+ */
+
+public final class IdAGClientStateTransformer
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGClientStateTransformer.class);
+
+  private static final IdAGEventStatusCompleted COMPLETED =
+    new IdAGEventStatusCompleted();
+
+  private static final Optional<IdAGEventType> LOGIN_SUCCEEDED =
+    Optional.of(new IdAGClientEvent("Logged in successfully.", COMPLETED));
+
+  private static final ClassValue<Optional<IdAGEventType>> COMMAND_SUCCEEDED =
+    new ClassValue<>()
+    {
+      @Override
+      protected Optional<IdAGEventType> computeValue(
+        final Class<?> type)
+      {
+        return Optional.of(
+          new IdAGClientEvent(
+            "Executed %s successfully.".formatted(type.getSimpleName()),
+            COMPLETED
+          )
+        );
+      }
+    };
+
+  private IdAGClientStateTransformer()
+  {
+
+  }
+
+  /**
+   * Transform a client state into an event, if the state is of interest
+   * to the user. Command failures are not transformed here; see
+   * {@link #transformCommandFailed(IdACommandType, IdAClientException)}.
+   *
+   * @param state The state
+   *
+   * @return The event, if any
+   */
+
+  public static Optional<IdAGEventType> transform(
+    final HBStateType<IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> state)
+  {
+    if (state instanceof final HBStateExecutingCommandSucceeded<
+      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> cmd) {
+      return COMMAND_SUCCEEDED.get(cmd.command().getClass());
+    }
+    if (state instanceof final HBStateExecutingLoginFailed<
+      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login) {
+      return transformLoginFailed(login);
+    }
+    if (state instanceof HBStateExecutingLoginSucceeded) {
+      return LOGIN_SUCCEEDED;
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<IdAGEventType> transformLoginFailed(
+    final HBStateExecutingLoginFailed<
+      IdACommandType<?>, IdAResponseType, IdAResponseError, IdAClientCredentials> login)
+  {
+    final var recorder =
+      TRTaskRecorder.create(LOG, "Logging in...");
+
+    final var error = login.response();
+    recorder.setStepFailed(error.message());
+    recorder.setTaskFailed(error.message());
+    final var task = recorder.toTask();
+
+    return Optional.of(
+      new IdAGClientEvent(
+        error.message(),
+        new IdAGEventStatusFailed(
+          task,
+          error.errorCode(),
+          error.message(),
+          error.attributes(),
+          error.remediatingAction(),
+          error.exception()
+        )
+      )
+    );
+  }
+
+  /**
+   * Transform the failure of a command into an event.
+   *
+   * @param command   The command
+   * @param exception The failure
+   *
+   * @return The event
+   */
+
+  public static IdAGEventType transformCommandFailed(
+    final IdACommandType<?> command,
+    final IdAClientException exception)
+  {
+    final var recorder =
+      TRTaskRecorder.create(LOG, "Executing " + command);
+
+    final var message =
+      Objects.requireNonNullElse(
+        exception.getMessage(), exception.getClass().getName());
+
+    recorder.setStepFailed(message);
+    recorder.setTaskFailed(message);
+    final var task = recorder.toTask();
+
+    return new IdAGClientEvent(
+      message,
+      new IdAGEventStatusFailed(
+        task,
+        exception.errorCode(),
+        message,
+        exception.attributes(),
+        exception.remediatingAction(),
+        Optional.of(exception)
+      )
+    );
+  }
+}
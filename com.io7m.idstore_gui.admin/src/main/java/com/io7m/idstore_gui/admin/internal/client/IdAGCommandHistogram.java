@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * <p>A lock-free histogram of durations in the style of HdrHistogram.</p>
+ *
+ * <p>Values are recorded in nanoseconds into log-linear buckets: each power
+ * of two is split into {@value #SUB_BUCKETS} linear sub-buckets, so any
+ * reported percentile is within 1/{@value #SUB_BUCKETS} of the true value.
+ * The bucket array is fixed in size, and recording a value performs no
+ * allocation.</p>
+ */
+
+public final class IdAGCommandHistogram
+{
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+  private static final int BUCKET_COUNT =
+    (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts;
+  private final LongAccumulator maximum;
+
+  /**
+   * A lock-free histogram of durations.
+   */
+
+  public IdAGCommandHistogram()
+  {
+    this.counts =
+      new AtomicLongArray(BUCKET_COUNT);
+    this.maximum =
+      new LongAccumulator(Math::max, 0L);
+  }
+
+  static int bucketOf(
+    final long nanos)
+  {
+    if (nanos < SUB_BUCKETS) {
+      return (int) Math.max(0L, nanos);
+    }
+
+    final var magnitude =
+      (Long.SIZE - 1) - Long.numberOfLeadingZeros(nanos);
+    final var shift =
+      magnitude - SUB_BUCKET_BITS;
+    final var sub =
+      (int) (nanos >>> shift) & SUB_BUCKET_MASK;
+
+    return ((shift + 1) << SUB_BUCKET_BITS) + sub;
+  }
+
+  static long bucketUpperBound(
+    final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+
+    final var shift =
+      (bucket >>> SUB_BUCKET_BITS) - 1;
+    final var sub =
+      (long) (bucket & SUB_BUCKET_MASK);
+
+    return (((SUB_BUCKETS + sub + 1L) << shift) - 1L);
+  }
+
+  /**
+   * Record a duration.
+   *
+   * @param nanos The duration in nanoseconds
+   */
+
+  public void record(
+    final long nanos)
+  {
+    final var value = Math.max(0L, nanos);
+    this.counts.incrementAndGet(bucketOf(value));
+    this.maximum.accumulate(value);
+  }
+
+  /**
+   * @return The number of recorded values
+   */
+
+  public long count()
+  {
+    var total = 0L;
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      total += this.counts.get(index);
+    }
+    return total;
+  }
+
+  /**
+   * @return The largest recorded duration
+   */
+
+  public Duration maximum()
+  {
+    return Duration.ofNanos(this.maximum.get());
+  }
+
+  /**
+   * Calculate the given percentile. The result is the highest value that
+   * is equivalent, at the precision of the histogram, to the value at the
+   * given percentile, and is never larger than the largest recorded value.
+   *
+   * @param percentile The percentile in the range {@code [0, 100]}
+   *
+   * @return The duration at the given percentile
+   */
+
+  public Duration percentile(
+    final double percentile)
+  {
+    if (!(percentile >= 0.0 && percentile <= 100.0)) {
+      throw new IllegalArgumentException(
+        "Percentile %f must be in the range [0, 100]".formatted(
+          Double.valueOf(percentile))
+      );
+    }
+
+    final var snapshot = new long[BUCKET_COUNT];
+    var total = 0L;
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      snapshot[index] = this.counts.get(index);
+      total += snapshot[index];
+    }
+
+    if (total == 0L) {
+      return Duration.ZERO;
+    }
+
+    final var target =
+      Math.max(1L, (long) Math.ceil((percentile / 100.0) * total));
+    final var max =
+      this.maximum.get();
+
+    var seen = 0L;
+    for (int index = 0; index < BUCKET_COUNT; ++index) {
+      seen += snapshot[index];
+      if (seen >= target) {
+        return Duration.ofNanos(Math.min(bucketUpperBound(index), max));
+      }
+    }
+    return Duration.ofNanos(max);
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Timing statistics for a single class of command.
+ *
+ * @param command   The command name
+ * @param succeeded The number of executions that succeeded
+ * @param failed    The number of executions that failed
+ * @param inFlight  The number of executions currently in progress
+ * @param p50       The median execution time
+ * @param p90       The 90th percentile execution time
+ * @param p99       The 99th percentile execution time
+ * @param maximum   The maximum execution time
+ */
+
+public record IdAGCommandStatistics(
+  String command,
+  long succeeded,
+  long failed,
+  long inFlight,
+  Duration p50,
+  Duration p90,
+  Duration p99,
+  Duration maximum)
+{
+  /**
+   * Timing statistics for a single class of command.
+   *
+   * @param command   The command name
+   * @param succeeded The number of executions that succeeded
+   * @param failed    The number of executions that failed
+   * @param inFlight  The number of executions currently in progress
+   * @param p50       The median execution time
+   * @param p90       The 90th percentile execution time
+   * @param p99       The 99th percentile execution time
+   * @param maximum   The maximum execution time
+   */
+
+  public IdAGCommandStatistics
+  {
+    Objects.requireNonNull(command, "command");
+    Objects.requireNonNull(p50, "p50");
+    Objects.requireNonNull(p90, "p90");
+    Objects.requireNonNull(p99, "p99");
+    Objects.requireNonNull(maximum, "maximum");
+  }
+}
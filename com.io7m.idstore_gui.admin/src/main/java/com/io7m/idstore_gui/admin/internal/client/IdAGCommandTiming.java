@@ -0,0 +1,115 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The live timing counters for a single class of command. Starting and
+ * finishing a command perform no allocation.
+ */
+
+public final class IdAGCommandTiming
+{
+  private final String name;
+  private final IdAGCommandHistogram histogram;
+  private final LongAdder succeeded;
+  private final LongAdder failed;
+  private final LongAdder inFlight;
+
+  /**
+   * The live timing counters for a single class of command.
+   *
+   * @param inName The command name
+   */
+
+  public IdAGCommandTiming(
+    final String inName)
+  {
+    this.name =
+      Objects.requireNonNull(inName, "name");
+    this.histogram =
+      new IdAGCommandHistogram();
+    this.succeeded =
+      new LongAdder();
+    this.failed =
+      new LongAdder();
+    this.inFlight =
+      new LongAdder();
+  }
+
+  /**
+   * @return The command name
+   */
+
+  public String name()
+  {
+    return this.name;
+  }
+
+  /**
+   * Note that a command has started.
+   *
+   * @return The start time, to be passed to {@link #finish(long, boolean)}
+   */
+
+  public long start()
+  {
+    this.inFlight.increment();
+    return System.nanoTime();
+  }
+
+  /**
+   * Note that a command has finished.
+   *
+   * @param timeThen  The value returned by {@link #start()}
+   * @param succeeded {@code true} if the command succeeded
+   */
+
+  public void finish(
+    final long timeThen,
+    final boolean succeeded)
+  {
+    this.histogram.record(System.nanoTime() - timeThen);
+    this.inFlight.decrement();
+    if (succeeded) {
+      this.succeeded.increment();
+    } else {
+      this.failed.increment();
+    }
+  }
+
+  /**
+   * @return A snapshot of the current statistics
+   */
+
+  public IdAGCommandStatistics statistics()
+  {
+    return new IdAGCommandStatistics(
+      this.name,
+      this.succeeded.sum(),
+      this.failed.sum(),
+      this.inFlight.sum(),
+      this.histogram.percentile(50.0),
+      this.histogram.percentile(90.0),
+      this.histogram.percentile(99.0),
+      this.histogram.maximum()
+    );
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The per-command-class timings for a client. Looking up the timing for a
+ * command class that has been seen before performs no allocation.
+ */
+
+public final class IdAGCommandTimings
+{
+  private static final String LOGIN = "Login";
+
+  private final ConcurrentHashMap<Class<?>, IdAGCommandTiming> timings;
+  private final IdAGCommandTiming login;
+
+  /**
+   * The per-command-class timings for a client.
+   */
+
+  public IdAGCommandTimings()
+  {
+    this.timings =
+      new ConcurrentHashMap<>();
+    this.login =
+      new IdAGCommandTiming(LOGIN);
+  }
+
+  private static IdAGCommandTiming timingFor(
+    final Class<?> clazz)
+  {
+    return new IdAGCommandTiming(clazz.getSimpleName());
+  }
+
+  /**
+   * @param clazz The command class
+   *
+   * @return The timing for the given command class
+   */
+
+  public IdAGCommandTiming timing(
+    final Class<?> clazz)
+  {
+    final var existing = this.timings.get(clazz);
+    if (existing != null) {
+      return existing;
+    }
+    return this.timings.computeIfAbsent(clazz, IdAGCommandTimings::timingFor);
+  }
+
+  /**
+   * @return The timing for logins
+   */
+
+  public IdAGCommandTiming login()
+  {
+    return this.login;
+  }
+
+  /**
+   * @return A snapshot of the statistics for every command seen so far,
+   * ordered by command name
+   */
+
+  public List<IdAGCommandStatistics> statistics()
+  {
+    final var all =
+      new ArrayList<IdAGCommandStatistics>(this.timings.size() + 1);
+
+    final var loginStatistics = this.login.statistics();
+    if (loginStatistics.succeeded() + loginStatistics.failed()
+        + loginStatistics.inFlight() > 0L) {
+      all.add(loginStatistics);
+    }
+    for (final var timing : this.timings.values()) {
+      all.add(timing.statistics());
+    }
+    all.sort(Comparator.comparing(IdAGCommandStatistics::command));
+    return List.copyOf(all);
+  }
+
+  /**
+   * Write the given statistics to a file in CSV format. Durations are
+   * written in microseconds.
+   *
+   * @param file       The output file
+   * @param statistics The statistics
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void exportCSV(
+    final Path file,
+    final List<IdAGCommandStatistics> statistics)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(statistics, "statistics");
+
+    try (var writer = Files.newBufferedWriter(file, UTF_8)) {
+      exportCSV(writer, statistics);
+    }
+  }
+
+  /**
+   * Write the given statistics in CSV format. Durations are written in
+   * microseconds.
+   *
+   * @param writer     The output writer
+   * @param statistics The statistics
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void exportCSV(
+    final Writer writer,
+    final List<IdAGCommandStatistics> statistics)
+    throws IOException
+  {
+    Objects.requireNonNull(writer, "writer");
+    Objects.requireNonNull(statistics, "statistics");
+
+    writer.write(
+      "command,succeeded,failed,in_flight,p50_us,p90_us,p99_us,max_us\n");
+
+    for (final var s : statistics) {
+      writer.write(
+        "%s,%d,%d,%d,%d,%d,%d,%d\n".formatted(
+          s.command(),
+          Long.valueOf(s.succeeded()),
+          Long.valueOf(s.failed()),
+          Long.valueOf(s.inFlight()),
+          Long.valueOf(s.p50().toNanos() / 1_000L),
+          Long.valueOf(s.p90().toNanos() / 1_000L),
+          Long.valueOf(s.p99().toNanos() / 1_000L),
+          Long.valueOf(s.maximum().toNanos() / 1_000L)
+        )
+      );
+    }
+    writer.flush();
+  }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>A bounded, least-recently-used cache of entities (users, admins, and so
+ * on) keyed by ID. Entries expire a fixed time after they were last
+ * written, so that changes made on the server by other admins become
+ * visible after a short delay.</p>
+ *
+ * <p>Every change to the cache increments the cache's version. A read from
+ * the server takes the version before it starts, and stores its result
+ * with {@link #putIfUnchanged(Object, Object, long)}, which refuses the
+ * result if the entity has been written or removed in the meantime. A slow
+ * read therefore cannot replace the result of a write that completed
+ * before it. The versions of recently removed and evicted entities are
+ * remembered for this purpose; if that record is itself full, results of
+ * reads that started before the oldest forgotten change are refused.</p>
+ *
+ * @param <K> The type of keys
+ * @param <V> The type of entities
+ */
+
+public final class IdAGEntityCache<K, V>
+{
+  private final Object lock;
+  private final int capacity;
+  private final long expiryNanos;
+  private final LongSupplier clock;
+  private final LinkedHashMap<K, Entry<V>> entries;
+  private final LinkedHashMap<K, Long> removals;
+  private long version;
+  private long versionCleared;
+  private long versionForgotten;
+
+  /**
+   * A bounded, least-recently-used cache of entities.
+   *
+   * @param inCapacity The maximum number of entities held
+   * @param inExpiry   The time after which an entity expires
+   */
+
+  public IdAGEntityCache(
+    final int inCapacity,
+    final Duration inExpiry)
+  {
+    this(inCapacity, inExpiry, System::nanoTime);
+  }
+
+  /**
+   * A bounded, least-recently-used cache of entities.
+   *
+   * @param inCapacity The maximum number of entities held
+   * @param inExpiry   The time after which an entity expires
+   * @param inClock    A clock returning the current time in nanoseconds
+   */
+
+  public IdAGEntityCache(
+    final int inCapacity,
+    final Duration inExpiry,
+    final LongSupplier inClock)
+  {
+    if (inCapacity <= 0) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be positive".formatted(Integer.valueOf(inCapacity))
+      );
+    }
+
+    this.lock = new Object();
+    this.capacity = inCapacity;
+    this.expiryNanos = inExpiry.toNanos();
+    this.clock = Objects.requireNonNull(inClock, "clock");
+    this.entries = new LinkedHashMap<>(inCapacity, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<K, Entry<V>> eldest)
+      {
+        final var cache = IdAGEntityCache.this;
+        if (this.size() > cache.capacity) {
+          cache.removals.put(
+            eldest.getKey(),
+            Long.valueOf(eldest.getValue().version()));
+          return true;
+        }
+        return false;
+      }
+    };
+    this.removals = new LinkedHashMap<>(inCapacity, 0.75f, false)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<K, Long> eldest)
+      {
+        final var cache = IdAGEntityCache.this;
+        if (this.size() > cache.capacity) {
+          cache.versionForgotten =
+            Math.max(cache.versionForgotten, eldest.getValue().longValue());
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return The current version of the cache
+   */
+
+  public long version()
+  {
+    synchronized (this.lock) {
+      return this.version;
+    }
+  }
+
+  /**
+   * Find a cached entity.
+   *
+   * @param key The key
+   *
+   * @return The entity, if it is cached and has not expired
+   */
+
+  public Optional<V> get(
+    final K key)
+  {
+    Objects.requireNonNull(key, "key");
+
+    synchronized (this.lock) {
+      final var entry = this.entries.get(key);
+      if (entry == null) {
+        return Optional.empty();
+      }
+      if (this.clock.getAsLong() - entry.written >= this.expiryNanos) {
+        this.entries.remove(key);
+        this.removals.put(key, Long.valueOf(entry.version()));
+        return Optional.empty();
+      }
+      return Optional.of(entry.value);
+    }
+  }
+
+  /**
+   * Add an entity to the cache, replacing any existing entity with the same
+   * key, and evicting the least recently used entity if the cache is full.
+   *
+   * @param key   The key
+   * @param value The entity
+   */
+
+  public void put(
+    final K key,
+    final V value)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+
+    synchronized (this.lock) {
+      this.putLocked(key, value);
+    }
+  }
+
+  /**
+   * Add an entity that was read from the server to the cache, unless the
+   * entity has been written or removed since the given version.
+   *
+   * @param key     The key
+   * @param value   The entity
+   * @param version The version of the cache taken before the read started
+   *
+   * @return {@code true} if the entity was added
+   *
+   * @see #version()
+   */
+
+  public boolean putIfUnchanged(
+    final K key,
+    final V value,
+    final long version)
+  {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+
+    synchronized (this.lock) {
+      if (version < this.versionCleared || version < this.versionForgotten) {
+        return false;
+      }
+
+      final var existing = this.entries.get(key);
+      if (existing != null && existing.version() > version) {
+        return false;
+      }
+
+      final var removed = this.removals.get(key);
+      if (removed != null && removed.longValue() > version) {
+        return false;
+      }
+
+      this.putLocked(key, value);
+      return true;
+    }
+  }
+
+  private void putLocked(
+    final K key,
+    final V value)
+  {
+    ++this.version;
+    this.removals.remove(key);
+    this.entries.put(
+      key,
+      new Entry<>(value, this.clock.getAsLong(), this.version)
+    );
+  }
+
+  /**
+   * Discard the entity with the given key.
+   *
+   * @param key The key
+   */
+
+  public void remove(
+    final K key)
+  {
+    Objects.requireNonNull(key, "key");
+
+    synchronized (this.lock) {
+      ++this.version;
+      this.entries.remove(key);
+      this.removals.put(key, Long.valueOf(this.version));
+    }
+  }
+
+  /**
+   * Discard all cached entities.
+   */
+
+  public void clear()
+  {
+    synchronized (this.lock) {
+      ++this.version;
+      this.versionCleared = this.version;
+      this.entries.clear();
+      this.removals.clear();
+    }
+  }
+
+  /**
+   * @return The number of entities currently held, including any that have
+   * expired but have not yet been discarded
+   */
+
+  public int size()
+  {
+    synchronized (this.lock) {
+      return this.entries.size();
+    }
+  }
+
+  private record Entry<V>(
+    V value,
+    long written,
+    long version)
+  {
+
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusType;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * An event indicating that an entity was changed on the server by an
+ * operation that did not go through the client service's write methods
+ * (such as an operation on a separate connection). The client service
+ * discards any cached copy of the entity when the event is published.
+ *
+ * @param kind The kind of entity
+ * @param id   The entity ID
+ */
+
+public record IdAGEntityChangedEvent(
+  IdAGEntityKind kind,
+  UUID id)
+  implements IdAGEventType
+{
+  /**
+   * An event indicating that an entity was changed on the server.
+   *
+   * @param kind The kind of entity
+   * @param id   The entity ID
+   */
+
+  public IdAGEntityChangedEvent
+  {
+    Objects.requireNonNull(kind, "kind");
+    Objects.requireNonNull(id, "id");
+  }
+
+  @Override
+  public String message()
+  {
+    return "%s %s changed".formatted(this.kind, this.id);
+  }
+
+  @Override
+  public IdAGEventStatusType status()
+  {
+    return new IdAGEventStatusCompleted();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * <p>An operation of which at most one instance runs at a time, and at most
+ * one further instance waits to run.</p>
+ *
+ * <p>Submitting a request whilst another is running replaces any request
+ * that was already waiting; the replaced request's future is cancelled
+ * without the operation ever having been started. A waiting request whose
+ * future has been cancelled by the caller is likewise never started. This
+ * suits operations such as loading the details of the selected item, where
+ * only the most recent request is of any interest.</p>
+ *
+ * @param <K> The type of request keys
+ * @param <V> The type of results
+ */
+
+final class IdAGLatestOnly<K, V>
+{
+  private final Function<K, CompletableFuture<V>> operation;
+  private final Object lock;
+  private boolean running;
+  private K waitingKey;
+  private CompletableFuture<V> waitingFuture;
+
+  IdAGLatestOnly(
+    final Function<K, CompletableFuture<V>> inOperation)
+  {
+    this.operation =
+      Objects.requireNonNull(inOperation, "operation");
+    this.lock =
+      new Object();
+  }
+
+  CompletableFuture<V> submit(
+    final K key)
+  {
+    Objects.requireNonNull(key, "key");
+
+    final var future = new CompletableFuture<V>();
+    synchronized (this.lock) {
+      if (this.running) {
+        if (this.waitingFuture != null) {
+          this.waitingFuture.cancel(false);
+        }
+        this.waitingKey = key;
+        this.waitingFuture = future;
+        return future;
+      }
+      this.running = true;
+    }
+
+    this.run(key, future);
+    return future;
+  }
+
+  private void run(
+    final K key,
+    final CompletableFuture<V> future)
+  {
+    if (future.isDone()) {
+      this.runWaiting();
+      return;
+    }
+
+    final CompletableFuture<V> result;
+    try {
+      result = this.operation.apply(key);
+    } catch (final Throwable e) {
+      future.completeExceptionally(e);
+      this.runWaiting();
+      return;
+    }
+
+    result.whenComplete((value, exception) -> {
+      if (exception != null) {
+        future.completeExceptionally(exception);
+      } else {
+        future.complete(value);
+      }
+      this.runWaiting();
+    });
+  }
+
+  private void runWaiting()
+  {
+    final K key;
+    final CompletableFuture<V> future;
+    synchronized (this.lock) {
+      if (this.waitingFuture == null) {
+        this.running = false;
+        return;
+      }
+      key = this.waitingKey;
+      future = this.waitingFuture;
+      this.waitingKey = null;
+      this.waitingFuture = null;
+    }
+
+    this.run(key, future);
+  }
+}
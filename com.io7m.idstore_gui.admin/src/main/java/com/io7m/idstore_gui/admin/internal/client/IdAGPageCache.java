@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore.model.IdPage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A bounded, least-recently-used cache of search result pages. Pages are
+ * keyed by the search parameters that produced them, and by their page index.
+ *
+ * @param <T> The type of page items
+ */
+
+public final class IdAGPageCache<T>
+{
+  private final Object lock;
+  private final int capacity;
+  private final LinkedHashMap<Key, IdPage<T>> pages;
+  private long hits;
+  private long misses;
+
+  /**
+   * A bounded, least-recently-used cache of search result pages.
+   *
+   * @param inCapacity The maximum number of pages held
+   */
+
+  public IdAGPageCache(
+    final int inCapacity)
+  {
+    if (inCapacity <= 0) {
+      throw new IllegalArgumentException(
+        "Capacity %d must be positive".formatted(Integer.valueOf(inCapacity))
+      );
+    }
+
+    this.lock = new Object();
+    this.capacity = inCapacity;
+    this.pages = new LinkedHashMap<>(inCapacity, 0.75f, true)
+    {
+      @Override
+      protected boolean removeEldestEntry(
+        final Map.Entry<Key, IdPage<T>> eldest)
+      {
+        return this.size() > IdAGPageCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Find a cached page.
+   *
+   * @param parameters The search parameters
+   * @param pageIndex  The page index
+   *
+   * @return The page, if it is cached
+   */
+
+  public Optional<IdPage<T>> get(
+    final Object parameters,
+    final int pageIndex)
+  {
+    Objects.requireNonNull(parameters, "parameters");
+
+    synchronized (this.lock) {
+      final var page = this.pages.get(new Key(parameters, pageIndex));
+      if (page == null) {
+        ++this.misses;
+        return Optional.empty();
+      }
+      ++this.hits;
+      return Optional.of(page);
+    }
+  }
+
+  /**
+   * Determine if a page is cached. This does not affect the hit and miss
+   * counters, nor the recency of the page.
+   *
+   * @param parameters The search parameters
+   * @param pageIndex  The page index
+   *
+   * @return {@code true} if the page is cached
+   */
+
+  public boolean contains(
+    final Object parameters,
+    final int pageIndex)
+  {
+    Objects.requireNonNull(parameters, "parameters");
+
+    synchronized (this.lock) {
+      return this.pages.containsKey(new Key(parameters, pageIndex));
+    }
+  }
+
+  /**
+   * Add a page to the cache, evicting the least recently used page if the
+   * cache is full.
+   *
+   * @param parameters The search parameters
+   * @param page       The page
+   */
+
+  public void put(
+    final Object parameters,
+    final IdPage<T> page)
+  {
+    Objects.requireNonNull(parameters, "parameters");
+    Objects.requireNonNull(page, "page");
+
+    synchronized (this.lock) {
+      this.pages.put(new Key(parameters, page.pageIndex()), page);
+    }
+  }
+
+  /**
+   * Discard all cached pages produced by the given search parameters.
+   *
+   * @param parameters The search parameters
+   */
+
+  public void clear(
+    final Object parameters)
+  {
+    Objects.requireNonNull(parameters, "parameters");
+
+    synchronized (this.lock) {
+      this.pages.keySet()
+        .removeIf(key -> Objects.equals(key.parameters(), parameters));
+    }
+  }
+
+  /**
+   * Discard all cached pages. The hit and miss counters are preserved.
+   */
+
+  public void clear()
+  {
+    synchronized (this.lock) {
+      this.pages.clear();
+    }
+  }
+
+  /**
+   * @return A snapshot of the cache statistics
+   */
+
+  public IdAGPageCacheStatistics statistics()
+  {
+    synchronized (this.lock) {
+      return new IdAGPageCacheStatistics(
+        this.hits,
+        this.misses,
+        this.pages.size(),
+        this.capacity
+      );
+    }
+  }
+
+  private record Key(
+    Object parameters,
+    int pageIndex)
+  {
+
+  }
+}
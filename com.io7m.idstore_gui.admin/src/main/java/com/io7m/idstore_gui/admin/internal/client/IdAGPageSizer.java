@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPageSizeMode;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * <p>A source of page sizes for one kind of search.</p>
+ *
+ * <p>In fixed mode, the configured page size is always used. In adaptive
+ * mode, the round-trip time of each page fetch is averaged; the page size is
+ * doubled while the average stays below {@link #LATENCY_LOW_MS} and halved
+ * when it rises above {@link #LATENCY_HIGH_MS}. The server fixes the page
+ * size when a search begins, so a new size only takes effect for the next
+ * search.</p>
+ */
+
+final class IdAGPageSizer
+{
+  /**
+   * Round trips faster than this (in milliseconds) cause page sizes to grow.
+   */
+
+  static final double LATENCY_LOW_MS = 250.0;
+
+  /**
+   * Round trips slower than this (in milliseconds) cause page sizes to
+   * shrink.
+   */
+
+  static final double LATENCY_HIGH_MS = 1000.0;
+
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGPageSizer.class);
+
+  private static final double SMOOTHING = 0.3;
+  private static final int SAMPLES_REQUIRED = 3;
+
+  private final String name;
+  private final Supplier<IdAGPreferencesPaging> preferences;
+  private final ToIntFunction<IdAGPreferencesPaging> configuredSize;
+  private double latencyAverage;
+  private int latencySamples;
+  private int adaptiveSize;
+
+  IdAGPageSizer(
+    final String inName,
+    final Supplier<IdAGPreferencesPaging> inPreferences,
+    final ToIntFunction<IdAGPreferencesPaging> inConfiguredSize)
+  {
+    this.name =
+      Objects.requireNonNull(inName, "name");
+    this.preferences =
+      Objects.requireNonNull(inPreferences, "preferences");
+    this.configuredSize =
+      Objects.requireNonNull(inConfiguredSize, "configuredSize");
+  }
+
+  /**
+   * @return The page size that should be used for the next search
+   */
+
+  synchronized int pageSize()
+  {
+    final var paging = this.preferences.get();
+    final var configured = this.configuredSize.applyAsInt(paging);
+
+    if (paging.pageSizeMode() == IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED) {
+      this.adaptiveSize = 0;
+      return configured;
+    }
+
+    if (this.adaptiveSize == 0) {
+      this.adaptiveSize = configured;
+    }
+    return this.adaptiveSize;
+  }
+
+  /**
+   * Record the round-trip time of a page fetch.
+   *
+   * @param nanoseconds The time taken
+   */
+
+  synchronized void recordLatency(
+    final long nanoseconds)
+  {
+    if (this.adaptiveSize == 0) {
+      return;
+    }
+
+    final var millis = (double) nanoseconds / 1_000_000.0;
+    if (this.latencySamples == 0) {
+      this.latencyAverage = millis;
+    } else {
+      this.latencyAverage =
+        (SMOOTHING * millis) + ((1.0 - SMOOTHING) * this.latencyAverage);
+    }
+
+    ++this.latencySamples;
+    if (this.latencySamples < SAMPLES_REQUIRED) {
+      return;
+    }
+
+    final int sizeNew;
+    if (this.latencyAverage < LATENCY_LOW_MS) {
+      sizeNew = IdAGPreferencesPaging.clampPageSize(this.adaptiveSize * 2);
+    } else if (this.latencyAverage > LATENCY_HIGH_MS) {
+      sizeNew = IdAGPreferencesPaging.clampPageSize(this.adaptiveSize / 2);
+    } else {
+      return;
+    }
+
+    if (sizeNew != this.adaptiveSize) {
+      LOG.debug(
+        "{}: average latency {}ms, page size {} -> {}",
+        this.name,
+        String.format("%.2f", Double.valueOf(this.latencyAverage)),
+        Integer.valueOf(this.adaptiveSize),
+        Integer.valueOf(sizeNew)
+      );
+      this.adaptiveSize = sizeNew;
+    }
+
+    /*
+     * Measurements taken at the old page size say nothing about the new
+     * page size.
+     */
+
+    this.latencySamples = 0;
+  }
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore.model.IdPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * <p>A paged search backed by a page cache.</p>
+ *
+ * <p>The server maintains a cursor for each kind of search, and the only way
+ * to move that cursor is to execute a "next" or "previous" command. This
+ * class tracks both the page the UI is currently displaying, and the page at
+ * which the server cursor is positioned. Requests for cached pages complete
+ * immediately and do not move the server cursor; requests for pages that are
+ * not cached walk the server cursor to the requested page. All commands that
+ * move the server cursor are executed strictly one at a time.</p>
+ *
+ * <p>When a page is displayed, the neighbouring pages may be fetched in the
+ * background according to the current {@link IdAGPagePrefetch} mode.
+ * Beginning a new search cancels any prefetching that has not yet started,
+ * and any multi-step cursor walk at the next step. Page moves that are
+ * superseded in this way are not treated as errors: they complete with the
+ * first page of the new search, or with {@code null} if the search was
+ * reset.</p>
+ *
+ * <p>The round-trip time of every command is reported to an
+ * {@link IdAGPageSizer} so that page sizes can adapt to the server.</p>
+ *
+ * @param <P> The type of search parameters
+ * @param <T> The type of page items
+ */
+
+final class IdAGPagedSearch<P, T>
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGPagedSearch.class);
+
+  private final IdAGPageCache<T> cache;
+  private final IdAGPageSizer sizer;
+  private final Function<P, CompletableFuture<IdPage<T>>> commandBegin;
+  private final Supplier<CompletableFuture<IdPage<T>>> commandNext;
+  private final Supplier<CompletableFuture<IdPage<T>>> commandPrevious;
+  private final Object lock;
+  private volatile IdAGPagePrefetch prefetch;
+  private CompletableFuture<?> queue;
+  private CompletableFuture<IdPage<T>> latest;
+  private P parameters;
+  private long generation;
+  private int pageCurrent;
+  private int pageServer;
+  private int pageCount;
+
+  IdAGPagedSearch(
+    final IdAGPageCache<T> inCache,
+    final IdAGPageSizer inSizer,
+    final Function<P, CompletableFuture<IdPage<T>>> inCommandBegin,
+    final Supplier<CompletableFuture<IdPage<T>>> inCommandNext,
+    final Supplier<CompletableFuture<IdPage<T>>> inCommandPrevious)
+  {
+    this.cache =
+      Objects.requireNonNull(inCache, "cache");
+    this.sizer =
+      Objects.requireNonNull(inSizer, "sizer");
+    this.commandBegin =
+      Objects.requireNonNull(inCommandBegin, "commandBegin");
+    this.commandNext =
+      Objects.requireNonNull(inCommandNext, "commandNext");
+    this.commandPrevious =
+      Objects.requireNonNull(inCommandPrevious, "commandPrevious");
+    this.lock =
+      new Object();
+    this.queue =
+      CompletableFuture.completedFuture(null);
+    this.latest =
+      CompletableFuture.completedFuture(null);
+    this.prefetch =
+      IdAGPagePrefetch.PREFETCH_NONE;
+  }
+
+  /**
+   * Set the prefetch mode.
+   *
+   * @param mode The mode
+   */
+
+  void setPrefetch(
+    final IdAGPagePrefetch mode)
+  {
+    this.prefetch = Objects.requireNonNull(mode, "mode");
+  }
+
+  /**
+   * Start a new search. The first page is always fetched from the server,
+   * and any pages previously cached for the same parameters are discarded.
+   *
+   * @param newParameters The search parameters
+   *
+   * @return The first page
+   */
+
+  CompletableFuture<IdPage<T>> begin(
+    final P newParameters)
+  {
+    Objects.requireNonNull(newParameters, "newParameters");
+
+    final long beginGeneration;
+    final CompletableFuture<IdPage<T>> future;
+
+    /*
+     * The new generation and the future that supersedes older moves are
+     * published together, so that a cancelled move always finds the search
+     * that cancelled it.
+     */
+
+    synchronized (this.lock) {
+      beginGeneration = ++this.generation;
+      future = this.enqueue(() -> this.beginQueued(newParameters));
+      this.latest = future;
+    }
+
+    future.thenRun(() -> this.prefetchSchedule(beginGeneration));
+    return future;
+  }
+
+  private CompletableFuture<IdPage<T>> beginQueued(
+    final P newParameters)
+  {
+    return this.timed(() -> this.commandBegin.apply(newParameters))
+      .thenApply(page -> {
+        this.cache.clear(newParameters);
+        synchronized (this.lock) {
+          this.parameters = newParameters;
+          this.pageServer = page.pageIndex();
+          this.pageCurrent = page.pageIndex();
+          this.pageCount = page.pageCount();
+        }
+        this.cache.put(newParameters, page);
+        return page;
+      });
+  }
+
+  /**
+   * @return The page after the current page
+   */
+
+  CompletableFuture<IdPage<T>> next()
+  {
+    return this.move(current -> current + 1);
+  }
+
+  /**
+   * @return The page before the current page
+   */
+
+  CompletableFuture<IdPage<T>> previous()
+  {
+    return this.move(current -> current - 1);
+  }
+
+  /**
+   * Move to an arbitrary page. Page indices outside of the range of the
+   * current search are clamped.
+   *
+   * @param pageIndex The page index, starting at 1
+   *
+   * @return The page with the given index
+   */
+
+  CompletableFuture<IdPage<T>> page(
+    final int pageIndex)
+  {
+    return this.move(current -> pageIndex);
+  }
+
+  /**
+   * Forget the current search entirely. This is used when the server session
+   * (and therefore the server cursor) is lost.
+   */
+
+  void reset()
+  {
+    synchronized (this.lock) {
+      ++this.generation;
+      this.latest = CompletableFuture.completedFuture(null);
+      this.parameters = null;
+      this.pageCurrent = 0;
+      this.pageServer = 0;
+      this.pageCount = 0;
+    }
+  }
+
+  private CompletableFuture<IdPage<T>> move(
+    final IntUnaryOperator targetOf)
+  {
+    /*
+     * If the requested page is cached, it can be returned immediately
+     * without waiting for any commands that are currently moving the server
+     * cursor.
+     */
+
+    final P currentParameters;
+    final long moveGeneration;
+    final int target;
+    synchronized (this.lock) {
+      if (this.parameters == null) {
+        return CompletableFuture.failedFuture(
+          new IllegalStateException("No search is in progress."));
+      }
+      currentParameters = this.parameters;
+      moveGeneration = this.generation;
+      target = this.clampPage(targetOf.applyAsInt(this.pageCurrent));
+    }
+
+    final var cached = this.cache.get(currentParameters, target);
+    if (cached.isPresent()) {
+      this.setCurrent(currentParameters, cached.get());
+      this.prefetchSchedule(moveGeneration);
+      return CompletableFuture.completedFuture(cached.get());
+    }
+
+    final var future =
+      this.enqueue(() -> this.moveQueued(targetOf, moveGeneration));
+    future.thenRun(() -> this.prefetchSchedule(moveGeneration));
+    return future.exceptionallyCompose(this::supersededOrFailed);
+  }
+
+  /**
+   * A move that was cancelled because a new search began completes with the
+   * first page of the newest search rather than failing.
+   */
+
+  private CompletableFuture<IdPage<T>> supersededOrFailed(
+    final Throwable exception)
+  {
+    if (exception instanceof SupersededException) {
+      LOG.trace("page move superseded by a new search");
+      synchronized (this.lock) {
+        return this.latest;
+      }
+    }
+    return CompletableFuture.failedFuture(exception);
+  }
+
+  private CompletableFuture<IdPage<T>> moveQueued(
+    final IntUnaryOperator targetOf,
+    final long moveGeneration)
+  {
+    final P currentParameters;
+    final int target;
+    synchronized (this.lock) {
+      if (this.generation != moveGeneration) {
+        return CompletableFuture.failedFuture(
+          new SupersededException());
+      }
+      currentParameters = this.parameters;
+      target = this.clampPage(targetOf.applyAsInt(this.pageCurrent));
+    }
+
+    final var cached = this.cache.get(currentParameters, target);
+    if (cached.isPresent()) {
+      return CompletableFuture.completedFuture(
+        this.setCurrent(currentParameters, cached.get()));
+    }
+
+    return this.walk(currentParameters, target, moveGeneration)
+      .thenApply(page -> this.setCurrent(currentParameters, page));
+  }
+
+  private void prefetchSchedule(
+    final long prefetchGeneration)
+  {
+    final var mode = this.prefetch;
+    if (mode == IdAGPagePrefetch.PREFETCH_NONE) {
+      return;
+    }
+
+    final P currentParameters;
+    final int current;
+    final int count;
+    synchronized (this.lock) {
+      if (this.generation != prefetchGeneration || this.parameters == null) {
+        return;
+      }
+      currentParameters = this.parameters;
+      current = this.pageCurrent;
+      count = this.pageCount;
+    }
+
+    if (current < count) {
+      this.prefetchPage(currentParameters, current + 1, prefetchGeneration);
+    }
+
+    if (mode == IdAGPagePrefetch.PREFETCH_NEXT_AND_PREVIOUS && current > 1) {
+      this.prefetchPage(currentParameters, current - 1, prefetchGeneration);
+    }
+  }
+
+  private void prefetchPage(
+    final P prefetchParameters,
+    final int target,
+    final long prefetchGeneration)
+  {
+    if (this.cache.contains(prefetchParameters, target)) {
+      return;
+    }
+
+    this.enqueue(() -> {
+      synchronized (this.lock) {
+        if (this.generation != prefetchGeneration) {
+          return CompletableFuture.completedFuture(null);
+        }
+      }
+      if (this.cache.contains(prefetchParameters, target)) {
+        return CompletableFuture.completedFuture(null);
+      }
+
+      LOG.trace("prefetching page {}", Integer.valueOf(target));
+      return this.walk(prefetchParameters, target, prefetchGeneration);
+    });
+  }
+
+  /**
+   * Move the server cursor one page at a time until it reaches the target
+   * page. Every page received along the way is cached. Must only be called
+   * from within the command queue.
+   */
+
+  private CompletableFuture<IdPage<T>> walk(
+    final P walkParameters,
+    final int target,
+    final long walkGeneration)
+  {
+    final int server;
+    synchronized (this.lock) {
+      if (this.generation != walkGeneration) {
+        return CompletableFuture.failedFuture(
+          new SupersededException());
+      }
+      server = this.pageServer;
+    }
+
+    /*
+     * If the server cursor is already on the target page (but the page is
+     * not cached), the only way to fetch the page again is to step away from
+     * it and then back.
+     */
+
+    final Supplier<CompletableFuture<IdPage<T>>> step;
+    if (target > server) {
+      step = this.commandNext;
+    } else if (target < server) {
+      step = this.commandPrevious;
+    } else if (server > 1) {
+      step = this.commandPrevious;
+    } else {
+      step = this.commandNext;
+    }
+
+    return this.timed(step)
+      .thenCompose(page -> {
+        synchronized (this.lock) {
+          this.pageServer = page.pageIndex();
+          this.pageCount = page.pageCount();
+        }
+        this.cache.put(walkParameters, page);
+
+        final var received = page.pageIndex();
+        if (received == target || received == server) {
+          return CompletableFuture.completedFuture(page);
+        }
+        return this.walk(walkParameters, target, walkGeneration);
+      });
+  }
+
+  private CompletableFuture<IdPage<T>> timed(
+    final Supplier<CompletableFuture<IdPage<T>>> command)
+  {
+    final var timeThen = System.nanoTime();
+    return command.get()
+      .thenApply(page -> {
+        this.sizer.recordLatency(System.nanoTime() - timeThen);
+        return page;
+      });
+  }
+
+  private IdPage<T> setCurrent(
+    final P pageParameters,
+    final IdPage<T> page)
+  {
+    synchronized (this.lock) {
+      if (Objects.equals(this.parameters, pageParameters)) {
+        this.pageCurrent = page.pageIndex();
+      }
+    }
+    return page;
+  }
+
+  private int clampPage(
+    final int page)
+  {
+    return Math.max(1, Math.min(page, Math.max(1, this.pageCount)));
+  }
+
+  /**
+   * The exception used to cancel operations that belong to an older search.
+   */
+
+  private static final class SupersededException
+    extends CancellationException
+  {
+    SupersededException()
+    {
+      super("A new search has begun.");
+    }
+  }
+
+  private <R> CompletableFuture<R> enqueue(
+    final Supplier<CompletableFuture<R>> operation)
+  {
+    final var result = new CompletableFuture<R>();
+    final CompletableFuture<?> previous;
+    synchronized (this.lock) {
+      previous = this.queue;
+      this.queue = result;
+    }
+
+    previous.handle((ignored0, ignored1) -> null)
+      .thenCompose(ignored -> operation.get())
+      .whenComplete((value, exception) -> {
+        if (exception == null) {
+          result.complete(value);
+        } else if (exception instanceof CompletionException
+                   && exception.getCause() != null) {
+          result.completeExceptionally(exception.getCause());
+        } else {
+          result.completeExceptionally(exception);
+        }
+      });
+
+    return result;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.client;
+
+import com.io7m.idstore.model.IdBan;
+import com.io7m.idstore.model.IdLogin;
+import com.io7m.idstore.model.IdUser;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A snapshot of everything shown about a single user.
+ *
+ * @param user         The user
+ * @param ban          The user's ban, if any
+ * @param loginHistory The user's login history
+ */
+
+public record IdAGUserDetails(
+  IdUser user,
+  Optional<IdBan> ban,
+  List<IdLogin> loginHistory)
+{
+  /**
+   * A snapshot of everything shown about a single user.
+   *
+   * @param user         The user
+   * @param ban          The user's ban, if any
+   * @param loginHistory The user's login history
+   */
+
+  public IdAGUserDetails
+  {
+    Objects.requireNonNull(user, "user");
+    Objects.requireNonNull(ban, "ban");
+    loginHistory = List.copyOf(loginHistory);
+  }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.diagnostics;
+
+import com.io7m.hibiscus.api.HBStateType.HBStateClosed;
+import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore_gui.admin.internal.IdAGBackgroundSchedulerService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGCommandStatistics;
+import com.io7m.idstore_gui.admin.internal.client.IdAGCommandTimings;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static javafx.scene.control.SelectionMode.SINGLE;
+
+/**
+ * <p>The diagnostics tab controller.</p>
+ *
+ * <p>The statistics are refreshed periodically only while the tab is
+ * selected and the client is connected. The periodic refresh is cancelled
+ * when the tab is deselected, when the client disconnects, and when the
+ * window closes.</p>
+ */
+
+public final class IdAGDiagnosticsController implements Initializable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGDiagnosticsController.class);
+
+  private static final long REFRESH_PERIOD_MS = 1_000L;
+
+  private final IdAGStringsType strings;
+  private final IdAGClientService client;
+  private final IdAGFXDispatcherService dispatcher;
+  private final IdAGEventBus eventBus;
+  private final IdAGBackgroundSchedulerService scheduler;
+  private final ObservableList<IdAGCommandStatistics> rows;
+  private final Tab tab;
+  private final Stage stage;
+  private ScheduledFuture<?> refreshTask;
+
+  @FXML private TableView<IdAGCommandStatistics> commandTable;
+  @FXML private Label dispatcherLabel;
+
+  /**
+   * The diagnostics tab controller.
+   *
+   * @param inMainServices The service directory
+   * @param inTab          The tab that holds the controller's content
+   * @param inStage        The stage hosting the tab
+   */
+
+  IdAGDiagnosticsController(
+    final RPServiceDirectoryType inMainServices,
+    final Tab inTab,
+    final Stage inStage)
+  {
+    Objects.requireNonNull(inMainServices, "mainServices");
+
+    this.tab =
+      Objects.requireNonNull(inTab, "tab");
+    this.stage =
+      Objects.requireNonNull(inStage, "stage");
+
+    this.strings =
+      inMainServices.requireService(IdAGStringsType.class);
+    this.client =
+      inMainServices.requireService(IdAGClientService.class);
+    this.dispatcher =
+      inMainServices.requireService(IdAGFXDispatcherService.class);
+    this.eventBus =
+      inMainServices.requireService(IdAGEventBus.class);
+    this.scheduler =
+      inMainServices.requireService(IdAGBackgroundSchedulerService.class);
+    this.rows =
+      FXCollections.observableArrayList();
+  }
+
+  private static double milliseconds(
+    final Duration duration)
+  {
+    return Math.round(duration.toNanos() / 1_000.0) / 1_000.0;
+  }
+
+  private static void columnText(
+    final TableColumn<IdAGCommandStatistics, String> column)
+  {
+    column.setReorderable(false);
+    column.setCellValueFactory(cell -> {
+      return new SimpleStringProperty(cell.getValue().command());
+    });
+  }
+
+  private static void columnCount(
+    final TableColumn<IdAGCommandStatistics, Long> column,
+    final ToLongFunction<IdAGCommandStatistics> field)
+  {
+    column.setReorderable(false);
+    column.setCellValueFactory(cell -> {
+      return new SimpleObjectProperty<>(
+        Long.valueOf(field.applyAsLong(cell.getValue())));
+    });
+  }
+
+  private static void columnTime(
+    final TableColumn<IdAGCommandStatistics, Double> column,
+    final Function<IdAGCommandStatistics, Duration> field)
+  {
+    column.setReorderable(false);
+    column.setCellValueFactory(cell -> {
+      return new SimpleObjectProperty<>(
+        Double.valueOf(milliseconds(field.apply(cell.getValue()))));
+    });
+  }
+
+  @Override
+  public void initialize(
+    final URL url,
+    final ResourceBundle resourceBundle)
+  {
+    final var columns =
+      this.commandTable.getColumns();
+
+    columnText(
+      (TableColumn<IdAGCommandStatistics, String>) columns.get(0));
+    columnCount(
+      (TableColumn<IdAGCommandStatistics, Long>) columns.get(1),
+      IdAGCommandStatistics::succeeded);
+    columnCount(
+      (TableColumn<IdAGCommandStatistics, Long>) columns.get(2),
+      IdAGCommandStatistics::failed);
+    columnCount(
+      (TableColumn<IdAGCommandStatistics, Long>) columns.get(3),
+      IdAGCommandStatistics::inFlight);
+    columnTime(
+      (TableColumn<IdAGCommandStatistics, Double>) columns.get(4),
+      IdAGCommandStatistics::p50);
+    columnTime(
+      (TableColumn<IdAGCommandStatistics, Double>) columns.get(5),
+      IdAGCommandStatistics::p90);
+    columnTime(
+      (TableColumn<IdAGCommandStatistics, Double>) columns.get(6),
+      IdAGCommandStatistics::p99);
+    columnTime(
+      (TableColumn<IdAGCommandStatistics, Double>) columns.get(7),
+      IdAGCommandStatistics::maximum);
+
+    this.commandTable.getSelectionModel().setSelectionMode(SINGLE);
+    this.commandTable.setItems(this.rows);
+    this.dispatcherLabel.setText("");
+
+    this.tab.selectedProperty()
+      .addListener((o, selectedOld, selectedNew) -> {
+        this.onRefreshConditionsChanged();
+      });
+    this.stage.addEventHandler(
+      WindowEvent.WINDOW_HIDDEN, e -> this.refreshStop());
+    this.client.status()
+      .addListener((o, statusOld, statusNew) -> {
+        this.dispatcher.execute(this::onRefreshConditionsChanged);
+      });
+
+    this.onRefreshConditionsChanged();
+  }
+
+  private boolean isRefreshWanted()
+  {
+    final var status = this.client.status().getValue();
+    return this.tab.isSelected()
+           && this.stage.isShowing()
+           && !(status instanceof HBStateDisconnected)
+           && !(status instanceof HBStateClosed);
+  }
+
+  private void onRefreshConditionsChanged()
+  {
+    if (this.isRefreshWanted()) {
+      this.refreshStart();
+    } else {
+      this.refreshStop();
+    }
+  }
+
+  private void refreshStart()
+  {
+    if (this.refreshTask != null) {
+      return;
+    }
+
+    this.refresh();
+    this.refreshTask =
+      this.scheduler.executor()
+        .scheduleWithFixedDelay(
+          this::onRefreshRequested,
+          REFRESH_PERIOD_MS,
+          REFRESH_PERIOD_MS,
+          TimeUnit.MILLISECONDS
+        );
+  }
+
+  private void refreshStop()
+  {
+    if (this.refreshTask != null) {
+      this.refreshTask.cancel(false);
+      this.refreshTask = null;
+    }
+  }
+
+  private void onRefreshRequested()
+  {
+    this.dispatcher.execute(this::refresh);
+  }
+
+  /*
+   * A refresh may already have been queued on the dispatcher when the
+   * periodic refresh was cancelled.
+   */
+
+  private void refresh()
+  {
+    if (!this.isRefreshWanted()) {
+      return;
+    }
+
+    final var statistics =
+      this.client.commandTimings().statistics();
+
+    this.rows.setAll(statistics);
+    this.commandTable.sort();
+
+    this.dispatcherLabel.setText(
+      this.strings.format(
+        "diagnostics.dispatcher",
+        Integer.toString(this.dispatcher.queueDepth()),
+        Integer.toString(this.dispatcher.drainCountLast()),
+        Double.toString(milliseconds(this.dispatcher.drainTimeLast())),
+        Double.toString(milliseconds(this.dispatcher.drainTimeMaximum())))
+    );
+  }
+
+  @FXML
+  private void onDiagnosticsExport()
+  {
+    final var chooser = new FileChooser();
+    chooser.setTitle(this.strings.format("diagnostics.export.title"));
+    chooser.getExtensionFilters().setAll(
+      new FileChooser.ExtensionFilter(
+        this.strings.format("diagnostics.export.csv"), "*.csv")
+    );
+    chooser.setInitialFileName("commands.csv");
+
+    final var file =
+      chooser.showSaveDialog(this.commandTable.getScene().getWindow());
+    if (file == null) {
+      return;
+    }
+
+    final var statistics =
+      this.client.commandTimings().statistics();
+
+    this.scheduler.executor()
+      .execute(() -> this.export(file.toPath(), statistics));
+  }
+
+  private void export(
+    final Path file,
+    final List<IdAGCommandStatistics> statistics)
+  {
+    try {
+      IdAGCommandTimings.exportCSV(file, statistics);
+      this.eventBus.submit(
+        new IdAGDiagnosticsExportEvent(
+          this.strings.format("diagnostics.export.completed", file),
+          new IdAGEventStatusCompleted()
+        )
+      );
+    } catch (final IOException e) {
+      final var message =
+        this.strings.format("diagnostics.export.failed", e.getMessage());
+
+      final var recorder =
+        TRTaskRecorder.create(LOG, "Exporting command timings...");
+      recorder.setStepFailed(message);
+      recorder.setTaskFailed(message, Optional.of(e));
+
+      this.eventBus.submit(
+        new IdAGDiagnosticsExportEvent(
+          message,
+          new IdAGEventStatusFailed(
+            recorder.toTask(),
+            IdStandardErrorCodes.IO_ERROR,
+            message,
+            Map.of("File", file.toString()),
+            Optional.empty(),
+            Optional.of(e)
+          )
+        )
+      );
+    }
+  }
+}
@@ -19,10 +19,11 @@ package com.io7m.idstore_gui.admin.internal.dialogs;
 
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
 import com.io7m.idstore_gui.admin.internal.IdAGCSS;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.jfr.IdAGJFRFXMLLoadEvent;
 import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
@@ -31,6 +32,7 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * A convenient abstract dialog factory.
@@ -97,32 +99,121 @@ public abstract class IdAGDialogFactoryAbstract<A, C>
     Stage stage
   );
 
+  /**
+   * Determine whether dialogs produced by this factory are pooled. A factory
+   * that returns {@code true} here must also override
+   * {@link #resetController(Object, Object)} so that a pooled dialog can be
+   * reused for new arguments.
+   *
+   * @return {@code true} if dialogs should be taken from the dialog pool
+   *
+   * @see IdAGDialogPoolService
+   */
+
+  protected boolean isPooled()
+  {
+    return false;
+  }
+
+  /**
+   * Reset a controller to its initial state, ready to be shown for the given
+   * arguments. This is called for every dialog before it is shown, whether
+   * or not the dialog was taken from the pool.
+   *
+   * @param controller The controller
+   * @param arguments  The dialog arguments
+   */
+
+  protected void resetController(
+    final C controller,
+    final A arguments)
+  {
+
+  }
+
   @Override
   public final C createDialogForStage(
     final A arguments,
     final Stage stage)
     throws IOException
+  {
+    final var controller =
+      this.loadDialogForStage(arguments, stage);
+    this.prepareDialog(controller, stage, arguments);
+    return controller;
+  }
+
+  private C loadDialogForStage(
+    final A arguments,
+    final Stage stage)
+    throws IOException
   {
     Objects.requireNonNull(stage, "stage");
 
-    final var xml =
-      this.fxmlResource();
-    final var resources =
-      this.strings.resources();
-    final var loader =
-      new FXMLLoader(xml, resources);
+    final var event =
+      new IdAGJFRFXMLLoadEvent(this.fxmlResource, this.controllerClass);
+    event.begin();
 
-    loader.setControllerFactory(
-      clazz -> this.createController(arguments, stage)
-    );
+    try {
+      final var document =
+        IdAGFXMLCache.shared().document(this.fxmlResource);
+      final var loader =
+        document.loader(this.strings.resources());
+
+      loader.setControllerFactory(
+        clazz -> this.createController(arguments, stage)
+      );
+
+      final Pane pane = document.load(loader);
+      IdAGCSS.setCSS(this.configuration, pane);
 
-    final Pane pane = loader.load();
-    IdAGCSS.setCSS(this.configuration, pane);
+      final C controller = loader.getController();
+      stage.setScene(new Scene(pane));
+      event.setSucceeded(true);
+      return controller;
+    } finally {
+      event.commit();
+    }
+  }
 
-    final C controller = loader.getController();
-    stage.setScene(new Scene(pane));
+  private void prepareDialog(
+    final C controller,
+    final Stage stage,
+    final A arguments)
+  {
+    this.resetController(controller, arguments);
     stage.setTitle(this.createStageTitle(arguments));
-    return controller;
+  }
+
+  private Optional<IdAGDialogPoolService> pool()
+  {
+    if (!this.isPooled()) {
+      return Optional.empty();
+    }
+    return this.services.optionalService(IdAGDialogPoolService.class);
+  }
+
+  @Override
+  public final void warm()
+    throws IOException
+  {
+    final var poolOpt = this.pool();
+    if (poolOpt.isEmpty()) {
+      return;
+    }
+
+    final var pool = poolOpt.get();
+    if (pool.isIdle(this.controllerClass)) {
+      return;
+    }
+
+    final var stage = new Stage();
+    final var controller = this.loadDialogForStage(null, stage);
+    stage.initModality(Modality.APPLICATION_MODAL);
+    pool.give(
+      this.controllerClass,
+      new IdAGControllerAndStage<>(controller, stage)
+    );
   }
 
   @Override
@@ -130,8 +221,33 @@ public abstract class IdAGDialogFactoryAbstract<A, C>
     final A arguments)
     throws IOException
   {
-    final var result = this.createDialog(arguments);
+    final var poolOpt = this.pool();
+    if (poolOpt.isEmpty()) {
+      final var result = this.createDialog(arguments);
+      result.stage().showAndWait();
+      return result.controller();
+    }
+
+    final var pool = poolOpt.get();
+    final var pooled = pool.take(this.controllerClass);
+
+    final IdAGControllerAndStage<C> result;
+    if (pooled.isPresent()) {
+      result = pooled.get();
+      this.prepareDialog(result.controller(), result.stage(), arguments);
+    } else {
+      result = this.createDialog(arguments);
+    }
+
+    /*
+     * The caller reads the dialog's result from the controller after this
+     * method returns. This is safe even though the dialog goes straight back
+     * into the pool, because the controller is only reset when the dialog
+     * is next taken from the pool.
+     */
+
     result.stage().showAndWait();
+    pool.give(this.controllerClass, result);
     return result.controller();
   }
 
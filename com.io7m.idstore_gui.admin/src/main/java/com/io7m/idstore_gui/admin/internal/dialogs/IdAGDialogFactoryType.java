@@ -75,6 +75,19 @@ public interface IdAGDialogFactoryType<A, C>
     A arguments)
     throws IOException;
 
+  /**
+   * Build a dialog ahead of time and place it into the dialog pool, if this
+   * factory supports pooling and the pool does not already hold an idle
+   * dialog for it. Must be called on the FX application thread.
+   *
+   * @throws IOException On I/O errors
+   *
+   * @see IdAGDialogPoolService
+   */
+
+  void warm()
+    throws IOException;
+
   /**
    * @return The FXML layout used for this type of dialog
    */
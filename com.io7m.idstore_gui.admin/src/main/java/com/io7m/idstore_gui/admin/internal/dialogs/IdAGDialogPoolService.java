@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.dialogs;
+
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
+import com.io7m.repetoir.core.RPServiceType;
+
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * <p>A pool of pre-built dialogs.</p>
+ *
+ * <p>Dialog factories that support pooling place a built, idle dialog into
+ * the pool after boot, and take it back out each time the dialog is opened,
+ * resetting the controller rather than building a new stage, scene, and
+ * controller. At most one idle dialog is held for each type of controller;
+ * if a dialog is opened while the pooled instance is already in use, a new
+ * dialog is built as usual.</p>
+ *
+ * <p>The pool must only be accessed from the FX application thread.</p>
+ */
+
+public final class IdAGDialogPoolService implements RPServiceType
+{
+  private final HashMap<Class<?>, IdAGControllerAndStage<?>> idle;
+  private long hits;
+  private long misses;
+
+  /**
+   * A pool of pre-built dialogs.
+   */
+
+  public IdAGDialogPoolService()
+  {
+    this.idle = new HashMap<>();
+  }
+
+  /**
+   * Take the idle dialog for the given controller type, if there is one.
+   *
+   * @param controllerClass The controller type
+   * @param <C>             The controller type
+   *
+   * @return The idle dialog, removed from the pool
+   */
+
+  public <C> Optional<IdAGControllerAndStage<C>> take(
+    final Class<C> controllerClass)
+  {
+    Objects.requireNonNull(controllerClass, "controllerClass");
+
+    final var existing = this.idle.remove(controllerClass);
+    if (existing == null) {
+      ++this.misses;
+      return Optional.empty();
+    }
+
+    ++this.hits;
+    return Optional.of(
+      new IdAGControllerAndStage<>(
+        controllerClass.cast(existing.controller()),
+        existing.stage()
+      )
+    );
+  }
+
+  /**
+   * Return a dialog to the pool. If the pool already holds an idle dialog
+   * for the controller type, the given dialog is discarded.
+   *
+   * @param controllerClass The controller type
+   * @param dialog          The dialog
+   * @param <C>             The controller type
+   */
+
+  public <C> void give(
+    final Class<C> controllerClass,
+    final IdAGControllerAndStage<C> dialog)
+  {
+    Objects.requireNonNull(controllerClass, "controllerClass");
+    Objects.requireNonNull(dialog, "dialog");
+
+    if (dialog.stage().isShowing()) {
+      throw new IllegalStateException(
+        "Dialogs must be closed before being returned to the pool."
+      );
+    }
+
+    this.idle.putIfAbsent(controllerClass, dialog);
+  }
+
+  /**
+   * @param controllerClass The controller type
+   *
+   * @return {@code true} if an idle dialog is held for the controller type
+   */
+
+  public boolean isIdle(
+    final Class<?> controllerClass)
+  {
+    return this.idle.containsKey(
+      Objects.requireNonNull(controllerClass, "controllerClass"));
+  }
+
+  /**
+   * @return The number of opens that used a pooled dialog
+   */
+
+  public long hits()
+  {
+    return this.hits;
+  }
+
+  /**
+   * @return The number of opens that had to build a new dialog
+   */
+
+  public long misses()
+  {
+    return this.misses;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGDialogPoolService 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+
+  @Override
+  public String description()
+  {
+    return "Dialog pool service";
+  }
+}
@@ -20,11 +20,11 @@ package com.io7m.idstore_gui.admin.internal.errors;
 import com.io7m.idstore.error_codes.IdErrorCode;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
 import com.io7m.idstore_gui.admin.internal.IdAGCSS;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.repetoir.core.RPServiceType;
 import com.io7m.seltzer.api.SStructuredErrorType;
 import com.io7m.taskrecorder.core.TRTask;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
@@ -75,14 +75,11 @@ public final class IdAGErrorDialogs implements RPServiceType
     try {
       final var stage = new Stage();
 
-      final var layout =
-        IdAGErrorDialogs.class.getResource(
-          "/com/io7m/idstore_gui/admin/internal/error.fxml");
-
-      Objects.requireNonNull(layout, "layout");
-
+      final var document =
+        IdAGFXMLCache.shared()
+          .document("/com/io7m/idstore_gui/admin/internal/error.fxml");
       final var loader =
-        new FXMLLoader(layout, this.strings.resources());
+        document.loader(this.strings.resources());
 
       loader.setControllerFactory(param -> {
         return new IdAGErrorController(
@@ -94,7 +91,7 @@ public final class IdAGErrorDialogs implements RPServiceType
         );
       });
 
-      final Pane pane = loader.load();
+      final Pane pane = document.load(loader);
       IdAGCSS.setCSS(this.configuration, pane);
 
       stage.initModality(APPLICATION_MODAL);
@@ -18,9 +18,9 @@
 package com.io7m.idstore_gui.admin.internal.errors;
 
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.taskrecorder.core.TRTaskItemType;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.TreeCell;
 import javafx.scene.layout.Pane;
 
@@ -51,13 +51,13 @@ public final class IdAGErrorTreeCell extends TreeCell<TRTaskItemType>
     final IdAGStringsType strings)
   {
     try {
-      final FXMLLoader loader =
-        new FXMLLoader(
-          IdAGErrorTreeCell.class.getResource(
-            "/com/io7m/idstore_gui/admin/internal/errorCell.fxml"));
-      loader.setResources(strings.resources());
+      final var document =
+        IdAGFXMLCache.shared()
+          .document("/com/io7m/idstore_gui/admin/internal/errorCell.fxml");
+      final var loader =
+        document.loader(strings.resources());
       loader.setControllerFactory(param -> new IdAGErrorTreeCellController());
-      this.root = loader.load();
+      this.root = document.load(loader);
       this.controller = loader.getController();
       Objects.requireNonNull(this.root, "this.root");
       Objects.requireNonNull(this.controller, "this.controller");
@@ -18,16 +18,28 @@ package com.io7m.idstore_gui.admin.internal.events;
 
 import com.io7m.repetoir.core.RPServiceType;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
 
 /**
- * The main application event bus.
+ * <p>The main application event bus.</p>
+ *
+ * <p>Each subscriber has a buffer of the configured size. Publishers block
+ * in {@link #submit(IdAGEventType)} when a subscriber's buffer is full, so
+ * subscribers that consume events slowly apply back-pressure to the code
+ * that publishes them. Subscribers that update the user interface should
+ * use {@link #subscribeCoalescing(Executor, Consumer)}, which keeps up with
+ * any rate of publication by coalescing events.</p>
  */
 
 public final class IdAGEventBus implements RPServiceType
 {
+  private final IdAGEventBusConfiguration configuration;
   private final SubmissionPublisher<IdAGEventType> events;
 
   /**
@@ -36,7 +48,34 @@ public final class IdAGEventBus implements RPServiceType
 
   public IdAGEventBus()
   {
-    this.events = new SubmissionPublisher<>();
+    this(IdAGEventBusConfiguration.defaults());
+  }
+
+  /**
+   * The main application event bus.
+   *
+   * @param inConfiguration The bus configuration
+   */
+
+  public IdAGEventBus(
+    final IdAGEventBusConfiguration inConfiguration)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.events =
+      new SubmissionPublisher<>(
+        ForkJoinPool.commonPool(),
+        this.configuration.bufferSize()
+      );
+  }
+
+  /**
+   * @return The bus configuration
+   */
+
+  public IdAGEventBusConfiguration configuration()
+  {
+    return this.configuration;
   }
 
   /**
@@ -51,6 +90,27 @@ public final class IdAGEventBus implements RPServiceType
     this.events.subscribe(subscriber);
   }
 
+  /**
+   * Subscribe to the event bus, receiving events in coalesced batches.
+   *
+   * @param delivery The executor on which batches are delivered
+   * @param receiver The receiver of batches
+   *
+   * @return The subscriber
+   *
+   * @see IdAGEventCoalescingSubscriber
+   */
+
+  public IdAGEventCoalescingSubscriber subscribeCoalescing(
+    final Executor delivery,
+    final Consumer<List<IdAGEventType>> receiver)
+  {
+    final var subscriber =
+      new IdAGEventCoalescingSubscriber(this.configuration, delivery, receiver);
+    this.events.subscribe(subscriber);
+    return subscriber;
+  }
+
   /**
    * Submit a message to the bus.
    *
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.events;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+/**
+ * The configuration of the event bus.
+ *
+ * @param bufferSize     The number of events buffered for each subscriber
+ * @param overflowPolicy The overflow policy for coalescing subscribers
+ */
+
+public record IdAGEventBusConfiguration(
+  int bufferSize,
+  IdAGEventOverflowPolicy overflowPolicy)
+{
+  /**
+   * The configuration of the event bus.
+   *
+   * @param bufferSize     The number of events buffered for each subscriber
+   * @param overflowPolicy The overflow policy for coalescing subscribers
+   */
+
+  public IdAGEventBusConfiguration
+  {
+    Objects.requireNonNull(overflowPolicy, "overflowPolicy");
+    bufferSize = Math.max(1, bufferSize);
+  }
+
+  /**
+   * @return The default configuration
+   */
+
+  public static IdAGEventBusConfiguration defaults()
+  {
+    return new IdAGEventBusConfiguration(
+      Flow.defaultBufferSize(),
+      IdAGEventOverflowPolicy.DROP_OLDEST
+    );
+  }
+
+  /**
+   * Read the configuration from the system properties
+   * {@code com.io7m.idstore.events.buffer_size} and
+   * {@code com.io7m.idstore.events.overflow}, using the defaults for
+   * properties that are missing or malformed.
+   *
+   * @return The configuration
+   */
+
+  public static IdAGEventBusConfiguration ofSystemProperties()
+  {
+    final var defaults = defaults();
+
+    var bufferSize = defaults.bufferSize();
+    try {
+      bufferSize = Integer.parseInt(
+        System.getProperty(
+          "com.io7m.idstore.events.buffer_size",
+          Integer.toString(bufferSize))
+      );
+    } catch (final NumberFormatException e) {
+      // Use the default.
+    }
+
+    var overflow = defaults.overflowPolicy();
+    try {
+      overflow = IdAGEventOverflowPolicy.valueOf(
+        System.getProperty(
+          "com.io7m.idstore.events.overflow",
+          overflow.name())
+          .toUpperCase(Locale.ROOT)
+      );
+    } catch (final IllegalArgumentException e) {
+      // Use the default.
+    }
+
+    return new IdAGEventBusConfiguration(bufferSize, overflow);
+  }
+}
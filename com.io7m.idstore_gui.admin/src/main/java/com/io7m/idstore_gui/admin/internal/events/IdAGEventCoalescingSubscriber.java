@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * <p>A subscriber that delivers events in batches.</p>
+ *
+ * <p>Events are collected into a pending batch as they arrive. The first
+ * event in a batch schedules a single delivery on the delivery executor;
+ * events that arrive before the delivery runs join the same batch. When
+ * the delivery executor is the JavaFX application thread, this means that
+ * the receiver runs at most once per pulse, regardless of how quickly
+ * events are published.</p>
+ *
+ * <p>An in-progress event is superseded by any later event of the same
+ * class, and is removed from the pending batch when such an event arrives.
+ * If the pending batch still exceeds the buffer size, the configured
+ * {@link IdAGEventOverflowPolicy} is applied. Failure events are never
+ * removed.</p>
+ */
+
+public final class IdAGEventCoalescingSubscriber
+  implements Flow.Subscriber<IdAGEventType>, AutoCloseable
+{
+  private final int capacity;
+  private final IdAGEventOverflowPolicy overflow;
+  private final Executor delivery;
+  private final Consumer<List<IdAGEventType>> receiver;
+  private final ArrayList<IdAGEventType> pending;
+  private Flow.Subscription subscription;
+  private boolean deliveryScheduled;
+  private long received;
+  private long coalesced;
+  private long dropped;
+
+  /**
+   * A subscriber that delivers events in batches.
+   *
+   * @param configuration The bus configuration
+   * @param inDelivery    The executor on which batches are delivered
+   * @param inReceiver    The receiver of batches
+   */
+
+  public IdAGEventCoalescingSubscriber(
+    final IdAGEventBusConfiguration configuration,
+    final Executor inDelivery,
+    final Consumer<List<IdAGEventType>> inReceiver)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+
+    this.capacity =
+      configuration.bufferSize();
+    this.overflow =
+      configuration.overflowPolicy();
+    this.delivery =
+      Objects.requireNonNull(inDelivery, "delivery");
+    this.receiver =
+      Objects.requireNonNull(inReceiver, "receiver");
+    this.pending =
+      new ArrayList<>(this.capacity);
+  }
+
+  private static boolean isFailure(
+    final IdAGEventType event)
+  {
+    return event.status() instanceof IdAGEventStatusFailed;
+  }
+
+  private static boolean isInProgress(
+    final IdAGEventType event)
+  {
+    return event.status() instanceof IdAGEventStatusInProgress;
+  }
+
+  @Override
+  public void onSubscribe(
+    final Flow.Subscription newSubscription)
+  {
+    this.subscription =
+      Objects.requireNonNull(newSubscription, "newSubscription");
+
+    if (this.overflow == IdAGEventOverflowPolicy.BLOCK) {
+      this.subscription.request(this.capacity);
+    } else {
+      this.subscription.request(Long.MAX_VALUE);
+    }
+  }
+
+  @Override
+  public void onNext(
+    final IdAGEventType event)
+  {
+    Objects.requireNonNull(event, "event");
+
+    final boolean schedule;
+    synchronized (this) {
+      ++this.received;
+      this.supersede(event);
+      this.pending.add(event);
+      if (this.pending.size() > this.capacity) {
+        this.overflow(event);
+      }
+
+      schedule = !this.deliveryScheduled;
+      this.deliveryScheduled = true;
+    }
+
+    if (schedule) {
+      this.delivery.execute(this::deliver);
+    }
+  }
+
+  private void supersede(
+    final IdAGEventType event)
+  {
+    final var clazz = event.getClass();
+    final var iter = this.pending.iterator();
+    while (iter.hasNext()) {
+      final var existing = iter.next();
+      if (existing.getClass() == clazz && isInProgress(existing)) {
+        iter.remove();
+        ++this.coalesced;
+      }
+    }
+  }
+
+  private void overflow(
+    final IdAGEventType event)
+  {
+    switch (this.overflow) {
+      case DROP_NEWEST -> {
+        if (!isFailure(event)) {
+          this.pending.remove(this.pending.size() - 1);
+          ++this.dropped;
+        }
+      }
+      case DROP_OLDEST -> {
+        final var iter = this.pending.iterator();
+        while (iter.hasNext()) {
+          if (!isFailure(iter.next())) {
+            iter.remove();
+            ++this.dropped;
+            return;
+          }
+        }
+      }
+      case BLOCK -> {
+        // The subscription limits the number of pending events.
+      }
+    }
+  }
+
+  private void deliver()
+  {
+    final List<IdAGEventType> batch;
+    final long consumed;
+    synchronized (this) {
+      batch = List.copyOf(this.pending);
+      this.pending.clear();
+      this.deliveryScheduled = false;
+      consumed = this.received;
+      this.received = 0L;
+    }
+
+    try {
+      if (!batch.isEmpty()) {
+        this.receiver.accept(batch);
+      }
+    } finally {
+      if (this.overflow == IdAGEventOverflowPolicy.BLOCK && consumed > 0L) {
+        this.subscription.request(consumed);
+      }
+    }
+  }
+
+  /**
+   * @return The number of in-progress events removed because a later event
+   * superseded them
+   */
+
+  public synchronized long coalescedCount()
+  {
+    return this.coalesced;
+  }
+
+  /**
+   * @return The number of events dropped due to the overflow policy
+   */
+
+  public synchronized long droppedCount()
+  {
+    return this.dropped;
+  }
+
+  @Override
+  public void onError(
+    final Throwable throwable)
+  {
+
+  }
+
+  @Override
+  public void onComplete()
+  {
+
+  }
+
+  @Override
+  public void close()
+  {
+    this.subscription.cancel();
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.events;
+
+/**
+ * The action taken when a coalescing subscriber has more pending events
+ * than its buffer can hold. Failure events are never dropped, regardless
+ * of the policy.
+ */
+
+public enum IdAGEventOverflowPolicy
+{
+  /**
+   * The oldest pending event that is not a failure is dropped.
+   */
+
+  DROP_OLDEST,
+
+  /**
+   * The newly arrived event is dropped, unless it is a failure.
+   */
+
+  DROP_NEWEST,
+
+  /**
+   * No events are dropped; the subscriber stops requesting events from the
+   * bus until its pending events have been delivered, and so publishers
+   * block once the bus's own buffer is full.
+   */
+
+  BLOCK
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event covering a single step of application boot.
+ */
+
+@Name("com.io7m.idstore_gui.admin.BootStep")
+@Label("Boot Step")
+@Category({"idstore", "Admin GUI"})
+@Description("The creation of a service during application boot.")
+public final class IdAGJFRBootStepEvent extends Event
+{
+  @Label("Step")
+  @Description("The boot step message.")
+  private String step;
+
+  @Label("Service")
+  @Description("The service class.")
+  private Class<?> service;
+
+  @Label("Succeeded")
+  @Description("True if the service was created.")
+  private boolean succeeded;
+
+  /**
+   * A flight recorder event covering a single step of application boot.
+   *
+   * @param inStep    The boot step message
+   * @param inService The service class
+   */
+
+  public IdAGJFRBootStepEvent(
+    final String inStep,
+    final Class<?> inService)
+  {
+    this.step = inStep;
+    this.service = inService;
+  }
+
+  /**
+   * Set whether the step succeeded.
+   *
+   * @param inSucceeded {@code true} if the step succeeded
+   */
+
+  public void setSucceeded(
+    final boolean inSucceeded)
+  {
+    this.succeeded = inSucceeded;
+  }
+}
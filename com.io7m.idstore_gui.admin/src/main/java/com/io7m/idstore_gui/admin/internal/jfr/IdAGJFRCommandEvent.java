@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>A flight recorder event covering the execution of a single client
+ * command, from submission to the completion of its future.</p>
+ *
+ * <p>Commands are on the hot path, so an event is only allocated if the
+ * event type is enabled in a running recording.</p>
+ */
+
+@Name("com.io7m.idstore_gui.admin.Command")
+@Label("Command")
+@Category({"idstore", "Admin GUI"})
+@Description("The execution of a client command.")
+@StackTrace(false)
+public final class IdAGJFRCommandEvent extends Event
+{
+  private static final EventType TYPE =
+    EventType.getEventType(IdAGJFRCommandEvent.class);
+
+  @Label("Command")
+  @Description("The name of the command.")
+  private String command;
+
+  @Label("Succeeded")
+  @Description("True if the command succeeded.")
+  private boolean succeeded;
+
+  @Label("Failure")
+  @Description("The failure message, if the command failed.")
+  private String failure;
+
+  private IdAGJFRCommandEvent()
+  {
+
+  }
+
+  /**
+   * Begin an event for the given command, if command events are being
+   * recorded.
+   *
+   * @param command The command name
+   *
+   * @return The started event, or {@code null} if command events are not
+   * being recorded
+   */
+
+  public static IdAGJFRCommandEvent start(
+    final String command)
+  {
+    if (!TYPE.isEnabled()) {
+      return null;
+    }
+
+    final var event = new IdAGJFRCommandEvent();
+    event.command = command;
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Finish an event returned by {@link #start(String)}.
+   *
+   * @param event     The event, or {@code null}
+   * @param exception The exception with which the command failed, if any
+   */
+
+  public static void finish(
+    final IdAGJFRCommandEvent event,
+    final Throwable exception)
+  {
+    if (event == null) {
+      return;
+    }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.succeeded = exception == null;
+      if (exception != null) {
+        event.failure = exception.getMessage();
+      }
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event covering the loading of an FXML file.
+ */
+
+@Name("com.io7m.idstore_gui.admin.FXMLLoad")
+@Label("FXML Load")
+@Category({"idstore", "Admin GUI"})
+@Description("The loading of an FXML file and the creation of its controller.")
+public final class IdAGJFRFXMLLoadEvent extends Event
+{
+  @Label("Resource")
+  @Description("The FXML resource.")
+  private String resource;
+
+  @Label("Controller")
+  @Description("The controller class.")
+  private Class<?> controller;
+
+  @Label("Succeeded")
+  @Description("True if the FXML file was loaded.")
+  private boolean succeeded;
+
+  /**
+   * A flight recorder event covering the loading of an FXML file.
+   *
+   * @param inResource   The FXML resource
+   * @param inController The controller class
+   */
+
+  public IdAGJFRFXMLLoadEvent(
+    final String inResource,
+    final Class<?> inController)
+  {
+    this.resource = inResource;
+    this.controller = inController;
+  }
+
+  /**
+   * Set whether the load succeeded.
+   *
+   * @param inSucceeded {@code true} if the load succeeded
+   */
+
+  public void setSucceeded(
+    final boolean inSucceeded)
+  {
+    this.succeeded = inSucceeded;
+  }
+}
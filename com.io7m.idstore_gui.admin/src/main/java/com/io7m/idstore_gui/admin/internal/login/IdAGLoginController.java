@@ -175,7 +175,10 @@ public final class IdAGLoginController implements Initializable
           oldPreferences.installationId(),
           oldPreferences.debuggingEnabled(),
           List.copyOf(newBookmarks),
-          oldPreferences.recentFiles()
+          oldPreferences.recentFiles(),
+          oldPreferences.paging(),
+          oldPreferences.auditTail(),
+          oldPreferences.bulk()
         );
       });
     } catch (final IOException e) {
@@ -200,7 +203,10 @@ public final class IdAGLoginController implements Initializable
           oldPreferences.installationId(),
           oldPreferences.debuggingEnabled(),
           List.copyOf(newBookmarks),
-          oldPreferences.recentFiles()
+          oldPreferences.recentFiles(),
+          oldPreferences.paging(),
+          oldPreferences.auditTail(),
+          oldPreferences.bulk()
         );
       });
     } catch (final IOException e) {
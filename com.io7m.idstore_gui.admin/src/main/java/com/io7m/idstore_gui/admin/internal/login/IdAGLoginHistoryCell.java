@@ -16,9 +16,9 @@
 
 package com.io7m.idstore_gui.admin.internal.login;
 
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore.model.IdLogin;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.control.ListCell;
 import javafx.scene.layout.Pane;
 
@@ -44,13 +44,14 @@ public final class IdAGLoginHistoryCell extends ListCell<IdLogin>
     final IdAGStringsType strings)
   {
     try {
-      final FXMLLoader loader =
-        new FXMLLoader(
-          IdAGLoginHistoryCell.class.getResource(
-            "/com/io7m/idstore_gui/admin/internal/loginHistoryCell.fxml"));
-      loader.setResources(strings.resources());
+      final var document =
+        IdAGFXMLCache.shared()
+          .document(
+            "/com/io7m/idstore_gui/admin/internal/loginHistoryCell.fxml");
+      final var loader =
+        document.loader(strings.resources());
 
-      this.root = loader.load();
+      this.root = document.load(loader);
       this.controller = loader.getController();
     } catch (final IOException e) {
       throw new UncheckedIOException(e);
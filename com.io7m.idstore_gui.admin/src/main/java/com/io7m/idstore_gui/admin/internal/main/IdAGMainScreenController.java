@@ -22,12 +22,18 @@ import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
 import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLogin;
 import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginFailed;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
-import com.io7m.idstore_gui.admin.internal.IdAGApplication;
 import com.io7m.idstore_gui.admin.internal.IdAGCSS;
-import com.io7m.idstore_gui.admin.internal.IdAGPerpetualSubscriber;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
+import com.io7m.idstore_gui.admin.internal.IdAGStartupTimeline;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.about.IdAGAboutControllers;
+import com.io7m.idstore_gui.admin.internal.admins.IdAGAdminsControllers;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditControllers;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityChangedEvent;
+import com.io7m.idstore_gui.admin.internal.diagnostics.IdAGDiagnosticsControllers;
+import com.io7m.idstore_gui.admin.internal.dialogs.IdAGDialogFactoryType;
 import com.io7m.idstore_gui.admin.internal.errors.IdAGErrorDialogs;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
@@ -36,8 +42,13 @@ import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
 import com.io7m.idstore_gui.admin.internal.login.IdAGLoginControllers;
+import com.io7m.idstore_gui.admin.internal.profile.IdAGProfileControllers;
 import com.io7m.idstore_gui.admin.internal.services.IdAGBootEvent;
 import com.io7m.idstore_gui.admin.internal.services.IdAGBootServices;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUserDeleteConfirmControllers;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUserEmailAddControllers;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUserPasswordChangeControllers;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUsersControllers;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
 import com.io7m.taskrecorder.core.TRTask;
 import com.io7m.taskrecorder.core.TRTaskFailed;
@@ -45,25 +56,30 @@ import com.io7m.taskrecorder.core.TRTaskRecorder;
 import com.io7m.taskrecorder.core.TRTaskSucceeded;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 import static javafx.scene.control.ProgressIndicator.INDETERMINATE_PROGRESS;
 
@@ -78,6 +94,7 @@ public final class IdAGMainScreenController implements Initializable
 
   private final IdAGConfiguration configuration;
   private final IdAGStringsType strings;
+  private final CompletableFuture<RPServiceDirectoryType> booted;
 
   @FXML private ImageView mainStatusIcon;
   @FXML private ProgressBar mainProgress;
@@ -90,9 +107,11 @@ public final class IdAGMainScreenController implements Initializable
   private volatile TRTask<RPServiceDirectoryType> task;
   private volatile IdAGClientService client;
   private volatile IdAGEventBus events;
+  private volatile IdAGFXDispatcherService dispatcher;
   private Image iconError;
   private Image iconApp;
   private IdAGErrorDialogs errorDialogs;
+  private IdAGMainTabs tabs;
 
   /**
    * The main screen controller.
@@ -109,6 +128,28 @@ public final class IdAGMainScreenController implements Initializable
       Objects.requireNonNull(inConfiguration, "configuration");
     this.strings =
       Objects.requireNonNull(inStrings, "strings");
+    this.booted =
+      new CompletableFuture<>();
+  }
+
+  /**
+   * @return A future that completes with the services once boot has
+   * completed and the main content has been created
+   */
+
+  public CompletableFuture<RPServiceDirectoryType> booted()
+  {
+    return this.booted;
+  }
+
+  IdAGMainTabs tabs()
+  {
+    return this.tabs;
+  }
+
+  IdAGConfiguration configuration()
+  {
+    return this.configuration;
   }
 
   @Override
@@ -194,8 +235,10 @@ public final class IdAGMainScreenController implements Initializable
       this.services.requireService(IdAGEventBus.class);
     this.errorDialogs =
       this.services.requireService(IdAGErrorDialogs.class);
+    this.dispatcher =
+      this.services.requireService(IdAGFXDispatcherService.class);
 
-    this.events.subscribe(new IdAGPerpetualSubscriber<>(this::onEvent));
+    this.events.subscribeCoalescing(this.dispatcher, this::onEvents);
 
     final var tabs = this.createTabs();
     this.mainContent.getChildren().add(tabs);
@@ -208,13 +251,55 @@ public final class IdAGMainScreenController implements Initializable
       .addListener((obs, statusOld, statusNew) -> {
         this.configureMainContentViewForClientStatus(statusNew);
       });
+
+    this.warmDialogs();
+
+    IdAGStartupTimeline.shared()
+      .mark(IdAGStartupTimeline.BOOT_COMPLETED);
+    this.booted.complete(this.services);
+  }
+
+  /**
+   * Build the frequently used dialogs ahead of time so that they open
+   * without delay. Each dialog is built in its own dispatcher pulse, and the
+   * next dialog is only queued once the previous one is built, so that the
+   * UI remains responsive while the dialogs are built.
+   */
+
+  private void warmDialogs()
+  {
+    final List<IdAGDialogFactoryType<?, ?>> factories =
+      List.of(
+        new IdAGUserDeleteConfirmControllers(
+          this.services, this.configuration, this.strings),
+        new IdAGUserEmailAddControllers(
+          this.services, this.configuration, this.strings),
+        new IdAGUserPasswordChangeControllers(
+          this.services, this.configuration, this.strings)
+      );
+
+    this.dispatcher.executeEachPulse(
+      factories.stream()
+        .map(factory -> (Runnable) () -> warmDialog(factory))
+        .toList()
+    );
+  }
+
+  private static void warmDialog(
+    final IdAGDialogFactoryType<?, ?> factory)
+  {
+    try {
+      factory.warm();
+    } catch (final Exception e) {
+      LOG.warn("Failed to warm dialog {}: ", factory.fxmlResource(), e);
+    }
   }
 
   private void configureMainContentViewForClientStatus(
     final HBStateType<?, ?, ?, ?> status)
   {
     if (status instanceof HBStateExecutingLogin) {
-      Platform.runLater(() -> {
+      this.dispatcher.execute(() -> {
         this.contentHide();
         this.mainConnectMenuItem.setDisable(true);
         this.mainConnectMenuItem.setText(
@@ -226,7 +311,7 @@ public final class IdAGMainScreenController implements Initializable
     if (status instanceof HBStateClosed
         || status instanceof HBStateExecutingLoginFailed
         || status instanceof HBStateDisconnected) {
-      Platform.runLater(() -> {
+      this.dispatcher.execute(() -> {
         this.contentHide();
         this.mainConnectMenuItem.setDisable(false);
         this.mainConnectMenuItem.setText(
@@ -235,7 +320,7 @@ public final class IdAGMainScreenController implements Initializable
       return;
     }
 
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
       this.contentShow();
       this.mainConnectMenuItem.setDisable(false);
       this.mainConnectMenuItem.setText(
@@ -246,24 +331,60 @@ public final class IdAGMainScreenController implements Initializable
   private Node createTabs()
     throws IOException
   {
-    final var mainXML =
-      IdAGApplication.class.getResource(
-        "/com/io7m/idstore_gui/admin/internal/mainContent.fxml");
-    Objects.requireNonNull(mainXML, "mainXML");
-
+    final var mainDocument =
+      IdAGFXMLCache.shared()
+        .document("/com/io7m/idstore_gui/admin/internal/mainContent.fxml");
     final var mainLoader =
-      new FXMLLoader(mainXML, this.strings.resources());
-    final var factory =
-      new IdAGMainControllerFactory(this.services, this.configuration);
+      mainDocument.loader(this.strings.resources());
 
-    mainLoader.setControllerFactory(factory);
-
-    final Pane pane = mainLoader.load();
+    final Pane pane = mainDocument.load(mainLoader);
     IdAGCSS.setCSS(this.configuration, pane);
+
+    final var namespace =
+      mainLoader.getNamespace();
+    final var stage =
+      (Stage) this.mainContent.getScene().getWindow();
+
+    this.tabs = new IdAGMainTabs((TabPane) namespace.get("tabPane"), stage);
+    this.tabs.register(
+      (Tab) namespace.get("tabUsers"),
+      new IdAGUsersControllers(
+        this.services, this.configuration, this.strings));
+    this.tabs.register(
+      (Tab) namespace.get("tabProfile"),
+      new IdAGProfileControllers(
+        this.services, this.configuration, this.strings));
+    this.tabs.register(
+      (Tab) namespace.get("tabAdmins"),
+      new IdAGAdminsControllers(
+        this.services, this.configuration, this.strings));
+    this.tabs.register(
+      (Tab) namespace.get("tabAudit"),
+      new IdAGAuditControllers(
+        this.services, this.configuration, this.strings));
+    final var tabDiagnostics = (Tab) namespace.get("tabDiagnostics");
+    this.tabs.register(
+      tabDiagnostics,
+      new IdAGDiagnosticsControllers(
+        this.services, this.configuration, this.strings, tabDiagnostics));
+    this.tabs.start();
+
+    if (warmTabs()) {
+      this.tabs.warm(this.dispatcher);
+    }
     return pane;
   }
 
-  private void contentShow()
+  private static boolean warmTabs()
+  {
+    final var property =
+      System.getProperty("com.io7m.idstore.ui.warm_tabs", "FALSE")
+        .toUpperCase(Locale.ROOT);
+
+    return Objects.equals(property, "TRUE");
+  }
+
+  void contentShow()
   {
     this.mainContent.setVisible(true);
     this.mainContent.setDisable(false);
@@ -275,13 +396,30 @@ public final class IdAGMainScreenController implements Initializable
     this.mainContent.setDisable(true);
   }
 
-  private void onEvent(
-    final IdAGEventType event)
+  /**
+   * Events arrive in batches on the FX thread. Only the most recent event
+   * is of any interest to the status bar, but every failure must be shown.
+   */
+
+  private void onEvents(
+    final List<IdAGEventType> batch)
   {
-    Platform.runLater(() -> {
-      this.configureStatusBarForEvent(event);
+    /*
+     * Entity change notifications are for the caches, and are not shown
+     * in the status bar.
+     */
+
+    for (int index = batch.size() - 1; index >= 0; --index) {
+      final var event = batch.get(index);
+      if (!(event instanceof IdAGEntityChangedEvent)) {
+        this.configureStatusBarForEvent(event);
+        break;
+      }
+    }
+
+    for (final var event : batch) {
       this.openErrorDialogForEventIfNecessary(event);
-    });
+    }
   }
 
   private void openErrorDialogForEventIfNecessary(
@@ -326,6 +464,9 @@ public final class IdAGMainScreenController implements Initializable
 
   private void onBootFailed()
   {
+    this.booted.completeExceptionally(
+      new IllegalStateException("Boot failed.")
+    );
     Platform.runLater(() -> {
 
     });
@@ -334,6 +475,9 @@ public final class IdAGMainScreenController implements Initializable
   private void onBootEvent(
     final IdAGBootEvent event)
   {
+    IdAGStartupTimeline.shared()
+      .mark(IdAGStartupTimeline.BOOT_EVENT, event.message());
+
     Platform.runLater(() -> {
       this.mainStatusText.setText(event.message());
       this.mainProgress.setVisible(true);
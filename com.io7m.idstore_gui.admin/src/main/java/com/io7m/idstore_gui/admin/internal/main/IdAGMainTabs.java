@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.main;
+
+import com.io7m.idstore_gui.admin.internal.view_controllers.IdAGViewControllerFactoryType;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>The tabs of the main content pane.</p>
+ *
+ * <p>The content of each tab (its FXML and its controller) is only created
+ * when the tab is first selected, so that operators that only ever use one
+ * tab do not pay for the others. Tabs that have not yet been selected can
+ * optionally be loaded ahead of time with {@link #warm(Executor)}.</p>
+ *
+ * <p>Instances must only be accessed from the FX application thread.</p>
+ */
+
+public final class IdAGMainTabs
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGMainTabs.class);
+
+  private final TabPane tabPane;
+  private final Stage stage;
+  private final LinkedHashMap<Tab, IdAGViewControllerFactoryType<Void, ?>>
+    pending;
+  private final LinkedHashMap<Tab, Object> controllers;
+  private boolean started;
+
+  /**
+   * The tabs of the main content pane.
+   *
+   * @param inTabPane The tab pane
+   * @param inStage   The stage hosting the tab pane
+   */
+
+  public IdAGMainTabs(
+    final TabPane inTabPane,
+    final Stage inStage)
+  {
+    this.tabPane =
+      Objects.requireNonNull(inTabPane, "tabPane");
+    this.stage =
+      Objects.requireNonNull(inStage, "stage");
+    this.pending =
+      new LinkedHashMap<>();
+    this.controllers =
+      new LinkedHashMap<>();
+  }
+
+  /**
+   * @return The tab pane
+   */
+
+  public TabPane tabPane()
+  {
+    return this.tabPane;
+  }
+
+  /**
+   * Register the factory that creates the content of the given tab.
+   *
+   * @param tab     The tab
+   * @param factory The factory
+   */
+
+  public void register(
+    final Tab tab,
+    final IdAGViewControllerFactoryType<Void, ?> factory)
+  {
+    Objects.requireNonNull(tab, "tab");
+    Objects.requireNonNull(factory, "factory");
+
+    if (!this.tabPane.getTabs().contains(tab)) {
+      throw new IllegalArgumentException(
+        "Tab %s does not belong to the tab pane".formatted(tab.getText())
+      );
+    }
+    if (this.started) {
+      throw new IllegalStateException("Tabs have already been started.");
+    }
+
+    this.pending.put(tab, factory);
+  }
+
+  /**
+   * Load the content of the currently selected tab, and load the content of
+   * each other tab when it is first selected.
+   */
+
+  public void start()
+  {
+    if (this.started) {
+      return;
+    }
+    this.started = true;
+
+    this.tabPane.getSelectionModel()
+      .selectedItemProperty()
+      .addListener((o, tabOld, tabNew) -> {
+        if (tabNew != null) {
+          this.load(tabNew);
+        }
+      });
+
+    final var selected =
+      this.tabPane.getSelectionModel().getSelectedItem();
+    if (selected != null) {
+      this.load(selected);
+    }
+  }
+
+  /**
+   * Load the content of every tab that has not yet been selected, one tab
+   * per task submitted to the given executor. The task that loads the next
+   * tab is only submitted once the previous tab has loaded, so that an
+   * executor that runs tasks submitted by other tasks on a later pulse loads
+   * one tab per pulse. The executor is expected to run tasks on the FX
+   * application thread.
+   *
+   * @param executor The executor
+   */
+
+  public void warm(
+    final Executor executor)
+  {
+    Objects.requireNonNull(executor, "executor");
+    this.warmNext(executor, List.copyOf(this.pending.keySet()).iterator());
+  }
+
+  private void warmNext(
+    final Executor executor,
+    final Iterator<Tab> tabs)
+  {
+    if (!tabs.hasNext()) {
+      return;
+    }
+
+    final var tab = tabs.next();
+    executor.execute(() -> {
+      try {
+        this.load(tab);
+      } finally {
+        this.warmNext(executor, tabs);
+      }
+    });
+  }
+
+  /**
+   * @param tab The tab
+   *
+   * @return {@code true} if the tab's content has been created
+   */
+
+  public boolean isLoaded(
+    final Tab tab)
+  {
+    return this.controllers.containsKey(
+      Objects.requireNonNull(tab, "tab"));
+  }
+
+  /**
+   * @param tab The tab
+   *
+   * @return The controller of the tab's content, if it has been created
+   */
+
+  public Optional<Object> controller(
+    final Tab tab)
+  {
+    return Optional.ofNullable(
+      this.controllers.get(Objects.requireNonNull(tab, "tab")));
+  }
+
+  private void load(
+    final Tab tab)
+  {
+    final var factory = this.pending.get(tab);
+    if (factory == null) {
+      return;
+    }
+
+    final var timeThen = System.nanoTime();
+    try {
+      final var view = factory.createView(null, this.stage);
+      tab.setContent(view.node());
+      this.controllers.put(tab, view.controller());
+      this.pending.remove(tab);
+    } catch (final Exception e) {
+      LOG.error("Failed to load tab {}: ", factory.fxmlResource(), e);
+      return;
+    }
+
+    LOG.debug(
+      "Loaded tab {} in {}",
+      factory.fxmlResource(),
+      Duration.ofNanos(System.nanoTime() - timeThen));
+  }
+}
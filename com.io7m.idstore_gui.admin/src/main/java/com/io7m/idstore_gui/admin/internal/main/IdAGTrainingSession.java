@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.main;
+
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.login.IdAGLoginControllers;
+import com.io7m.repetoir.core.RPServiceDirectoryType;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>A scripted session that exercises the UI without an operator.</p>
+ *
+ * <p>The session waits for boot to complete, opens the login dialog, logs
+ * in to the given server, shows the main content, and selects each tab in
+ * turn. It is used as the training run when producing a class data sharing
+ * archive, so its purpose is to load and initialize as many of the classes
+ * used in a normal session as possible, including the protocol classes
+ * used to log in and to load each tab. The session fails if the login
+ * fails, because an archive trained without a login would not cover
+ * them.</p>
+ */
+
+public final class IdAGTrainingSession
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGTrainingSession.class);
+
+  private final IdAGMainScreenController controller;
+  private final String host;
+  private final int port;
+  private RPServiceDirectoryType services;
+  private Stage loginStage;
+
+  private IdAGTrainingSession(
+    final IdAGMainScreenController inController,
+    final String inHost,
+    final int inPort)
+  {
+    this.controller =
+      Objects.requireNonNull(inController, "controller");
+    this.host =
+      Objects.requireNonNull(inHost, "host");
+    this.port =
+      inPort;
+  }
+
+  /**
+   * Run a training session.
+   *
+   * @param controller The main screen controller
+   * @param host       The server host
+   * @param port       The server port
+   *
+   * @return A future that completes when the session has finished
+   */
+
+  public static CompletableFuture<Void> run(
+    final IdAGMainScreenController controller,
+    final String host,
+    final int port)
+  {
+    final var session =
+      new IdAGTrainingSession(controller, host, port);
+
+    return controller.booted()
+      .thenCompose(s -> onFXThread(() -> session.openLoginDialog(s)))
+      .thenCompose(x -> session.login())
+      .thenCompose(x -> onFXThread(session::showContent))
+      .thenCompose(x -> session.selectTab(0));
+  }
+
+  private void openLoginDialog(
+    final RPServiceDirectoryType inServices)
+    throws Exception
+  {
+    LOG.info("Training: opening login dialog");
+
+    this.services = inServices;
+
+    final var dialog =
+      new IdAGLoginControllers(
+        this.services,
+        this.controller.configuration(),
+        this.services.requireService(IdAGStringsType.class)
+      ).createDialog(null);
+
+    this.loginStage = dialog.stage();
+    this.loginStage.show();
+  }
+
+  private CompletableFuture<Void> login()
+  {
+    LOG.info("Training: logging in to {}:{}", this.host, this.port);
+
+    return this.services.requireService(IdAGClientService.class)
+      .login(this.host, this.port, false, "training", "training")
+      .thenAccept(admin -> LOG.info("Training: logged in"));
+  }
+
+  private void showContent()
+  {
+    this.loginStage.close();
+    this.controller.contentShow();
+  }
+
+  private CompletableFuture<Void> selectTab(
+    final int index)
+  {
+    return onFXThread(() -> {
+      final var tabPane = this.controller.tabs().tabPane();
+      if (index < tabPane.getTabs().size()) {
+        final var tab = tabPane.getTabs().get(index);
+        LOG.info("Training: selecting tab {}", tab.getText());
+        tabPane.getSelectionModel().select(tab);
+      }
+    }).thenCompose(x -> {
+      final var tabPane = this.controller.tabs().tabPane();
+      if (index + 1 < tabPane.getTabs().size()) {
+        return this.selectTab(index + 1);
+      }
+      return CompletableFuture.completedFuture(null);
+    });
+  }
+
+  private interface StepType
+  {
+    void execute()
+      throws Exception;
+  }
+
+  private static CompletableFuture<Void> onFXThread(
+    final StepType step)
+  {
+    final var future = new CompletableFuture<Void>();
+    Platform.runLater(() -> {
+      try {
+        step.execute();
+        future.complete(null);
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+}
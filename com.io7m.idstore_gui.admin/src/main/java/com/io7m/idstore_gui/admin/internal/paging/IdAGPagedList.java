@@ -0,0 +1,340 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.paging;
+
+import com.io7m.idstore.model.IdPage;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>A lazily populated list holding a contiguous window of pages from a
+ * search.</p>
+ *
+ * <p>The list initially holds the first page received from a search. Pages
+ * are appended with {@link #requestNext()} and prepended with
+ * {@link #requestPrevious()}, and at most a fixed number of pages are held at
+ * any one time: when the window grows too large, the page furthest from the
+ * page just received is evicted. Evicted pages are simply fetched again from
+ * the page source if they are needed.</p>
+ *
+ * <p>The list must only be accessed from the UI thread. Pages are fetched
+ * asynchronously and are inserted into the list using the given executor. A
+ * page that arrives after the list has been restarted or reset is
+ * discarded.</p>
+ *
+ * @param <T> The type of list items
+ */
+
+public final class IdAGPagedList<T> extends ObservableListBase<T>
+{
+  private final IdAGPageSourceType<T> source;
+  private final int pagesRetained;
+  private final Executor uiExecutor;
+  private final ArrayList<List<T>> pages;
+  private int pageFirst;
+  private int pageCount;
+  private int size;
+  private long generation;
+  private boolean loading;
+
+  /**
+   * Create a list.
+   *
+   * @param inSource        The page source
+   * @param inPagesRetained The maximum number of pages held
+   * @param inUiExecutor    The executor used to insert received pages
+   */
+
+  public IdAGPagedList(
+    final IdAGPageSourceType<T> inSource,
+    final int inPagesRetained,
+    final Executor inUiExecutor)
+  {
+    this.source =
+      Objects.requireNonNull(inSource, "source");
+    this.uiExecutor =
+      Objects.requireNonNull(inUiExecutor, "uiExecutor");
+
+    if (inPagesRetained < 2) {
+      throw new IllegalArgumentException(
+        "Pages retained must be at least 2 (was %d)"
+          .formatted(Integer.valueOf(inPagesRetained))
+      );
+    }
+
+    this.pagesRetained =
+      inPagesRetained;
+    this.pages =
+      new ArrayList<>(inPagesRetained + 1);
+  }
+
+  /**
+   * Discard the current contents of the list and start again with the
+   * first page of a new search.
+   *
+   * @param page The first page
+   */
+
+  public void start(
+    final IdPage<T> page)
+  {
+    Objects.requireNonNull(page, "page");
+
+    ++this.generation;
+    this.loading = false;
+
+    final var removed = this.contents();
+    final var items = List.copyOf(page.items());
+    this.pages.clear();
+    this.pages.add(items);
+    this.pageFirst = page.pageIndex();
+    this.pageCount = page.pageCount();
+    this.size = items.size();
+
+    this.beginChange();
+    if (!removed.isEmpty()) {
+      this.nextRemove(0, removed);
+    }
+    if (!items.isEmpty()) {
+      this.nextAdd(0, items.size());
+    }
+    this.endChange();
+  }
+
+  /**
+   * Discard the current contents of the list, and any pages that are in the
+   * process of being fetched.
+   */
+
+  public void reset()
+  {
+    ++this.generation;
+    this.loading = false;
+
+    final var removed = this.contents();
+    this.pages.clear();
+    this.pageFirst = 0;
+    this.pageCount = 0;
+    this.size = 0;
+
+    if (!removed.isEmpty()) {
+      this.beginChange();
+      this.nextRemove(0, removed);
+      this.endChange();
+    }
+  }
+
+  /**
+   * @return The index of the first page in the list, or 0 if the list is
+   * empty
+   */
+
+  public int pageFirst()
+  {
+    return this.pageFirst;
+  }
+
+  /**
+   * @return The index of the last page in the list, or 0 if the list is
+   * empty
+   */
+
+  public int pageLast()
+  {
+    if (this.pages.isEmpty()) {
+      return 0;
+    }
+    return this.pageFirst + this.pages.size() - 1;
+  }
+
+  /**
+   * @return The number of pages in the search
+   */
+
+  public int pageCount()
+  {
+    return this.pageCount;
+  }
+
+  /**
+   * @return {@code true} if a page is currently being fetched
+   */
+
+  public boolean isLoading()
+  {
+    return this.loading;
+  }
+
+  /**
+   * Fetch the page after the last page in the list, if there is one and no
+   * other page is currently being fetched.
+   */
+
+  public void requestNext()
+  {
+    if (this.loading || this.pages.isEmpty()) {
+      return;
+    }
+
+    final var target = this.pageLast() + 1;
+    if (target > this.pageCount) {
+      return;
+    }
+    this.request(target);
+  }
+
+  /**
+   * Fetch the page before the first page in the list, if there is one and
+   * no other page is currently being fetched.
+   */
+
+  public void requestPrevious()
+  {
+    if (this.loading || this.pages.isEmpty()) {
+      return;
+    }
+
+    final var target = this.pageFirst - 1;
+    if (target < 1) {
+      return;
+    }
+    this.request(target);
+  }
+
+  private void request(
+    final int target)
+  {
+    this.loading = true;
+
+    final var requestGeneration = this.generation;
+    this.source.page(target)
+      .whenComplete((page, exception) -> {
+        this.uiExecutor.execute(() -> {
+          this.onPageReceived(requestGeneration, target, page);
+        });
+      });
+  }
+
+  private void onPageReceived(
+    final long requestGeneration,
+    final int target,
+    final IdPage<T> page)
+  {
+    if (requestGeneration != this.generation) {
+      return;
+    }
+
+    this.loading = false;
+
+    /*
+     * Failures are reported by the client service; the window is simply
+     * left as it was so that the request can be made again.
+     */
+
+    if (page == null || page.pageIndex() != target) {
+      return;
+    }
+
+    this.pageCount = page.pageCount();
+    if (target == this.pageLast() + 1) {
+      this.append(List.copyOf(page.items()));
+    } else if (target == this.pageFirst - 1) {
+      this.prepend(List.copyOf(page.items()));
+    }
+  }
+
+  private void append(
+    final List<T> items)
+  {
+    final var position = this.size;
+    this.pages.add(items);
+    this.size += items.size();
+
+    this.beginChange();
+    this.nextAdd(position, this.size);
+    this.endChange();
+
+    if (this.pages.size() > this.pagesRetained) {
+      final var removed = this.pages.remove(0);
+      ++this.pageFirst;
+      this.size -= removed.size();
+
+      this.beginChange();
+      this.nextRemove(0, removed);
+      this.endChange();
+    }
+  }
+
+  private void prepend(
+    final List<T> items)
+  {
+    this.pages.add(0, items);
+    --this.pageFirst;
+    this.size += items.size();
+
+    this.beginChange();
+    this.nextAdd(0, items.size());
+    this.endChange();
+
+    if (this.pages.size() > this.pagesRetained) {
+      final var removed = this.pages.remove(this.pages.size() - 1);
+      this.size -= removed.size();
+
+      this.beginChange();
+      this.nextRemove(this.size, removed);
+      this.endChange();
+    }
+  }
+
+  private List<T> contents()
+  {
+    final var results = new ArrayList<T>(this.size);
+    for (final var page : this.pages) {
+      results.addAll(page);
+    }
+    return results;
+  }
+
+  @Override
+  public T get(
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+
+    var remaining = index;
+    for (final var page : this.pages) {
+      final var pageSize = page.size();
+      if (remaining < pageSize) {
+        return page.get(remaining);
+      }
+      remaining -= pageSize;
+    }
+
+    throw new IndexOutOfBoundsException(index);
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.paging;
+
+import javafx.collections.ListChangeListener;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>Continuous scrolling for a table backed by an {@link IdAGPagedList}.</p>
+ *
+ * <p>When the visible rows of the table come within a given number of rows
+ * of either end of the list, the adjacent page is requested. When pages are
+ * inserted at, or evicted from, the start of the list, the table is scrolled
+ * so that the rows that were visible remain visible.</p>
+ *
+ * <p>The table may be switched between the paged list and other lists at
+ * any time; the table is only scrolled while the paged list is the table's
+ * current item list.</p>
+ *
+ * @param <T> The type of table items
+ */
+
+public final class IdAGPagedTableScrolling<T>
+{
+  private final TableView<T> table;
+  private final IdAGPagedList<T> list;
+  private final int rowsMargin;
+  private final Executor uiExecutor;
+  private VirtualFlow<?> flow;
+  private int rowFirstVisible;
+
+  private IdAGPagedTableScrolling(
+    final TableView<T> inTable,
+    final IdAGPagedList<T> inList,
+    final int inRowsMargin,
+    final Executor inUiExecutor)
+  {
+    this.table =
+      Objects.requireNonNull(inTable, "table");
+    this.list =
+      Objects.requireNonNull(inList, "list");
+    this.rowsMargin =
+      inRowsMargin;
+    this.uiExecutor =
+      Objects.requireNonNull(inUiExecutor, "uiExecutor");
+  }
+
+  /**
+   * Attach continuous scrolling to the given table. Must be called on the
+   * JavaFX application thread.
+   *
+   * @param table      The table
+   * @param list       The paged list
+   * @param rowsMargin The distance in rows from either end of the list at
+   *                   which the adjacent page is requested
+   * @param uiExecutor The executor used to run deferred checks on the
+   *                   JavaFX application thread
+   * @param <T>        The type of table items
+   *
+   * @return The scrolling support
+   */
+
+  public static <T> IdAGPagedTableScrolling<T> attach(
+    final TableView<T> table,
+    final IdAGPagedList<T> list,
+    final int rowsMargin,
+    final Executor uiExecutor)
+  {
+    final var scrolling =
+      new IdAGPagedTableScrolling<>(table, list, rowsMargin, uiExecutor);
+
+    table.skinProperty()
+      .addListener((obs, skinOld, skinNew) -> scrolling.onSkinChanged());
+    list.addListener(scrolling::onListChanged);
+    scrolling.onSkinChanged();
+    return scrolling;
+  }
+
+  private boolean isActive()
+  {
+    return this.flow != null && this.table.getItems() == this.list;
+  }
+
+  private void onSkinChanged()
+  {
+    if (this.table.getSkin() == null) {
+      this.flow = null;
+      return;
+    }
+
+    /*
+     * The virtual flow is created along with the skin, but is only
+     * reachable by lookup once it has been added to the scene graph.
+     */
+
+    this.uiExecutor.execute(() -> {
+      if (this.table.lookup(".virtual-flow") instanceof final VirtualFlow<?> f) {
+        this.flow = f;
+        f.positionProperty()
+          .addListener((obs, posOld, posNew) -> this.onScrolled());
+      }
+    });
+  }
+
+  private void onScrolled()
+  {
+    if (!this.isActive()) {
+      return;
+    }
+
+    final IndexedCell<?> cellFirst = this.flow.getFirstVisibleCell();
+    final IndexedCell<?> cellLast = this.flow.getLastVisibleCell();
+    if (cellFirst == null || cellLast == null) {
+      return;
+    }
+
+    this.rowFirstVisible = cellFirst.getIndex();
+
+    final var size = this.list.size();
+    if (cellLast.getIndex() >= size - 1 - this.rowsMargin) {
+      this.list.requestNext();
+    } else if (this.rowFirstVisible <= this.rowsMargin) {
+      this.list.requestPrevious();
+    }
+  }
+
+  private void onListChanged(
+    final ListChangeListener.Change<? extends T> change)
+  {
+    if (!this.isActive()) {
+      return;
+    }
+
+    var shift = 0;
+    while (change.next()) {
+      if (change.wasReplaced() || change.getFrom() != 0) {
+        continue;
+      }
+      if (change.wasAdded() && change.getTo() < this.list.size()) {
+        shift += change.getAddedSize();
+      } else if (change.wasRemoved()) {
+        shift -= change.getRemovedSize();
+      }
+    }
+
+    if (shift != 0) {
+      this.rowFirstVisible = Math.max(0, this.rowFirstVisible + shift);
+      this.table.scrollTo(this.rowFirstVisible);
+    }
+
+    /*
+     * A page that does not fill the table produces no scroll events, so
+     * check again once the table has been laid out.
+     */
+
+    this.uiExecutor.execute(this::onScrolled);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.paging;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>An observable list that holds at most a fixed number of items.</p>
+ *
+ * <p>Items are stored in a ring buffer. When items are appended to a full
+ * list, the oldest items are removed from the front of the list to make
+ * room, so appending never copies the existing contents.</p>
+ *
+ * <p>The list must only be accessed from the UI thread.</p>
+ *
+ * @param <T> The type of list items
+ */
+
+public final class IdAGRingList<T> extends ObservableListBase<T>
+{
+  private final Object[] items;
+  private int head;
+  private int size;
+
+  /**
+   * Create a list.
+   *
+   * @param capacity The maximum number of items held
+   */
+
+  public IdAGRingList(
+    final int capacity)
+  {
+    if (capacity < 1) {
+      throw new IllegalArgumentException(
+        "Capacity must be at least 1 (was %d)"
+          .formatted(Integer.valueOf(capacity))
+      );
+    }
+
+    this.items = new Object[capacity];
+  }
+
+  /**
+   * @return The maximum number of items held
+   */
+
+  public int capacity()
+  {
+    return this.items.length;
+  }
+
+  /**
+   * Append items to the end of the list, removing the oldest items if the
+   * list would otherwise exceed its capacity. If more items are given than
+   * the list can hold, only the last items are kept.
+   *
+   * @param newItems The items
+   *
+   * @return {@code true} if the list changed
+   */
+
+  @Override
+  public boolean addAll(
+    final Collection<? extends T> newItems)
+  {
+    if (newItems.isEmpty()) {
+      return false;
+    }
+
+    final var capacity = this.items.length;
+    final var kept = List.copyOf(newItems);
+    final var added =
+      kept.subList(Math.max(0, kept.size() - capacity), kept.size());
+
+    final var evictCount =
+      Math.max(0, this.size + added.size() - capacity);
+
+    if (evictCount > 0) {
+      final var removed = new ArrayList<T>(evictCount);
+      for (int index = 0; index < evictCount; ++index) {
+        removed.add(this.get(index));
+        this.items[this.slot(index)] = null;
+      }
+      this.head = (this.head + evictCount) % capacity;
+      this.size -= evictCount;
+
+      this.beginChange();
+      this.nextRemove(0, removed);
+      this.endChange();
+    }
+
+    final var position = this.size;
+    for (final var item : added) {
+      this.items[this.slot(this.size)] = item;
+      ++this.size;
+    }
+
+    this.beginChange();
+    this.nextAdd(position, this.size);
+    this.endChange();
+    return true;
+  }
+
+  /**
+   * Replace the contents of the list. If more items are given than the list
+   * can hold, only the last items are kept.
+   *
+   * @param newItems The items
+   *
+   * @return {@code true}
+   */
+
+  @Override
+  public boolean setAll(
+    final Collection<? extends T> newItems)
+  {
+    this.clear();
+    this.addAll(newItems);
+    return true;
+  }
+
+  @Override
+  public void clear()
+  {
+    if (this.size == 0) {
+      return;
+    }
+
+    final var removed = new ArrayList<T>(this.size);
+    for (int index = 0; index < this.size; ++index) {
+      removed.add(this.get(index));
+      this.items[this.slot(index)] = null;
+    }
+    this.head = 0;
+    this.size = 0;
+
+    this.beginChange();
+    this.nextRemove(0, removed);
+    this.endChange();
+  }
+
+  private int slot(
+    final int index)
+  {
+    return (this.head + index) % this.items.length;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T get(
+    final int index)
+  {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException(index);
+    }
+    return (T) this.items[this.slot(index)];
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+}
@@ -28,13 +28,19 @@ import java.util.UUID;
  * @param debuggingEnabled A specification of whether debugging is enabled
  * @param serverBookmarks  The server bookmarks
  * @param recentFiles      The recent files
+ * @param paging           The paging preferences
+ * @param auditTail        The audit tail preferences
+ * @param bulk             The bulk operation preferences
  */
 
 public record IdAGPreferences(
   UUID installationId,
   IdAGPreferencesDebuggingEnabled debuggingEnabled,
   List<IdAGPreferenceServerBookmark> serverBookmarks,
-  List<Path> recentFiles)
+  List<Path> recentFiles,
+  IdAGPreferencesPaging paging,
+  IdAGPreferencesAuditTail auditTail,
+  IdAGPreferencesBulk bulk)
 {
   /**
    * A set of preferences.
@@ -46,5 +52,8 @@ public record IdAGPreferences(
     Objects.requireNonNull(debuggingEnabled, "debuggingEnabled");
     Objects.requireNonNull(serverBookmarks, "serverBookmarks");
     Objects.requireNonNull(recentFiles, "recentFiles");
+    Objects.requireNonNull(paging, "paging");
+    Objects.requireNonNull(auditTail, "auditTail");
+    Objects.requireNonNull(bulk, "bulk");
   }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.preferences;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Preferences related to following the audit log.
+ *
+ * @param pollInterval   The time between polls for new audit events
+ * @param backoffMaximum The longest time between polls after repeated
+ *                       failures
+ * @param rowsRetained   The largest number of audit events shown at once
+ */
+
+public record IdAGPreferencesAuditTail(
+  Duration pollInterval,
+  Duration backoffMaximum,
+  int rowsRetained)
+{
+  /**
+   * The shortest permitted poll interval.
+   */
+
+  public static final Duration POLL_INTERVAL_MINIMUM =
+    Duration.ofMillis(500L);
+
+  /**
+   * The smallest permitted number of retained rows.
+   */
+
+  public static final int ROWS_RETAINED_MINIMUM =
+    IdAGPreferencesPaging.PAGE_SIZE_MAXIMUM;
+
+  /**
+   * Preferences related to following the audit log.
+   *
+   * @param pollInterval   The time between polls for new audit events
+   * @param backoffMaximum The longest time between polls after repeated
+   *                       failures
+   * @param rowsRetained   The largest number of audit events shown at once
+   */
+
+  public IdAGPreferencesAuditTail
+  {
+    Objects.requireNonNull(pollInterval, "pollInterval");
+    Objects.requireNonNull(backoffMaximum, "backoffMaximum");
+
+    if (pollInterval.compareTo(POLL_INTERVAL_MINIMUM) < 0) {
+      pollInterval = POLL_INTERVAL_MINIMUM;
+    }
+    if (backoffMaximum.compareTo(pollInterval) < 0) {
+      backoffMaximum = pollInterval;
+    }
+    rowsRetained = Math.max(ROWS_RETAINED_MINIMUM, rowsRetained);
+  }
+
+  /**
+   * @return The default audit tail preferences
+   */
+
+  public static IdAGPreferencesAuditTail defaults()
+  {
+    return new IdAGPreferencesAuditTail(
+      Duration.ofSeconds(5L),
+      Duration.ofMinutes(2L),
+      10_000
+    );
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.preferences;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Preferences related to bulk operations on many users.
+ *
+ * @param window      The largest number of operations in progress at once
+ * @param attempts    The number of times an operation is attempted before
+ *                    it is considered to have failed
+ * @param retryDelay  The time waited before the first retry; subsequent
+ *                    retries wait proportionally longer
+ * @param connections The number of connections to the server over which
+ *                    the operations are spread
+ */
+
+public record IdAGPreferencesBulk(
+  int window,
+  int attempts,
+  Duration retryDelay,
+  int connections)
+{
+  /**
+   * The largest permitted window.
+   */
+
+  public static final int WINDOW_MAXIMUM = 64;
+
+  /**
+   * The largest permitted number of connections.
+   */
+
+  public static final int CONNECTIONS_MAXIMUM = 8;
+
+  /**
+   * Preferences related to bulk operations on many users.
+   *
+   * @param window      The largest number of operations in progress at once
+   * @param attempts    The number of times an operation is attempted before
+   *                    it is considered to have failed
+   * @param retryDelay  The time waited before the first retry
+   * @param connections The number of connections to the server over which
+   *                    the operations are spread
+   */
+
+  public IdAGPreferencesBulk
+  {
+    Objects.requireNonNull(retryDelay, "retryDelay");
+
+    window = Math.max(1, Math.min(WINDOW_MAXIMUM, window));
+    attempts = Math.max(1, attempts);
+    connections =
+      Math.max(
+        1,
+        Math.min(Math.min(CONNECTIONS_MAXIMUM, window), connections)
+      );
+    if (retryDelay.isNegative()) {
+      retryDelay = Duration.ZERO;
+    }
+  }
+
+  /**
+   * @return The default bulk operation preferences
+   */
+
+  public static IdAGPreferencesBulk defaults()
+  {
+    return new IdAGPreferencesBulk(8, 3, Duration.ofSeconds(1L), 4);
+  }
+}
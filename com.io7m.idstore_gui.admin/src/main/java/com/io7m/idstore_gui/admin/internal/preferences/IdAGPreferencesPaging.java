@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.preferences;
+
+import java.util.Objects;
+
+/**
+ * Preferences related to paged searches.
+ *
+ * @param userPageSize  The number of users fetched per page
+ * @param adminPageSize The number of admins fetched per page
+ * @param auditPageSize The number of audit events fetched per page
+ * @param pageSizeMode  The way in which page sizes are chosen
+ */
+
+public record IdAGPreferencesPaging(
+  int userPageSize,
+  int adminPageSize,
+  int auditPageSize,
+  IdAGPreferencesPageSizeMode pageSizeMode)
+{
+  /**
+   * The smallest permitted page size.
+   */
+
+  public static final int PAGE_SIZE_MINIMUM = 10;
+
+  /**
+   * The largest permitted page size.
+   */
+
+  public static final int PAGE_SIZE_MAXIMUM = 1000;
+
+  /**
+   * The default page size.
+   */
+
+  public static final int PAGE_SIZE_DEFAULT = 100;
+
+  /**
+   * Preferences related to paged searches.
+   *
+   * @param userPageSize  The number of users fetched per page
+   * @param adminPageSize The number of admins fetched per page
+   * @param auditPageSize The number of audit events fetched per page
+   * @param pageSizeMode  The way in which page sizes are chosen
+   */
+
+  public IdAGPreferencesPaging
+  {
+    Objects.requireNonNull(pageSizeMode, "pageSizeMode");
+
+    userPageSize = clampPageSize(userPageSize);
+    adminPageSize = clampPageSize(adminPageSize);
+    auditPageSize = clampPageSize(auditPageSize);
+  }
+
+  /**
+   * Clamp the given size to the permitted page size range.
+   *
+   * @param size The size
+   *
+   * @return The clamped size
+   */
+
+  public static int clampPageSize(
+    final int size)
+  {
+    return Math.max(PAGE_SIZE_MINIMUM, Math.min(PAGE_SIZE_MAXIMUM, size));
+  }
+
+  /**
+   * @return The default paging preferences
+   */
+
+  public static IdAGPreferencesPaging defaults()
+  {
+    return new IdAGPreferencesPaging(
+      PAGE_SIZE_DEFAULT,
+      PAGE_SIZE_DEFAULT,
+      PAGE_SIZE_DEFAULT,
+      IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED
+    );
+  }
+}
@@ -26,37 +26,103 @@ import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * The default preferences service.
+ *
+ * <p>In write-behind mode, updates are applied to the in-memory preferences
+ * immediately and a single background writer writes the most recent
+ * preferences to disk once the configured write delay has elapsed. Bursts of
+ * updates therefore result in a single atomic write, and callers (such as
+ * the FX thread) never block on disk I/O. Pending updates are written when
+ * the service is closed, or when the JVM shuts down.</p>
  */
 
 public final class IdAGPreferencesService
-  implements IdAGPreferencesServiceType
+  implements IdAGPreferencesServiceType, AutoCloseable
 {
   private static final Logger LOG =
     LoggerFactory.getLogger(IdAGPreferencesService.class);
 
   private final Path file;
+  private final IdAGPreferencesServiceConfiguration configuration;
+  private final Optional<ScheduledExecutorService> writer;
+  private final Optional<Thread> shutdownHook;
+  private final AtomicBoolean writePending;
+  private final AtomicBoolean closed;
+  private final AtomicLong writes;
+  private final Object writeLock;
   private volatile IdAGPreferences preferences;
+  private IdAGPreferences written;
 
   private IdAGPreferencesService(
     final Path inFile,
-    final IdAGPreferences inPreferences)
+    final IdAGPreferencesServiceConfiguration inConfiguration,
+    final IdAGPreferences inPreferences,
+    final boolean inExists)
   {
     this.file =
       Objects.requireNonNull(inFile, "file");
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
     this.preferences =
       Objects.requireNonNull(inPreferences, "preferences");
+
+    this.writePending =
+      new AtomicBoolean(false);
+    this.closed =
+      new AtomicBoolean(false);
+    this.writes =
+      new AtomicLong(0L);
+    this.writeLock =
+      new Object();
+
+    /*
+     * Preferences that were loaded from an existing file do not need to be
+     * written again until they change.
+     */
+
+    this.written =
+      inExists ? inPreferences : null;
+
+    if (this.configuration.isWriteBehind()) {
+      this.writer =
+        Optional.of(Executors.newSingleThreadScheduledExecutor(runnable -> {
+          final var thread = new Thread(runnable);
+          thread.setDaemon(true);
+          thread.setName(
+            String.format(
+              "com.io7m.idstore.preferences.writer[%d]",
+              Long.valueOf(thread.getId()))
+          );
+          return thread;
+        }));
+
+      final var hook = new Thread(this::flushOnShutdown);
+      hook.setName("com.io7m.idstore.preferences.shutdown");
+      Runtime.getRuntime().addShutdownHook(hook);
+      this.shutdownHook = Optional.of(hook);
+    } else {
+      this.writer = Optional.empty();
+      this.shutdownHook = Optional.empty();
+    }
   }
 
   /**
-   * Open preferences or return the default preferences values.
+   * Open preferences or return the default preferences values. Updates are
+   * written synchronously.
    *
    * @param file The preferences file
    *
@@ -65,23 +131,61 @@ public final class IdAGPreferencesService
    * @throws IOException On I/O errors
    */
 
-  public static IdAGPreferencesServiceType openOrDefault(
+  public static IdAGPreferencesService openOrDefault(
     final Path file)
     throws IOException
   {
+    return openOrDefault(
+      file,
+      IdAGPreferencesServiceConfiguration.synchronous()
+    );
+  }
+
+  /**
+   * Open preferences or return the default preferences values.
+   *
+   * @param file          The preferences file
+   * @param configuration The service configuration
+   *
+   * @return A preferences service
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static IdAGPreferencesService openOrDefault(
+    final Path file,
+    final IdAGPreferencesServiceConfiguration configuration)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(configuration, "configuration");
+
     final var properties = new Properties();
+    var exists = false;
     try (var stream = Files.newInputStream(file)) {
       properties.loadFromXML(stream);
+      exists = true;
     } catch (final NoSuchFileException e) {
       LOG.info("preferences file {} does not exist, creating a new one", file);
     }
 
     return new IdAGPreferencesService(
       file,
-      new IdAGPreferencesLoader(file.getFileSystem(), properties).load()
+      configuration,
+      new IdAGPreferencesLoader(file.getFileSystem(), properties).load(),
+      exists
     );
   }
 
+  /**
+   * @return The number of times the preferences have been written to disk
+   */
+
+  public long writes()
+  {
+    return this.writes.get();
+  }
+
   @Override
   public IdAGPreferences preferences()
   {
@@ -95,6 +199,104 @@ public final class IdAGPreferencesService
     this.preferences =
       Objects.requireNonNull(newPreferences, "newPreferences");
 
+    if (this.writer.isEmpty() || this.closed.get()) {
+      this.writeLatest();
+      return;
+    }
+
+    /*
+     * Only one write is scheduled at a time. Updates that arrive while a
+     * write is pending are picked up by that write.
+     */
+
+    if (this.writePending.compareAndSet(false, true)) {
+      try {
+        this.writer.get().schedule(
+          this::writeScheduled,
+          this.configuration.writeDelay().toNanos(),
+          NANOSECONDS
+        );
+      } catch (final RejectedExecutionException e) {
+        this.writePending.set(false);
+        this.writeLatest();
+      }
+    }
+  }
+
+  @Override
+  public void flush()
+    throws IOException
+  {
+    this.writeLatest();
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    if (this.closed.compareAndSet(false, true)) {
+      try {
+        this.flush();
+      } finally {
+        this.writer.ifPresent(ScheduledExecutorService::shutdown);
+        this.shutdownHook.ifPresent(IdAGPreferencesService::removeHook);
+      }
+    }
+  }
+
+  private static void removeHook(
+    final Thread hook)
+  {
+    try {
+      Runtime.getRuntime().removeShutdownHook(hook);
+    } catch (final IllegalStateException e) {
+      // The JVM is already shutting down, and the hook will run anyway.
+    }
+  }
+
+  private void flushOnShutdown()
+  {
+    try {
+      this.flush();
+    } catch (final IOException e) {
+      LOG.error("unable to write preferences {}: ", this.file, e);
+    }
+  }
+
+  private void writeScheduled()
+  {
+    /*
+     * The flag is cleared before the preferences are read, so that any
+     * update made after this point schedules another write.
+     */
+
+    this.writePending.set(false);
+
+    try {
+      this.writeLatest();
+    } catch (final IOException e) {
+      LOG.error("unable to write preferences {}: ", this.file, e);
+    }
+  }
+
+  private void writeLatest()
+    throws IOException
+  {
+    synchronized (this.writeLock) {
+      final var current = this.preferences;
+      if (current == this.written) {
+        return;
+      }
+      this.write(current);
+      this.written = current;
+      this.writes.incrementAndGet();
+    }
+  }
+
+  private void write(
+    final IdAGPreferences current)
+    throws IOException
+  {
     final var parent = this.file.getParent();
     Files.createDirectories(parent);
 
@@ -102,7 +304,7 @@ public final class IdAGPreferencesService
       this.file.resolveSibling(String.format("%s.xml", UUID.randomUUID()));
 
     try (var stream = Files.newOutputStream(tmp)) {
-      new IdAGPreferencesStorer(stream, this.preferences).store();
+      new IdAGPreferencesStorer(stream, current).store();
     } catch (final Exception e) {
       Files.deleteIfExists(tmp);
       throw e;
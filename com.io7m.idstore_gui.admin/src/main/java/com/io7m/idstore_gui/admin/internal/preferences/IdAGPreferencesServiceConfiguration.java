@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.admin.internal.preferences;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration of the preferences service.
+ *
+ * @param writeDelay The time to wait after an update before writing the
+ *                   preferences to disk; updates made during this time are
+ *                   coalesced into a single write. A zero delay writes
+ *                   synchronously on the calling thread.
+ */
+
+public record IdAGPreferencesServiceConfiguration(
+  Duration writeDelay)
+{
+  /**
+   * The configuration of the preferences service.
+   *
+   * @param writeDelay The time to wait after an update before writing the
+   *                   preferences to disk
+   */
+
+  public IdAGPreferencesServiceConfiguration
+  {
+    Objects.requireNonNull(writeDelay, "writeDelay");
+    if (writeDelay.isNegative()) {
+      writeDelay = Duration.ZERO;
+    }
+  }
+
+  /**
+   * @return A configuration that writes synchronously on every update
+   */
+
+  public static IdAGPreferencesServiceConfiguration synchronous()
+  {
+    return new IdAGPreferencesServiceConfiguration(Duration.ZERO);
+  }
+
+  /**
+   * @return The default configuration
+   */
+
+  public static IdAGPreferencesServiceConfiguration defaults()
+  {
+    return new IdAGPreferencesServiceConfiguration(Duration.ofMillis(250L));
+  }
+
+  /**
+   * Read the configuration from the system property
+   * {@code com.io7m.idstore.preferences.write_delay_ms}, using the default
+   * if the property is missing or malformed.
+   *
+   * @return The configuration
+   */
+
+  public static IdAGPreferencesServiceConfiguration ofSystemProperties()
+  {
+    final var defaults = defaults();
+
+    var delay = defaults.writeDelay();
+    try {
+      delay = Duration.ofMillis(
+        Long.parseLong(
+          System.getProperty(
+            "com.io7m.idstore.preferences.write_delay_ms",
+            Long.toString(delay.toMillis()))
+        )
+      );
+    } catch (final NumberFormatException e) {
+      // Use the default.
+    }
+
+    return new IdAGPreferencesServiceConfiguration(delay);
+  }
+
+  /**
+   * @return {@code true} if updates are written by a background writer
+   */
+
+  public boolean isWriteBehind()
+  {
+    return !this.writeDelay.isZero();
+  }
+}
@@ -38,7 +38,9 @@ public interface IdAGPreferencesServiceType extends RPServiceType
   IdAGPreferences preferences();
 
   /**
-   * Save preferences to persistent storage.
+   * Save preferences to persistent storage. The new preferences are visible
+   * to {@link #preferences()} immediately, but an implementation may defer
+   * the write to a background thread; use {@link #flush()} to wait for it.
    *
    * @param newPreferences The new preferences
    *
@@ -49,6 +51,16 @@ public interface IdAGPreferencesServiceType extends RPServiceType
     IdAGPreferences newPreferences)
     throws IOException;
 
+  /**
+   * Write any pending preferences to persistent storage, blocking until the
+   * write has completed.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void flush()
+    throws IOException;
+
   /**
    * Update the current preferences.
    *
@@ -89,7 +101,10 @@ public interface IdAGPreferencesServiceType extends RPServiceType
         p.installationId(),
         p.debuggingEnabled(),
         p.serverBookmarks(),
-        List.copyOf(newFiles)
+        List.copyOf(newFiles),
+        p.paging(),
+        p.auditTail(),
+        p.bulk()
       );
     });
     return file;
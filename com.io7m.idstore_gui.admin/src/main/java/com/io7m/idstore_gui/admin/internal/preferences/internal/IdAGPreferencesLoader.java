@@ -20,7 +20,11 @@ import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferenceServerBookm
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferenceServerCredentialsType;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferenceServerUsernamePassword;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPageSizeMode;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.jproperties.JPropertyIncorrectType;
 import com.io7m.jproperties.JPropertyNonexistent;
 import org.slf4j.Logger;
@@ -28,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -79,10 +84,95 @@ public final class IdAGPreferencesLoader
       this.loadInstallationId(),
       this.loadDebuggingEnabled(),
       this.loadServerBookmarks(),
-      this.loadRecentFiles()
+      this.loadRecentFiles(),
+      this.loadPaging(),
+      this.loadAuditTail(),
+      this.loadBulk()
     );
   }
 
+  private IdAGPreferencesPaging loadPaging()
+  {
+    final var defaults = IdAGPreferencesPaging.defaults();
+    return new IdAGPreferencesPaging(
+      this.loadInteger("paging.users.pageSize", defaults.userPageSize()),
+      this.loadInteger("paging.admins.pageSize", defaults.adminPageSize()),
+      this.loadInteger("paging.audit.pageSize", defaults.auditPageSize()),
+      this.loadPageSizeMode()
+    );
+  }
+
+  private int loadInteger(
+    final String name,
+    final int fallback)
+  {
+    final var text = this.properties.getProperty(name);
+    if (text == null) {
+      return fallback;
+    }
+
+    try {
+      return Integer.parseUnsignedInt(text);
+    } catch (final NumberFormatException e) {
+      LOG.error("unable to load integer {}: ", name, e);
+      return fallback;
+    }
+  }
+
+  private IdAGPreferencesAuditTail loadAuditTail()
+  {
+    final var defaults = IdAGPreferencesAuditTail.defaults();
+    return new IdAGPreferencesAuditTail(
+      this.loadMilliseconds(
+        "auditTail.pollIntervalMilliseconds", defaults.pollInterval()),
+      this.loadMilliseconds(
+        "auditTail.backoffMaximumMilliseconds", defaults.backoffMaximum()),
+      this.loadInteger(
+        "auditTail.rowsRetained", defaults.rowsRetained())
+    );
+  }
+
+  private IdAGPreferencesBulk loadBulk()
+  {
+    final var defaults = IdAGPreferencesBulk.defaults();
+    return new IdAGPreferencesBulk(
+      this.loadInteger("bulk.window", defaults.window()),
+      this.loadInteger("bulk.attempts", defaults.attempts()),
+      this.loadMilliseconds(
+        "bulk.retryDelayMilliseconds", defaults.retryDelay()),
+      this.loadInteger("bulk.connections", defaults.connections())
+    );
+  }
+
+  private Duration loadMilliseconds(
+    final String name,
+    final Duration fallback)
+  {
+    final var text = this.properties.getProperty(name);
+    if (text == null) {
+      return fallback;
+    }
+
+    try {
+      return Duration.ofMillis(Long.parseUnsignedLong(text));
+    } catch (final NumberFormatException e) {
+      LOG.error("unable to load duration {}: ", name, e);
+      return fallback;
+    }
+  }
+
+  private IdAGPreferencesPageSizeMode loadPageSizeMode()
+  {
+    try {
+      if (getBooleanWithDefault(this.properties, "paging.adaptive", false)) {
+        return IdAGPreferencesPageSizeMode.PAGE_SIZE_ADAPTIVE;
+      }
+      return IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED;
+    } catch (final JPropertyIncorrectType e) {
+      return IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED;
+    }
+  }
+
   private UUID loadInstallationId()
   {
     final var fallback = UUID.randomUUID();
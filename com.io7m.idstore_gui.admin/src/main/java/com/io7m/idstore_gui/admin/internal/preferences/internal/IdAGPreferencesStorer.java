@@ -67,6 +67,9 @@ public final class IdAGPreferencesStorer
     this.storeDebugging();
     this.storeServerBookmarks();
     this.storeRecentFiles();
+    this.storePaging();
+    this.storeAuditTail();
+    this.storeBulk();
     this.properties.storeToXML(this.stream, "", UTF_8);
   }
 
@@ -97,6 +100,71 @@ public final class IdAGPreferencesStorer
     }
   }
 
+  private void storePaging()
+  {
+    final var paging = this.preferences.paging();
+
+    this.properties.put(
+      "paging.users.pageSize",
+      Integer.toUnsignedString(paging.userPageSize())
+    );
+    this.properties.put(
+      "paging.admins.pageSize",
+      Integer.toUnsignedString(paging.adminPageSize())
+    );
+    this.properties.put(
+      "paging.audit.pageSize",
+      Integer.toUnsignedString(paging.auditPageSize())
+    );
+    this.properties.put(
+      "paging.adaptive",
+      switch (paging.pageSizeMode()) {
+        case PAGE_SIZE_FIXED -> "false";
+        case PAGE_SIZE_ADAPTIVE -> "true";
+      }
+    );
+  }
+
+  private void storeAuditTail()
+  {
+    final var auditTail = this.preferences.auditTail();
+
+    this.properties.put(
+      "auditTail.pollIntervalMilliseconds",
+      Long.toUnsignedString(auditTail.pollInterval().toMillis())
+    );
+    this.properties.put(
+      "auditTail.backoffMaximumMilliseconds",
+      Long.toUnsignedString(auditTail.backoffMaximum().toMillis())
+    );
+    this.properties.put(
+      "auditTail.rowsRetained",
+      Integer.toUnsignedString(auditTail.rowsRetained())
+    );
+  }
+
+  private void storeBulk()
+  {
+    final var bulk = this.preferences.bulk();
+
+    this.properties.put(
+      "bulk.window",
+      Integer.toUnsignedString(bulk.window())
+    );
+    this.properties.put(
+      "bulk.attempts",
+      Integer.toUnsignedString(bulk.attempts())
+    );
+    this.properties.put(
+      "bulk.retryDelayMilliseconds",
+      Long.toUnsignedString(bulk.retryDelay().toMillis())
+    );
+    this.properties.put(
+      "bulk.connections",
+      Integer.toUnsignedString(bulk.connections())
+    );
+  }
+
   private void storeDebugging()
   {
     this.properties.put(
@@ -18,9 +18,13 @@
 package com.io7m.idstore_gui.admin.internal.profile;
 
 import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateClosed;
 import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLogin;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginFailed;
 import com.io7m.hibiscus.api.HBStateType.HBStateExecutingLoginSucceeded;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
 import com.io7m.idstore_gui.admin.internal.users.IdAGUserEmailAddControllers;
@@ -28,7 +32,6 @@ import com.io7m.idstore.model.IdAdmin;
 import com.io7m.idstore.model.IdAdminPermission;
 import com.io7m.idstore.model.IdEmail;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -53,6 +56,7 @@ public final class IdAGProfileController
   private final RPServiceDirectoryType services;
   private final IdAGConfiguration configuration;
   private final IdAGClientService client;
+  private final IdAGFXDispatcherService dispatcher;
   private final ObservableList<IdAdminPermission> permissions;
   private final ObservableList<IdEmail> emails;
   private final IdAGStringsType strings;
@@ -83,6 +87,8 @@ public final class IdAGProfileController
       Objects.requireNonNull(inConfiguration, "configuration");
     this.client =
       inServices.requireService(IdAGClientService.class);
+    this.dispatcher =
+      inServices.requireService(IdAGFXDispatcherService.class);
     this.strings =
       inServices.requireService(IdAGStringsType.class);
     this.permissions =
@@ -104,6 +110,24 @@ public final class IdAGProfileController
       .addListener((obs, statusOld, statusNew) -> {
         this.onClientStatusChanged(statusNew);
       });
+
+    /*
+     * The profile tab is created when it is first selected, which may be
+     * long after the client has logged in.
+     */
+
+    if (isLoggedIn(this.client.status().get())) {
+      this.client.adminSelf().thenAcceptAsync(this::onAdminReceived);
+    }
+  }
+
+  private static boolean isLoggedIn(
+    final HBStateType<?, ?, ?, ?> status)
+  {
+    return !(status instanceof HBStateDisconnected
+             || status instanceof HBStateClosed
+             || status instanceof HBStateExecutingLogin
+             || status instanceof HBStateExecutingLoginFailed);
   }
 
   private void onAdminReceived(
@@ -111,7 +135,7 @@ public final class IdAGProfileController
   {
     this.admin = newAdmin;
 
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
       this.container.setDisable(false);
       this.adminIdField.setText(newAdmin.id().toString());
       this.adminIdNameField.setText(newAdmin.idName().value());
@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.services;
+
+import com.io7m.idstore_gui.admin.internal.jfr.IdAGJFRBootStepEvent;
+import com.io7m.repetoir.core.RPServiceDirectory;
+import com.io7m.repetoir.core.RPServiceType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>A graph of boot steps. Each step creates a single service, and may
+ * depend upon the services created by earlier steps. Steps are started as
+ * soon as the steps upon which they depend have finished, so independent
+ * steps run concurrently.</p>
+ *
+ * <p>A step may only depend upon steps that were added before it, so the
+ * graph cannot contain cycles.</p>
+ */
+
+public final class IdAGBootGraph
+{
+  private final List<Step<?>> steps;
+  private final Map<Class<?>, Step<?>> stepsByClass;
+
+  /**
+   * A graph of boot steps.
+   */
+
+  public IdAGBootGraph()
+  {
+    this.steps = new ArrayList<>();
+    this.stepsByClass = new HashMap<>();
+  }
+
+  /**
+   * Add a step to the graph.
+   *
+   * @param message      The step message
+   * @param clazz        The class of the service the step creates
+   * @param dependencies The classes of the services upon which the step
+   *                     depends
+   * @param creator      The function that creates the service
+   * @param <T>          The type of service
+   *
+   * @return this
+   *
+   * @throws IllegalArgumentException If a dependency has not been added, or
+   *                                  a step already creates the service
+   */
+
+  public <T extends RPServiceType> IdAGBootGraph add(
+    final String message,
+    final Class<T> clazz,
+    final List<Class<? extends RPServiceType>> dependencies,
+    final IdAGBootStepCreatorType<T> creator)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(message, "message");
+    Objects.requireNonNull(clazz, "clazz");
+    Objects.requireNonNull(dependencies, "dependencies");
+    Objects.requireNonNull(creator, "creator");
+
+    if (this.stepsByClass.containsKey(clazz)) {
+      throw new IllegalArgumentException(
+        "A step already creates %s".formatted(clazz.getName())
+      );
+    }
+
+    for (final var dependency : dependencies) {
+      if (!this.stepsByClass.containsKey(dependency)) {
+        throw new IllegalArgumentException(
+          "Step %s depends on %s, which has not been added".formatted(
+            clazz.getName(),
+            dependency.getName())
+        );
+      }
+    }
+
+    final var step =
+      new Step<>(message, clazz, List.copyOf(dependencies), creator);
+
+    this.steps.add(step);
+    this.stepsByClass.put(clazz, step);
+    return this;
+  }
+
+  /**
+   * @return The number of steps in the graph
+   */
+
+  public int size()
+  {
+    return this.steps.size();
+  }
+
+  /**
+   * Run every step in the graph. Steps are executed on the given executor,
+   * and the calling thread waits for them, registering each service and
+   * reporting progress as steps finish. If a step fails, steps that depend
+   * on it are never started, and the exception raised by the step is
+   * rethrown once the steps that are still running have finished.
+   *
+   * @param executor The executor upon which steps run
+   * @param listener The receiver of progress
+   *
+   * @return A service directory containing every service
+   *
+   * @throws Exception On errors
+   */
+
+  public RPServiceDirectory run(
+    final Executor executor,
+    final IdAGBootGraphListenerType listener)
+    throws Exception
+  {
+    Objects.requireNonNull(executor, "executor");
+    Objects.requireNonNull(listener, "listener");
+
+    final var queue =
+      new LinkedBlockingQueue<Notification>();
+    final var futures =
+      new HashMap<Class<?>, CompletableFuture<Object>>();
+
+    for (final var step : this.steps) {
+      final var dependencies =
+        new HashMap<Class<?>, CompletableFuture<Object>>();
+      for (final var dependency : step.dependencies) {
+        dependencies.put(dependency, futures.get(dependency));
+      }
+
+      /*
+       * A step that is skipped because a dependency failed is counted as
+       * finished, so that the caller never waits for it.
+       */
+
+      final var future =
+        CompletableFuture.allOf(
+            dependencies.values().toArray(new CompletableFuture<?>[0]))
+          .handleAsync((ignored, exception) -> {
+            if (exception != null) {
+              queue.add(new Skipped(step));
+              throw new CompletionException(exception);
+            }
+            return runStep(step, new Dependencies(dependencies), queue);
+          }, executor);
+
+      futures.put(step.clazz, future);
+    }
+
+    return this.await(queue, listener);
+  }
+
+  private RPServiceDirectory await(
+    final BlockingQueue<Notification> queue,
+    final IdAGBootGraphListenerType listener)
+    throws Exception
+  {
+    final var services = new RPServiceDirectory();
+    final var running = new LinkedHashSet<String>();
+    final var total = this.steps.size();
+    Throwable failure = null;
+    var finished = 0;
+    var latest = "";
+
+    while (finished < total) {
+      final var notification = queue.take();
+
+      if (notification instanceof final Started started) {
+        running.add(started.step.message);
+        latest = started.step.message;
+      }
+
+      if (notification instanceof final Succeeded succeeded) {
+        final var step = succeeded.step;
+        running.remove(step.message);
+        ++finished;
+        latest = step.message;
+        register(services, step.clazz, succeeded.service);
+        listener.onStepSucceeded(step.message, succeeded.time);
+      }
+
+      if (notification instanceof final Failed failed) {
+        final var step = failed.step;
+        running.remove(step.message);
+        ++finished;
+        latest = step.message;
+        if (failure == null) {
+          failure = failed.exception;
+        }
+        listener.onStepFailed(step.message, failed.time, failed.exception);
+      }
+
+      if (notification instanceof Skipped) {
+        ++finished;
+      }
+
+      final var message =
+        running.isEmpty() ? latest : running.iterator().next();
+      listener.onProgress(message, (double) finished / (double) total);
+    }
+
+    if (failure instanceof final Exception e) {
+      throw e;
+    }
+    if (failure instanceof final Error e) {
+      throw e;
+    }
+    return services;
+  }
+
+  private static void register(
+    final RPServiceDirectory services,
+    final Class<?> clazz,
+    final Object service)
+  {
+    services.register((Class<RPServiceType>) clazz, (RPServiceType) service);
+  }
+
+  private static Object runStep(
+    final Step<?> step,
+    final Dependencies dependencies,
+    final BlockingQueue<Notification> queue)
+  {
+    queue.add(new Started(step));
+
+    final var timeThen = System.nanoTime();
+    IdAGJFRBootStepEvent event = null;
+    try {
+      event = new IdAGJFRBootStepEvent(step.message, step.clazz);
+      event.begin();
+
+      final var service = step.creator.create(dependencies);
+      final var time = Duration.ofNanos(System.nanoTime() - timeThen);
+      event.setSucceeded(true);
+      event.commit();
+      queue.add(new Succeeded(step, service, time));
+      return service;
+    } catch (final Throwable e) {
+      final var time = Duration.ofNanos(System.nanoTime() - timeThen);
+      if (event != null) {
+        event.commit();
+      }
+      queue.add(new Failed(step, time, e));
+      throw new CompletionException(e);
+    }
+  }
+
+  private record Step<T extends RPServiceType>(
+    String message,
+    Class<T> clazz,
+    List<Class<? extends RPServiceType>> dependencies,
+    IdAGBootStepCreatorType<T> creator)
+  {
+
+  }
+
+  private sealed interface Notification
+  {
+
+  }
+
+  private record Started(
+    Step<?> step)
+    implements Notification
+  {
+
+  }
+
+  private record Succeeded(
+    Step<?> step,
+    Object service,
+    Duration time)
+    implements Notification
+  {
+
+  }
+
+  private record Failed(
+    Step<?> step,
+    Duration time,
+    Throwable exception)
+    implements Notification
+  {
+
+  }
+
+  private record Skipped(
+    Step<?> step)
+    implements Notification
+  {
+
+  }
+
+  private record Dependencies(
+    Map<Class<?>, CompletableFuture<Object>> futures)
+    implements IdAGBootDependenciesType
+  {
+    @Override
+    public <T> T require(
+      final Class<T> clazz)
+      throws IllegalStateException
+    {
+      final var future = this.futures.get(clazz);
+      if (future == null) {
+        throw new IllegalStateException(
+          "No dependency was declared on %s".formatted(clazz.getName())
+        );
+      }
+      return clazz.cast(future.join());
+    }
+  }
+}
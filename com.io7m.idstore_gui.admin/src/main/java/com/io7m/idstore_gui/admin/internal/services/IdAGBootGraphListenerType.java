@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.services;
+
+import java.time.Duration;
+
+/**
+ * A receiver of boot progress. All methods are called from the thread that
+ * called {@link IdAGBootGraph#run(java.util.concurrent.Executor,
+ * IdAGBootGraphListenerType)}, in the order in which steps finished.
+ */
+
+public interface IdAGBootGraphListenerType
+{
+  /**
+   * Boot progressed.
+   *
+   * @param message  A message describing a step that is still running, or
+   *                 the step that finished last
+   * @param progress The fraction of steps that have finished
+   */
+
+  void onProgress(
+    String message,
+    double progress);
+
+  /**
+   * A step finished successfully.
+   *
+   * @param message The step message
+   * @param time    The time the step took
+   */
+
+  void onStepSucceeded(
+    String message,
+    Duration time);
+
+  /**
+   * A step failed.
+   *
+   * @param message   The step message
+   * @param time      The time the step took before failing
+   * @param exception The exception raised by the step
+   */
+
+  void onStepFailed(
+    String message,
+    Duration time,
+    Throwable exception);
+}
@@ -20,15 +20,20 @@ import com.io7m.idstore.admin_client.IdAClients;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
 import com.io7m.idstore_gui.admin.internal.IdAGAbout;
 import com.io7m.idstore_gui.admin.internal.IdAGBackgroundSchedulerService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditStoreService;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.dialogs.IdAGDialogPoolService;
 import com.io7m.idstore_gui.admin.internal.errors.IdAGErrorDialogs;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBusConfiguration;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesService;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceConfiguration;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.repetoir.core.RPServiceDirectory;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import com.io7m.repetoir.core.RPServiceType;
 import com.io7m.taskrecorder.core.TRTask;
 import com.io7m.taskrecorder.core.TRTaskRecorder;
 import com.io7m.taskrecorder.core.TRTaskSucceeded;
@@ -36,16 +41,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
- * The main service directory.
+ * The main service directory. Services are created by a graph of boot
+ * steps, so that services that do not depend on each other are created
+ * concurrently.
  */
 
 public final class IdAGBootServices
@@ -53,6 +62,8 @@ public final class IdAGBootServices
   private static final Logger LOG =
     LoggerFactory.getLogger(IdAGBootServices.class);
 
+  private static final int BOOT_THREADS = 4;
+
   private IdAGBootServices()
   {
 
@@ -96,71 +107,111 @@ public final class IdAGBootServices
     final Consumer<IdAGBootEvent> bootEvents)
     throws Exception
   {
-    final var services =
-      new RPServiceDirectory();
-    final var creators =
-      new ArrayList<EIBootService<? extends RPServiceType>>();
-    final var eventBus =
-      new IdAGEventBus();
-    final var clients =
-      new IdAClients();
-
-    creators.add(new EIBootService<>(
-      "Loading string resources...",
+    final var graph = new IdAGBootGraph();
+
+    graph.add(
+      "Loading event bus...",
       IdAGEventBus.class,
-      () -> eventBus
-    ));
+      List.of(),
+      d -> new IdAGEventBus(IdAGEventBusConfiguration.ofSystemProperties())
+    );
 
-    creators.add(new EIBootService<>(
+    graph.add(
       "Loading string resources...",
       IdAGStringsType.class,
-      () -> strings
-    ));
-
-    creators.add(new EIBootService<>(
-      "Creating client...",
-      IdAGClientService.class,
-      () -> {
-        return IdAGClientService.create(
-          eventBus,
-          clients,
-          configuration.locale()
-        );
-      }
-    ));
+      List.of(),
+      d -> strings
+    );
 
-    creators.add(new EIBootService<>(
+    graph.add(
       "Loading preferences...",
       IdAGPreferencesServiceType.class,
-      () -> {
+      List.of(),
+      d -> {
         final var prefs =
           IdAGPreferencesService.openOrDefault(
             configuration.directories()
               .configurationDirectory()
-              .resolve("preferences.xml")
+              .resolve("preferences.xml"),
+            IdAGPreferencesServiceConfiguration.ofSystemProperties()
           );
         prefs.update(Function.identity());
         return prefs;
       }
-    ));
+    );
 
-    creators.add(new EIBootService<>(
-      "Loading event bus...",
-      IdAGEventBus.class,
-      IdAGEventBus::new
-    ));
+    /*
+     * The client reads the paging preferences each time a search begins, so
+     * the preferences must be loaded first.
+     */
+
+    graph.add(
+      "Creating client...",
+      IdAGClientService.class,
+      List.of(IdAGEventBus.class, IdAGPreferencesServiceType.class),
+      d -> {
+        final var preferences =
+          d.require(IdAGPreferencesServiceType.class);
+
+        return IdAGClientService.create(
+          d.require(IdAGEventBus.class),
+          new IdAClients(),
+          configuration.locale(),
+          () -> preferences.preferences().paging()
+        );
+      }
+    );
 
-    creators.add(new EIBootService<>(
+    graph.add(
       "Loading background scheduler service...",
       IdAGBackgroundSchedulerService.class,
-      IdAGBackgroundSchedulerService::new
-    ));
+      List.of(),
+      d -> new IdAGBackgroundSchedulerService()
+    );
+
+    graph.add(
+      "Loading UI dispatcher...",
+      IdAGFXDispatcherService.class,
+      List.of(),
+      d -> new IdAGFXDispatcherService()
+    );
+
+    graph.add(
+      "Opening audit event store...",
+      IdAGAuditStoreService.class,
+      List.of(),
+      d -> new IdAGAuditStoreService(configuration)
+    );
 
-    creators.add(new EIBootService<>(
+    graph.add(
       "Loading error dialogs...",
       IdAGErrorDialogs.class,
-      () -> new IdAGErrorDialogs(strings, configuration)
-    ));
+      List.of(IdAGStringsType.class),
+      d -> {
+        return new IdAGErrorDialogs(
+          d.require(IdAGStringsType.class),
+          configuration
+        );
+      }
+    );
+
+    graph.add(
+      "Preparing user interface...",
+      IdAGFXMLCache.class,
+      List.of(),
+      d -> {
+        final var cache = IdAGFXMLCache.shared();
+        cache.preload();
+        return cache;
+      }
+    );
+
+    graph.add(
+      "Loading dialog pool...",
+      IdAGDialogPoolService.class,
+      List.of(),
+      d -> new IdAGDialogPoolService()
+    );
 
     final var recorder =
       TRTaskRecorder.<RPServiceDirectoryType>create(
@@ -168,24 +219,57 @@ public final class IdAGBootServices
         "Booting application..."
       );
 
-    final var size = creators.size();
-    for (var index = 0; index < size; ++index) {
-      final var creator = creators.get(index);
-      final var progress = (double) index / (double) size;
+    final var executor =
+      Executors.newFixedThreadPool(
+        Math.min(graph.size(), BOOT_THREADS),
+        IdAGBootServices::createBootThread
+      );
 
-      recorder.beginStep(creator.message);
-      bootEvents.accept(new IdAGBootEvent(creator.message(), progress));
+    final var timeThen = System.nanoTime();
+    final RPServiceDirectory services;
+    try {
+      services = graph.run(executor, new IdAGBootGraphListenerType()
+      {
+        @Override
+        public void onProgress(
+          final String message,
+          final double progress)
+        {
+          bootEvents.accept(new IdAGBootEvent(message, progress));
+        }
 
-      try {
-        final var clazz = (Class<RPServiceType>) creator.clazz;
-        final var service = creator.creator.create();
-        services.register(clazz, service);
-      } catch (final Exception e) {
-        recorder.setTaskFailed(e.getMessage(), Optional.of(e));
-        throw e;
-      }
+        @Override
+        public void onStepSucceeded(
+          final String message,
+          final Duration time)
+        {
+          recorder.beginStep(stepMessage(message, time));
+        }
+
+        @Override
+        public void onStepFailed(
+          final String message,
+          final Duration time,
+          final Throwable exception)
+        {
+          recorder.beginStep(stepMessage(message, time));
+          recorder.setStepFailed(
+            Objects.requireNonNullElse(
+              exception.getMessage(), exception.getClass().getName()));
+        }
+      });
+    } catch (final Exception e) {
+      recorder.setTaskFailed(e.getMessage(), Optional.of(e));
+      throw e;
+    } finally {
+      executor.shutdown();
     }
 
+    LOG.debug(
+      "Booted {} services in {}",
+      Integer.valueOf(graph.size()),
+      Duration.ofNanos(System.nanoTime() - timeThen));
+
     if (debugFailBoot()) {
       recorder.setTaskFailed("Failed due to debug option!");
       return recorder.toTask();
@@ -198,6 +282,22 @@ public final class IdAGBootServices
     return recorder.toTask();
   }
 
+  private static String stepMessage(
+    final String message,
+    final Duration time)
+  {
+    return "%s (%d ms)".formatted(message, Long.valueOf(time.toMillis()));
+  }
+
+  private static Thread createBootThread(
+    final Runnable runnable)
+  {
+    final var thread = new Thread(runnable);
+    thread.setName("com.io7m.idstore.boot[%d]".formatted(thread.getId()));
+    thread.setDaemon(true);
+    return thread;
+  }
+
   private static boolean debugFailBoot()
     throws IOException
   {
@@ -211,18 +311,4 @@ public final class IdAGBootServices
 
     return Objects.equals(property, "TASK");
   }
-
-  private interface EIBootServiceCreatorType<T extends RPServiceType>
-  {
-    T create()
-      throws Exception;
-  }
-
-  private record EIBootService<T extends RPServiceType>(
-    String message,
-    Class<T> clazz,
-    EIBootServiceCreatorType<T> creator)
-  {
-
-  }
 }
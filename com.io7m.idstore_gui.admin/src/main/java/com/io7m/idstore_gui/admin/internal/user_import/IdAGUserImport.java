@@ -0,0 +1,485 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import com.io7m.idstore.admin_client.api.IdAClientException;
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkUserOperations;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.io7m.idstore_gui.admin.internal.client.IdAGClientFailureReporting.FAILURE_UNPUBLISHED;
+
+/**
+ * <p>An import of users from a CSV or JSON Lines file.</p>
+ *
+ * <p>A dedicated thread reads the file one row at a time. Each row is
+ * validated (and its password hashed) on a pool of worker threads, and the
+ * resulting user is then created on the server. A semaphore bounds the
+ * number of rows in flight; when every permit is taken, the reading thread
+ * blocks, so neither memory use nor the load on the server grows with the
+ * size of the file.</p>
+ *
+ * <p>Rows that are invalid, or that the server rejects, are reported
+ * together when the import finishes. A failure to reach the server stops
+ * the import. In every case, the number of leading rows that have been
+ * processed is recorded in a {@link IdAGUserImportCheckpoint}, and
+ * importing the same file again resumes after those rows. Rows that were
+ * in flight when the import stopped may be submitted again when it resumes,
+ * in which case the server will reject them as duplicates.</p>
+ */
+
+public final class IdAGUserImport
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGUserImport.class);
+
+  private static final long CHECKPOINT_INTERVAL = 100L;
+  private static final int FAILURES_REPORTED_MAXIMUM = 1000;
+
+  private final IdAGClientService client;
+  private final IdAGEventBus events;
+  private final IdAGStringsType strings;
+  private final Path file;
+  private final IdAGUserImportFormat format;
+  private final int window;
+  private final Semaphore permits;
+  private final ExecutorService workers;
+  private final AtomicBoolean cancelled;
+  private final AtomicLong created;
+  private final AtomicLong failed;
+  private final List<IdAGUserImportRowException> failures;
+  private final CompletableFuture<Long> future;
+  private volatile IdAGUserImportReader reader;
+  private volatile Throwable stopped;
+  private IdAGUserImportWatermark watermark;
+  private IdAGUserImportCheckpoint checkpoint;
+
+  private IdAGUserImport(
+    final IdAGClientService inClient,
+    final IdAGEventBus inEvents,
+    final IdAGStringsType inStrings,
+    final Path inFile,
+    final IdAGUserImportFormat inFormat,
+    final int inWindow)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+    this.events =
+      Objects.requireNonNull(inEvents, "events");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.file =
+      Objects.requireNonNull(inFile, "file");
+    this.format =
+      Objects.requireNonNull(inFormat, "format");
+    this.window =
+      Math.max(1, inWindow);
+    this.permits =
+      new Semaphore(this.window);
+    this.workers =
+      Executors.newFixedThreadPool(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+        runnable -> {
+          final var thread = new Thread(runnable);
+          thread.setDaemon(true);
+          thread.setName(
+            String.format(
+              "com.io7m.idstore.admin_gui.import[%d]",
+              Long.valueOf(thread.getId()))
+          );
+          return thread;
+        });
+    this.cancelled =
+      new AtomicBoolean(false);
+    this.created =
+      new AtomicLong(0L);
+    this.failed =
+      new AtomicLong(0L);
+    this.failures =
+      new ArrayList<>();
+    this.future =
+      new CompletableFuture<>();
+  }
+
+  /**
+   * Start importing users. Failures are published on the event bus.
+   *
+   * @param client  The client
+   * @param events  The event bus
+   * @param strings The strings
+   * @param file    The import file
+   * @param format  The import file format
+   * @param window  The largest number of rows in flight at once
+   *
+   * @return The import in progress
+   */
+
+  public static IdAGUserImport start(
+    final IdAGClientService client,
+    final IdAGEventBus events,
+    final IdAGStringsType strings,
+    final Path file,
+    final IdAGUserImportFormat format,
+    final int window)
+  {
+    final var userImport =
+      new IdAGUserImport(client, events, strings, file, format, window);
+
+    final var thread = new Thread(userImport::run);
+    thread.setDaemon(true);
+    thread.setName(
+      String.format(
+        "com.io7m.idstore.admin_gui.import.reader[%d]",
+        Long.valueOf(thread.getId()))
+    );
+    thread.start();
+    return userImport;
+  }
+
+  /**
+   * @return A future that completes with the number of users created
+   */
+
+  public CompletableFuture<Long> future()
+  {
+    return this.future;
+  }
+
+  /**
+   * Cancel the import. No further rows are read, and the import finishes
+   * once the rows in flight have finished.
+   */
+
+  public void cancel()
+  {
+    this.cancelled.set(true);
+  }
+
+  private void run()
+  {
+    try (var input = IdAGUserImportReader.open(this.file, this.format)) {
+      this.reader = input;
+      this.checkpoint = IdAGUserImportCheckpoint.load(this.file);
+
+      final var skip = this.checkpoint.rowsProcessed();
+      this.watermark = new IdAGUserImportWatermark(skip);
+      this.publishProgress();
+
+      while (!this.cancelled.get() && this.stopped == null) {
+        final var rowOpt = input.read();
+        if (rowOpt.isEmpty()) {
+          break;
+        }
+
+        final var row = rowOpt.get();
+        if (row.row() <= skip) {
+          continue;
+        }
+
+        this.permits.acquire();
+        this.dispatch(row);
+      }
+
+      /*
+       * Wait for the rows in flight.
+       */
+
+      this.permits.acquire(this.window);
+      this.permits.release(this.window);
+    } catch (final IOException e) {
+      this.stop(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      this.cancelled.set(true);
+    } finally {
+      this.workers.shutdown();
+    }
+
+    this.finish();
+  }
+
+  private void dispatch(
+    final IdAGUserImportRow row)
+  {
+    CompletableFuture.supplyAsync(() -> {
+        try {
+          return IdAGUserImportValidator.validate(row);
+        } catch (final IdAGUserImportRowException e) {
+          throw new CompletionException(e);
+        }
+      }, this.workers)
+      .thenCompose(create -> this.client.userCreate(create, FAILURE_UNPUBLISHED))
+      .whenComplete((user, exception) -> {
+        try {
+          this.onRowFinished(row.row(), exception);
+        } finally {
+          this.permits.release();
+        }
+      });
+  }
+
+  private void onRowFinished(
+    final long row,
+    final Throwable exception)
+  {
+    if (exception != null) {
+      final var cause = unwrap(exception);
+      if (cause instanceof final IdAGUserImportRowException e) {
+        this.recordFailure(e);
+      } else if (IdAGBulkUserOperations.isRetryable(cause)) {
+
+        /*
+         * The server could not be reached. The row is left unfinished so
+         * that the checkpoint does not move past it.
+         */
+
+        this.stop(cause);
+        return;
+      } else {
+        this.recordFailure(
+          new IdAGUserImportRowException(row, messageOf(cause)));
+      }
+    } else {
+      this.created.incrementAndGet();
+    }
+
+    final var mark = this.watermark.finish(row);
+    synchronized (this) {
+      if (mark - this.checkpoint.rowsProcessed() >= CHECKPOINT_INTERVAL) {
+        this.checkpointSave(mark);
+        this.publishProgress();
+      }
+    }
+  }
+
+  private void recordFailure(
+    final IdAGUserImportRowException e)
+  {
+    this.failed.incrementAndGet();
+    synchronized (this.failures) {
+      if (this.failures.size() < FAILURES_REPORTED_MAXIMUM) {
+        this.failures.add(e);
+      }
+    }
+  }
+
+  private void stop(
+    final Throwable cause)
+  {
+    synchronized (this) {
+      if (this.stopped == null) {
+        this.stopped = cause;
+      }
+    }
+  }
+
+  private void checkpointSave(
+    final long rows)
+  {
+    try {
+      this.checkpoint = this.checkpoint.save(rows);
+    } catch (final IOException e) {
+      LOG.error("unable to save checkpoint {}: ", this.checkpoint.file(), e);
+    }
+  }
+
+  private static Throwable unwrap(
+    final Throwable exception)
+  {
+    var cause = exception;
+    while (cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  private static String messageOf(
+    final Throwable e)
+  {
+    return Objects.requireNonNullElse(e.getMessage(), e.getClass().getName());
+  }
+
+  private void publishProgress()
+  {
+    final var input = this.reader;
+    final OptionalDouble progress;
+    if (input != null && input.size() > 0L) {
+      progress = OptionalDouble.of(
+        Math.min(1.0, (double) input.bytesRead() / (double) input.size()));
+    } else {
+      progress = OptionalDouble.empty();
+    }
+
+    this.events.submit(
+      new IdAGUserImportEvent(
+        this.strings.format(
+          "userImport.progress",
+          Long.valueOf(this.created.get()),
+          Long.valueOf(this.failed.get())),
+        new IdAGEventStatusInProgress(progress)
+      )
+    );
+  }
+
+  private void finish()
+  {
+    final var rows =
+      this.watermark == null ? 0L : this.watermark.watermark();
+
+    synchronized (this) {
+      if (this.checkpoint != null && rows != this.checkpoint.rowsProcessed()) {
+        this.checkpointSave(rows);
+      }
+    }
+
+    final var createdCount = Long.valueOf(this.created.get());
+    final var cause = this.stopped;
+
+    if (cause != null) {
+      final var message =
+        this.strings.format(
+          "userImport.interrupted",
+          Long.valueOf(rows + 1L),
+          messageOf(cause));
+      this.publishFailures(message, Optional.of(cause));
+      this.future.completeExceptionally(cause);
+      return;
+    }
+
+    if (this.failed.get() > 0L) {
+      this.publishFailures(
+        this.strings.format(
+          "userImport.failed",
+          Long.valueOf(this.failed.get()),
+          this.file.getFileName()),
+        Optional.empty()
+      );
+    } else if (this.cancelled.get()) {
+      this.events.submit(
+        new IdAGUserImportEvent(
+          this.strings.format(
+            "userImport.cancelled", createdCount, Long.valueOf(rows + 1L)),
+          new IdAGEventStatusCancelled()
+        )
+      );
+    } else {
+      this.events.submit(
+        new IdAGUserImportEvent(
+          this.strings.format(
+            "userImport.completed", createdCount, this.file.getFileName()),
+          new IdAGEventStatusCompleted()
+        )
+      );
+    }
+    this.future.complete(createdCount);
+  }
+
+  private void publishFailures(
+    final String message,
+    final Optional<Throwable> cause)
+  {
+    final var recorder =
+      TRTaskRecorder.create(LOG, this.strings.format("userImport.title"));
+
+    final List<IdAGUserImportRowException> reported;
+    synchronized (this.failures) {
+      reported = List.copyOf(this.failures);
+    }
+
+    for (final var failure : reported) {
+      recorder.beginStep(
+        this.strings.format("userImport.row", Long.valueOf(failure.row())));
+      recorder.setStepFailed(messageOf(failure));
+    }
+
+    final var unreported = this.failed.get() - reported.size();
+    if (unreported > 0L) {
+      recorder.beginStep(
+        this.strings.format("userImport.more", Long.valueOf(unreported)));
+      recorder.setStepFailed(
+        this.strings.format("userImport.more", Long.valueOf(unreported)));
+    }
+
+    if (cause.isPresent()) {
+      recorder.beginStep(message);
+      recorder.setStepFailed(message);
+      recorder.setTaskFailed(message, cause);
+    } else {
+      recorder.setTaskFailed(message);
+    }
+
+    final var errorCode =
+      cause.filter(IdAClientException.class::isInstance)
+        .map(IdAClientException.class::cast)
+        .map(IdAClientException::errorCode)
+        .orElse(IdStandardErrorCodes.IO_ERROR);
+
+    this.events.submit(
+      new IdAGUserImportEvent(
+        message,
+        new IdAGEventStatusFailed(
+          recorder.toTask(),
+          errorCode,
+          message,
+          Map.of(
+            "File", this.file.toString(),
+            "Checkpoint", IdAGUserImportCheckpoint.fileFor(this.file).toString(),
+            "Created", Long.toString(this.created.get()),
+            "Failed", Long.toString(this.failed.get())
+          ),
+          Optional.empty(),
+          cause
+        )
+      )
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[IdAGUserImport 0x%08x]",
+      Integer.valueOf(this.hashCode())
+    );
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Properties;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * <p>A checkpoint recording how much of an import file has been
+ * processed.</p>
+ *
+ * <p>The checkpoint is stored next to the import file, with the suffix
+ * {@code .checkpoint}, and records the number of leading rows that have
+ * been processed along with the size and modification time of the import
+ * file. A checkpoint that does not match the current size and modification
+ * time of the import file is ignored, so editing the file restarts the
+ * import from the beginning. Deleting the checkpoint has the same
+ * effect.</p>
+ */
+
+public final class IdAGUserImportCheckpoint
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGUserImportCheckpoint.class);
+
+  private final Path file;
+  private final Path fileTmp;
+  private final long importSize;
+  private final long importModified;
+  private final long rowsProcessed;
+
+  private IdAGUserImportCheckpoint(
+    final Path inFile,
+    final long inImportSize,
+    final long inImportModified,
+    final long inRowsProcessed)
+  {
+    this.file =
+      Objects.requireNonNull(inFile, "file");
+    this.fileTmp =
+      inFile.resolveSibling(inFile.getFileName() + ".tmp");
+    this.importSize =
+      inImportSize;
+    this.importModified =
+      inImportModified;
+    this.rowsProcessed =
+      inRowsProcessed;
+  }
+
+  /**
+   * @param importFile The import file
+   *
+   * @return The checkpoint file for the given import file
+   */
+
+  public static Path fileFor(
+    final Path importFile)
+  {
+    final var absolute = importFile.toAbsolutePath();
+    return absolute.resolveSibling(absolute.getFileName() + ".checkpoint");
+  }
+
+  /**
+   * Load the checkpoint for the given import file. If there is no
+   * checkpoint, or the checkpoint does not match the file, a checkpoint
+   * with no rows processed is returned.
+   *
+   * @param importFile The import file
+   *
+   * @return The checkpoint
+   *
+   * @throws IOException If the import file cannot be examined
+   */
+
+  public static IdAGUserImportCheckpoint load(
+    final Path importFile)
+    throws IOException
+  {
+    final var file =
+      fileFor(importFile);
+    final var size =
+      Files.size(importFile);
+    final var modified =
+      Files.getLastModifiedTime(importFile).toMillis();
+
+    final var fresh =
+      new IdAGUserImportCheckpoint(file, size, modified, 0L);
+
+    if (!Files.isRegularFile(file)) {
+      return fresh;
+    }
+
+    final var properties = new Properties();
+    try (var stream = Files.newInputStream(file)) {
+      properties.load(stream);
+
+      final var savedSize =
+        Long.parseLong(properties.getProperty("import.size", "-1"));
+      final var savedModified =
+        Long.parseLong(properties.getProperty("import.modified", "-1"));
+      final var rows =
+        Long.parseLong(properties.getProperty("rowsProcessed", "0"));
+
+      if (savedSize != size || savedModified != modified) {
+        LOG.info("ignoring checkpoint {} for a modified import file", file);
+        return fresh;
+      }
+      return new IdAGUserImportCheckpoint(file, size, modified, rows);
+    } catch (final IOException | NumberFormatException e) {
+      LOG.error("unable to load checkpoint {}: ", file, e);
+      return fresh;
+    }
+  }
+
+  /**
+   * @return The number of leading rows that have been processed
+   */
+
+  public long rowsProcessed()
+  {
+    return this.rowsProcessed;
+  }
+
+  /**
+   * @return The checkpoint file
+   */
+
+  public Path file()
+  {
+    return this.file;
+  }
+
+  /**
+   * Atomically replace the checkpoint with one recording the given number
+   * of processed rows.
+   *
+   * @param rows The number of leading rows processed
+   *
+   * @return The new checkpoint
+   *
+   * @throws IOException On errors
+   */
+
+  public IdAGUserImportCheckpoint save(
+    final long rows)
+    throws IOException
+  {
+    final var properties = new Properties();
+    properties.setProperty("import.size", Long.toString(this.importSize));
+    properties.setProperty("import.modified", Long.toString(this.importModified));
+    properties.setProperty("rowsProcessed", Long.toString(rows));
+
+    try (var stream = Files.newOutputStream(this.fileTmp)) {
+      properties.store(stream, "");
+    }
+    Files.move(this.fileTmp, this.file, ATOMIC_MOVE, REPLACE_EXISTING);
+
+    return new IdAGUserImportCheckpoint(
+      this.file, this.importSize, this.importModified, rows);
+  }
+}
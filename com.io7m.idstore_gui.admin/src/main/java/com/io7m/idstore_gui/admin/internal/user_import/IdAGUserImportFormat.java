@@ -0,0 +1,60 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * The available user import formats.
+ */
+
+public enum IdAGUserImportFormat
+{
+  /**
+   * Comma-separated values, with a header row naming the columns.
+   */
+
+  CSV,
+
+  /**
+   * One JSON object per line.
+   */
+
+  JSON_LINES;
+
+  /**
+   * Determine the format of a file from its name.
+   *
+   * @param file The file
+   *
+   * @return The format
+   */
+
+  public static IdAGUserImportFormat ofFile(
+    final Path file)
+  {
+    final var name =
+      file.getFileName().toString().toLowerCase(Locale.ROOT);
+
+    if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+      return JSON_LINES;
+    }
+    return CSV;
+  }
+}
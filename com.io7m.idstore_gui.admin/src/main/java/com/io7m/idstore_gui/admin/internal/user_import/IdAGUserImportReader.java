@@ -0,0 +1,521 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * <p>A streaming reader of import files.</p>
+ *
+ * <p>Rows are parsed one at a time from a buffered reader, so the memory
+ * used is independent of the size of the file. A row that cannot be parsed
+ * is returned with an error rather than ending the import; only failures
+ * to read the file itself raise exceptions.</p>
+ *
+ * <p>CSV files must begin with a header row naming the columns, and fields
+ * may be quoted as described in RFC 4180. JSON Lines files contain one flat
+ * object per line, mapping column names to values; blank lines are
+ * ignored.</p>
+ */
+
+public final class IdAGUserImportReader implements Closeable
+{
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final IdAGUserImportFormat format;
+  private final CountingStream stream;
+  private final BufferedReader reader;
+  private final long size;
+  private List<String> header;
+  private long row;
+
+  private IdAGUserImportReader(
+    final IdAGUserImportFormat inFormat,
+    final CountingStream inStream,
+    final long inSize)
+  {
+    this.format =
+      Objects.requireNonNull(inFormat, "format");
+    this.stream =
+      Objects.requireNonNull(inStream, "stream");
+    this.reader =
+      new BufferedReader(new InputStreamReader(inStream, UTF_8), BUFFER_SIZE);
+    this.size =
+      inSize;
+  }
+
+  /**
+   * Open a reader. For CSV files, the header row is read immediately.
+   *
+   * @param file   The file
+   * @param format The file format
+   *
+   * @return A reader
+   *
+   * @throws IOException On errors, or if a CSV file lacks a required column
+   */
+
+  public static IdAGUserImportReader open(
+    final Path file,
+    final IdAGUserImportFormat format)
+    throws IOException
+  {
+    final var size =
+      Files.size(file);
+    final var stream =
+      new CountingStream(Files.newInputStream(file));
+    final var reader =
+      new IdAGUserImportReader(format, stream, size);
+
+    try {
+      if (format == IdAGUserImportFormat.CSV) {
+        reader.readHeader(file);
+      }
+    } catch (final IOException e) {
+      reader.close();
+      throw e;
+    }
+    return reader;
+  }
+
+  private void readHeader(
+    final Path file)
+    throws IOException
+  {
+    final var fields = this.readCSVRecord();
+    if (fields.isEmpty()) {
+      throw new IOException("Empty import file: %s".formatted(file));
+    }
+
+    final var names = new ArrayList<String>(fields.get().size());
+    for (final var name : fields.get()) {
+      names.add(name.replace("\uFEFF", "").trim());
+    }
+
+    for (final var required : IdAGUserImportValidator.REQUIRED_COLUMNS) {
+      if (!names.contains(required)) {
+        throw new IOException(
+          "The import file %s has no column named '%s'."
+            .formatted(file, required)
+        );
+      }
+    }
+    this.header = List.copyOf(names);
+  }
+
+  /**
+   * @return The size of the file in bytes
+   */
+
+  public long size()
+  {
+    return this.size;
+  }
+
+  /**
+   * @return The number of bytes consumed from the file so far
+   */
+
+  public long bytesRead()
+  {
+    return this.stream.count;
+  }
+
+  /**
+   * Read the next row.
+   *
+   * @return The next row, or nothing at the end of the file
+   *
+   * @throws IOException On errors
+   */
+
+  public Optional<IdAGUserImportRow> read()
+    throws IOException
+  {
+    return switch (this.format) {
+      case CSV -> this.readCSVRow();
+      case JSON_LINES -> this.readJSONRow();
+    };
+  }
+
+  private Optional<IdAGUserImportRow> readCSVRow()
+    throws IOException
+  {
+    final Optional<List<String>> fieldsOpt;
+    try {
+      fieldsOpt = this.readCSVRecord();
+    } catch (final UnterminatedQuote e) {
+      return Optional.of(this.rowFailed(e.getMessage()));
+    }
+
+    if (fieldsOpt.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final var fields = fieldsOpt.get();
+    if (fields.size() != this.header.size()) {
+      return Optional.of(this.rowFailed(
+        "Expected %d fields but found %d."
+          .formatted(
+            Integer.valueOf(this.header.size()),
+            Integer.valueOf(fields.size()))
+      ));
+    }
+
+    final var values = new HashMap<String, String>(fields.size());
+    for (int index = 0; index < fields.size(); ++index) {
+      values.put(this.header.get(index), fields.get(index));
+    }
+    return Optional.of(
+      new IdAGUserImportRow(++this.row, Map.copyOf(values), Optional.empty())
+    );
+  }
+
+  private IdAGUserImportRow rowFailed(
+    final String message)
+  {
+    return new IdAGUserImportRow(++this.row, Map.of(), Optional.of(message));
+  }
+
+  private static final class UnterminatedQuote extends IOException
+  {
+    UnterminatedQuote()
+    {
+      super("Unterminated quoted field.");
+    }
+  }
+
+  /**
+   * Read one CSV record, skipping blank lines.
+   */
+
+  private Optional<List<String>> readCSVRecord()
+    throws IOException
+  {
+    final var fields = new ArrayList<String>();
+    final var field = new StringBuilder(64);
+    var quoted = false;
+    var content = false;
+
+    while (true) {
+      final var c = this.reader.read();
+      if (c == -1) {
+        if (quoted) {
+          throw new UnterminatedQuote();
+        }
+        if (!content) {
+          return Optional.empty();
+        }
+        fields.add(field.toString());
+        return Optional.of(fields);
+      }
+
+      if (quoted) {
+        if (c == '"') {
+          this.reader.mark(1);
+          final var d = this.reader.read();
+          if (d == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            if (d != -1) {
+              this.reader.reset();
+            }
+          }
+        } else {
+          field.append((char) c);
+        }
+        continue;
+      }
+
+      switch (c) {
+        case '"' -> {
+          content = true;
+          if (field.isEmpty()) {
+            quoted = true;
+          } else {
+            field.append('"');
+          }
+        }
+        case ',' -> {
+          content = true;
+          fields.add(field.toString());
+          field.setLength(0);
+        }
+        case '\r', '\n' -> {
+          if (c == '\r') {
+            this.reader.mark(1);
+            if (this.reader.read() != '\n') {
+              this.reader.reset();
+            }
+          }
+          if (content) {
+            fields.add(field.toString());
+            return Optional.of(fields);
+          }
+        }
+        default -> {
+          content = true;
+          field.append((char) c);
+        }
+      }
+    }
+  }
+
+  private Optional<IdAGUserImportRow> readJSONRow()
+    throws IOException
+  {
+    while (true) {
+      final var line = this.reader.readLine();
+      if (line == null) {
+        return Optional.empty();
+      }
+      if (line.isBlank()) {
+        continue;
+      }
+
+      try {
+        final var fields = new JSONObjectParser(line).parse();
+        return Optional.of(
+          new IdAGUserImportRow(++this.row, fields, Optional.empty())
+        );
+      } catch (final IllegalArgumentException e) {
+        return Optional.of(this.rowFailed(e.getMessage()));
+      }
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    this.reader.close();
+  }
+
+  /**
+   * A parser of a single flat JSON object. Strings are unescaped, and other
+   * scalar values are kept as their source text. Fields with a value of
+   * {@code null} are omitted.
+   */
+
+  private static final class JSONObjectParser
+  {
+    private final String text;
+    private int index;
+
+    JSONObjectParser(
+      final String inText)
+    {
+      this.text = inText;
+    }
+
+    Map<String, String> parse()
+    {
+      final var fields = new HashMap<String, String>();
+      this.expect('{');
+      this.skipSpace();
+      if (this.peek() == '}') {
+        ++this.index;
+      } else {
+        while (true) {
+          this.skipSpace();
+          final var name = this.string();
+          this.skipSpace();
+          this.expect(':');
+          this.skipSpace();
+          final var value = this.value();
+          if (value != null) {
+            fields.put(name, value);
+          }
+          this.skipSpace();
+          final var c = this.next();
+          if (c == '}') {
+            break;
+          }
+          if (c != ',') {
+            throw this.error("Expected ',' or '}'");
+          }
+        }
+      }
+
+      this.skipSpace();
+      if (this.index != this.text.length()) {
+        throw this.error("Unexpected text after object");
+      }
+      return Map.copyOf(fields);
+    }
+
+    private String value()
+    {
+      final var c = this.peek();
+      if (c == '"') {
+        return this.string();
+      }
+      if (c == '{' || c == '[') {
+        throw this.error("Nested values are not supported");
+      }
+
+      final var start = this.index;
+      while (this.index < this.text.length()) {
+        final var d = this.text.charAt(this.index);
+        if (d == ',' || d == '}' || Character.isWhitespace(d)) {
+          break;
+        }
+        ++this.index;
+      }
+
+      final var raw = this.text.substring(start, this.index);
+      if (raw.isEmpty()) {
+        throw this.error("Expected a value");
+      }
+      if ("null".equals(raw)) {
+        return null;
+      }
+      return raw;
+    }
+
+    private String string()
+    {
+      this.expect('"');
+      final var out = new StringBuilder(32);
+      while (true) {
+        final var c = this.next();
+        if (c == '"') {
+          return out.toString();
+        }
+        if (c != '\\') {
+          out.append(c);
+          continue;
+        }
+
+        final var e = this.next();
+        switch (e) {
+          case '"', '\\', '/' -> out.append(e);
+          case 'b' -> out.append('\b');
+          case 'f' -> out.append('\f');
+          case 'n' -> out.append('\n');
+          case 'r' -> out.append('\r');
+          case 't' -> out.append('\t');
+          case 'u' -> {
+            if (this.index + 4 > this.text.length()) {
+              throw this.error("Truncated escape");
+            }
+            try {
+              out.append((char) Integer.parseInt(
+                this.text.substring(this.index, this.index + 4), 16));
+            } catch (final NumberFormatException x) {
+              throw this.error("Malformed escape");
+            }
+            this.index += 4;
+          }
+          default -> throw this.error("Unknown escape");
+        }
+      }
+    }
+
+    private void skipSpace()
+    {
+      while (this.index < this.text.length()
+             && Character.isWhitespace(this.text.charAt(this.index))) {
+        ++this.index;
+      }
+    }
+
+    private char peek()
+    {
+      if (this.index >= this.text.length()) {
+        throw this.error("Unexpected end of line");
+      }
+      return this.text.charAt(this.index);
+    }
+
+    private char next()
+    {
+      final var c = this.peek();
+      ++this.index;
+      return c;
+    }
+
+    private void expect(
+      final char c)
+    {
+      if (this.next() != c) {
+        throw this.error("Expected '%c'".formatted(Character.valueOf(c)));
+      }
+    }
+
+    private IllegalArgumentException error(
+      final String message)
+    {
+      return new IllegalArgumentException(
+        "%s at offset %d.".formatted(message, Integer.valueOf(this.index))
+      );
+    }
+  }
+
+  private static final class CountingStream extends FilterInputStream
+  {
+    private volatile long count;
+
+    CountingStream(
+      final InputStream input)
+    {
+      super(input);
+    }
+
+    @Override
+    public int read()
+      throws IOException
+    {
+      final var c = super.read();
+      if (c != -1) {
+        ++this.count;
+      }
+      return c;
+    }
+
+    @Override
+    public int read(
+      final byte[] buffer,
+      final int offset,
+      final int length)
+      throws IOException
+    {
+      final var r = super.read(buffer, offset, length);
+      if (r > 0) {
+        this.count += r;
+      }
+      return r;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A row read from an import file.
+ *
+ * @param row    The row number, starting at 1 for the first row of data
+ * @param fields The fields of the row, by column name
+ * @param error  The reason the row could not be parsed, if it could not
+ */
+
+public record IdAGUserImportRow(
+  long row,
+  Map<String, String> fields,
+  Optional<String> error)
+{
+  /**
+   * A row read from an import file.
+   *
+   * @param row    The row number, starting at 1 for the first row of data
+   * @param fields The fields of the row, by column name
+   * @param error  The reason the row could not be parsed, if it could not
+   */
+
+  public IdAGUserImportRow
+  {
+    Objects.requireNonNull(fields, "fields");
+    Objects.requireNonNull(error, "error");
+  }
+}
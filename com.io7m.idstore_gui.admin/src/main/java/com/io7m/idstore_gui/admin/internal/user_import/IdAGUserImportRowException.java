@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+/**
+ * An imported row could not be turned into a user.
+ */
+
+public final class IdAGUserImportRowException extends Exception
+{
+  private final long row;
+
+  /**
+   * An imported row could not be turned into a user.
+   *
+   * @param inRow   The row number
+   * @param message The reason
+   */
+
+  public IdAGUserImportRowException(
+    final long inRow,
+    final String message)
+  {
+    super(message);
+    this.row = inRow;
+  }
+
+  /**
+   * @return The row number
+   */
+
+  public long row()
+  {
+    return this.row;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import com.io7m.idstore.model.IdEmail;
+import com.io7m.idstore.model.IdName;
+import com.io7m.idstore.model.IdPasswordAlgorithmPBKDF2HmacSHA256;
+import com.io7m.idstore.model.IdPasswordException;
+import com.io7m.idstore.model.IdRealName;
+import com.io7m.idstore.model.IdUserCreate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>Functions to validate imported rows.</p>
+ *
+ * <p>Each row must provide the columns {@code idName}, {@code realName},
+ * {@code email}, and {@code password}, and may provide an {@code id}
+ * column holding the UUID of the user. Passwords are given in plain text
+ * and are hashed during validation; hashing is deliberately expensive, and
+ * so validation is typically the most costly part of an import.</p>
+ */
+
+public final class IdAGUserImportValidator
+{
+  /**
+   * The columns that every row must provide.
+   */
+
+  public static final List<String> REQUIRED_COLUMNS =
+    List.of("idName", "realName", "email", "password");
+
+  private IdAGUserImportValidator()
+  {
+
+  }
+
+  /**
+   * Validate a row.
+   *
+   * @param row The row
+   *
+   * @return The user that the row describes
+   *
+   * @throws IdAGUserImportRowException If the row is not valid
+   */
+
+  public static IdUserCreate validate(
+    final IdAGUserImportRow row)
+    throws IdAGUserImportRowException
+  {
+    final var error = row.error();
+    if (error.isPresent()) {
+      throw new IdAGUserImportRowException(row.row(), error.get());
+    }
+
+    final var fields = row.fields();
+    for (final var column : REQUIRED_COLUMNS) {
+      final var value = fields.get(column);
+      if (value == null || value.isBlank()) {
+        throw new IdAGUserImportRowException(
+          row.row(),
+          "The '%s' field is missing or empty.".formatted(column)
+        );
+      }
+    }
+
+    try {
+      final Optional<UUID> id;
+      final var idText = fields.get("id");
+      if (idText == null || idText.isBlank()) {
+        id = Optional.empty();
+      } else {
+        id = Optional.of(UUID.fromString(idText.trim()));
+      }
+
+      return new IdUserCreate(
+        id,
+        new IdName(fields.get("idName").trim()),
+        new IdRealName(fields.get("realName").trim()),
+        new IdEmail(fields.get("email").trim()),
+        IdPasswordAlgorithmPBKDF2HmacSHA256.create()
+          .createHashed(fields.get("password"))
+      );
+    } catch (final IdPasswordException e) {
+      throw new IdAGUserImportRowException(row.row(), e.getMessage());
+    } catch (final RuntimeException e) {
+
+      /*
+       * The model types raise validity exceptions, and UUID parsing raises
+       * illegal argument exceptions, for malformed values.
+       */
+
+      throw new IdAGUserImportRowException(row.row(), e.getMessage());
+    }
+  }
+}
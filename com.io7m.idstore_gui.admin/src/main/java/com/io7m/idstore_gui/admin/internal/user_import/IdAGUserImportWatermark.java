@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.user_import;
+
+import java.util.BitSet;
+
+/**
+ * <p>A tracker of the rows that have finished processing.</p>
+ *
+ * <p>Rows finish out of order when several are in flight at once. The
+ * watermark is the largest row number such that the row and every row
+ * before it have finished; it is the value that can safely be recorded in
+ * a checkpoint. Rows that have finished beyond the watermark are held in a
+ * bit set relative to the watermark, which stays small because the number
+ * of rows in flight is bounded.</p>
+ */
+
+public final class IdAGUserImportWatermark
+{
+  private final BitSet pending;
+  private long watermark;
+
+  /**
+   * A tracker of the rows that have finished processing.
+   *
+   * @param initial The number of leading rows that have already finished
+   */
+
+  public IdAGUserImportWatermark(
+    final long initial)
+  {
+    this.pending = new BitSet();
+    this.watermark = initial;
+  }
+
+  /**
+   * @return The largest row such that it and every earlier row has finished
+   */
+
+  public synchronized long watermark()
+  {
+    return this.watermark;
+  }
+
+  /**
+   * Mark a row as finished.
+   *
+   * @param row The row number
+   *
+   * @return The new watermark
+   */
+
+  public synchronized long finish(
+    final long row)
+  {
+    if (row <= this.watermark) {
+      return this.watermark;
+    }
+
+    final var offset = row - this.watermark - 1L;
+    if (offset > Integer.MAX_VALUE - 1) {
+      throw new IllegalArgumentException(
+        "Row %d is too far beyond the watermark %d."
+          .formatted(Long.valueOf(row), Long.valueOf(this.watermark))
+      );
+    }
+
+    this.pending.set((int) offset);
+    final var advance = this.pending.nextClearBit(0);
+    if (advance > 0) {
+      this.watermark += advance;
+      final var rest =
+        this.pending.get(advance, Math.max(advance, this.pending.length()));
+      this.pending.clear();
+      this.pending.or(rest);
+    }
+    return this.watermark;
+  }
+}
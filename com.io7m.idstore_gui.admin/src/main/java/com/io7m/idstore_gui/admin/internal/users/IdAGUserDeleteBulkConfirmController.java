@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.admin.internal.users;
+
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+
+import java.net.URL;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+/**
+ * A controller confirming the deletion of many users. The number of users
+ * must be typed in order to confirm.
+ */
+
+public final class IdAGUserDeleteBulkConfirmController
+  implements Initializable
+{
+  private final Integer count;
+  private final IdAGStringsType strings;
+  private final Stage stage;
+  private boolean result;
+
+  @FXML private Button cancel;
+  @FXML private Button delete;
+  @FXML private Label confirmMessage;
+  @FXML private TextField countField;
+
+  /**
+   * A controller confirming the deletion of many users.
+   *
+   * @param inCount   The number of users
+   * @param inStrings The strings
+   * @param inStage   The stage hosting the dialog
+   */
+
+  IdAGUserDeleteBulkConfirmController(
+    final Integer inCount,
+    final IdAGStringsType inStrings,
+    final Stage inStage)
+  {
+    this.count =
+      Objects.requireNonNull(inCount, "count");
+    this.strings =
+      Objects.requireNonNull(inStrings, "strings");
+    this.stage =
+      Objects.requireNonNull(inStage, "stage");
+    this.result =
+      false;
+  }
+
+  @Override
+  public void initialize(
+    final URL url,
+    final ResourceBundle resourceBundle)
+  {
+    this.delete.setDisable(true);
+    this.confirmMessage.setText(
+      this.strings.format("userDelete.bulkConfirmMessage", this.count)
+    );
+  }
+
+  @FXML
+  private void onCancelSelected()
+  {
+    this.result = false;
+    this.stage.close();
+  }
+
+  @FXML
+  private void onDeleteSelected()
+  {
+    this.result = true;
+    this.stage.close();
+  }
+
+  @FXML
+  private void onCountFieldChanged()
+  {
+    this.delete.setDisable(
+      !Objects.equals(this.countField.getText().trim(), this.count.toString())
+    );
+  }
+
+  /**
+   * @return {@code true} if deletion is confirmed
+   */
+
+  public boolean isDeleteRequested()
+  {
+    return this.result;
+  }
+}
@@ -34,8 +34,8 @@ import java.util.ResourceBundle;
 public final class IdAGUserDeleteConfirmController
   implements Initializable
 {
-  private final IdUser user;
   private final Stage stage;
+  private IdUser user;
   private boolean result;
 
   @FXML private Button cancel;
@@ -45,22 +45,38 @@ public final class IdAGUserDeleteConfirmController
   /**
    * A user deletion controller.
    *
-   * @param inUser  The user
    * @param inStage The stage hosting the dialog
    */
 
   IdAGUserDeleteConfirmController(
-    final IdUser inUser,
     final Stage inStage)
   {
-    this.user =
-      Objects.requireNonNull(inUser, "user");
     this.stage =
       Objects.requireNonNull(inStage, "stage");
     this.result =
       false;
   }
 
+  /**
+   * Reset the controller so that it asks for confirmation of the deletion of
+   * the given user.
+   *
+   * @param inUser The user
+   */
+
+  void reset(
+    final IdUser inUser)
+  {
+    this.user =
+      Objects.requireNonNull(inUser, "user");
+    this.result =
+      false;
+
+    this.userNameField.clear();
+    this.delete.setDisable(true);
+    this.userNameField.requestFocus();
+  }
+
   @Override
   public void initialize(
     final URL url,
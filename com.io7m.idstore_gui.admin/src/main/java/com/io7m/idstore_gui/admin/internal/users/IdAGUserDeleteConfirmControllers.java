@@ -65,6 +65,20 @@ public final class IdAGUserDeleteConfirmControllers
     final IdUser admin,
     final Stage stage)
   {
-    return new IdAGUserDeleteConfirmController(admin, stage);
+    return new IdAGUserDeleteConfirmController(stage);
+  }
+
+  @Override
+  protected boolean isPooled()
+  {
+    return true;
+  }
+
+  @Override
+  protected void resetController(
+    final IdAGUserDeleteConfirmController controller,
+    final IdUser arguments)
+  {
+    controller.reset(arguments);
   }
 }
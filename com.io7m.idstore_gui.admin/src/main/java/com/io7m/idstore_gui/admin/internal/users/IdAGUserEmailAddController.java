@@ -83,6 +83,19 @@ public final class IdAGUserEmailAddController
     return this.result;
   }
 
+  /**
+   * Reset the controller to its initial state.
+   */
+
+  void reset()
+  {
+    this.result = Optional.empty();
+    this.emailField.clear();
+    this.emailFieldBad.setVisible(true);
+    this.buttonCreate.setDisable(true);
+    this.emailField.requestFocus();
+  }
+
   @FXML
   private void onCancelSelected()
   {
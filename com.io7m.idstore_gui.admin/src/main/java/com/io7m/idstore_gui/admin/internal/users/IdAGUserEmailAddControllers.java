@@ -70,4 +70,18 @@ public final class IdAGUserEmailAddControllers
       stage
     );
   }
+
+  @Override
+  protected boolean isPooled()
+  {
+    return true;
+  }
+
+  @Override
+  protected void resetController(
+    final IdAGUserEmailAddController controller,
+    final Void arguments)
+  {
+    controller.reset();
+  }
 }
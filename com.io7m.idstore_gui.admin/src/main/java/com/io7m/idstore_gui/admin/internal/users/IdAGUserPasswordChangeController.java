@@ -86,6 +86,21 @@ public final class IdAGUserPasswordChangeController
     return this.result;
   }
 
+  /**
+   * Reset the controller to its initial state.
+   */
+
+  void reset()
+  {
+    this.result = Optional.empty();
+    this.passwordField.clear();
+    this.passwordConfirmField.clear();
+    this.passwordConfirmFieldBad.setVisible(true);
+    this.passwordFieldBad.setVisible(true);
+    this.buttonChange.setDisable(true);
+    this.passwordField.requestFocus();
+  }
+
   @FXML
   private void onCancelSelected()
   {
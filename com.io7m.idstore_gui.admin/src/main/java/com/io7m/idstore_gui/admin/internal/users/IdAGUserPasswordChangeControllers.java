@@ -70,4 +70,18 @@ public final class IdAGUserPasswordChangeControllers
       stage
     );
   }
+
+  @Override
+  protected boolean isPooled()
+  {
+    return true;
+  }
+
+  @Override
+  protected void resetController(
+    final IdAGUserPasswordChangeController controller,
+    final Void arguments)
+  {
+    controller.reset();
+  }
 }
@@ -19,8 +19,19 @@ package com.io7m.idstore_gui.admin.internal.users;
 import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.hibiscus.api.HBStateType.HBStateDisconnected;
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
+import com.io7m.idstore_gui.admin.internal.IdAGBackgroundSchedulerService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkRunner;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkUserOperations;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGUserDetails;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.paging.IdAGPagedList;
+import com.io7m.idstore_gui.admin.internal.paging.IdAGPagedTableScrolling;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImport;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportFormat;
 import com.io7m.idstore.model.IdBan;
 import com.io7m.idstore.model.IdEmail;
 import com.io7m.idstore.model.IdLogin;
@@ -33,9 +44,9 @@ import com.io7m.idstore.model.IdUser;
 import com.io7m.idstore.model.IdUserCreate;
 import com.io7m.idstore.model.IdUserSummary;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -51,6 +62,8 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
+import javafx.scene.control.ToggleButton;
+import javafx.stage.FileChooser;
 
 import java.io.IOException;
 import java.net.URL;
@@ -62,7 +75,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import static javafx.scene.control.SelectionMode.MULTIPLE;
 import static javafx.scene.control.SelectionMode.SINGLE;
 
 /**
@@ -71,19 +86,31 @@ import static javafx.scene.control.SelectionMode.SINGLE;
 
 public final class IdAGUsersController implements Initializable
 {
+  private static final int SCROLLING_PAGES_RETAINED = 5;
+  private static final int SCROLLING_ROWS_MARGIN = 20;
+
   private final IdAGConfiguration configuration;
   private final RPServiceDirectoryType mainServices;
   private final IdAGStringsType strings;
   private final IdAGClientService client;
+  private final IdAGFXDispatcherService dispatcher;
+  private final IdAGEventBus events;
+  private final IdAGPreferencesServiceType preferences;
+  private final IdAGBulkUserOperations bulk;
   private final ObservableList<IdAGUser> users;
+  private final IdAGPagedList<IdAGUser> usersScrolling;
   private final ObservableList<IdEmail> userEmails;
   private final ObservableList<IdLogin> userLoginHistory;
   private IdUser user;
   private IdBan ban;
   private IdAGUserSearchKind searchKindAtStart;
+  private CompletableFuture<Optional<IdAGUserDetails>> userDetailsLoading;
+  private IdAGUserImport userImporting;
+  private IdAGBulkRunner<UUID> bulkRunning;
 
   @FXML private Button banBan;
   @FXML private Button banUnban;
+  @FXML private Button bulkCancel;
   @FXML private Button emailAdd;
   @FXML private Button emailDelete;
   @FXML private Button userCreate;
@@ -96,6 +123,8 @@ public final class IdAGUsersController implements Initializable
   @FXML private Label banLabel;
   @FXML private Label userPageLabel;
   @FXML private TableView<IdAGUser> userTable;
+  @FXML private ToggleButton userImport;
+  @FXML private ToggleButton userScrolling;
   @FXML private ListView<IdEmail> userEmailList;
   @FXML private Parent userDetailContainer;
   @FXML private Parent userTableContainer;
@@ -127,26 +156,36 @@ public final class IdAGUsersController implements Initializable
       this.mainServices.requireService(IdAGStringsType.class);
     this.client =
       this.mainServices.requireService(IdAGClientService.class);
+    this.dispatcher =
+      this.mainServices.requireService(IdAGFXDispatcherService.class);
+
+    this.events =
+      this.mainServices.requireService(IdAGEventBus.class);
+    this.preferences =
+      this.mainServices.requireService(IdAGPreferencesServiceType.class);
+    this.bulk =
+      new IdAGBulkUserOperations(
+        this.client,
+        this.events,
+        this.strings,
+        this.mainServices.requireService(IdAGBackgroundSchedulerService.class)
+          .executor(),
+        () -> this.preferences.preferences().bulk()
+      );
     this.users =
       FXCollections.observableArrayList();
+    this.usersScrolling =
+      new IdAGPagedList<>(
+        this::userPageFetch,
+        SCROLLING_PAGES_RETAINED,
+        this.dispatcher
+      );
     this.userEmails =
       FXCollections.observableArrayList();
     this.userLoginHistory =
       FXCollections.observableArrayList();
   }
 
-  private void onUserLoginHistoryReceived(
-    final List<IdLogin> received)
-  {
-    Platform.runLater(() -> {
-      if (received == null) {
-        this.userLoginHistory.clear();
-        return;
-      }
-      this.userLoginHistory.setAll(received);
-    });
-  }
-
   @FXML
   private void onBanSelected()
   {
@@ -162,6 +201,13 @@ public final class IdAGUsersController implements Initializable
       expiration = Optional.empty();
     }
 
+    final var selected = this.usersSelected();
+    if (selected.size() > 1) {
+      this.bulkStart(
+        this.bulk.ban(selected, this.banReason.getText(), expiration));
+      return;
+    }
+
     final var future = this.client.userBanCreate(
       new IdBan(
         this.user.id(),
@@ -180,6 +226,12 @@ public final class IdAGUsersController implements Initializable
   @FXML
   private void onBanUnbanSelected()
   {
+    final var selected = this.usersSelected();
+    if (selected.size() > 1) {
+      this.bulkStart(this.bulk.unban(selected));
+      return;
+    }
+
     final var future =
       this.client.userBanDelete(this.user.id());
 
@@ -206,8 +258,9 @@ public final class IdAGUsersController implements Initializable
     final HBStateType<?, ?, ?, ?> statusNew)
   {
     if (statusNew instanceof HBStateDisconnected) {
-      Platform.runLater(() -> {
+      this.dispatcher.execute(() -> {
         this.users.clear();
+        this.usersScrolling.reset();
         this.user = null;
         this.userDetailsLock();
         this.userTableControlsLock();
@@ -293,14 +346,89 @@ public final class IdAGUsersController implements Initializable
       param -> param.getValue().realName());
 
     this.userTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_SUBSEQUENT_COLUMNS);
-    this.userTable.getSelectionModel().setSelectionMode(SINGLE);
+    this.userTable.getSelectionModel().setSelectionMode(MULTIPLE);
     this.userTable.setItems(this.users);
     this.userTable.setPlaceholder(new Label());
+
+    IdAGPagedTableScrolling.attach(
+      this.userTable,
+      this.usersScrolling,
+      SCROLLING_ROWS_MARGIN,
+      this.dispatcher
+    );
+    this.usersScrolling.addListener(
+      (ListChangeListener<IdAGUser>) c -> this.onScrollingWindowChanged());
+
     this.userTable.getSelectionModel()
       .selectedItemProperty()
       .addListener((observable, oldValue, newValue) -> {
         this.onUserSelected(newValue);
       });
+    this.userTable.getSelectionModel()
+      .getSelectedItems()
+      .addListener((ListChangeListener<IdAGUser>) c -> this.banBulkShow());
+  }
+
+  private List<UUID> usersSelected()
+  {
+    return this.userTable.getSelectionModel()
+      .getSelectedItems()
+      .stream()
+      .filter(Objects::nonNull)
+      .map(IdAGUser::id)
+      .distinct()
+      .toList();
+  }
+
+  /**
+   * When more than one user is selected, the ban controls apply to every
+   * selected user rather than describing the ban of the user whose details
+   * are shown.
+   */
+
+  private void banBulkShow()
+  {
+    final var count = this.usersSelected().size();
+    if (count <= 1 || this.user == null) {
+      return;
+    }
+
+    this.banLabel.setText(
+      this.strings.format("users.ban.bulk", Integer.valueOf(count)));
+    this.banUnban.setDisable(false);
+    this.banBan.setDisable(this.banReason.getText().isBlank());
+  }
+
+  private void bulkStart(
+    final IdAGBulkRunner<UUID> runner)
+  {
+    this.bulkRunning = runner;
+    this.bulkCancel.setDisable(false);
+
+    runner.future()
+      .whenComplete((results, exception) -> this.onBulkFinished(runner));
+  }
+
+  @FXML
+  private void onBulkCancelSelected()
+  {
+    if (this.bulkRunning != null) {
+      this.bulkRunning.cancel();
+    }
+  }
+
+  private void onBulkFinished(
+    final IdAGBulkRunner<UUID> runner)
+  {
+    this.dispatcher.execute(() -> {
+      if (this.bulkRunning == runner) {
+        this.bulkRunning = null;
+        this.bulkCancel.setDisable(true);
+      }
+      if (this.searchKindAtStart != null) {
+        this.onUserSearchSelected();
+      }
+    });
   }
 
   private void initializeLoginHistoryTable()
@@ -409,90 +537,111 @@ public final class IdAGUsersController implements Initializable
   private void onUserSelected(
     final IdAGUser userNew)
   {
+    /*
+     * Abandon the details of any previously selected user that haven't
+     * been loaded yet, so that moving quickly through the table doesn't
+     * load the details of every user passed over.
+     */
+
+    if (this.userDetailsLoading != null) {
+      this.userDetailsLoading.cancel(false);
+      this.userDetailsLoading = null;
+    }
+
     this.userDetailsLock();
     if (userNew == null) {
       return;
     }
 
-    {
-      final var future = this.client.userGet(userNew.id());
-      future.whenComplete((received, exception) -> {
-        if (received != null) {
-          this.onUserReceived(received);
-        }
-      });
-    }
+    final var future = this.client.userDetails(userNew.id());
+    this.userDetailsLoading = future;
 
-    {
-      final var future = this.client.userBanGet(userNew.id());
-      future.whenComplete((received, exception) -> {
-        if (received != null) {
-          this.onUserBanReceived(received);
-        }
-      });
-    }
+    future.whenComplete((received, exception) -> {
+      if (received != null) {
+        this.dispatcher.execute(() -> {
+          if (this.userDetailsLoading == future) {
+            this.userDetailsLoading = null;
+            this.userDetailsShow(received);
+          }
+        });
+      }
+    });
+  }
 
-    {
-      final var future = this.client.userLoginHistory(userNew.id());
-      future.whenComplete((received, exception) -> {
-        if (received != null) {
-          this.onUserLoginHistoryReceived(received);
-        }
-      });
+  private void userDetailsShow(
+    final Optional<IdAGUserDetails> detailsOpt)
+  {
+    if (detailsOpt.isEmpty()) {
+      this.userDetailsLock();
+      this.user = null;
+      return;
     }
 
-    this.userDetailsUnlock();
+    final var details = detailsOpt.get();
+    this.userShow(Optional.of(details.user()));
+    this.banShow(details.ban());
+    this.userLoginHistory.setAll(details.loginHistory());
   }
 
   private void onUserBanReceived(
     final Optional<IdBan> banOpt)
   {
-    Platform.runLater(() -> {
-      if (banOpt.isEmpty()) {
-        this.ban = null;
-        this.banReason.setText("");
-        this.banLabel.setText(this.strings.format("users.ban.notBanned"));
-        this.banExpires.setSelected(false);
-        this.banUnban.setDisable(true);
-        this.banBan.setDisable(false);
-        return;
-      }
+    this.dispatcher.execute(() -> this.banShow(banOpt));
+  }
+
+  private void banShow(
+    final Optional<IdBan> banOpt)
+  {
+    if (banOpt.isEmpty()) {
+      this.ban = null;
+      this.banReason.setText("");
+      this.banLabel.setText(this.strings.format("users.ban.notBanned"));
+      this.banExpires.setSelected(false);
+      this.banUnban.setDisable(true);
+      this.banBan.setDisable(false);
+      this.banBulkShow();
+      return;
+    }
 
-      this.ban = banOpt.get();
-      this.banUnban.setDisable(false);
-      this.banBan.setDisable(!this.ban.reason().isBlank());
-      this.banReason.setText(this.ban.reason());
-      this.banLabel.setText(this.strings.format("users.ban.banned"));
+    this.ban = banOpt.get();
+    this.banUnban.setDisable(false);
+    this.banBan.setDisable(!this.ban.reason().isBlank());
+    this.banReason.setText(this.ban.reason());
+    this.banLabel.setText(this.strings.format("users.ban.banned"));
 
-      final var expiresOpt = this.ban.expires();
-      this.banExpires.setSelected(expiresOpt.isPresent());
-      expiresOpt.ifPresent(time -> {
-        this.banExpiryPicker.setValue(time.toLocalDate());
-      });
+    final var expiresOpt = this.ban.expires();
+    this.banExpires.setSelected(expiresOpt.isPresent());
+    expiresOpt.ifPresent(time -> {
+      this.banExpiryPicker.setValue(time.toLocalDate());
     });
+    this.banBulkShow();
   }
 
   private void onUserReceived(
     final Optional<IdUser> userOpt)
   {
-    Platform.runLater(() -> {
-      this.userDetailsLock();
+    this.dispatcher.execute(() -> this.userShow(userOpt));
+  }
 
-      if (userOpt.isEmpty()) {
-        this.user = null;
-        return;
-      }
+  private void userShow(
+    final Optional<IdUser> userOpt)
+  {
+    this.userDetailsLock();
 
-      this.user = userOpt.get();
-      this.userIdField.setText(this.user.id().toString());
-      this.userIdNameField.setText(this.user.idName().toString());
-      this.userRealNameField.setText(this.user.realName().toString());
-      this.userEmails.setAll(this.user.emails().toList());
-      this.userPasswordField.setText("%s".formatted(this.user.password()));
-      this.userDetailsUnlock();
-      this.emailAdd.setDisable(false);
-      this.emailDelete.setDisable(true);
-    });
+    if (userOpt.isEmpty()) {
+      this.user = null;
+      return;
+    }
+
+    this.user = userOpt.get();
+    this.userIdField.setText(this.user.id().toString());
+    this.userIdNameField.setText(this.user.idName().toString());
+    this.userRealNameField.setText(this.user.realName().toString());
+    this.userEmails.setAll(this.user.emails().toList());
+    this.userPasswordField.setText("%s".formatted(this.user.password()));
+    this.userDetailsUnlock();
+    this.emailAdd.setDisable(false);
+    this.emailDelete.setDisable(true);
   }
 
   @FXML
@@ -510,6 +659,58 @@ public final class IdAGUsersController implements Initializable
     create.ifPresent(this.client::userCreate);
   }
 
+  @FXML
+  private void onUserImportSelected()
+  {
+    if (this.userImporting != null) {
+      this.userImporting.cancel();
+      this.userImport.setSelected(true);
+      return;
+    }
+
+    final var chooser = new FileChooser();
+    chooser.setTitle(this.strings.format("userImport.title"));
+    chooser.getExtensionFilters().setAll(
+      new FileChooser.ExtensionFilter(
+        this.strings.format("userImport.csv"), "*.csv"),
+      new FileChooser.ExtensionFilter(
+        this.strings.format("userImport.jsonLines"), "*.jsonl")
+    );
+
+    final var file =
+      chooser.showOpenDialog(this.userTable.getScene().getWindow());
+    if (file == null) {
+      this.userImport.setSelected(false);
+      return;
+    }
+
+    final var path = file.toPath();
+    this.userImporting =
+      IdAGUserImport.start(
+        this.client,
+        this.events,
+        this.strings,
+        path,
+        IdAGUserImportFormat.ofFile(path),
+        this.preferences.preferences().bulk().window()
+      );
+
+    this.userImport.setSelected(true);
+    this.userImporting.future()
+      .whenComplete((count, exception) -> {
+        this.dispatcher.execute(this::onUserImportFinished);
+      });
+  }
+
+  private void onUserImportFinished()
+  {
+    this.userImporting = null;
+    this.userImport.setSelected(false);
+    if (this.searchKindAtStart != null) {
+      this.onUserSearchSelected();
+    }
+  }
+
   @FXML
   private void onPasswordChangeSelected()
     throws IOException
@@ -543,6 +744,21 @@ public final class IdAGUsersController implements Initializable
   private void onUserDeleteSelected()
     throws IOException
   {
+    final var selected = this.usersSelected();
+    if (selected.size() > 1) {
+      final var controller =
+        new IdAGUserDeleteBulkConfirmControllers(
+          this.mainServices,
+          this.configuration,
+          this.strings
+        ).openDialogAndWait(Integer.valueOf(selected.size()));
+
+      if (controller.isDeleteRequested()) {
+        this.bulkStart(this.bulk.delete(selected));
+      }
+      return;
+    }
+
     final var controller =
       new IdAGUserDeleteConfirmControllers(
         this.mainServices,
@@ -642,10 +858,77 @@ public final class IdAGUsersController implements Initializable
     }
   }
 
+  @FXML
+  private void onUserScrollingSelected()
+  {
+    if (this.userScrolling.isSelected()) {
+      this.users.clear();
+      this.userTable.setItems(this.usersScrolling);
+    } else {
+      this.usersScrolling.reset();
+      this.userTable.setItems(this.users);
+    }
+
+    this.userTableControlsLock();
+    if (this.searchKindAtStart != null) {
+      this.onUserSearchSelected();
+    }
+  }
+
+  private CompletableFuture<IdPage<IdAGUser>> userPageFetch(
+    final int pageIndex)
+  {
+    final var future =
+      switch (this.searchKindAtStart) {
+        case BY_DETAILS -> this.client.userSearchPage(pageIndex);
+        case BY_EMAIL -> this.client.userSearchByEmailPage(pageIndex);
+      };
+
+    return future.thenApply(IdAGUsersController::userPageOf);
+  }
+
+  private static IdPage<IdAGUser> userPageOf(
+    final IdPage<IdUserSummary> page)
+  {
+    return new IdPage<>(
+      page.items()
+        .stream()
+        .map(IdAGUser::of)
+        .toList(),
+      page.pageIndex(),
+      page.pageCount(),
+      page.pageFirstOffset()
+    );
+  }
+
+  private void onScrollingWindowChanged()
+  {
+    if (this.usersScrolling.isEmpty()) {
+      this.userPageLabel.setText("");
+      return;
+    }
+
+    this.userPageLabel.setText(
+      this.strings.format(
+        "users.pages",
+        Integer.valueOf(this.usersScrolling.pageFirst()),
+        Integer.valueOf(this.usersScrolling.pageLast()),
+        Integer.valueOf(this.usersScrolling.pageCount()))
+    );
+  }
+
   private void onPageReceived(
     final IdPage<IdUserSummary> page)
   {
-    Platform.runLater(() -> {
+    this.dispatcher.execute(() -> {
+      if (this.userScrolling.isSelected()) {
+        this.userPagePrev.setDisable(true);
+        this.userPageNext.setDisable(true);
+        this.usersScrolling.start(userPageOf(page));
+        this.userTable.scrollTo(0);
+        return;
+      }
+
       final var pageIndex = page.pageIndex();
       final var pageCount = page.pageCount();
 
@@ -19,10 +19,12 @@ package com.io7m.idstore_gui.admin.internal.view_controllers;
 
 import com.io7m.idstore_gui.admin.IdAGConfiguration;
 import com.io7m.idstore_gui.admin.internal.IdAGCSS;
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.jfr.IdAGJFRFXMLLoadEvent;
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndNode;
 import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
 import com.io7m.repetoir.core.RPServiceDirectoryType;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -94,26 +96,43 @@ public abstract class IdAGViewControllerFactoryAbstract<A, C>
     final Stage stage)
     throws IOException
   {
-    Objects.requireNonNull(stage, "stage");
-
-    final var xml =
-      this.fxmlResource();
-    final var resources =
-      this.strings.resources();
-    final var loader =
-      new FXMLLoader(xml, resources);
-
-    loader.setControllerFactory(
-      clazz -> this.createController(arguments, stage)
-    );
+    final var view = this.createView(arguments, stage);
+    stage.setScene(new Scene(view.node()));
+    stage.setTitle(this.createStageTitle(arguments));
+    return view.controller();
+  }
 
-    final Parent pane = loader.load();
-    IdAGCSS.setCSS(this.configuration, pane);
+  @Override
+  public final IdAGControllerAndNode<C> createView(
+    final A arguments,
+    final Stage stage)
+    throws IOException
+  {
+    Objects.requireNonNull(stage, "stage");
 
-    final C controller = loader.getController();
-    stage.setScene(new Scene(pane));
-    stage.setTitle(this.createStageTitle(arguments));
-    return controller;
+    final var event =
+      new IdAGJFRFXMLLoadEvent(this.fxmlResource, this.controllerClass);
+    event.begin();
+
+    try {
+      final var document =
+        IdAGFXMLCache.shared().document(this.fxmlResource);
+      final var loader =
+        document.loader(this.strings.resources());
+
+      loader.setControllerFactory(
+        clazz -> this.createController(arguments, stage)
+      );
+
+      final Parent pane = document.load(loader);
+      IdAGCSS.setCSS(this.configuration, pane);
+
+      final C controller = loader.getController();
+      event.setSucceeded(true);
+      return new IdAGControllerAndNode<>(controller, pane);
+    } finally {
+      event.commit();
+    }
   }
 
   @Override
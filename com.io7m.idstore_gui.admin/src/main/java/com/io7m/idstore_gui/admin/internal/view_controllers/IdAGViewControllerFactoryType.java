@@ -16,6 +16,7 @@
 
 package com.io7m.idstore_gui.admin.internal.view_controllers;
 
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndNode;
 import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
 import javafx.stage.Stage;
 
@@ -61,6 +62,23 @@ public interface IdAGViewControllerFactoryType<A, C>
     Stage stage)
     throws IOException;
 
+  /**
+   * Create a view controller and its root node, without creating a scene.
+   * This is used to embed the view inside another view, such as a tab.
+   *
+   * @param arguments The arguments used to instantiate the view controller
+   * @param stage     The stage that will host the view
+   *
+   * @return A view controller and its root node
+   *
+   * @throws IOException On I/O errors
+   */
+
+  IdAGControllerAndNode<C> createView(
+    A arguments,
+    Stage stage)
+    throws IOException;
+
   /**
    * @return The FXML layout used for this type of view controller
    */
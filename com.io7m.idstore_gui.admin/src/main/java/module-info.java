@@ -29,6 +29,7 @@ open module com.io7m.idstore_gui.admin
   requires javafx.controls;
   requires javafx.fxml;
   requires javafx.graphics;
+  requires jdk.jfr;
 
   requires com.io7m.jade.api;
   requires com.io7m.jaffirm.core;
@@ -62,6 +63,20 @@ open module com.io7m.idstore_gui.admin
     to com.io7m.idstore_gui.tests;
   exports com.io7m.idstore_gui.admin.internal.audit
     to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.diagnostics
+    to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.dialogs
+    to com.io7m.idstore_gui.tests;
   exports com.io7m.idstore_gui.admin.internal.profile
     to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.services
+    to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.paging
+    to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.bulk
+    to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.user_import
+    to com.io7m.idstore_gui.tests;
+  exports com.io7m.idstore_gui.admin.internal.view_controllers
+    to com.io7m.idstore_gui.tests;
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditTableColumns;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Sorting and rendering the audit event table.</p>
+ *
+ * <p>A table column sorts by calling its cell value factory for both
+ * items in every comparison, and then applying the column comparator to
+ * the values. The sort benchmarks reproduce that.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGAuditTableBenchmark
+{
+  /**
+   * The number of events in the table.
+   */
+
+  @Param({"1000", "10000"})
+  public int size;
+
+  private List<IdAuditEvent> events;
+
+  /**
+   * Sorting and rendering the audit event table.
+   */
+
+  public IdAGAuditTableBenchmark()
+  {
+
+  }
+
+  private static CellDataFeatures<IdAuditEvent, Long> idCell(
+    final IdAuditEvent event)
+  {
+    return new CellDataFeatures<>(null, null, event);
+  }
+
+  private static CellDataFeatures<IdAuditEvent, OffsetDateTime> timeCell(
+    final IdAuditEvent event)
+  {
+    return new CellDataFeatures<>(null, null, event);
+  }
+
+  private static CellDataFeatures<IdAuditEvent, String> textCell(
+    final IdAuditEvent event)
+  {
+    return new CellDataFeatures<>(null, null, event);
+  }
+
+  /**
+   * Set up the benchmark.
+   */
+
+  @Setup
+  public void setup()
+  {
+    final var random = new Random(0x696473746f7265L);
+    final var owners = new ArrayList<UUID>();
+    for (int index = 0; index < 16; ++index) {
+      owners.add(new UUID(random.nextLong(), random.nextLong()));
+    }
+
+    final var time = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+    final var result = new ArrayList<IdAuditEvent>(this.size);
+    for (int index = 0; index < this.size; ++index) {
+      result.add(
+        new IdAuditEvent(
+          random.nextLong(),
+          owners.get(random.nextInt(owners.size())),
+          time.plusSeconds(random.nextInt(86400 * 365)),
+          "USER_LOGGED_IN_" + random.nextInt(8),
+          "Message %d from host %d".formatted(
+            Integer.valueOf(random.nextInt()),
+            Integer.valueOf(random.nextInt(256)))
+        )
+      );
+    }
+    this.events = List.copyOf(result);
+  }
+
+  private List<IdAuditEvent> sorted(
+    final Comparator<IdAuditEvent> comparator)
+  {
+    final var copy = new ArrayList<>(this.events);
+    copy.sort(comparator);
+    return copy;
+  }
+
+  /**
+   * @return The events sorted by ID
+   */
+
+  @Benchmark
+  public List<IdAuditEvent> sortById()
+  {
+    return this.sorted(Comparator.comparing(
+      e -> IdAGAuditTableColumns.id(idCell(e)).getValue(),
+      IdAGAuditTableColumns.ID_COMPARATOR
+    ));
+  }
+
+  /**
+   * @return The events sorted by time
+   */
+
+  @Benchmark
+  public List<IdAuditEvent> sortByTime()
+  {
+    return this.sorted(Comparator.comparing(
+      e -> IdAGAuditTableColumns.time(timeCell(e)).getValue(),
+      IdAGAuditTableColumns.TIME_COMPARATOR
+    ));
+  }
+
+  /**
+   * @return The events sorted by owner
+   */
+
+  @Benchmark
+  public List<IdAuditEvent> sortByOwner()
+  {
+    return this.sorted(Comparator.comparing(
+      e -> IdAGAuditTableColumns.owner(textCell(e)).getValue(),
+      IdAGAuditTableColumns.TEXT_COMPARATOR
+    ));
+  }
+
+  /**
+   * @return The events sorted by message
+   */
+
+  @Benchmark
+  public List<IdAuditEvent> sortByMessage()
+  {
+    return this.sorted(Comparator.comparing(
+      e -> IdAGAuditTableColumns.message(textCell(e)).getValue(),
+      IdAGAuditTableColumns.TEXT_COMPARATOR
+    ));
+  }
+
+  /**
+   * Produce the value of every cell in the table.
+   *
+   * @param blackhole The blackhole
+   */
+
+  @Benchmark
+  public void cellValues(
+    final Blackhole blackhole)
+  {
+    for (final var event : this.events) {
+      blackhole.consume(IdAGAuditTableColumns.id(idCell(event)));
+      blackhole.consume(IdAGAuditTableColumns.time(timeCell(event)));
+      blackhole.consume(IdAGAuditTableColumns.owner(textCell(event)));
+      blackhole.consume(IdAGAuditTableColumns.type(textCell(event)));
+      blackhole.consume(IdAGAuditTableColumns.message(textCell(event)));
+    }
+  }
+}
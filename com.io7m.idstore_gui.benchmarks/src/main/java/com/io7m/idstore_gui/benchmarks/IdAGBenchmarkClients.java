@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+
+import java.lang.reflect.Proxy;
+import java.util.Objects;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * <p>Stubbed clients.</p>
+ *
+ * <p>The stubs are dynamic proxies so that they do not need to track
+ * changes to the client interfaces. A stub client publishes whatever states
+ * are submitted to its state publisher, and rejects every other method
+ * with {@link UnsupportedOperationException}.</p>
+ */
+
+public final class IdAGBenchmarkClients
+{
+  private IdAGBenchmarkClients()
+  {
+
+  }
+
+  /**
+   * Create a client factory that always returns the given client.
+   *
+   * @param client The client
+   *
+   * @return A client factory
+   */
+
+  public static IdAClientFactoryType factory(
+    final IdAClientAsynchronousType client)
+  {
+    Objects.requireNonNull(client, "client");
+
+    return (IdAClientFactoryType) Proxy.newProxyInstance(
+      IdAGBenchmarkClients.class.getClassLoader(),
+      new Class<?>[]{IdAClientFactoryType.class},
+      (proxy, method, args) -> {
+        return switch (method.getName()) {
+          case "openAsynchronousClient" -> client;
+          case "toString" -> "[IdAGBenchmarkClients factory]";
+          case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy));
+          case "equals" -> Boolean.valueOf(proxy == args[0]);
+          default -> throw new UnsupportedOperationException(method.getName());
+        };
+      }
+    );
+  }
+
+  /**
+   * Create a client that publishes states submitted to the given publisher.
+   *
+   * @param states The state publisher
+   *
+   * @return A client
+   */
+
+  public static IdAClientAsynchronousType client(
+    final SubmissionPublisher<HBStateType<
+      IdACommandType<?>,
+      IdAResponseType,
+      IdAResponseError,
+      IdAClientCredentials>> states)
+  {
+    Objects.requireNonNull(states, "states");
+
+    return (IdAClientAsynchronousType) Proxy.newProxyInstance(
+      IdAGBenchmarkClients.class.getClassLoader(),
+      new Class<?>[]{IdAClientAsynchronousType.class},
+      (proxy, method, args) -> {
+        return switch (method.getName()) {
+          case "state" -> states;
+          case "close" -> null;
+          case "toString" -> "[IdAGBenchmarkClients client]";
+          case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy));
+          case "equals" -> Boolean.valueOf(proxy == args[0]);
+          default -> throw new UnsupportedOperationException(method.getName());
+        };
+      }
+    );
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Client states flowing through the client service to the event bus.</p>
+ *
+ * <p>The client service is connected to a stubbed client. Each operation
+ * publishes a successful command state, which the service transforms into
+ * an event and submits to the bus, where a subscriber counts it. The
+ * measured time therefore includes any back-pressure from the bus.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGClientServiceBenchmark
+{
+  private SubmissionPublisher<HBStateType<
+    IdACommandType<?>,
+    IdAResponseType,
+    IdAResponseError,
+    IdAClientCredentials>> states;
+  private HBStateType<
+    IdACommandType<?>,
+    IdAResponseType,
+    IdAResponseError,
+    IdAClientCredentials> succeeded;
+  private IdAGClientService service;
+  private LongAdder received;
+
+  /**
+   * Client states flowing through the client service to the event bus.
+   */
+
+  public IdAGClientServiceBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   *
+   * @throws Exception On errors
+   */
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    this.states =
+      new SubmissionPublisher<>();
+    this.received =
+      new LongAdder();
+
+    final var events = new IdAGEventBus();
+    events.subscribeCoalescing(Runnable::run, batch -> {
+      this.received.add(batch.size());
+    });
+
+    this.service =
+      IdAGClientService.create(
+        events,
+        IdAGBenchmarkClients.factory(IdAGBenchmarkClients.client(this.states)),
+        Locale.ROOT
+      );
+
+    this.succeeded =
+      new HBStateExecutingCommandSucceeded<>(
+        new IdACommandUserGet(UUID.randomUUID()),
+        new IdAResponseUserGet(UUID.randomUUID(), Optional.empty())
+      );
+  }
+
+  /**
+   * Tear down the benchmark.
+   *
+   * @throws Exception On errors
+   */
+
+  @TearDown
+  public void tearDown()
+    throws Exception
+  {
+    this.states.close();
+    this.service.close();
+  }
+
+  /**
+   * Publish a successful command state.
+   *
+   * @return The estimated lag
+   */
+
+  @Benchmark
+  public int commandSucceeded()
+  {
+    return this.states.submit(this.succeeded);
+  }
+}
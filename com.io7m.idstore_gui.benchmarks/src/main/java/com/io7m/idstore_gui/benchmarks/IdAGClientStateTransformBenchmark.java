@@ -0,0 +1,126 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientEvent;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientStateTransformer;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The transformation of client states into events.</p>
+ *
+ * <p>The {@code commandSucceededFormatted} benchmark reproduces the
+ * original implementation, which formatted a new message for every
+ * successful command. Compare its {@code gc.alloc.rate.norm} against
+ * that of {@code commandSucceeded} using {@code -prof gc}.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGClientStateTransformBenchmark
+{
+  private HBStateType<
+    IdACommandType<?>,
+    IdAResponseType,
+    IdAResponseError,
+    IdAClientCredentials> succeeded;
+
+  /**
+   * The transformation of client states into events.
+   */
+
+  public IdAGClientStateTransformBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   */
+
+  @Setup
+  public void setup()
+  {
+    this.succeeded =
+      new HBStateExecutingCommandSucceeded<>(
+        new IdACommandUserGet(UUID.randomUUID()),
+        new IdAResponseUserGet(UUID.randomUUID(), Optional.empty())
+      );
+  }
+
+  /**
+   * @return The event for a successful command
+   */
+
+  @Benchmark
+  public Optional<IdAGEventType> commandSucceeded()
+  {
+    return IdAGClientStateTransformer.transform(this.succeeded);
+  }
+
+  /**
+   * @return The event for a successful command, created as it was before
+   * events were shared
+   */
+
+  @Benchmark
+  public Optional<IdAGEventType> commandSucceededFormatted()
+  {
+    final var cmd =
+      (HBStateExecutingCommandSucceeded<
+        IdACommandType<?>,
+        IdAResponseType,
+        IdAResponseError,
+        IdAClientCredentials>) this.succeeded;
+
+    return Optional.of(
+      new IdAGClientEvent(
+        "Executed %s successfully.".formatted(
+          cmd.command().getClass().getSimpleName()),
+        new IdAGEventStatusCompleted()
+      )
+    );
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore_gui.admin.internal.client.IdAGCommandTimings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The recording of command timings.</p>
+ *
+ * <p>Timing a command must not allocate; run with {@code -prof gc} and
+ * check that {@code gc.alloc.rate.norm} is zero.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGCommandTimingsBenchmark
+{
+  private IdAGCommandTimings timings;
+
+  /**
+   * The recording of command timings.
+   */
+
+  public IdAGCommandTimingsBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   */
+
+  @Setup
+  public void setup()
+  {
+    this.timings = new IdAGCommandTimings();
+    this.timings.timing(IdACommandUserGet.class);
+  }
+
+  /**
+   * Time a command on a single thread.
+   */
+
+  @Benchmark
+  public void record()
+  {
+    final var timing = this.timings.timing(IdACommandUserGet.class);
+    timing.finish(timing.start(), true);
+  }
+
+  /**
+   * Time a command on several threads at once.
+   */
+
+  @Benchmark
+  @Threads(4)
+  public void recordContended()
+  {
+    final var timing = this.timings.timing(IdACommandUserGet.class);
+    timing.finish(timing.start(), true);
+  }
+}
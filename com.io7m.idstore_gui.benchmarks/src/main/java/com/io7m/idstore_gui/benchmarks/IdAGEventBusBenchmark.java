@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.idstore_gui.admin.internal.IdAGPerpetualSubscriber;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkEvent;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientEvent;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Event bus publication throughput.</p>
+ *
+ * <p>The bus has one plain subscriber and one coalescing subscriber that
+ * delivers batches directly on the delivering thread. Publication blocks
+ * whenever the plain subscriber falls a full buffer behind.</p>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGEventBusBenchmark
+{
+  private IdAGEventBus events;
+  private IdAGEventType completed;
+  private IdAGEventType progress;
+  private LongAdder received;
+
+  /**
+   * Event bus publication throughput.
+   */
+
+  public IdAGEventBusBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   */
+
+  @Setup
+  public void setup()
+  {
+    this.received = new LongAdder();
+    this.events = new IdAGEventBus();
+    this.events.subscribe(new IdAGPerpetualSubscriber<>(e -> {
+      this.received.increment();
+    }));
+    this.events.subscribeCoalescing(Runnable::run, batch -> {
+      this.received.add(batch.size());
+    });
+
+    this.completed =
+      new IdAGClientEvent("Completed.", new IdAGEventStatusCompleted());
+    this.progress =
+      new IdAGBulkEvent(
+        "Progress.",
+        new IdAGEventStatusInProgress(OptionalDouble.of(0.5))
+      );
+  }
+
+  /**
+   * Publish a completion event.
+   */
+
+  @Benchmark
+  public void publishCompleted()
+  {
+    this.events.submit(this.completed);
+  }
+
+  /**
+   * Publish a progress event, which coalescing subscribers may discard.
+   */
+
+  @Benchmark
+  public void publishProgress()
+  {
+    this.events.submit(this.progress);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferenceServerBookmark;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferenceServerUsernamePassword;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
+import com.io7m.idstore_gui.admin.internal.preferences.internal.IdAGPreferencesLoader;
+import com.io7m.idstore_gui.admin.internal.preferences.internal.IdAGPreferencesStorer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and storing preferences with many server bookmarks.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGPreferencesBenchmark
+{
+  /**
+   * The number of server bookmarks.
+   */
+
+  @Param({"10", "100", "500"})
+  public int bookmarks;
+
+  private IdAGPreferences preferences;
+  private byte[] stored;
+
+  /**
+   * Loading and storing preferences with many server bookmarks.
+   */
+
+  public IdAGPreferencesBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   *
+   * @throws IOException On errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    final var bookmarkList =
+      new ArrayList<IdAGPreferenceServerBookmark>(this.bookmarks);
+    final var recentFiles =
+      new ArrayList<Path>();
+
+    for (int index = 0; index < this.bookmarks; ++index) {
+      bookmarkList.add(
+        new IdAGPreferenceServerBookmark(
+          "Server " + index,
+          "idstore-%d.example.com".formatted(Integer.valueOf(index)),
+          51000,
+          (index % 2) == 0,
+          new IdAGPreferenceServerUsernamePassword(
+            "admin" + index,
+            "password" + index
+          )
+        )
+      );
+    }
+
+    for (int index = 0; index < 10; ++index) {
+      recentFiles.add(
+        Paths.get("/tmp", "users-%d.csv".formatted(Integer.valueOf(index))));
+    }
+
+    this.preferences =
+      new IdAGPreferences(
+        UUID.randomUUID(),
+        IdAGPreferencesDebuggingEnabled.DEBUGGING_DISABLED,
+        bookmarkList,
+        recentFiles,
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
+      );
+
+    this.stored = this.storeBytes();
+  }
+
+  private byte[] storeBytes()
+    throws IOException
+  {
+    final var stream = new ByteArrayOutputStream();
+    new IdAGPreferencesStorer(stream, this.preferences).store();
+    return stream.toByteArray();
+  }
+
+  /**
+   * @return The stored preferences
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public byte[] store()
+    throws IOException
+  {
+    return this.storeBytes();
+  }
+
+  /**
+   * @return The loaded preferences
+   *
+   * @throws IOException On errors
+   */
+
+  @Benchmark
+  public IdAGPreferences load()
+    throws IOException
+  {
+    final var properties = new Properties();
+    properties.loadFromXML(new ByteArrayInputStream(this.stored));
+    return new IdAGPreferencesLoader(FileSystems.getDefault(), properties)
+      .load();
+  }
+}
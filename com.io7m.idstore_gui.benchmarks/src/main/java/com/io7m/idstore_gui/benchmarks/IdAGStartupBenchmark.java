@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Wall-clock time from launching the admin GUI to the first frame of the
+ * main window, with only the JDK's default class data sharing archive, and
+ * with the application archive produced by the {@code cds} profile of
+ * {@code com.io7m.idstore_gui.admin.main}.</p>
+ *
+ * <p>Each invocation launches a new JVM that exits as soon as the first
+ * frame has been produced. The benchmark requires a display, and the
+ * following system properties:</p>
+ *
+ * <ul>
+ *   <li>{@code idstore.benchmark.modulePath}: The module path that the
+ *   archive was trained with, such as
+ *   {@code target/lib:target/com.io7m.idstore_gui.admin.main.jar}.</li>
+ *   <li>{@code idstore.benchmark.cdsArchive}: The archive.</li>
+ * </ul>
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class IdAGStartupBenchmark
+{
+  private static final String MAIN_MODULE =
+    "com.io7m.idstore_gui.admin.main/com.io7m.idstore_gui.admin.main.IdAGMain";
+
+  /**
+   * The class data sharing archive used.
+   */
+
+  @Param({"JDK_DEFAULT", "APPLICATION"})
+  public String archive;
+
+  private List<String> command;
+  private Path home;
+
+  /**
+   * Wall-clock time from launching the admin GUI to the first frame.
+   */
+
+  public IdAGStartupBenchmark()
+  {
+
+  }
+
+  private static String requireProperty(
+    final String name)
+  {
+    final var value = System.getProperty(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalStateException(
+        "The system property %s must be set.".formatted(name)
+      );
+    }
+    return value;
+  }
+
+  /**
+   * Set up the benchmark.
+   *
+   * @throws IOException On errors
+   */
+
+  @Setup
+  public void setup()
+    throws IOException
+  {
+    final var modulePath =
+      requireProperty("idstore.benchmark.modulePath");
+    final var cdsArchive =
+      Path.of(requireProperty("idstore.benchmark.cdsArchive"))
+        .toAbsolutePath();
+
+    if (!Files.isRegularFile(cdsArchive)) {
+      throw new IllegalStateException(
+        "The archive %s does not exist.".formatted(cdsArchive)
+      );
+    }
+
+    this.home =
+      Files.createTempDirectory("idstore-startup-");
+
+    this.command = new ArrayList<>();
+    this.command.add(
+      Path.of(System.getProperty("java.home"), "bin", "java").toString()
+    );
+    if ("APPLICATION".equals(this.archive)) {
+      this.command.add("-XX:SharedArchiveFile=%s".formatted(cdsArchive));
+    }
+    this.command.add("-Xshare:auto");
+    this.command.add("-Duser.home=%s".formatted(this.home));
+    this.command.add("-Dcom.io7m.idstore.startup.exit_on_first_frame=TRUE");
+    this.command.add("-p");
+    this.command.add(modulePath);
+    this.command.add("-m");
+    this.command.add(MAIN_MODULE);
+  }
+
+  /**
+   * Delete the temporary home directory.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown
+  public void tearDown()
+    throws IOException
+  {
+    try (var paths = Files.walk(this.home)) {
+      for (final var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  /**
+   * Launch the application and wait for it to exit after its first frame.
+   *
+   * @return The exit code
+   *
+   * @throws Exception On errors
+   */
+
+  @Benchmark
+  public int startup()
+    throws Exception
+  {
+    final var process =
+      new ProcessBuilder(this.command)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+
+    if (!process.waitFor(1L, TimeUnit.MINUTES)) {
+      process.destroyForcibly();
+      throw new IllegalStateException("Application did not start in time.");
+    }
+
+    final var exitCode = process.exitValue();
+    if (exitCode != 0) {
+      throw new IllegalStateException(
+        "Application exited with code %d".formatted(Integer.valueOf(exitCode))
+      );
+    }
+    return exitCode;
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.benchmarks;
+
+import com.io7m.idstore.model.IdName;
+import com.io7m.idstore.model.IdRealName;
+import com.io7m.idstore.model.IdUserSummary;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a page of user summaries to table rows, as the users tab does
+ * for each page received.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IdAGUserPageBenchmark
+{
+  /**
+   * The number of users on the page.
+   */
+
+  @Param({"30", "100", "1000"})
+  public int pageSize;
+
+  private List<IdUserSummary> page;
+
+  /**
+   * Mapping a page of user summaries to table rows.
+   */
+
+  public IdAGUserPageBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark.
+   */
+
+  @Setup
+  public void setup()
+  {
+    final var time = OffsetDateTime.now();
+    final var users = new ArrayList<IdUserSummary>(this.pageSize);
+    for (int index = 0; index < this.pageSize; ++index) {
+      users.add(
+        new IdUserSummary(
+          UUID.randomUUID(),
+          new IdName("user" + index),
+          new IdRealName("User " + index),
+          time,
+          time
+        )
+      );
+    }
+    this.page = List.copyOf(users);
+  }
+
+  /**
+   * @return The mapped page
+   */
+
+  @Benchmark
+  public List<IdAGUser> map()
+  {
+    return this.page.stream()
+      .map(IdAGUser::of)
+      .toList();
+  }
+}
@@ -20,6 +20,7 @@ import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
 import com.io7m.idstore.admin_client.api.IdAClientCredentials;
 import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStrings;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.admins.IdAGAdminsController;
@@ -27,7 +28,10 @@ import com.io7m.idstore_gui.admin.internal.admins.IdAGAdminsControllers;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore.model.IdAdminSummary;
 import com.io7m.idstore.model.IdPage;
@@ -111,7 +115,10 @@ public final class IdAGAdminsControllerTest
         UUID.randomUUID(),
         IdAGPreferencesDebuggingEnabled.DEBUGGING_ENABLED,
         List.of(),
-        List.of()
+        List.of(),
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
       ));
 
     this.clients =
@@ -137,6 +144,9 @@ public final class IdAGAdminsControllerTest
     this.services.register(IdAGPreferencesServiceType.class, this.preferences);
     this.services.register(IdAGStringsType.class, this.strings);
     this.services.register(IdAGClientService.class, this.clientService);
+    this.services.register(
+      IdAGFXDispatcherService.class,
+      new IdAGFXDispatcherService());
   }
 
   @AfterEach
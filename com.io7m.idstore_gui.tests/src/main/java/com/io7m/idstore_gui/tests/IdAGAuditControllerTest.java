@@ -20,14 +20,20 @@ import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
 import com.io7m.idstore.admin_client.api.IdAClientCredentials;
 import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore_gui.admin.internal.IdAGBackgroundSchedulerService;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStrings;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditController;
 import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditControllers;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditStoreService;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore.model.IdAuditEvent;
 import com.io7m.idstore.model.IdPage;
@@ -79,6 +85,7 @@ public final class IdAGAuditControllerTest
   private IdAClientFactoryType clients;
   private IdAClientAsynchronousType client;
   private IdAGClientService clientService;
+  private IdAGAuditStoreService auditStores;
   private SubmissionPublisher<
     HBStateType<
       IdACommandType<?>,
@@ -106,7 +113,10 @@ public final class IdAGAuditControllerTest
         UUID.randomUUID(),
         IdAGPreferencesDebuggingEnabled.DEBUGGING_ENABLED,
         List.of(),
-        List.of()
+        List.of(),
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
       ));
 
     this.clients =
@@ -132,12 +142,24 @@ public final class IdAGAuditControllerTest
     this.services.register(IdAGPreferencesServiceType.class, this.preferences);
     this.services.register(IdAGStringsType.class, this.strings);
     this.services.register(IdAGClientService.class, this.clientService);
+    this.services.register(
+      IdAGFXDispatcherService.class,
+      new IdAGFXDispatcherService());
+    this.services.register(IdAGEventBus.class, this.events);
+    this.services.register(
+      IdAGBackgroundSchedulerService.class,
+      new IdAGBackgroundSchedulerService());
+
+    this.auditStores =
+      new IdAGAuditStoreService(this.configuration.configuration());
+    this.services.register(IdAGAuditStoreService.class, this.auditStores);
   }
 
   @AfterEach
   public void tearDown()
     throws Exception
   {
+    this.auditStores.close();
     this.configuration.close();
   }
 
@@ -233,7 +255,7 @@ public final class IdAGAuditControllerTest
     final var page1 = new IdPage<>(
       List.of(
         new IdAuditEvent(
-          0L,
+          1L,
           uuid1,
           OffsetDateTime.now(),
           "TYPE1",
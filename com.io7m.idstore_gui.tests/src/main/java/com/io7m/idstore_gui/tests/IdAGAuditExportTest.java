@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore_gui.admin.internal.IdAGStrings;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditExport;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditExportEvent;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditExportFormat;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCancelled;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusType;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGAuditExportTest
+{
+  private static final OffsetDateTime TIME =
+    OffsetDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private Path directory;
+  private IdAGEventBus events;
+  private IdAClientAsynchronousType client;
+  private IdAGClientService clientService;
+  private CopyOnWriteArrayList<IdAGEventType> received;
+
+  private static IdPage<IdAuditEvent> page(
+    final int index,
+    final int count)
+  {
+    return new IdPage<>(
+      List.of(
+        new IdAuditEvent(
+          (long) index,
+          UUID.randomUUID(),
+          TIME.plusHours(index),
+          "TYPE",
+          "Message")
+      ),
+      index,
+      count,
+      0L
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory =
+      IdTestDirectories.createTempDirectory();
+    this.events =
+      new IdAGEventBus();
+    this.received =
+      new CopyOnWriteArrayList<>();
+    this.events.subscribeCoalescing(Runnable::run, this.received::addAll);
+
+    final var clients =
+      Mockito.mock(IdAClientFactoryType.class);
+    this.client =
+      Mockito.mock(IdAClientAsynchronousType.class);
+
+    final SubmissionPublisher<
+      HBStateType<
+        IdACommandType<?>,
+        IdAResponseType,
+        IdAResponseError,
+        IdAClientCredentials>> clientState = new SubmissionPublisher<>();
+
+    Mockito.when(clients.openAsynchronousClient(any()))
+      .thenReturn(this.client);
+    Mockito.when(this.client.state())
+      .thenReturn(clientState);
+
+    this.clientService =
+      IdAGClientService.create(this.events, clients, Locale.ROOT);
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandAuditSearchBegin.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseAuditSearchBegin(UUID.randomUUID(), page(1, 3))));
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  /**
+   * A page request that is cancelled underneath the export (for example,
+   * because the audit search was replaced) cancels the export rather than
+   * failing it.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCancelledPageIsCancellation()
+    throws Exception
+  {
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandAuditSearchNext.class), any()))
+      .thenReturn(CompletableFuture.failedFuture(
+        new CancellationException("Replaced.")));
+
+    final var file =
+      this.directory.resolve("audit.csv");
+
+    final var export =
+      IdAGAuditExport.start(
+        this.clientService,
+        this.events,
+        new IdAGStrings(Locale.ROOT),
+        Runnable::run,
+        IdTimeRange.largest(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        file,
+        IdAGAuditExportFormat.CSV
+      );
+
+    assertThrows(CancellationException.class, () -> export.future().get());
+
+    while (this.exportStatuses().noneMatch(
+      s -> s instanceof IdAGEventStatusCancelled)) {
+      Thread.sleep(10L);
+    }
+
+    assertFalse(
+      this.exportStatuses().anyMatch(s -> s instanceof IdAGEventStatusFailed));
+    assertFalse(Files.exists(file));
+  }
+
+  private Stream<IdAGEventStatusType> exportStatuses()
+  {
+    return this.received.stream()
+      .filter(e -> e instanceof IdAGAuditExportEvent)
+      .map(e -> ((IdAGAuditExportEvent) e).status());
+  }
+}
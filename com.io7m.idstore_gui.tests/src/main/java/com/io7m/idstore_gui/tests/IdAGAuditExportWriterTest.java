@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditExportFormat;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditExportWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public final class IdAGAuditExportWriterTest
+{
+  private static final UUID OWNER =
+    UUID.fromString("ff5b36dc-31a0-41ab-b823-934bafe18881");
+  private static final OffsetDateTime TIME =
+    OffsetDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = IdTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  /**
+   * CSV fields are quoted when necessary.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCSV()
+    throws Exception
+  {
+    final var file = this.directory.resolve("audit.csv");
+    try (var writer =
+           IdAGAuditExportWriter.open(file, IdAGAuditExportFormat.CSV)) {
+      writer.write(new IdAuditEvent(1L, OWNER, TIME, "T", "plain"));
+      writer.write(new IdAuditEvent(2L, OWNER, TIME, "T", "a, \"b\""));
+      assertFalse(Files.exists(file));
+      writer.commit();
+      assertEquals(2L, writer.eventCount());
+    }
+
+    assertEquals(
+      "id,time,owner,type,data\r\n"
+      + "1,2023-01-01T00:00Z,ff5b36dc-31a0-41ab-b823-934bafe18881,T,plain\r\n"
+      + "2,2023-01-01T00:00Z,ff5b36dc-31a0-41ab-b823-934bafe18881,T,\"a, \"\"b\"\"\"\r\n",
+      Files.readString(file, UTF_8)
+    );
+  }
+
+  /**
+   * JSON strings are escaped.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSONLines()
+    throws Exception
+  {
+    final var file = this.directory.resolve("audit.jsonl");
+    try (var writer =
+           IdAGAuditExportWriter.open(file, IdAGAuditExportFormat.JSON_LINES)) {
+      writer.write(new IdAuditEvent(1L, OWNER, TIME, "T", "x\n\"y\"\u0001"));
+      writer.commit();
+    }
+
+    assertEquals(
+      "{\"id\":1,\"time\":\"2023-01-01T00:00Z\","
+      + "\"owner\":\"ff5b36dc-31a0-41ab-b823-934bafe18881\","
+      + "\"type\":\"T\",\"data\":\"x\\n\\\"y\\\"\\u0001\"}\n",
+      Files.readString(file, UTF_8)
+    );
+  }
+
+  /**
+   * Uncommitted exports leave nothing behind.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUncommittedDeleted()
+    throws Exception
+  {
+    final var file = this.directory.resolve("audit.csv");
+    try (var writer =
+           IdAGAuditExportWriter.open(file, IdAGAuditExportFormat.CSV)) {
+      writer.write(new IdAuditEvent(1L, OWNER, TIME, "T", "plain"));
+    }
+
+    assertFalse(Files.exists(file));
+    try (var files = Files.list(this.directory)) {
+      assertEquals(0L, files.count());
+    }
+  }
+}
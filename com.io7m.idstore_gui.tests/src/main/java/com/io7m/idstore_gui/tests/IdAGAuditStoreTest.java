@@ -0,0 +1,447 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.IdAGStrings;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditFilter;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditStore;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditStoreSearch;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditStoreSync;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientConnection;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGAuditStoreTest
+{
+  private static final UUID OWNER0 =
+    UUID.fromString("ff5b36dc-31a0-41ab-b823-934bafe18881");
+  private static final UUID OWNER1 =
+    UUID.fromString("5f5eb211-cd2b-41df-976d-d0475c3eb959");
+  private static final OffsetDateTime TIME =
+    OffsetDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private Path directory;
+
+  private static IdAuditEvent event(
+    final long id,
+    final UUID owner,
+    final String type,
+    final String data)
+  {
+    return new IdAuditEvent(id, owner, TIME.plusHours(id), type, data);
+  }
+
+  private static IdTimeRange hours(
+    final long lower,
+    final long upper)
+  {
+    return new IdTimeRange(TIME.plusHours(lower), TIME.plusHours(upper));
+  }
+
+  private static void cover(
+    final IdAGAuditStore store,
+    final long lower,
+    final long upper)
+    throws Exception
+  {
+    store.markCovered(
+      TIME.plusHours(lower).toInstant(),
+      TIME.plusHours(upper).toInstant()
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = IdTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  /**
+   * Events are stored once, and survive reopening the store.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testAppendReopen()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertTrue(store.append(event(1L, OWNER0, "T0", "A")));
+      assertTrue(store.append(event(2L, OWNER1, "T1", "B")));
+      assertFalse(store.append(event(1L, OWNER1, "T1", "C")));
+      assertEquals(2, store.size());
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertEquals(2, store.size());
+      assertEquals(
+        List.of(event(2L, OWNER1, "T1", "B"), event(1L, OWNER0, "T0", "A")),
+        store.read(new long[]{2L, 1L})
+      );
+    }
+  }
+
+  /**
+   * A partially written record is discarded when the store is opened.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testTruncatedTail()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      store.append(event(1L, OWNER0, "T0", "A"));
+      store.append(event(2L, OWNER0, "T0", "B"));
+    }
+
+    final var segment = this.directory.resolve("events.seg");
+    try (var channel = FileChannel.open(segment, WRITE)) {
+      channel.truncate(channel.size() - 3L);
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertEquals(1, store.size());
+      assertTrue(store.append(event(2L, OWNER0, "T0", "B")));
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertEquals(2, store.size());
+    }
+  }
+
+  /**
+   * Covered ranges are merged, and gaps are reported correctly.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCoverage()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertEquals(List.of(hours(0L, 10L)), store.gaps(hours(0L, 10L)));
+
+      cover(store, 2L, 4L);
+      cover(store, 6L, 8L);
+
+      assertEquals(
+        List.of(hours(0L, 2L), hours(4L, 6L), hours(8L, 10L)),
+        store.gaps(hours(0L, 10L))
+      );
+      assertEquals(List.of(), store.gaps(hours(2L, 4L)));
+      assertEquals(List.of(hours(4L, 5L)), store.gaps(hours(3L, 5L)));
+
+      cover(store, 3L, 7L);
+      assertEquals(1, store.coverage().size());
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      assertEquals(
+        List.of(hours(0L, 2L), hours(8L, 10L)),
+        store.gaps(hours(0L, 10L))
+      );
+    }
+  }
+
+  /**
+   * Searches apply every filter, and criteria that cannot be evaluated
+   * exactly as the server would are rejected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSearch()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory)) {
+      store.append(event(1L, OWNER0, "T0", "hello"));
+      store.append(event(2L, OWNER1, "T0", "goodbye"));
+      store.append(event(3L, OWNER0, "T1", "hello again"));
+      store.append(event(4L, OWNER1, "T1", "hello"));
+
+      final var all = hours(0L, 10L);
+      final var none = Optional.<String>empty();
+
+      assertArrayEquals(
+        new long[]{1L, 2L, 3L, 4L},
+        store.search(all, new IdAGAuditFilter(none, none, none)));
+      assertArrayEquals(
+        new long[]{2L, 3L},
+        store.search(hours(2L, 3L), new IdAGAuditFilter(none, none, none)));
+      assertArrayEquals(
+        new long[]{1L, 3L},
+        store.search(all, new IdAGAuditFilter(
+          Optional.of(OWNER0.toString().toUpperCase()), none, none)));
+      assertArrayEquals(
+        new long[]{3L, 4L},
+        store.search(all, new IdAGAuditFilter(none, Optional.of("T1"), none)));
+      assertArrayEquals(
+        new long[]{4L},
+        store.search(all, new IdAGAuditFilter(
+          Optional.of(OWNER1.toString()), Optional.of("T1"), none)));
+
+      final var message =
+        new IdAGAuditFilter(none, none, Optional.of("hello"));
+      final var ownerName =
+        new IdAGAuditFilter(Optional.of("admin0"), none, none);
+
+      assertFalse(message.isLocallyAnswerable());
+      assertFalse(ownerName.isLocallyAnswerable());
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> store.search(all, message));
+      assertThrows(
+        IllegalArgumentException.class,
+        () -> store.search(all, ownerName));
+    }
+  }
+
+  /**
+   * A full store discards its contents and coverage, and coverage recorded
+   * for a range fetched before the discard is refused.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCapacity()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory, 2)) {
+      store.append(event(1L, OWNER0, "T0", "A"));
+      store.append(event(2L, OWNER0, "T0", "B"));
+      cover(store, 0L, 2L);
+
+      final var generation = store.generation();
+      assertTrue(store.append(event(3L, OWNER1, "T1", "C")));
+      assertEquals(1, store.size());
+      assertEquals(generation + 1L, store.generation());
+      assertEquals(List.of(hours(0L, 2L)), store.gaps(hours(0L, 2L)));
+
+      assertTrue(store.append(event(4L, OWNER1, "T1", "D")));
+      assertFalse(store.markCovered(
+        TIME.plusHours(3L).toInstant(),
+        TIME.plusHours(4L).toInstant(),
+        generation));
+      assertTrue(store.markCovered(
+        TIME.plusHours(3L).toInstant(),
+        TIME.plusHours(4L).toInstant(),
+        store.generation()));
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory, 2)) {
+      assertEquals(2, store.size());
+      assertEquals(List.of(), store.gaps(hours(3L, 4L)));
+    }
+
+    try (var store = IdAGAuditStore.open(this.directory, 1)) {
+      assertEquals(0, store.size());
+      assertEquals(List.of(hours(3L, 4L)), store.gaps(hours(3L, 4L)));
+    }
+  }
+
+  /**
+   * A local search is no longer current once the store it searched has been
+   * discarded, and its pages fail rather than returning other events.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSearchDiscarded()
+    throws Exception
+  {
+    try (var store = IdAGAuditStore.open(this.directory, 2)) {
+      store.append(event(1L, OWNER0, "T0", "A"));
+      store.append(event(2L, OWNER0, "T0", "B"));
+      cover(store, 0L, 2L);
+
+      final var search =
+        IdAGAuditStoreSearch.begin(
+          store,
+          Runnable::run,
+          10,
+          hours(0L, 2L),
+          new IdAGAuditFilter(
+            Optional.empty(), Optional.empty(), Optional.empty())
+        ).get(10L, TimeUnit.SECONDS);
+
+      assertTrue(search.isCurrent());
+      assertEquals(2, search.page(1).get(10L, TimeUnit.SECONDS).items().size());
+
+      store.append(event(3L, OWNER1, "T1", "C"));
+      assertFalse(search.isCurrent());
+
+      final var ex =
+        assertThrows(ExecutionException.class, () -> {
+          search.page(1).get(10L, TimeUnit.SECONDS);
+        });
+      assertInstanceOf(UncheckedIOException.class, ex.getCause());
+    }
+  }
+
+  /**
+   * Searches answered by a store that has been synchronized with a server
+   * return exactly the events that the server returns for the same
+   * searches.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSearchAgreesWithServer()
+    throws Exception
+  {
+    final var configuration =
+      IdAGFakeServerConfiguration.defaults();
+
+    try (var server = IdAGFakeServer.create(configuration);
+         var client = IdAGClientService.create(
+           new IdAGEventBus(), server.clients(), Locale.ROOT);
+         var store = IdAGAuditStore.open(this.directory)) {
+
+      client.login("localhost", 51000, false, "admin", "12345678")
+        .get(10L, TimeUnit.SECONDS);
+
+      final var events = server.auditEvents();
+      final var timeFirst = events.get(0).time();
+      final var timeLast = events.get(events.size() - 1).time();
+      final var all = new IdTimeRange(timeFirst, timeLast);
+
+      try (var connection =
+             client.openConnection().get(10L, TimeUnit.SECONDS)) {
+        IdAGAuditStoreSync.start(
+          connection,
+          new IdAGEventBus(),
+          new IdAGStrings(Locale.ROOT),
+          Runnable::run,
+          store,
+          store.gaps(all),
+          100
+        ).get(1L, TimeUnit.MINUTES);
+        assertEquals(List.of(), store.gaps(all));
+
+        final var none = Optional.<String>empty();
+        final var owner0 = Optional.of(events.get(0).owner().toString());
+        final var owner1 = Optional.of(events.get(1).owner().toString());
+        final var type0 = Optional.of(events.get(0).type());
+        final var type1 = Optional.of(events.get(1).type());
+        final var part =
+          new IdTimeRange(
+            timeFirst.plusSeconds(317L),
+            timeLast.minusSeconds(1201L));
+        final var unknown =
+          Optional.of(UUID.randomUUID().toString());
+
+        final var filters = List.of(
+          new IdAGAuditFilter(none, none, none),
+          new IdAGAuditFilter(owner0, none, none),
+          new IdAGAuditFilter(owner1.map(String::toUpperCase), none, none),
+          new IdAGAuditFilter(none, type0, none),
+          new IdAGAuditFilter(none, Optional.of("NONEXISTENT"), none),
+          new IdAGAuditFilter(owner0, type0, none),
+          new IdAGAuditFilter(owner1, type0, none),
+          new IdAGAuditFilter(owner0, type1, none),
+          new IdAGAuditFilter(unknown, none, none)
+        );
+
+        for (final var range : List.of(all, part)) {
+          for (final var filter : filters) {
+            assertTrue(filter.isLocallyAnswerable(), filter.toString());
+            assertArrayEquals(
+              serverSearch(connection, range, filter),
+              store.search(range, filter),
+              "%s %s".formatted(range, filter)
+            );
+          }
+        }
+      }
+    }
+  }
+
+  private static long[] serverSearch(
+    final IdAGClientConnection connection,
+    final IdTimeRange range,
+    final IdAGAuditFilter filter)
+    throws Exception
+  {
+    final var ids = new ArrayList<Long>();
+    var page =
+      connection.auditSearchBegin(
+        range,
+        filter.owner(),
+        filter.type(),
+        filter.message(),
+        1000
+      ).get(10L, TimeUnit.SECONDS);
+
+    while (true) {
+      for (final var event : page.items()) {
+        ids.add(Long.valueOf(event.id()));
+      }
+      if (page.pageIndex() >= page.pageCount()) {
+        break;
+      }
+      page = connection.auditSearchNext().get(10L, TimeUnit.SECONDS);
+    }
+
+    return ids.stream()
+      .mapToLong(Long::longValue)
+      .sorted()
+      .toArray();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore_gui.admin.internal.audit.IdAGAuditTail;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGAuditTailTest
+{
+  private IdAGFakeServer server;
+  private IdAGClientService client;
+  private ScheduledExecutorService executor;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.server =
+      IdAGFakeServer.create(IdAGFakeServerConfiguration.defaults());
+    this.client =
+      IdAGClientService.create(
+        new IdAGEventBus(),
+        this.server.clients(),
+        Locale.ROOT
+      );
+    this.executor =
+      Executors.newSingleThreadScheduledExecutor();
+
+    this.client.login("localhost", 51000, false, "admin", "12345678")
+      .get(10L, TimeUnit.SECONDS);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.executor.shutdown();
+    this.client.close();
+    this.server.close();
+  }
+
+  /**
+   * Polling the audit log does not disturb the client's audit search.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 1L, unit = TimeUnit.MINUTES)
+  public void testPollDoesNotDisturbSearch()
+    throws Exception
+  {
+    final var type = "USER_CREATED";
+    final var page1 =
+      this.client.auditSearchBegin(
+        IdTimeRange.largest(),
+        Optional.empty(),
+        Optional.of(type),
+        Optional.empty()
+      ).get(10L, TimeUnit.SECONDS);
+
+    assertEquals(1, page1.pageIndex());
+    assertTrue(page1.pageCount() > 1);
+
+    final var received =
+      new CompletableFuture<List<IdAuditEvent>>();
+    final var tail =
+      IdAGAuditTail.start(
+        this.client,
+        this.executor,
+        IdAGPreferencesAuditTail.defaults(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        100,
+        -1L,
+        OffsetDateTime.parse("2000-01-01T00:00:00Z"),
+        received::complete
+      );
+
+    try {
+      assertEquals(
+        this.server.auditEvents(),
+        received.get(30L, TimeUnit.SECONDS)
+      );
+    } finally {
+      tail.cancel();
+    }
+
+    final var page2 =
+      this.client.auditSearchNext()
+        .get(10L, TimeUnit.SECONDS);
+
+    assertEquals(2, page2.pageIndex());
+    assertEquals(page1.pageCount(), page2.pageCount());
+    for (final var event : page2.items()) {
+      assertEquals(type, event.type());
+    }
+    assertEquals(2, this.server.sessionCount());
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.services.IdAGBootGraph;
+import com.io7m.idstore_gui.admin.internal.services.IdAGBootGraphListenerType;
+import com.io7m.repetoir.core.RPServiceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGBootGraphTest
+{
+  private ExecutorService executor;
+  private Listener listener;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.executor = Executors.newFixedThreadPool(4);
+    this.listener = new Listener();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.executor.shutdown();
+  }
+
+  /**
+   * Independent steps run concurrently.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testIndependentConcurrent()
+    throws Exception
+  {
+    final var latch = new CountDownLatch(2);
+    final var graph = new IdAGBootGraph();
+
+    graph.add("A", ServiceA.class, List.of(), d -> {
+      latch.countDown();
+      assertTrue(latch.await(10L, TimeUnit.SECONDS));
+      return new ServiceA();
+    });
+    graph.add("B", ServiceB.class, List.of(), d -> {
+      latch.countDown();
+      assertTrue(latch.await(10L, TimeUnit.SECONDS));
+      return new ServiceB();
+    });
+
+    final var services = graph.run(this.executor, this.listener);
+    services.requireService(ServiceA.class);
+    services.requireService(ServiceB.class);
+    assertEquals(2, this.listener.succeeded.size());
+  }
+
+  /**
+   * Steps receive the services upon which they depend, and progress reaches
+   * completion exactly once every step has finished.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDependencies()
+    throws Exception
+  {
+    final var graph = new IdAGBootGraph();
+    final var a = new ServiceA();
+
+    graph.add("A", ServiceA.class, List.of(), d -> a);
+    graph.add("B", ServiceB.class, List.of(), d -> new ServiceB());
+    graph.add(
+      "C",
+      ServiceC.class,
+      List.of(ServiceA.class, ServiceB.class),
+      d -> {
+        assertSame(a, d.require(ServiceA.class));
+        d.require(ServiceB.class);
+        return new ServiceC();
+      });
+
+    final var services = graph.run(this.executor, this.listener);
+    services.requireService(ServiceC.class);
+
+    assertEquals("C", this.listener.succeeded.get(2));
+    assertEquals(1.0, this.listener.lastProgress);
+    final var progress = this.listener.progress;
+    for (int index = 1; index < progress.size(); ++index) {
+      assertTrue(progress.get(index) >= progress.get(index - 1));
+    }
+  }
+
+  /**
+   * A failing step prevents its dependents from running, and its exception
+   * is rethrown.
+   */
+
+  @Test
+  public void testFailure()
+  {
+    final var graph = new IdAGBootGraph();
+
+    graph.add("A", ServiceA.class, List.of(), d -> {
+      throw new IOException("Failed!");
+    });
+    graph.add("B", ServiceB.class, List.of(ServiceA.class), d -> {
+      throw new IllegalStateException("Must not run!");
+    });
+    graph.add("C", ServiceC.class, List.of(), d -> new ServiceC());
+
+    final var ex =
+      assertThrows(IOException.class, () -> {
+        graph.run(this.executor, this.listener);
+      });
+
+    assertEquals("Failed!", ex.getMessage());
+    assertEquals(List.of("A"), this.listener.failed);
+    assertEquals(List.of("C"), this.listener.succeeded);
+    assertEquals(1.0, this.listener.lastProgress);
+  }
+
+  /**
+   * Steps cannot depend on steps that have not been added.
+   */
+
+  @Test
+  public void testUnknownDependency()
+  {
+    final var graph = new IdAGBootGraph();
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      graph.add("B", ServiceB.class, List.of(ServiceA.class), d -> {
+        return new ServiceB();
+      });
+    });
+  }
+
+  /**
+   * Steps cannot retrieve services upon which they did not declare a
+   * dependency.
+   */
+
+  @Test
+  public void testUndeclaredDependency()
+  {
+    final var graph = new IdAGBootGraph();
+
+    graph.add("A", ServiceA.class, List.of(), d -> new ServiceA());
+    graph.add("B", ServiceB.class, List.of(), d -> {
+      d.require(ServiceA.class);
+      return new ServiceB();
+    });
+
+    assertThrows(IllegalStateException.class, () -> {
+      graph.run(this.executor, this.listener);
+    });
+  }
+
+  private static final class Listener
+    implements IdAGBootGraphListenerType
+  {
+    private final List<Double> progress = new ArrayList<>();
+    private final List<String> succeeded = new ArrayList<>();
+    private final List<String> failed = new ArrayList<>();
+    private double lastProgress;
+
+    @Override
+    public void onProgress(
+      final String message,
+      final double p)
+    {
+      this.progress.add(Double.valueOf(p));
+      this.lastProgress = p;
+    }
+
+    @Override
+    public void onStepSucceeded(
+      final String message,
+      final Duration time)
+    {
+      this.succeeded.add(message);
+    }
+
+    @Override
+    public void onStepFailed(
+      final String message,
+      final Duration time,
+      final Throwable exception)
+    {
+      this.failed.add(message);
+    }
+  }
+
+  private static final class ServiceA implements RPServiceType
+  {
+    @Override
+    public String description()
+    {
+      return "A";
+    }
+  }
+
+  private static final class ServiceB implements RPServiceType
+  {
+    @Override
+    public String description()
+    {
+      return "B";
+    }
+  }
+
+  private static final class ServiceC implements RPServiceType
+  {
+    @Override
+    public String description()
+    {
+      return "C";
+    }
+  }
+}
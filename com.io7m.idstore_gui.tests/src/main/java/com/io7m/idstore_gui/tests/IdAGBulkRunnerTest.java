@@ -0,0 +1,270 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkResult;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkRunner;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGBulkRunnerTest
+{
+  private ScheduledExecutorService executor;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.executor = Executors.newScheduledThreadPool(4);
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.executor.shutdown();
+  }
+
+  /**
+   * No more than the configured number of operations are ever in flight,
+   * and every item receives a result in order.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWindow()
+    throws Exception
+  {
+    final var items =
+      IntStream.range(0, 100).boxed().toList();
+    final var inFlight =
+      new AtomicInteger();
+    final var inFlightMaximum =
+      new AtomicInteger();
+
+    final var runner =
+      IdAGBulkRunner.start(
+        items,
+        item -> {
+          final var now = inFlight.incrementAndGet();
+          inFlightMaximum.accumulateAndGet(now, Math::max);
+          return CompletableFuture.runAsync(() -> {
+            inFlight.decrementAndGet();
+          }, CompletableFuture.delayedExecutor(1L, TimeUnit.MILLISECONDS));
+        },
+        e -> false,
+        new IdAGPreferencesBulk(4, 1, Duration.ZERO, 1),
+        this.executor,
+        p -> { }
+      );
+
+    final var results =
+      runner.future().get(10L, TimeUnit.SECONDS);
+
+    assertEquals(100, results.size());
+    for (int index = 0; index < 100; ++index) {
+      assertEquals(Integer.valueOf(index), results.get(index).item());
+      assertTrue(results.get(index).succeeded());
+    }
+    assertTrue(inFlightMaximum.get() <= 4);
+  }
+
+  /**
+   * Retryable failures are retried until the attempts are exhausted;
+   * other failures are not retried.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testRetry()
+    throws Exception
+  {
+    final var attempts =
+      new ConcurrentHashMap<Integer, AtomicInteger>();
+
+    final var runner =
+      IdAGBulkRunner.start(
+        List.of(0, 1, 2),
+        item -> {
+          final var count =
+            attempts.computeIfAbsent(item, k -> new AtomicInteger())
+              .incrementAndGet();
+
+          return switch (item.intValue()) {
+            case 0 -> count < 2
+              ? CompletableFuture.failedFuture(new IOException("Transient."))
+              : CompletableFuture.completedFuture(null);
+            case 1 -> CompletableFuture.failedFuture(new IOException("Down."));
+            default -> CompletableFuture.failedFuture(
+              new IllegalStateException("Rejected."));
+          };
+        },
+        e -> e instanceof IOException,
+        new IdAGPreferencesBulk(2, 3, Duration.ofMillis(1L), 1),
+        this.executor,
+        p -> { }
+      );
+
+    final List<IdAGBulkResult<Integer>> results =
+      runner.future().get(10L, TimeUnit.SECONDS);
+
+    assertTrue(results.get(0).succeeded());
+    assertEquals(2, results.get(0).attempts());
+
+    assertEquals(3, results.get(1).attempts());
+    assertInstanceOf(IOException.class, results.get(1).failure().orElseThrow());
+
+    assertEquals(1, results.get(2).attempts());
+    assertInstanceOf(
+      IllegalStateException.class, results.get(2).failure().orElseThrow());
+  }
+
+  /**
+   * Cancelling reports items that were never started as cancelled, and
+   * does not count them as failures.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCancel()
+    throws Exception
+  {
+    final var pending =
+      new ArrayList<CompletableFuture<Void>>();
+    final var failedMaximum =
+      new AtomicInteger();
+
+    final var runner =
+      IdAGBulkRunner.start(
+        IntStream.range(0, 10).boxed().toList(),
+        item -> {
+          final var future = new CompletableFuture<Void>();
+          synchronized (pending) {
+            pending.add(future);
+          }
+          return future;
+        },
+        e -> false,
+        new IdAGPreferencesBulk(2, 1, Duration.ZERO, 1),
+        this.executor,
+        p -> failedMaximum.accumulateAndGet(p.failed(), Math::max)
+      );
+
+    while (true) {
+      synchronized (pending) {
+        if (pending.size() == 2) {
+          break;
+        }
+      }
+      Thread.sleep(1L);
+    }
+
+    runner.cancel();
+    synchronized (pending) {
+      for (final var future : pending) {
+        future.complete(null);
+      }
+    }
+
+    final var results =
+      runner.future().get(10L, TimeUnit.SECONDS);
+
+    assertEquals(10, results.size());
+    assertTrue(results.get(0).succeeded());
+    assertTrue(results.get(1).succeeded());
+    for (int index = 2; index < 10; ++index) {
+      final var result = results.get(index);
+      assertTrue(result.cancelled());
+      assertFalse(result.succeeded());
+      assertFalse(result.failed());
+      assertEquals(0, result.attempts());
+    }
+    assertEquals(0, failedMaximum.get());
+  }
+
+  /**
+   * Cancelling never runs progress receivers or completion handlers on the
+   * thread that cancels the runner.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCancelDeliversElsewhere()
+    throws Exception
+  {
+    final var pending =
+      new CompletableFuture<CompletableFuture<Void>>();
+    final var progressThreads =
+      ConcurrentHashMap.<Thread>newKeySet();
+
+    final var runner =
+      IdAGBulkRunner.start(
+        IntStream.range(0, 5).boxed().toList(),
+        item -> {
+          final var future = new CompletableFuture<Void>();
+          pending.complete(future);
+          return future;
+        },
+        e -> false,
+        new IdAGPreferencesBulk(1, 1, Duration.ZERO, 1),
+        this.executor,
+        p -> progressThreads.add(Thread.currentThread())
+      );
+
+    final var completionThread =
+      runner.future().thenApply(r -> Thread.currentThread());
+
+    final var inFlight =
+      pending.get(10L, TimeUnit.SECONDS);
+
+    runner.cancel();
+    CompletableFuture.runAsync(() -> inFlight.complete(null), this.executor);
+
+    final var results =
+      runner.future().get(10L, TimeUnit.SECONDS);
+
+    assertTrue(results.get(0).succeeded());
+    assertNotEquals(
+      Thread.currentThread(),
+      completionThread.get(10L, TimeUnit.SECONDS));
+    assertFalse(progressThreads.isEmpty());
+    assertFalse(progressThreads.contains(Thread.currentThread()));
+  }
+}
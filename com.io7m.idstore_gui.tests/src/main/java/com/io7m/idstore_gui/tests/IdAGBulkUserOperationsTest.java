@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.protocol.admin.IdACommandUserDelete;
+import com.io7m.idstore_gui.admin.internal.IdAGStrings;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkResult;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkUserOperations;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGBulkUserOperationsTest
+{
+  private IdAGFakeServer server;
+  private IdAGEventBus events;
+  private IdAGClientService client;
+  private ScheduledExecutorService executor;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.server =
+      IdAGFakeServer.create(IdAGFakeServerConfiguration.defaults());
+    this.events =
+      new IdAGEventBus();
+    this.client =
+      IdAGClientService.create(this.events, this.server.clients(), Locale.ROOT);
+    this.executor =
+      Executors.newSingleThreadScheduledExecutor();
+
+    this.client.login("localhost", 51000, false, "admin", "12345678")
+      .get(10L, TimeUnit.SECONDS);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.executor.shutdown();
+    this.client.close();
+    this.server.close();
+  }
+
+  /**
+   * A bulk operation spreads its commands over the configured number of
+   * connections, and none of them is sent on the main connection.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  @Timeout(value = 1L, unit = TimeUnit.MINUTES)
+  public void testDeleteUsesConnections()
+    throws Exception
+  {
+    final var operations =
+      new IdAGBulkUserOperations(
+        this.client,
+        this.events,
+        new IdAGStrings(Locale.ROOT),
+        this.executor,
+        () -> new IdAGPreferencesBulk(8, 1, Duration.ZERO, 4)
+      );
+
+    final var users =
+      IntStream.range(0, 40)
+        .mapToObj(i -> new UUID(0L, i))
+        .toList();
+
+    final var results =
+      operations.delete(users)
+        .future()
+        .get(30L, TimeUnit.SECONDS);
+
+    assertEquals(users.size(), results.size());
+    assertTrue(results.stream().allMatch(IdAGBulkResult::succeeded));
+    assertEquals(
+      users.size(),
+      this.server.receivedCount(IdACommandUserDelete.class)
+    );
+    assertEquals(5, this.server.sessionCount());
+    assertEquals(4L, this.server.sessionsReceiving(IdACommandUserDelete.class));
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.idstore_gui.tests.IdTestUsers.TEST_USER_0;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGClientServiceInstrumentationTest
+{
+  private static final String COMMAND_EVENT =
+    "com.io7m.idstore_gui.admin.Command";
+
+  private Path directory;
+  private IdAGEventBus events;
+  private IdAClientFactoryType clients;
+  private IdAClientAsynchronousType client;
+  private IdAGClientService clientService;
+  private SubmissionPublisher<
+    HBStateType<
+      IdACommandType<?>,
+      IdAResponseType,
+      IdAResponseError,
+      IdAClientCredentials>
+    > clientState;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory =
+      IdTestDirectories.createTempDirectory();
+    this.clientState =
+      new SubmissionPublisher<>();
+    this.events =
+      new IdAGEventBus();
+    this.clients =
+      Mockito.mock(IdAClientFactoryType.class);
+    this.client =
+      Mockito.mock(IdAClientAsynchronousType.class);
+
+    Mockito.when(this.clients.openAsynchronousClient(any()))
+      .thenReturn(this.client);
+    Mockito.when(this.client.state())
+      .thenReturn(this.clientState);
+
+    this.clientService =
+      IdAGClientService.create(
+        this.events,
+        this.clients,
+        Locale.ROOT
+      );
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private void userGetSucceeds()
+  {
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserGet(UUID.randomUUID(), Optional.of(TEST_USER_0))));
+  }
+
+  private void userGetFails()
+  {
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(CompletableFuture.failedFuture(new IOException("Ouch.")));
+  }
+
+  /**
+   * Commands executed by the client service are timed per command class.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCommandsTimed()
+    throws Exception
+  {
+    this.userGetSucceeds();
+    this.clientService.userGet(UUID.randomUUID())
+      .get(5L, TimeUnit.SECONDS);
+
+    this.userGetFails();
+    assertThrows(Exception.class, () -> {
+      this.clientService.userGet(UUID.randomUUID())
+        .get(5L, TimeUnit.SECONDS);
+    });
+
+    final var statistics =
+      this.clientService.commandTimings().statistics();
+
+    assertEquals(1, statistics.size());
+    final var s = statistics.get(0);
+    assertEquals("IdACommandUserGet", s.command());
+    assertEquals(1L, s.succeeded());
+    assertEquals(1L, s.failed());
+    assertEquals(0L, s.inFlight());
+  }
+
+  /**
+   * Commands produce flight recorder events while a recording is running.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCommandsRecorded()
+    throws Exception
+  {
+    final var file = this.directory.resolve("commands.jfr");
+
+    try (var recording = new Recording()) {
+      recording.enable(COMMAND_EVENT);
+      recording.start();
+
+      this.userGetSucceeds();
+      this.clientService.userGet(UUID.randomUUID())
+        .get(5L, TimeUnit.SECONDS);
+
+      this.userGetFails();
+      assertThrows(Exception.class, () -> {
+        this.clientService.userGet(UUID.randomUUID())
+          .get(5L, TimeUnit.SECONDS);
+      });
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    final var recorded =
+      RecordingFile.readAllEvents(file)
+        .stream()
+        .filter(e -> COMMAND_EVENT.equals(e.getEventType().getName()))
+        .toList();
+
+    assertEquals(2, recorded.size());
+    for (final var event : recorded) {
+      assertEquals("IdACommandUserGet", event.getString("command"));
+    }
+
+    assertTrue(recorded.get(0).getBoolean("succeeded"));
+    assertFalse(recorded.get(1).getBoolean("succeeded"));
+    assertTrue(recorded.get(1).getString("failure").contains("Ouch."));
+  }
+}
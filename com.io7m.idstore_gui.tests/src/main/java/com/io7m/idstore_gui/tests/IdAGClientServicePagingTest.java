@@ -0,0 +1,434 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore.model.IdUserSummary;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserDelete;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserDelete;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchPrevious;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGPageCache;
+import com.io7m.idstore_gui.admin.internal.client.IdAGPagePrefetch;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPageSizeMode;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.io7m.idstore_gui.tests.IdTestUsers.TEST_USER_0;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGClientServicePagingTest
+{
+  private IdAGEventBus events;
+  private IdAClientFactoryType clients;
+  private IdAClientAsynchronousType client;
+  private IdAGClientService clientService;
+  private SubmissionPublisher<
+    HBStateType<
+      IdACommandType<?>,
+      IdAResponseType,
+      IdAResponseError,
+      IdAClientCredentials>
+    > clientState;
+
+  private static IdPage<IdUserSummary> page(
+    final int index,
+    final int count)
+  {
+    return new IdPage<>(
+      List.of(
+        new IdUserSummary(
+          UUID.randomUUID(),
+          TEST_USER_0.idName(),
+          TEST_USER_0.realName(),
+          OffsetDateTime.now(),
+          OffsetDateTime.now()
+        )
+      ),
+      index,
+      count,
+      0L
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.clientState =
+      new SubmissionPublisher<>();
+    this.events =
+      new IdAGEventBus();
+    this.clients =
+      Mockito.mock(IdAClientFactoryType.class);
+    this.client =
+      Mockito.mock(IdAClientAsynchronousType.class);
+
+    Mockito.when(this.clients.openAsynchronousClient(any()))
+      .thenReturn(this.client);
+    Mockito.when(this.client.state())
+      .thenReturn(this.clientState);
+
+    this.clientService =
+      IdAGClientService.create(
+        this.events,
+        this.clients,
+        Locale.ROOT
+      );
+
+    final var page0 = page(1, 3);
+    final var page1 = page(2, 3);
+    final var page2 = page(3, 3);
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserSearchBegin.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserSearchBegin(UUID.randomUUID(), page0)));
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserSearchNext.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserSearchNext(UUID.randomUUID(), page1)))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserSearchNext(UUID.randomUUID(), page2)));
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserSearchPrevious.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserSearchPrevious(UUID.randomUUID(), page1)));
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserDelete.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserDelete(UUID.randomUUID())));
+  }
+
+  /**
+   * Revisiting a page does not require a round trip to the server.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPreviousPageCached()
+    throws Exception
+  {
+    this.clientService.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NONE);
+
+    this.clientService.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    assertEquals(2, this.clientService.userSearchNext().get().pageIndex());
+    assertEquals(1, this.clientService.userSearchPrevious().get().pageIndex());
+    assertEquals(2, this.clientService.userSearchNext().get().pageIndex());
+
+    Mockito.verify(this.client, Mockito.never())
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchPrevious.class), any());
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchNext.class), any());
+
+    final var statistics = this.clientService.userPageCacheStatistics();
+    assertEquals(2L, statistics.hits());
+    assertTrue(statistics.misses() >= 1L);
+  }
+
+  /**
+   * Mutating users invalidates the cache, and the server cursor is walked
+   * back to the requested page.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testInvalidatedWalksCursor()
+    throws Exception
+  {
+    this.clientService.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NONE);
+
+    this.clientService.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    assertEquals(2, this.clientService.userSearchNext().get().pageIndex());
+    assertEquals(3, this.clientService.userSearchNext().get().pageIndex());
+    assertEquals(2, this.clientService.userSearchPrevious().get().pageIndex());
+
+    this.clientService.userDelete(UUID.randomUUID()).get();
+    assertEquals(0, this.clientService.userPageCacheStatistics().size());
+
+    /*
+     * The server cursor is on page 3, and the UI is showing page 2. Moving
+     * back to page 1 requires two "previous" commands.
+     */
+
+    this.clientService.userSearchPrevious().get();
+
+    Mockito.verify(this.client, Mockito.times(2))
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchPrevious.class), any());
+  }
+
+  /**
+   * The next page is prefetched as soon as a page arrives, so moving to the
+   * next page does not wait for the server.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPrefetchNext()
+    throws Exception
+  {
+    this.clientService.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NEXT);
+
+    this.clientService.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchNext.class), any());
+
+    assertEquals(2, this.clientService.userSearchNext().get().pageIndex());
+    assertEquals(3, this.clientService.userSearchNext().get().pageIndex());
+    assertEquals(2, this.clientService.userSearchPrevious().get().pageIndex());
+
+    Mockito.verify(this.client, Mockito.times(2))
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchNext.class), any());
+    Mockito.verify(this.client, Mockito.never())
+      .executeAsyncOrElseThrow(any(IdACommandUserSearchPrevious.class), any());
+
+    final var statistics = this.clientService.userPageCacheStatistics();
+    assertEquals(3L, statistics.hits());
+    assertEquals(0L, statistics.misses());
+  }
+
+  /**
+   * Searches use the configured page size, and changes to the configuration
+   * apply to the next search.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPageSizeConfigured()
+    throws Exception
+  {
+    final var paging =
+      new AtomicReference<>(
+        new IdAGPreferencesPaging(
+          25, 100, 100, IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED)
+      );
+
+    final var service =
+      IdAGClientService.create(
+        this.events,
+        this.clients,
+        Locale.ROOT,
+        paging::get
+      );
+
+    service.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NONE);
+    service.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    paging.set(
+      new IdAGPreferencesPaging(
+        50, 100, 100, IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED)
+    );
+
+    service.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    assertEquals(List.of(25, 50), this.userSearchLimits());
+  }
+
+  /**
+   * Adaptive page sizes grow when the server responds quickly.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPageSizeAdaptiveGrows()
+    throws Exception
+  {
+    final var service =
+      IdAGClientService.create(
+        this.events,
+        this.clients,
+        Locale.ROOT,
+        () -> new IdAGPreferencesPaging(
+          100, 100, 100, IdAGPreferencesPageSizeMode.PAGE_SIZE_ADAPTIVE)
+      );
+
+    service.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NONE);
+    for (int index = 0; index < 4; ++index) {
+      service.userSearchBegin(
+        IdTimeRange.largest(),
+        IdTimeRange.largest(),
+        Optional.empty()
+      ).get();
+    }
+
+    assertEquals(List.of(100, 100, 100, 200), this.userSearchLimits());
+  }
+
+  /**
+   * Page sizes are clamped to a sensible range.
+   */
+
+  @Test
+  public void testPageSizeClamped()
+  {
+    final var paging =
+      new IdAGPreferencesPaging(
+        0, 1_000_000, 100, IdAGPreferencesPageSizeMode.PAGE_SIZE_FIXED);
+
+    assertEquals(IdAGPreferencesPaging.PAGE_SIZE_MINIMUM, paging.userPageSize());
+    assertEquals(IdAGPreferencesPaging.PAGE_SIZE_MAXIMUM, paging.adminPageSize());
+  }
+
+  private List<Integer> userSearchLimits()
+  {
+    final var captor =
+      ArgumentCaptor.forClass(IdACommandUserSearchBegin.class);
+
+    Mockito.verify(this.client, Mockito.atLeastOnce())
+      .executeAsyncOrElseThrow(captor.capture(), any());
+
+    return captor.getAllValues()
+      .stream()
+      .map(c -> Integer.valueOf(c.parameters().limit()))
+      .toList();
+  }
+
+  /**
+   * A page move that is queued behind another move, and is then superseded
+   * by a new search, completes with the first page of the new search rather
+   * than failing.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSupersededMoveCompletes()
+    throws Exception
+  {
+    this.clientService.setPagePrefetch(IdAGPagePrefetch.PREFETCH_NONE);
+
+    this.clientService.userSearchBegin(
+      IdTimeRange.largest(),
+      IdTimeRange.largest(),
+      Optional.empty()
+    ).get();
+
+    final var pending =
+      new CompletableFuture<IdAResponseType>();
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserSearchNext.class), any()))
+      .thenReturn(pending);
+
+    final var inFlight =
+      this.clientService.userSearchNext();
+    final var queued =
+      this.clientService.userSearchNext();
+    final var search =
+      this.clientService.userSearchBegin(
+        IdTimeRange.largest(),
+        IdTimeRange.largest(),
+        Optional.of("x")
+      );
+
+    pending.complete(
+      new IdAResponseUserSearchNext(UUID.randomUUID(), page(2, 3)));
+
+    assertEquals(2, inFlight.get().pageIndex());
+    assertEquals(1, search.get().pageIndex());
+    assertEquals(1, queued.get().pageIndex());
+    assertFalse(queued.isCompletedExceptionally());
+  }
+
+  /**
+   * The page cache evicts the least recently used pages.
+   */
+
+  @Test
+  public void testCacheEviction()
+  {
+    final var cache = new IdAGPageCache<IdUserSummary>(2);
+    cache.put("a", page(1, 3));
+    cache.put("a", page(2, 3));
+    assertTrue(cache.get("a", 1).isPresent());
+    cache.put("a", page(3, 3));
+
+    assertTrue(cache.get("a", 1).isPresent());
+    assertTrue(cache.get("a", 2).isEmpty());
+    assertTrue(cache.get("a", 3).isPresent());
+    assertTrue(cache.get("b", 3).isEmpty());
+
+    final var statistics = cache.statistics();
+    assertEquals(3L, statistics.hits());
+    assertEquals(2L, statistics.misses());
+    assertEquals(2, statistics.size());
+  }
+}
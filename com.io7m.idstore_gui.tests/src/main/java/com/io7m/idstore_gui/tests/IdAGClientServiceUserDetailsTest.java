@@ -0,0 +1,316 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.model.IdName;
+import com.io7m.idstore.model.IdUser;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserBanGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserLoginHistory;
+import com.io7m.idstore.protocol.admin.IdACommandUserUpdate;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserBanGet;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseUserLoginHistory;
+import com.io7m.idstore.protocol.admin.IdAResponseUserUpdate;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityChangedEvent;
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityKind;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.io7m.idstore_gui.tests.IdTestUsers.TEST_USER_0;
+import static com.io7m.idstore_gui.tests.IdTestUsers.TEST_USER_1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGClientServiceUserDetailsTest
+{
+  private IdAGEventBus events;
+  private IdAClientFactoryType clients;
+  private IdAClientAsynchronousType client;
+  private IdAGClientService clientService;
+  private SubmissionPublisher<
+    HBStateType<
+      IdACommandType<?>,
+      IdAResponseType,
+      IdAResponseError,
+      IdAClientCredentials>
+    > clientState;
+
+  private static CompletableFuture<IdAResponseType> userResponse()
+  {
+    return CompletableFuture.completedFuture(
+      new IdAResponseUserGet(UUID.randomUUID(), Optional.of(TEST_USER_0)));
+  }
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.clientState =
+      new SubmissionPublisher<>();
+    this.events =
+      new IdAGEventBus();
+    this.clients =
+      Mockito.mock(IdAClientFactoryType.class);
+    this.client =
+      Mockito.mock(IdAClientAsynchronousType.class);
+
+    Mockito.when(this.clients.openAsynchronousClient(any()))
+      .thenReturn(this.client);
+    Mockito.when(this.client.state())
+      .thenReturn(this.clientState);
+
+    this.clientService =
+      IdAGClientService.create(
+        this.events,
+        this.clients,
+        Locale.ROOT
+      );
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserBanGet.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserBanGet(UUID.randomUUID(), Optional.empty())));
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserLoginHistory.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserLoginHistory(UUID.randomUUID(), List.of())));
+  }
+
+  /**
+   * The user, ban, and login history are combined into one result.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testDetailsCombined()
+    throws Exception
+  {
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(userResponse());
+
+    final var details =
+      this.clientService.userDetails(TEST_USER_0.id())
+        .get(5L, TimeUnit.SECONDS)
+        .orElseThrow();
+
+    assertEquals(TEST_USER_0, details.user());
+    assertEquals(Optional.empty(), details.ban());
+    assertEquals(List.of(), details.loginHistory());
+  }
+
+  /**
+   * Details requested whilst another load is in progress replace any load
+   * that is waiting, and the replaced load is never started.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStaleAbandoned()
+    throws Exception
+  {
+    final var blocked = new CompletableFuture<IdAResponseType>();
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(blocked)
+      .thenReturn(userResponse());
+
+    final var future0 =
+      this.clientService.userDetails(UUID.randomUUID());
+    final var future1 =
+      this.clientService.userDetails(UUID.randomUUID());
+    final var future2 =
+      this.clientService.userDetails(TEST_USER_0.id());
+
+    assertTrue(future1.isCancelled());
+    assertFalse(future2.isDone());
+
+    blocked.complete(
+      new IdAResponseUserGet(UUID.randomUUID(), Optional.empty()));
+
+    assertEquals(Optional.empty(), future0.get(5L, TimeUnit.SECONDS));
+    assertTrue(future2.get(5L, TimeUnit.SECONDS).isPresent());
+
+    Mockito.verify(this.client, Mockito.times(2))
+      .executeAsyncOrElseThrow(any(IdACommandUserGet.class), any());
+  }
+
+  /**
+   * Details that were loaded recently are not loaded again, and updates
+   * made through the client service are visible immediately.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testReselectCached()
+    throws Exception
+  {
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(userResponse());
+
+    this.clientService.userDetails(TEST_USER_0.id())
+      .get(5L, TimeUnit.SECONDS);
+    this.clientService.userDetails(TEST_USER_0.id())
+      .get(5L, TimeUnit.SECONDS);
+
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserGet.class), any());
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserBanGet.class), any());
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserLoginHistory.class), any());
+
+    final var updated = TEST_USER_1;
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserUpdate.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserUpdate(UUID.randomUUID(), updated)));
+
+    this.clientService.userUpdate(
+      updated.id(),
+      Optional.empty(),
+      Optional.empty(),
+      Optional.empty()
+    ).get(5L, TimeUnit.SECONDS);
+
+    assertEquals(
+      Optional.of(updated),
+      this.clientService.userGet(updated.id()).get(5L, TimeUnit.SECONDS)
+    );
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserGet.class), any());
+  }
+
+  /**
+   * A read that completes after an update does not replace the updated
+   * user in the cache.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStaleReadAfterUpdate()
+    throws Exception
+  {
+    final var blocked = new CompletableFuture<IdAResponseType>();
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenReturn(blocked);
+
+    final var updated =
+      new IdUser(
+        TEST_USER_0.id(),
+        new IdName("renamed"),
+        TEST_USER_0.realName(),
+        TEST_USER_0.emails(),
+        TEST_USER_0.timeCreated(),
+        TEST_USER_0.timeUpdated(),
+        TEST_USER_0.password()
+      );
+
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserUpdate.class), any()))
+      .thenReturn(CompletableFuture.completedFuture(
+        new IdAResponseUserUpdate(UUID.randomUUID(), updated)));
+
+    final var read =
+      this.clientService.userGet(TEST_USER_0.id());
+
+    this.clientService.userUpdate(
+      updated.id(),
+      Optional.of(updated.idName()),
+      Optional.empty(),
+      Optional.empty()
+    ).get(5L, TimeUnit.SECONDS);
+
+    blocked.complete(
+      new IdAResponseUserGet(UUID.randomUUID(), Optional.of(TEST_USER_0)));
+    assertEquals(Optional.of(TEST_USER_0), read.get(5L, TimeUnit.SECONDS));
+
+    assertEquals(
+      Optional.of(updated),
+      this.clientService.userGet(updated.id()).get(5L, TimeUnit.SECONDS)
+    );
+    Mockito.verify(this.client, Mockito.times(1))
+      .executeAsyncOrElseThrow(any(IdACommandUserGet.class), any());
+  }
+
+  /**
+   * An entity change published on the event bus discards the cached
+   * entity.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testEntityChangedInvalidates()
+    throws Exception
+  {
+    final var reads = new AtomicInteger(0);
+    Mockito.when(this.client.executeAsyncOrElseThrow(
+        any(IdACommandUserGet.class), any()))
+      .thenAnswer(invocation -> {
+        reads.incrementAndGet();
+        return userResponse();
+      });
+
+    final var id = TEST_USER_0.id();
+    this.clientService.userGet(id).get(5L, TimeUnit.SECONDS);
+    this.clientService.userGet(id).get(5L, TimeUnit.SECONDS);
+    assertEquals(1, reads.get());
+
+    this.events.submit(new IdAGEntityChangedEvent(IdAGEntityKind.USER, id));
+
+    final var timeLimit = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+    while (reads.get() == 1 && System.nanoTime() < timeLimit) {
+      Thread.sleep(10L);
+      this.clientService.userGet(id).get(5L, TimeUnit.SECONDS);
+    }
+    assertEquals(2, reads.get());
+  }
+}
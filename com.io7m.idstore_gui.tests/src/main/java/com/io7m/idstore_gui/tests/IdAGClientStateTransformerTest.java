@@ -0,0 +1,84 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserDelete;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientStateTransformer;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class IdAGClientStateTransformerTest
+{
+  private static HBStateType<
+    IdACommandType<?>,
+    IdAResponseType,
+    IdAResponseError,
+    IdAClientCredentials> succeeded(
+    final IdACommandType<?> command)
+  {
+    return new HBStateExecutingCommandSucceeded<>(
+      command,
+      new IdAResponseUserGet(UUID.randomUUID(), Optional.empty())
+    );
+  }
+
+  /**
+   * Successful commands of the same class share a single event.
+   */
+
+  @Test
+  public void testSucceededShared()
+  {
+    final var e0 =
+      IdAGClientStateTransformer.transform(
+        succeeded(new IdACommandUserGet(UUID.randomUUID())));
+    final var e1 =
+      IdAGClientStateTransformer.transform(
+        succeeded(new IdACommandUserGet(UUID.randomUUID())));
+    final var e2 =
+      IdAGClientStateTransformer.transform(
+        succeeded(new IdACommandUserDelete(UUID.randomUUID())));
+
+    assertSame(e0, e1);
+    assertNotSame(e0, e2);
+
+    final var event = e0.orElseThrow();
+    assertEquals("Executed IdACommandUserGet successfully.", event.message());
+    assertInstanceOf(IdAGEventStatusCompleted.class, event.status());
+    assertEquals(
+      "Executed IdACommandUserDelete successfully.",
+      e2.orElseThrow().message()
+    );
+  }
+}
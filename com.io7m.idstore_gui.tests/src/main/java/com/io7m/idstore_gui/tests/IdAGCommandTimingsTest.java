@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchNext;
+import com.io7m.idstore_gui.admin.internal.client.IdAGCommandHistogram;
+import com.io7m.idstore_gui.admin.internal.client.IdAGCommandTimings;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGCommandTimingsTest
+{
+  private static void assertWithinPrecision(
+    final long expected,
+    final Duration received)
+  {
+    final var error =
+      Math.abs(received.toNanos() - expected) / (double) expected;
+    assertTrue(
+      error <= 1.0 / 16.0,
+      "%d must be within 1/16 of %d".formatted(
+        Long.valueOf(received.toNanos()),
+        Long.valueOf(expected))
+    );
+  }
+
+  /**
+   * An empty histogram reports zero.
+   */
+
+  @Test
+  public void testHistogramEmpty()
+  {
+    final var h = new IdAGCommandHistogram();
+    assertEquals(0L, h.count());
+    assertEquals(Duration.ZERO, h.percentile(50.0));
+    assertEquals(Duration.ZERO, h.maximum());
+  }
+
+  /**
+   * Percentiles are accurate to the precision of the histogram over a
+   * wide range of magnitudes.
+   */
+
+  @Test
+  public void testHistogramPercentiles()
+  {
+    for (final var scale : new long[]{1L, 1_000L, 1_000_000L, 1_000_000_000L}) {
+      final var h = new IdAGCommandHistogram();
+      for (long value = 1L; value <= 1000L; ++value) {
+        h.record(value * scale);
+      }
+
+      assertEquals(1000L, h.count());
+      assertEquals(Duration.ofNanos(1000L * scale), h.maximum());
+      if (scale > 1L) {
+        assertWithinPrecision(500L * scale, h.percentile(50.0));
+        assertWithinPrecision(900L * scale, h.percentile(90.0));
+        assertWithinPrecision(990L * scale, h.percentile(99.0));
+      }
+      assertEquals(h.maximum(), h.percentile(100.0));
+    }
+  }
+
+  /**
+   * Negative durations are recorded as zero, and invalid percentiles are
+   * rejected.
+   */
+
+  @Test
+  public void testHistogramInvalid()
+  {
+    final var h = new IdAGCommandHistogram();
+    h.record(-1L);
+    assertEquals(1L, h.count());
+    assertEquals(Duration.ZERO, h.percentile(100.0));
+
+    assertThrows(IllegalArgumentException.class, () -> h.percentile(-1.0));
+    assertThrows(IllegalArgumentException.class, () -> h.percentile(101.0));
+    assertThrows(
+      IllegalArgumentException.class, () -> h.percentile(Double.NaN));
+  }
+
+  /**
+   * Concurrent recording loses no values.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testHistogramConcurrent()
+    throws Exception
+  {
+    final var h = new IdAGCommandHistogram();
+    final var executor = Executors.newFixedThreadPool(4);
+    try {
+      final var futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 4; ++thread) {
+        futures.add(executor.submit(() -> {
+          for (long value = 0L; value < 100_000L; ++value) {
+            h.record(value);
+          }
+        }));
+      }
+      for (final var future : futures) {
+        future.get(1L, TimeUnit.MINUTES);
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(400_000L, h.count());
+  }
+
+  /**
+   * Timings are kept per command class, along with success, failure, and
+   * in-flight counts.
+   */
+
+  @Test
+  public void testTimingsCounters()
+  {
+    final var timings = new IdAGCommandTimings();
+    final var get = timings.timing(IdACommandUserGet.class);
+    assertSame(get, timings.timing(IdACommandUserGet.class));
+
+    final var t0 = get.start();
+    final var t1 = get.start();
+    final var t2 = get.start();
+    get.finish(t0, true);
+    get.finish(t1, false);
+
+    final var next = timings.timing(IdACommandUserSearchNext.class);
+    next.finish(next.start(), true);
+
+    final var statistics = timings.statistics();
+    assertEquals(2, statistics.size());
+
+    final var s0 = statistics.get(0);
+    assertEquals("IdACommandUserGet", s0.command());
+    assertEquals(1L, s0.succeeded());
+    assertEquals(1L, s0.failed());
+    assertEquals(1L, s0.inFlight());
+
+    final var s1 = statistics.get(1);
+    assertEquals("IdACommandUserSearchNext", s1.command());
+    assertEquals(1L, s1.succeeded());
+    assertEquals(0L, s1.failed());
+    assertEquals(0L, s1.inFlight());
+
+    get.finish(t2, true);
+    assertEquals(0L, timings.statistics().get(0).inFlight());
+  }
+
+  /**
+   * Logins are only reported once one has been attempted.
+   */
+
+  @Test
+  public void testTimingsLogin()
+  {
+    final var timings = new IdAGCommandTimings();
+    assertEquals(0, timings.statistics().size());
+
+    final var login = timings.login();
+    login.finish(login.start(), true);
+    assertEquals("Login", timings.statistics().get(0).command());
+  }
+
+  /**
+   * Statistics are exported as CSV.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testExportCSV()
+    throws Exception
+  {
+    final var timings = new IdAGCommandTimings();
+    final var get = timings.timing(IdACommandUserGet.class);
+    get.finish(get.start(), true);
+
+    final var writer = new StringWriter();
+    IdAGCommandTimings.exportCSV(writer, timings.statistics());
+
+    final var lines = writer.toString().split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(
+      "command,succeeded,failed,in_flight,p50_us,p90_us,p99_us,max_us",
+      lines[0]);
+    assertTrue(lines[1].startsWith("IdACommandUserGet,1,0,0,"));
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdEmail;
+import com.io7m.idstore_gui.admin.internal.IdAGStrings;
+import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
+import com.io7m.idstore_gui.admin.internal.dialogs.IdAGDialogPoolService;
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUserEmailAddController;
+import com.io7m.idstore_gui.admin.internal.users.IdAGUserEmailAddControllers;
+import com.io7m.percentpass.extension.PercentPassing;
+import com.io7m.repetoir.core.RPServiceDirectory;
+import com.io7m.xoanon.extension.XoBots;
+import com.io7m.xoanon.extension.XoExtension;
+import com.io7m.xoanon.extension.XoFXThread;
+import javafx.application.Platform;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static javafx.scene.input.KeyCode.A;
+import static javafx.scene.input.KeyCode.C;
+import static javafx.scene.input.KeyCode.E;
+import static javafx.scene.input.KeyCode.M;
+import static javafx.scene.input.KeyCode.O;
+import static javafx.scene.input.KeyCode.PERIOD;
+import static javafx.scene.input.KeyCode.QUOTE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(XoExtension.class)
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+public final class IdAGDialogPoolTest
+{
+  private IdAGStringsType strings;
+  private IdAGTemporaryConfiguration configuration;
+  private RPServiceDirectory services;
+  private IdAGDialogPoolService pool;
+  private IdAGUserEmailAddControllers factory;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.strings =
+      new IdAGStrings(Locale.ROOT);
+    this.configuration =
+      new IdAGTemporaryConfiguration();
+    this.pool =
+      new IdAGDialogPoolService();
+
+    this.services = new RPServiceDirectory();
+    this.services.register(IdAGDialogPoolService.class, this.pool);
+
+    this.factory =
+      new IdAGUserEmailAddControllers(
+        this.services,
+        this.configuration.configuration(),
+        this.strings
+      );
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.configuration.close();
+  }
+
+  /**
+   * Warming a factory places exactly one idle dialog into the pool.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWarm()
+    throws Exception
+  {
+    XoFXThread.run(() -> {
+      assertFalse(this.pool.isIdle(IdAGUserEmailAddController.class));
+
+      this.factory.warm();
+      this.factory.warm();
+      assertTrue(this.pool.isIdle(IdAGUserEmailAddController.class));
+
+      final var taken =
+        this.pool.take(IdAGUserEmailAddController.class);
+      assertTrue(taken.isPresent());
+      assertFalse(this.pool.isIdle(IdAGUserEmailAddController.class));
+      assertEquals(
+        Optional.empty(),
+        this.pool.take(IdAGUserEmailAddController.class)
+      );
+
+      assertEquals(1L, this.pool.hits());
+      assertEquals(1L, this.pool.misses());
+      return null;
+    }).get();
+  }
+
+  /**
+   * Opening a pooled dialog reuses the warmed stage and controller, and
+   * resets the controller between uses.
+   *
+   * @param stage The stage
+   *
+   * @throws Exception On errors
+   */
+
+  @PercentPassing(executionCount = 3, passPercent = 33.0)
+  public void testOpenReusesAndResets(
+    final Stage stage)
+    throws Exception
+  {
+    /*
+     * Arrange.
+     */
+
+    final IdAGControllerAndStage<IdAGUserEmailAddController> warmed =
+      XoFXThread.run(() -> {
+        this.factory.warm();
+        final var dialog =
+          this.pool.take(IdAGUserEmailAddController.class)
+            .orElseThrow();
+        this.pool.give(IdAGUserEmailAddController.class, dialog);
+        return dialog;
+      }).get();
+
+    final var bot =
+      XoBots.createForStage(warmed.stage());
+
+    /*
+     * Act: Add an address.
+     */
+
+    final var firstResult = this.openLater();
+
+    final var addButton =
+      (Button) bot.findWithId("buttonCreate");
+    final var emailField =
+      (TextField) bot.findWithId("emailField");
+
+    bot.click(emailField);
+    bot.type(emailField, A);
+    bot.typeWithShift(emailField, QUOTE);
+    bot.type(emailField, E, PERIOD, C, O, M);
+    bot.click(addButton);
+    bot.waitForStageToClose(1_000L);
+
+    final var first =
+      firstResult.get(5L, TimeUnit.SECONDS);
+
+    assertSame(warmed.controller(), first);
+    assertEquals(
+      new IdEmail("a@e.com"),
+      first.result().orElseThrow()
+    );
+
+    /*
+     * Act: Open the same dialog again and cancel it.
+     */
+
+    final var secondResult = this.openLater();
+
+    XoFXThread.runAndWait(1L, TimeUnit.SECONDS, () -> {
+      assertTrue(warmed.stage().isShowing());
+      assertEquals("", emailField.getText());
+      assertTrue(addButton.isDisable());
+      return null;
+    });
+
+    bot.click((Button) bot.findWithId("buttonCancel"));
+    bot.waitForStageToClose(1_000L);
+
+    final var second =
+      secondResult.get(5L, TimeUnit.SECONDS);
+
+    /*
+     * Assert.
+     */
+
+    assertSame(warmed.controller(), second);
+    assertEquals(Optional.empty(), second.result());
+    assertTrue(this.pool.isIdle(IdAGUserEmailAddController.class));
+    assertEquals(0L, this.pool.misses());
+  }
+
+  private CompletableFuture<IdAGUserEmailAddController> openLater()
+  {
+    final var future = new CompletableFuture<IdAGUserEmailAddController>();
+    Platform.runLater(() -> {
+      try {
+        future.complete(this.factory.openDialogAndWait(null));
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+}
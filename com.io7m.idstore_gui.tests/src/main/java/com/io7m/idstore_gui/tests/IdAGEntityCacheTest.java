@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.client.IdAGEntityCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGEntityCacheTest
+{
+  /**
+   * Entities expire after the configured time.
+   */
+
+  @Test
+  public void testExpiry()
+  {
+    final var time = new AtomicLong(0L);
+    final var cache =
+      new IdAGEntityCache<String, Integer>(
+        8, Duration.ofSeconds(10L), time::get);
+
+    cache.put("a", 1);
+    time.set(Duration.ofSeconds(9L).toNanos());
+    assertEquals(Optional.of(1), cache.get("a"));
+
+    time.set(Duration.ofSeconds(10L).toNanos());
+    assertEquals(Optional.empty(), cache.get("a"));
+    assertEquals(0, cache.size());
+  }
+
+  /**
+   * Writing an entity restarts its expiry.
+   */
+
+  @Test
+  public void testRewriteRefreshes()
+  {
+    final var time = new AtomicLong(0L);
+    final var cache =
+      new IdAGEntityCache<String, Integer>(
+        8, Duration.ofSeconds(10L), time::get);
+
+    cache.put("a", 1);
+    time.set(Duration.ofSeconds(8L).toNanos());
+    cache.put("a", 2);
+    time.set(Duration.ofSeconds(16L).toNanos());
+    assertEquals(Optional.of(2), cache.get("a"));
+  }
+
+  /**
+   * The least recently used entity is evicted when the cache is full.
+   */
+
+  @Test
+  public void testEviction()
+  {
+    final var cache =
+      new IdAGEntityCache<String, Integer>(2, Duration.ofMinutes(1L));
+
+    cache.put("a", 1);
+    cache.put("b", 2);
+    cache.get("a");
+    cache.put("c", 3);
+
+    assertEquals(Optional.of(1), cache.get("a"));
+    assertEquals(Optional.empty(), cache.get("b"));
+    assertEquals(Optional.of(3), cache.get("c"));
+
+    cache.remove("a");
+    assertEquals(Optional.empty(), cache.get("a"));
+  }
+
+  /**
+   * A read that started before a write cannot replace the written entity.
+   */
+
+  @Test
+  public void testStaleReadRefused()
+  {
+    final var cache =
+      new IdAGEntityCache<String, Integer>(8, Duration.ofMinutes(1L));
+
+    final var version = cache.version();
+    cache.put("a", 2);
+    assertFalse(cache.putIfUnchanged("a", 1, version));
+    assertEquals(Optional.of(2), cache.get("a"));
+
+    assertTrue(cache.putIfUnchanged("a", 3, cache.version()));
+    assertEquals(Optional.of(3), cache.get("a"));
+    assertTrue(cache.putIfUnchanged("b", 4, version));
+  }
+
+  /**
+   * A read that started before an entity was removed, evicted, or cleared
+   * cannot restore the entity.
+   */
+
+  @Test
+  public void testStaleReadAfterRemovalRefused()
+  {
+    final var cache =
+      new IdAGEntityCache<String, Integer>(2, Duration.ofMinutes(1L));
+
+    final var version0 = cache.version();
+    cache.remove("a");
+    assertFalse(cache.putIfUnchanged("a", 1, version0));
+    assertEquals(Optional.empty(), cache.get("a"));
+
+    final var version1 = cache.version();
+    cache.put("b", 1);
+    cache.put("c", 2);
+    cache.put("d", 3);
+    assertEquals(Optional.empty(), cache.get("b"));
+    assertFalse(cache.putIfUnchanged("b", 0, version1));
+
+    final var version2 = cache.version();
+    cache.clear();
+    assertFalse(cache.putIfUnchanged("e", 4, version2));
+    assertTrue(cache.putIfUnchanged("e", 4, cache.version()));
+    assertEquals(Optional.of(4), cache.get("e"));
+  }
+
+  /**
+   * The capacity must be positive.
+   */
+
+  @Test
+  public void testCapacityInvalid()
+  {
+    assertThrows(IllegalArgumentException.class, () -> {
+      new IdAGEntityCache<String, Integer>(0, Duration.ofMinutes(1L));
+    });
+  }
+}
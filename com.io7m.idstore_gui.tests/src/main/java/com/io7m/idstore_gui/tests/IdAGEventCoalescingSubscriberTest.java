@@ -0,0 +1,253 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.error_codes.IdStandardErrorCodes;
+import com.io7m.idstore_gui.admin.internal.bulk.IdAGBulkEvent;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBusConfiguration;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventCoalescingSubscriber;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventOverflowPolicy;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusCompleted;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusFailed;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventStatusInProgress;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventType;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportEvent;
+import com.io7m.taskrecorder.core.TRTaskRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public final class IdAGEventCoalescingSubscriberTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGEventCoalescingSubscriberTest.class);
+
+  private LinkedList<Runnable> deliveries;
+  private ArrayList<List<IdAGEventType>> batches;
+  private Subscription subscription;
+
+  private static final class Subscription implements Flow.Subscription
+  {
+    private long requested;
+    private boolean cancelled;
+
+    Subscription()
+    {
+
+    }
+
+    @Override
+    public void request(
+      final long n)
+    {
+      this.requested += n;
+    }
+
+    @Override
+    public void cancel()
+    {
+      this.cancelled = true;
+    }
+  }
+
+  private static IdAGEventType progress(
+    final int index)
+  {
+    return new IdAGBulkEvent(
+      "Progress " + index,
+      new IdAGEventStatusInProgress(OptionalDouble.of(index / 100.0))
+    );
+  }
+
+  private static IdAGEventType completed(
+    final int index)
+  {
+    return new IdAGUserImportEvent(
+      "Completed " + index,
+      new IdAGEventStatusCompleted()
+    );
+  }
+
+  private static IdAGEventType failed(
+    final int index)
+  {
+    final var message = "Failed " + index;
+    final var recorder = TRTaskRecorder.<Void>create(LOG, message);
+    recorder.setTaskFailed(message);
+
+    return new IdAGUserImportEvent(
+      message,
+      new IdAGEventStatusFailed(
+        recorder.toTask(),
+        IdStandardErrorCodes.IO_ERROR,
+        message,
+        Map.of(),
+        Optional.empty(),
+        Optional.empty()
+      )
+    );
+  }
+
+  private IdAGEventCoalescingSubscriber subscriber(
+    final int size,
+    final IdAGEventOverflowPolicy policy)
+  {
+    final var subscriber =
+      new IdAGEventCoalescingSubscriber(
+        new IdAGEventBusConfiguration(size, policy),
+        this.deliveries::add,
+        this.batches::add
+      );
+    subscriber.onSubscribe(this.subscription);
+    return subscriber;
+  }
+
+  private void runDeliveries()
+  {
+    while (!this.deliveries.isEmpty()) {
+      this.deliveries.removeFirst().run();
+    }
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.deliveries = new LinkedList<>();
+    this.batches = new ArrayList<>();
+    this.subscription = new Subscription();
+  }
+
+  /**
+   * Any number of events published between deliveries result in exactly
+   * one delivery, and superseded in-progress events are discarded.
+   */
+
+  @Test
+  public void testCoalescesProgress()
+  {
+    final var subscriber =
+      this.subscriber(16, IdAGEventOverflowPolicy.DROP_OLDEST);
+
+    for (int index = 0; index < 1000; ++index) {
+      subscriber.onNext(progress(index));
+    }
+    subscriber.onNext(completed(0));
+
+    assertEquals(1, this.deliveries.size());
+    this.runDeliveries();
+
+    assertEquals(1, this.batches.size());
+    final var batch = this.batches.get(0);
+    assertEquals(2, batch.size());
+    assertEquals("Progress 999", batch.get(0).message());
+    assertEquals("Completed 0", batch.get(1).message());
+    assertEquals(999L, subscriber.coalescedCount());
+    assertEquals(0L, subscriber.droppedCount());
+  }
+
+  /**
+   * Failures survive overflow under the drop-oldest policy.
+   */
+
+  @Test
+  public void testDropOldestKeepsFailures()
+  {
+    final var subscriber =
+      this.subscriber(4, IdAGEventOverflowPolicy.DROP_OLDEST);
+
+    subscriber.onNext(failed(0));
+    subscriber.onNext(failed(1));
+    for (int index = 0; index < 10; ++index) {
+      subscriber.onNext(completed(index));
+    }
+
+    this.runDeliveries();
+
+    final var batch = this.batches.get(0);
+    assertEquals(4, batch.size());
+    assertInstanceOf(IdAGEventStatusFailed.class, batch.get(0).status());
+    assertInstanceOf(IdAGEventStatusFailed.class, batch.get(1).status());
+    assertEquals("Completed 8", batch.get(2).message());
+    assertEquals("Completed 9", batch.get(3).message());
+    assertEquals(8L, subscriber.droppedCount());
+  }
+
+  /**
+   * The drop-newest policy discards incoming events, but never failures.
+   */
+
+  @Test
+  public void testDropNewestKeepsFailures()
+  {
+    final var subscriber =
+      this.subscriber(2, IdAGEventOverflowPolicy.DROP_NEWEST);
+
+    subscriber.onNext(completed(0));
+    subscriber.onNext(completed(1));
+    subscriber.onNext(completed(2));
+    subscriber.onNext(failed(0));
+
+    this.runDeliveries();
+
+    final var batch = this.batches.get(0);
+    assertEquals(3, batch.size());
+    assertEquals("Completed 0", batch.get(0).message());
+    assertEquals("Completed 1", batch.get(1).message());
+    assertEquals("Failed 0", batch.get(2).message());
+    assertEquals(1L, subscriber.droppedCount());
+  }
+
+  /**
+   * The blocking policy only requests more events once earlier events
+   * have been delivered.
+   */
+
+  @Test
+  public void testBlockRequestsAfterDelivery()
+  {
+    final var subscriber =
+      this.subscriber(8, IdAGEventOverflowPolicy.BLOCK);
+
+    assertEquals(8L, this.subscription.requested);
+
+    for (int index = 0; index < 8; ++index) {
+      subscriber.onNext(completed(index));
+    }
+    assertEquals(8L, this.subscription.requested);
+
+    this.runDeliveries();
+    assertEquals(16L, this.subscription.requested);
+    assertEquals(8, this.batches.get(0).size());
+    assertEquals(0L, subscriber.droppedCount());
+
+    subscriber.close();
+    assertEquals(true, this.subscription.cancelled);
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
+import com.io7m.percentpass.extension.PercentPassing;
+import com.io7m.xoanon.extension.XoExtension;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(XoExtension.class)
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGFXDispatcherServiceTest
+{
+  /**
+   * Updates submitted from many threads all run on the FX thread, in the
+   * order in which each thread submitted them.
+   *
+   * @param stage The stage
+   *
+   * @throws Exception On errors
+   */
+
+  @PercentPassing(executionCount = 3, passPercent = 33.0)
+  public void testUpdatesRunOnFXThread(
+    final Stage stage)
+    throws Exception
+  {
+    final var threadCount = 4;
+    final var updateCount = 1000;
+
+    try (var dispatcher = new IdAGFXDispatcherService()) {
+      final var latch =
+        new CountDownLatch(threadCount * updateCount);
+      final var offThread =
+        new AtomicInteger();
+      final var received =
+        new ArrayList<List<Integer>>();
+
+      for (int t = 0; t < threadCount; ++t) {
+        received.add(new ArrayList<>());
+      }
+
+      final var threads = new ArrayList<Thread>();
+      for (int t = 0; t < threadCount; ++t) {
+        final var target = received.get(t);
+        final var thread = new Thread(() -> {
+          for (int index = 0; index < updateCount; ++index) {
+            final var value = Integer.valueOf(index);
+            dispatcher.execute(() -> {
+              if (!Platform.isFxApplicationThread()) {
+                offThread.incrementAndGet();
+              }
+              target.add(value);
+              latch.countDown();
+            });
+          }
+        });
+        thread.start();
+        threads.add(thread);
+      }
+
+      for (final var thread : threads) {
+        thread.join();
+      }
+
+      assertTrue(latch.await(30L, TimeUnit.SECONDS));
+      assertEquals(0, offThread.get());
+      assertEquals(0, dispatcher.queueDepth());
+
+      for (final var values : received) {
+        assertEquals(updateCount, values.size());
+        for (int index = 0; index < updateCount; ++index) {
+          assertEquals(index, values.get(index).intValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * A series of updates runs one update per pulse.
+   *
+   * @param stage The stage
+   *
+   * @throws Exception On errors
+   */
+
+  @PercentPassing(executionCount = 3, passPercent = 33.0)
+  public void testEachPulse(
+    final Stage stage)
+    throws Exception
+  {
+    try (var dispatcher = new IdAGFXDispatcherService()) {
+      final var updateCount = 3;
+      final var pulse =
+        new AtomicLong();
+      final var pulses =
+        new ConcurrentLinkedQueue<Long>();
+      final var latch =
+        new CountDownLatch(updateCount);
+
+      final var counter = new AnimationTimer()
+      {
+        @Override
+        public void handle(
+          final long now)
+        {
+          pulse.incrementAndGet();
+        }
+      };
+
+      /*
+       * The counter is started before the dispatcher arms its own timer, so
+       * it is incremented before the dispatcher drains in each pulse.
+       */
+
+      Platform.runLater(counter::start);
+
+      final var updates = new ArrayList<Runnable>();
+      for (int index = 0; index < updateCount; ++index) {
+        updates.add(() -> {
+          pulses.add(Long.valueOf(pulse.get()));
+          latch.countDown();
+        });
+      }
+
+      dispatcher.executeEachPulse(updates);
+
+      try {
+        assertTrue(latch.await(30L, TimeUnit.SECONDS));
+      } finally {
+        Platform.runLater(counter::stop);
+      }
+
+      assertEquals(updateCount, pulses.size());
+      assertEquals(updateCount, new HashSet<>(pulses).size());
+    }
+  }
+}
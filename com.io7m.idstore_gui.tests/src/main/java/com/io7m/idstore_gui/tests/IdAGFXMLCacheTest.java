@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.IdAGFXMLCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGFXMLCacheTest
+{
+  /**
+   * Every FXML file used by the application can be preloaded.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPreload()
+    throws Exception
+  {
+    assertTrue(IdAGFXMLCache.shared().preload() > 0L);
+  }
+
+  /**
+   * Every preloaded resource exists, and every FXML file shipped with the
+   * application is preloaded.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testPreloadComplete()
+    throws Exception
+  {
+    final var listed =
+      IdAGFXMLCache.preloadedResources();
+    final var cache =
+      IdAGFXMLCache.shared();
+
+    for (final var resource : listed) {
+      assertTrue(cache.document(resource).size() > 0, resource);
+    }
+
+    final var base = "/com/io7m/idstore_gui/admin/internal/";
+    final var uri =
+      IdAGFXMLCache.class.getResource(base + "main.fxml").toURI();
+
+    if (Objects.equals(uri.getScheme(), "jar")) {
+      try (var fs = FileSystems.newFileSystem(uri, Map.of())) {
+        checkListed(listed, base, fs.getPath(base));
+      }
+    } else {
+      checkListed(listed, base, Path.of(uri).getParent());
+    }
+  }
+
+  private static void checkListed(
+    final List<String> listed,
+    final String base,
+    final Path directory)
+    throws IOException
+  {
+    final List<String> shipped;
+    try (var files = Files.list(directory)) {
+      shipped = files
+        .map(file -> file.getFileName().toString())
+        .filter(name -> name.endsWith(".fxml"))
+        .map(name -> base + name)
+        .sorted()
+        .toList();
+    }
+
+    assertFalse(shipped.isEmpty());
+    assertEquals(shipped, listed.stream().sorted().toList());
+  }
+
+  /**
+   * Documents are read once and then served from memory.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCached()
+    throws Exception
+  {
+    final var cache = IdAGFXMLCache.shared();
+    final var name = "/com/io7m/idstore_gui/admin/internal/emailAdd.fxml";
+
+    final var d0 = cache.document(name);
+    final var hits = cache.hits();
+    final var misses = cache.misses();
+    final var d1 = cache.document(name);
+
+    assertSame(d0, d1);
+    assertEquals(hits + 1L, cache.hits());
+    assertEquals(misses, cache.misses());
+    assertTrue(d0.size() > 0);
+    assertTrue(d0.url().toString().endsWith("emailAdd.fxml"));
+  }
+
+  /**
+   * Nonexistent documents are rejected.
+   */
+
+  @Test
+  public void testMissing()
+  {
+    assertThrows(IOException.class, () -> {
+      IdAGFXMLCache.shared()
+        .document("/com/io7m/idstore_gui/admin/internal/nonexistent.fxml");
+    });
+  }
+}
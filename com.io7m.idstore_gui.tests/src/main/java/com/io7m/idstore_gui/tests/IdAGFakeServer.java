@@ -0,0 +1,595 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.hibiscus.api.HBStateType;
+import com.io7m.hibiscus.api.HBStateType.HBStateExecutingCommandSucceeded;
+import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
+import com.io7m.idstore.admin_client.api.IdAClientCredentials;
+import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore.model.IdAdminSummary;
+import com.io7m.idstore.model.IdAuditEvent;
+import com.io7m.idstore.model.IdEmail;
+import com.io7m.idstore.model.IdName;
+import com.io7m.idstore.model.IdNonEmptyList;
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdPassword;
+import com.io7m.idstore.model.IdPasswordAlgorithmPBKDF2HmacSHA256;
+import com.io7m.idstore.model.IdPasswordException;
+import com.io7m.idstore.model.IdRealName;
+import com.io7m.idstore.model.IdUser;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore.model.IdUserSummary;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdACommandAdminSelf;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdACommandType;
+import com.io7m.idstore.protocol.admin.IdACommandUserBanGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserDelete;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserLoginHistory;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseAdminSelf;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseAuditSearchPrevious;
+import com.io7m.idstore.protocol.admin.IdAResponseError;
+import com.io7m.idstore.protocol.admin.IdAResponseLogin;
+import com.io7m.idstore.protocol.admin.IdAResponseType;
+import com.io7m.idstore.protocol.admin.IdAResponseUserBanGet;
+import com.io7m.idstore.protocol.admin.IdAResponseUserDelete;
+import com.io7m.idstore.protocol.admin.IdAResponseUserGet;
+import com.io7m.idstore.protocol.admin.IdAResponseUserLoginHistory;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchBegin;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchNext;
+import com.io7m.idstore.protocol.admin.IdAResponseUserSearchPrevious;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.io7m.idstore_gui.tests.IdTestAdmins.TEST_ADMIN_0;
+
+/**
+ * <p>A fake admin server, reached through a fake asynchronous client.</p>
+ *
+ * <p>The server holds a generated dataset of users, admins, and audit
+ * events, and answers the search and user-detail commands that the admin
+ * GUI uses when browsing. Every command is answered after the configured
+ * latency plus a uniformly distributed jitter, and fails with a transport
+ * error at the configured rate. Commands that the server does not
+ * understand fail with {@link UnsupportedOperationException}.</p>
+ *
+ * <p>Every client opened through {@link #clients()} is a separate session
+ * with its own search cursors, as on a real server. Audit searches are
+ * filtered naively by time range, owner, type, and message, so that the
+ * server can serve as a reference for the GUI's local audit store.</p>
+ *
+ * <p>The client is a dynamic proxy; only {@code state},
+ * {@code loginAsyncOrElseThrow}, {@code executeAsyncOrElseThrow},
+ * {@code disconnectAsync}, and {@code close} are implemented.</p>
+ */
+
+public final class IdAGFakeServer implements AutoCloseable
+{
+  private static final List<String> AUDIT_TYPES =
+    List.of("USER_UPDATED", "USER_CREATED", "ADMIN_UPDATED");
+
+  private final IdAGFakeServerConfiguration configuration;
+  private final ScheduledExecutorService executor;
+  private final Random random;
+  private final List<IdUserSummary> users;
+  private final List<IdAdminSummary> admins;
+  private final List<IdAuditEvent> auditEvents;
+  private final IdPassword password;
+  private final Map<Class<?>, LongAdder> received;
+  private final List<Session> sessions;
+  private final Session session;
+
+  private final class Session
+  {
+    private final SubmissionPublisher<HBStateType<
+      IdACommandType<?>,
+      IdAResponseType,
+      IdAResponseError,
+      IdAClientCredentials>> states;
+    private final IdAClientAsynchronousType client;
+    private Cursor<IdUserSummary> userCursor;
+    private Cursor<IdAdminSummary> adminCursor;
+    private Cursor<IdAuditEvent> auditCursor;
+    private final Set<Class<?>> received;
+    private boolean opened;
+
+    Session()
+    {
+      final var server = IdAGFakeServer.this;
+      this.states = new SubmissionPublisher<>();
+      this.userCursor = new Cursor<>(server.users, 1);
+      this.adminCursor = new Cursor<>(server.admins, 1);
+      this.auditCursor = new Cursor<>(server.auditEvents, 1);
+      this.received = ConcurrentHashMap.newKeySet();
+      this.client = (IdAClientAsynchronousType) Proxy.newProxyInstance(
+        IdAGFakeServer.class.getClassLoader(),
+        new Class<?>[]{IdAClientAsynchronousType.class},
+        (proxy, method, args) -> server.invokeClient(this, proxy, method, args)
+      );
+    }
+  }
+
+  private static final class Cursor<T>
+  {
+    private final List<T> items;
+    private final int limit;
+    private final int pageCount;
+    private int pageIndex;
+
+    Cursor(
+      final List<T> inItems,
+      final int inLimit)
+    {
+      this.items = inItems;
+      this.limit = Math.max(1, inLimit);
+      this.pageCount =
+        Math.max(1, (this.items.size() + this.limit - 1) / this.limit);
+      this.pageIndex = 1;
+    }
+
+    IdPage<T> page()
+    {
+      final var first = (this.pageIndex - 1) * this.limit;
+      final var last = Math.min(this.items.size(), first + this.limit);
+      return new IdPage<>(
+        List.copyOf(this.items.subList(first, last)),
+        this.pageIndex,
+        this.pageCount,
+        first
+      );
+    }
+
+    IdPage<T> next()
+    {
+      this.pageIndex = Math.min(this.pageCount, this.pageIndex + 1);
+      return this.page();
+    }
+
+    IdPage<T> previous()
+    {
+      this.pageIndex = Math.max(1, this.pageIndex - 1);
+      return this.page();
+    }
+  }
+
+  private IdAGFakeServer(
+    final IdAGFakeServerConfiguration inConfiguration)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+    this.random =
+      new Random(this.configuration.seed());
+    this.received =
+      new ConcurrentHashMap<>();
+    this.sessions =
+      Collections.synchronizedList(new ArrayList<>());
+
+    this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      final var thread = new Thread(r);
+      thread.setDaemon(true);
+      thread.setName(
+        String.format(
+          "com.io7m.idstore.tests.fake_server[%d]",
+          Long.valueOf(thread.getId()))
+      );
+      return thread;
+    });
+
+    try {
+      this.password =
+        IdPasswordAlgorithmPBKDF2HmacSHA256.create()
+          .createHashed("12345678");
+    } catch (final IdPasswordException e) {
+      throw new IllegalStateException(e);
+    }
+
+    final var time =
+      OffsetDateTime.parse("2024-01-01T00:00:00Z");
+
+    final var userList =
+      new ArrayList<IdUserSummary>(this.configuration.users());
+    for (int index = 0; index < this.configuration.users(); ++index) {
+      userList.add(new IdUserSummary(
+        new UUID(0L, index),
+        new IdName("user" + index),
+        new IdRealName("User " + index),
+        time.plusMinutes(index),
+        time.plusMinutes(index)
+      ));
+    }
+    this.users = List.copyOf(userList);
+
+    final var adminList =
+      new ArrayList<IdAdminSummary>(this.configuration.admins());
+    for (int index = 0; index < this.configuration.admins(); ++index) {
+      adminList.add(new IdAdminSummary(
+        new UUID(1L, index),
+        new IdName("admin" + index),
+        new IdRealName("Admin " + index),
+        time.plusMinutes(index),
+        time.plusMinutes(index)
+      ));
+    }
+    this.admins = List.copyOf(adminList);
+
+    final var auditList =
+      new ArrayList<IdAuditEvent>(this.configuration.auditEvents());
+    for (int index = 0; index < this.configuration.auditEvents(); ++index) {
+      final var owner =
+        adminList.isEmpty()
+          ? new UUID(1L, 0L)
+          : adminList.get(index % adminList.size()).id();
+      auditList.add(new IdAuditEvent(
+        index,
+        owner,
+        time.plusSeconds(index),
+        AUDIT_TYPES.get(index % AUDIT_TYPES.size()),
+        "Updated user " + (index % Math.max(1, this.configuration.users()))
+      ));
+    }
+    this.auditEvents = List.copyOf(auditList);
+    this.session = this.openSession();
+  }
+
+  private Session openSession()
+  {
+    final var newSession = new Session();
+    this.sessions.add(newSession);
+    return newSession;
+  }
+
+  /**
+   * Create a fake server.
+   *
+   * @param configuration The configuration
+   *
+   * @return A fake server
+   */
+
+  public static IdAGFakeServer create(
+    final IdAGFakeServerConfiguration configuration)
+  {
+    return new IdAGFakeServer(configuration);
+  }
+
+  /**
+   * @return The users on the server
+   */
+
+  public List<IdUserSummary> users()
+  {
+    return this.users;
+  }
+
+  /**
+   * @return The audit events on the server
+   */
+
+  public List<IdAuditEvent> auditEvents()
+  {
+    return this.auditEvents;
+  }
+
+  /**
+   * @return A client connected to the server
+   */
+
+  public IdAClientAsynchronousType client()
+  {
+    return this.session.client;
+  }
+
+  /**
+   * @return The number of sessions opened on the server, including the
+   * session of {@link #client()}
+   */
+
+  public int sessionCount()
+  {
+    return this.sessions.size();
+  }
+
+  /**
+   * @return A client factory that returns {@link #client()} first, and a
+   * client with a new session thereafter
+   */
+
+  public IdAClientFactoryType clients()
+  {
+    return (IdAClientFactoryType) Proxy.newProxyInstance(
+      IdAGFakeServer.class.getClassLoader(),
+      new Class<?>[]{IdAClientFactoryType.class},
+      (proxy, method, args) -> {
+        return switch (method.getName()) {
+          case "openAsynchronousClient" -> this.openClient();
+          case "toString" -> "[IdAGFakeServer clients]";
+          case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy));
+          case "equals" -> Boolean.valueOf(proxy == args[0]);
+          default -> throw new UnsupportedOperationException(method.getName());
+        };
+      }
+    );
+  }
+
+  /**
+   * @param commandClass The command class
+   *
+   * @return The number of commands of the given class the server received
+   */
+
+  public long receivedCount(
+    final Class<?> commandClass)
+  {
+    final var count = this.received.get(commandClass);
+    return count == null ? 0L : count.sum();
+  }
+
+  /**
+   * @param commandClass The command class
+   *
+   * @return The number of sessions that received at least one command of
+   * the given class
+   */
+
+  public long sessionsReceiving(
+    final Class<?> commandClass)
+  {
+    synchronized (this.sessions) {
+      return this.sessions.stream()
+        .filter(s -> s.received.contains(commandClass))
+        .count();
+    }
+  }
+
+  private IdAClientAsynchronousType openClient()
+  {
+    synchronized (this.sessions) {
+      if (!this.session.opened) {
+        this.session.opened = true;
+        return this.session.client;
+      }
+      return this.openSession().client;
+    }
+  }
+
+  private Object invokeClient(
+    final Session target,
+    final Object proxy,
+    final Method method,
+    final Object[] args)
+  {
+    return switch (method.getName()) {
+      case "state" -> target.states;
+      case "loginAsyncOrElseThrow" -> CompletableFuture.completedFuture(
+        new IdAResponseLogin(UUID.randomUUID(), TEST_ADMIN_0));
+      case "executeAsyncOrElseThrow" ->
+        this.execute(target, (IdACommandType<?>) args[0]);
+      case "disconnectAsync" -> CompletableFuture.completedFuture(null);
+      case "close" -> null;
+      case "toString" -> "[IdAGFakeServer client]";
+      case "hashCode" -> Integer.valueOf(System.identityHashCode(proxy));
+      case "equals" -> Boolean.valueOf(proxy == args[0]);
+      default -> throw new UnsupportedOperationException(method.getName());
+    };
+  }
+
+  private CompletableFuture<IdAResponseType> execute(
+    final Session target,
+    final IdACommandType<?> command)
+  {
+    this.received.computeIfAbsent(command.getClass(), c -> new LongAdder())
+      .increment();
+    target.received.add(command.getClass());
+
+    final long delayNanos;
+    final boolean fail;
+    synchronized (this.random) {
+      final var latency = this.configuration.latency().toNanos();
+      final var jitter = this.configuration.jitter().toNanos();
+      final var deviation =
+        (long) ((this.random.nextDouble() * 2.0 - 1.0) * (double) jitter);
+      delayNanos = Math.max(0L, latency + deviation);
+      fail = this.random.nextDouble() < this.configuration.errorRate();
+    }
+
+    final var future = new CompletableFuture<IdAResponseType>();
+    this.executor.schedule(() -> {
+      if (fail) {
+        future.completeExceptionally(
+          new IOException("Simulated transport failure."));
+        return;
+      }
+
+      try {
+        final var response = this.respond(target, command);
+        target.states.submit(
+          new HBStateExecutingCommandSucceeded<>(command, response));
+        future.complete(response);
+      } catch (final Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }, delayNanos, TimeUnit.NANOSECONDS);
+    return future;
+  }
+
+  private IdAResponseType respond(
+    final Session target,
+    final IdACommandType<?> command)
+  {
+    final var requestId = UUID.randomUUID();
+
+    if (command instanceof IdACommandAdminSelf) {
+      return new IdAResponseAdminSelf(requestId, TEST_ADMIN_0);
+    }
+
+    if (command instanceof final IdACommandUserSearchBegin c) {
+      target.userCursor = new Cursor<>(this.users, c.parameters().limit());
+      return new IdAResponseUserSearchBegin(
+        requestId, target.userCursor.page());
+    }
+    if (command instanceof IdACommandUserSearchNext) {
+      return new IdAResponseUserSearchNext(requestId, target.userCursor.next());
+    }
+    if (command instanceof IdACommandUserSearchPrevious) {
+      return new IdAResponseUserSearchPrevious(
+        requestId, target.userCursor.previous());
+    }
+
+    if (command instanceof final IdACommandAdminSearchBegin c) {
+      target.adminCursor = new Cursor<>(this.admins, c.parameters().limit());
+      return new IdAResponseAdminSearchBegin(
+        requestId, target.adminCursor.page());
+    }
+    if (command instanceof IdACommandAdminSearchNext) {
+      return new IdAResponseAdminSearchNext(
+        requestId, target.adminCursor.next());
+    }
+    if (command instanceof IdACommandAdminSearchPrevious) {
+      return new IdAResponseAdminSearchPrevious(
+        requestId, target.adminCursor.previous());
+    }
+
+    if (command instanceof final IdACommandAuditSearchBegin c) {
+      final var parameters = c.parameters();
+      target.auditCursor =
+        new Cursor<>(
+          this.auditEvents.stream()
+            .filter(e -> auditMatches(parameters.timeRange(), e))
+            .filter(e -> parameters.owner()
+              .map(o -> UUID.fromString(o).equals(e.owner()))
+              .orElse(Boolean.TRUE).booleanValue())
+            .filter(e -> parameters.type()
+              .map(t -> t.equals(e.type()))
+              .orElse(Boolean.TRUE).booleanValue())
+            .filter(e -> parameters.message()
+              .map(m -> e.data().contains(m))
+              .orElse(Boolean.TRUE).booleanValue())
+            .toList(),
+          parameters.limit()
+        );
+      return new IdAResponseAuditSearchBegin(
+        requestId, target.auditCursor.page());
+    }
+    if (command instanceof IdACommandAuditSearchNext) {
+      return new IdAResponseAuditSearchNext(
+        requestId, target.auditCursor.next());
+    }
+    if (command instanceof IdACommandAuditSearchPrevious) {
+      return new IdAResponseAuditSearchPrevious(
+        requestId, target.auditCursor.previous());
+    }
+
+    if (command instanceof final IdACommandUserGet c) {
+      return new IdAResponseUserGet(requestId, this.user(c.user()));
+    }
+    if (command instanceof IdACommandUserBanGet) {
+      return new IdAResponseUserBanGet(requestId, Optional.empty());
+    }
+    if (command instanceof IdACommandUserLoginHistory) {
+      return new IdAResponseUserLoginHistory(requestId, List.of());
+    }
+    if (command instanceof IdACommandUserDelete) {
+      return new IdAResponseUserDelete(requestId);
+    }
+
+    throw new UnsupportedOperationException(
+      "Unsupported command: " + command.getClass().getSimpleName());
+  }
+
+  private static boolean auditMatches(
+    final IdTimeRange range,
+    final IdAuditEvent event)
+  {
+    final var time = event.time();
+    return !time.isBefore(range.timeLower())
+      && !time.isAfter(range.timeUpper());
+  }
+
+  private Optional<IdUser> user(
+    final UUID id)
+  {
+    if (id.getMostSignificantBits() != 0L) {
+      return Optional.empty();
+    }
+
+    final var index = id.getLeastSignificantBits();
+    if (index < 0L || index >= this.users.size()) {
+      return Optional.empty();
+    }
+
+    final var summary = this.users.get((int) index);
+    return Optional.of(
+      new IdUser(
+        summary.id(),
+        summary.idName(),
+        summary.realName(),
+        new IdNonEmptyList<>(
+          new IdEmail("user%d@example.com".formatted(Long.valueOf(index))),
+          List.of()
+        ),
+        summary.timeCreated(),
+        summary.timeUpdated(),
+        this.password
+      )
+    );
+  }
+
+  @Override
+  public void close()
+  {
+    synchronized (this.sessions) {
+      for (final var s : this.sessions) {
+        s.states.close();
+      }
+    }
+    this.executor.shutdown();
+  }
+}
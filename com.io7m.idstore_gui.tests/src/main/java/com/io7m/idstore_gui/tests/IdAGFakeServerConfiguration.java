@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The configuration of a fake admin server.
+ *
+ * @param latency     The mean latency of every command
+ * @param jitter      The maximum deviation from the mean latency
+ * @param users       The number of users
+ * @param admins      The number of admins
+ * @param auditEvents The number of audit events
+ * @param errorRate   The probability in {@code [0, 1]} that a command fails
+ *                    with a transport error
+ * @param seed        The seed for all random choices
+ */
+
+public record IdAGFakeServerConfiguration(
+  Duration latency,
+  Duration jitter,
+  int users,
+  int admins,
+  int auditEvents,
+  double errorRate,
+  long seed)
+{
+  /**
+   * The configuration of a fake admin server.
+   *
+   * @param latency     The mean latency of every command
+   * @param jitter      The maximum deviation from the mean latency
+   * @param users       The number of users
+   * @param admins      The number of admins
+   * @param auditEvents The number of audit events
+   * @param errorRate   The probability in {@code [0, 1]} that a command
+   *                    fails with a transport error
+   * @param seed        The seed for all random choices
+   */
+
+  public IdAGFakeServerConfiguration
+  {
+    Objects.requireNonNull(latency, "latency");
+    Objects.requireNonNull(jitter, "jitter");
+
+    if (latency.isNegative() || jitter.isNegative()) {
+      throw new IllegalArgumentException("Latency and jitter must be >= 0");
+    }
+    if (users < 0 || admins < 0 || auditEvents < 0) {
+      throw new IllegalArgumentException("Dataset sizes must be >= 0");
+    }
+    if (!(errorRate >= 0.0 && errorRate <= 1.0)) {
+      throw new IllegalArgumentException("Error rate must be in [0, 1]");
+    }
+  }
+
+  /**
+   * @return A small, fast, reliable server
+   */
+
+  public static IdAGFakeServerConfiguration defaults()
+  {
+    return new IdAGFakeServerConfiguration(
+      Duration.ofMillis(2L),
+      Duration.ofMillis(1L),
+      1000,
+      20,
+      5000,
+      0.0,
+      0x696473746f7265L
+    );
+  }
+}
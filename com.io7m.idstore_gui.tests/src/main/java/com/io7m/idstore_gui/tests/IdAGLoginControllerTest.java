@@ -27,7 +27,10 @@ import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.login.IdAGLoginController;
 import com.io7m.idstore_gui.admin.internal.login.IdAGLoginControllers;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore.protocol.admin.IdACommandType;
 import com.io7m.idstore.protocol.admin.IdAResponseError;
@@ -109,7 +112,10 @@ public final class IdAGLoginControllerTest
         UUID.randomUUID(),
         IdAGPreferencesDebuggingEnabled.DEBUGGING_ENABLED,
         List.of(),
-        List.of()
+        List.of(),
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
       ));
 
     this.clients =
@@ -27,7 +27,10 @@ import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.main.IdAGMainScreenController;
 import com.io7m.idstore_gui.admin.internal.main.IdAGMainScreenControllers;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore_gui.admin.internal.profile.IdAGProfileController;
 import com.io7m.idstore_gui.admin.internal.profile.IdAGProfileControllers;
@@ -94,7 +97,10 @@ public final class IdAGMainScreenControllerTest
         UUID.randomUUID(),
         IdAGPreferencesDebuggingEnabled.DEBUGGING_ENABLED,
         List.of(),
-        List.of()
+        List.of(),
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
       ));
 
     this.clients =
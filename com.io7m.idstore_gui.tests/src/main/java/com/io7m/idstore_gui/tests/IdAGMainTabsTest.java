@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndNode;
+import com.io7m.idstore_gui.admin.internal.main.IdAGControllerAndStage;
+import com.io7m.idstore_gui.admin.internal.main.IdAGMainTabs;
+import com.io7m.idstore_gui.admin.internal.view_controllers.IdAGViewControllerFactoryType;
+import com.io7m.xoanon.extension.XoExtension;
+import com.io7m.xoanon.extension.XoFXThread;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TabPane;
+import javafx.scene.layout.StackPane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(XoExtension.class)
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+public final class IdAGMainTabsTest
+{
+  /**
+   * Only the selected tab is loaded at first, and every other tab is loaded
+   * exactly once when it is first selected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLoadOnSelection()
+    throws Exception
+  {
+    XoFXThread.run(() -> {
+      final var tabA = new Tab("A");
+      final var tabB = new Tab("B");
+      final var tabC = new Tab("C");
+      final var tabPane = new TabPane(tabA, tabB, tabC);
+
+      final var viewsA = new FakeViews(false);
+      final var viewsB = new FakeViews(false);
+      final var viewsC = new FakeViews(false);
+
+      final var tabs = new IdAGMainTabs(tabPane, new Stage());
+      tabs.register(tabA, viewsA);
+      tabs.register(tabB, viewsB);
+      tabs.register(tabC, viewsC);
+      tabs.start();
+
+      assertTrue(tabs.isLoaded(tabA));
+      assertFalse(tabs.isLoaded(tabB));
+      assertFalse(tabs.isLoaded(tabC));
+      assertNull(tabB.getContent());
+      assertNull(tabC.getContent());
+
+      tabPane.getSelectionModel().select(tabB);
+      tabPane.getSelectionModel().select(tabA);
+      tabPane.getSelectionModel().select(tabB);
+
+      assertTrue(tabs.isLoaded(tabB));
+      assertFalse(tabs.isLoaded(tabC));
+      assertSame(viewsB.node, tabB.getContent());
+      assertSame(viewsB.controller, tabs.controller(tabB).orElseThrow());
+
+      assertEquals(1, viewsA.created);
+      assertEquals(1, viewsB.created);
+      assertEquals(0, viewsC.created);
+      return null;
+    }).get();
+  }
+
+  /**
+   * Warming loads every tab that has not yet been selected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWarm()
+    throws Exception
+  {
+    XoFXThread.run(() -> {
+      final var tabA = new Tab("A");
+      final var tabB = new Tab("B");
+      final var tabPane = new TabPane(tabA, tabB);
+
+      final var viewsA = new FakeViews(false);
+      final var viewsB = new FakeViews(false);
+
+      final var tabs = new IdAGMainTabs(tabPane, new Stage());
+      tabs.register(tabA, viewsA);
+      tabs.register(tabB, viewsB);
+      tabs.start();
+      tabs.warm(Runnable::run);
+
+      assertTrue(tabs.isLoaded(tabB));
+      assertSame(viewsB.node, tabB.getContent());
+
+      tabPane.getSelectionModel().select(tabB);
+      assertEquals(1, viewsA.created);
+      assertEquals(1, viewsB.created);
+      return null;
+    }).get();
+  }
+
+  /**
+   * Warming submits the task that loads the next tab only once the previous
+   * tab has loaded, so each task loads exactly one tab.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWarmOneTabPerTask()
+    throws Exception
+  {
+    XoFXThread.run(() -> {
+      final var tabA = new Tab("A");
+      final var tabB = new Tab("B");
+      final var tabC = new Tab("C");
+      final var tabPane = new TabPane(tabA, tabB, tabC);
+
+      final var tabs = new IdAGMainTabs(tabPane, new Stage());
+      tabs.register(tabA, new FakeViews(false));
+      tabs.register(tabB, new FakeViews(false));
+      tabs.register(tabC, new FakeViews(false));
+      tabs.start();
+
+      final var tasks = new ArrayDeque<Runnable>();
+      tabs.warm(tasks::add);
+
+      assertEquals(1, tasks.size());
+      assertFalse(tabs.isLoaded(tabB));
+      assertFalse(tabs.isLoaded(tabC));
+
+      tasks.remove().run();
+      assertEquals(1, tasks.size());
+      assertTrue(tabs.isLoaded(tabB));
+      assertFalse(tabs.isLoaded(tabC));
+
+      tasks.remove().run();
+      assertEquals(0, tasks.size());
+      assertTrue(tabs.isLoaded(tabC));
+      return null;
+    }).get();
+  }
+
+  /**
+   * A tab that fails to load is left empty, and loading is retried the next
+   * time the tab is selected.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testLoadFailureRetried()
+    throws Exception
+  {
+    XoFXThread.run(() -> {
+      final var tabA = new Tab("A");
+      final var tabB = new Tab("B");
+      final var tabPane = new TabPane(tabA, tabB);
+
+      final var viewsA = new FakeViews(false);
+      final var viewsB = new FakeViews(true);
+
+      final var tabs = new IdAGMainTabs(tabPane, new Stage());
+      tabs.register(tabA, viewsA);
+      tabs.register(tabB, viewsB);
+      tabs.start();
+
+      tabPane.getSelectionModel().select(tabB);
+      assertFalse(tabs.isLoaded(tabB));
+      assertNull(tabB.getContent());
+
+      viewsB.fail = false;
+      tabPane.getSelectionModel().select(tabA);
+      tabPane.getSelectionModel().select(tabB);
+      assertTrue(tabs.isLoaded(tabB));
+      assertEquals(1, viewsB.created);
+      return null;
+    }).get();
+  }
+
+  private static final class FakeViews
+    implements IdAGViewControllerFactoryType<Void, Object>
+  {
+    private final StackPane node;
+    private final Object controller;
+    private boolean fail;
+    private int created;
+
+    FakeViews(
+      final boolean inFail)
+    {
+      this.node = new StackPane();
+      this.controller = new Object();
+      this.fail = inFail;
+    }
+
+    @Override
+    public IdAGControllerAndStage<Object> createViewController(
+      final Void arguments)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object createViewControllerForStage(
+      final Void arguments,
+      final Stage stage)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IdAGControllerAndNode<Object> createView(
+      final Void arguments,
+      final Stage stage)
+      throws IOException
+    {
+      if (this.fail) {
+        throw new IOException("Failed!");
+      }
+      ++this.created;
+      return new IdAGControllerAndNode<>(this.controller, this.node);
+    }
+
+    @Override
+    public URL fxmlResource()
+    {
+      return IdAGMainTabsTest.class.getResource("/fake.fxml");
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore_gui.admin.internal.paging.IdAGPagedList;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGPagedListTest
+{
+  private static final int PAGE_SIZE = 10;
+  private static final int PAGE_COUNT = 5;
+
+  private List<Integer> requested;
+  private List<CompletableFuture<IdPage<Integer>>> pending;
+  private IdAGPagedList<Integer> list;
+
+  private static IdPage<Integer> page(
+    final int index)
+  {
+    final var first = (index - 1) * PAGE_SIZE;
+    return new IdPage<>(
+      IntStream.range(first, first + PAGE_SIZE)
+        .boxed()
+        .toList(),
+      index,
+      PAGE_COUNT,
+      first
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.requested = new ArrayList<>();
+    this.pending = new ArrayList<>();
+    this.list = new IdAGPagedList<>(
+      index -> {
+        this.requested.add(Integer.valueOf(index));
+        final var future = new CompletableFuture<IdPage<Integer>>();
+        this.pending.add(future);
+        return future;
+      },
+      2,
+      Runnable::run
+    );
+  }
+
+  private void completePending()
+  {
+    final var futures = List.copyOf(this.pending);
+    this.pending.clear();
+    for (int index = 0; index < futures.size(); ++index) {
+      final var target = this.requested.get(
+        this.requested.size() - futures.size() + index);
+      futures.get(index).complete(page(target.intValue()));
+    }
+  }
+
+  /**
+   * Pages are appended, and the oldest pages are evicted.
+   */
+
+  @Test
+  public void testAppendEvicts()
+  {
+    final var changes = new ArrayList<String>();
+    this.list.addListener((ListChangeListener<Integer>) c -> {
+      while (c.next()) {
+        changes.add("%s %d %d".formatted(
+          c.wasAdded() ? "add" : "remove",
+          Integer.valueOf(c.getFrom()),
+          Integer.valueOf(c.wasAdded() ? c.getAddedSize() : c.getRemovedSize())
+        ));
+      }
+    });
+
+    this.list.start(page(1));
+    assertEquals(10, this.list.size());
+
+    this.list.requestNext();
+    this.list.requestNext();
+    assertTrue(this.list.isLoading());
+    assertEquals(List.of(2), this.requested);
+    this.completePending();
+
+    assertEquals(20, this.list.size());
+    assertEquals(Integer.valueOf(19), this.list.get(19));
+
+    this.list.requestNext();
+    this.completePending();
+
+    assertEquals(2, this.list.pageFirst());
+    assertEquals(3, this.list.pageLast());
+    assertEquals(20, this.list.size());
+    assertEquals(Integer.valueOf(10), this.list.get(0));
+    assertEquals(Integer.valueOf(29), this.list.get(19));
+    assertThrows(IndexOutOfBoundsException.class, () -> this.list.get(20));
+
+    assertEquals(
+      List.of("add 0 10", "add 10 10", "add 20 10", "remove 0 10"),
+      changes
+    );
+  }
+
+  /**
+   * Pages are prepended, and the newest pages are evicted.
+   */
+
+  @Test
+  public void testPrependEvicts()
+  {
+    this.list.start(page(4));
+    this.list.requestPrevious();
+    this.completePending();
+    this.list.requestPrevious();
+    this.completePending();
+
+    assertEquals(List.of(3, 2), this.requested);
+    assertEquals(2, this.list.pageFirst());
+    assertEquals(3, this.list.pageLast());
+    assertEquals(Integer.valueOf(10), this.list.get(0));
+    assertEquals(Integer.valueOf(29), this.list.get(19));
+  }
+
+  /**
+   * Requests stop at either end of the search.
+   */
+
+  @Test
+  public void testEnds()
+  {
+    this.list.start(page(1));
+    this.list.requestPrevious();
+    assertFalse(this.list.isLoading());
+
+    this.list.start(page(PAGE_COUNT));
+    this.list.requestNext();
+    assertFalse(this.list.isLoading());
+    assertEquals(List.of(), this.requested);
+  }
+
+  /**
+   * Pages that arrive after a restart are discarded.
+   */
+
+  @Test
+  public void testStaleDiscarded()
+  {
+    this.list.start(page(1));
+    this.list.requestNext();
+    this.list.start(page(1));
+    this.completePending();
+
+    assertEquals(1, this.list.pageLast());
+    assertEquals(10, this.list.size());
+
+    this.list.reset();
+    assertEquals(0, this.list.size());
+    assertEquals(0, this.list.pageLast());
+  }
+}
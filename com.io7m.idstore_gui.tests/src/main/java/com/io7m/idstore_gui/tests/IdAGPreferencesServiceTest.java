@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesService;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 10L, unit = TimeUnit.SECONDS)
+public final class IdAGPreferencesServiceTest
+{
+  private Path directory;
+  private Path file;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.directory =
+      IdTestDirectories.createTempDirectory();
+    this.file =
+      this.directory.resolve("config")
+        .resolve("preferences.xml");
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws IOException
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private static IdAGPreferences withRecentFile(
+    final IdAGPreferences p,
+    final Path recent)
+  {
+    final var newFiles = new ArrayList<>(p.recentFiles());
+    newFiles.add(recent);
+
+    return new IdAGPreferences(
+      p.installationId(),
+      p.debuggingEnabled(),
+      p.serverBookmarks(),
+      List.copyOf(newFiles),
+      p.paging(),
+      p.auditTail(),
+      p.bulk()
+    );
+  }
+
+  /**
+   * Synchronous updates are written before update returns.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testSynchronousWritesImmediately()
+    throws Exception
+  {
+    try (var service = IdAGPreferencesService.openOrDefault(this.file)) {
+      service.update(p -> withRecentFile(p, Path.of("/a")));
+      assertEquals(1L, service.writes());
+      assertTrue(Files.isRegularFile(this.file));
+    }
+  }
+
+  /**
+   * A burst of write-behind updates is visible in memory immediately, is
+   * not written to disk until the service is closed, and is then written
+   * exactly once.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteBehindCoalescesAndFlushesOnClose()
+    throws Exception
+  {
+    final var service =
+      IdAGPreferencesService.openOrDefault(
+        this.file,
+        new IdAGPreferencesServiceConfiguration(Duration.ofMinutes(1L))
+      );
+
+    for (int index = 0; index < 100; ++index) {
+      final var recent = Path.of("/" + index);
+      service.update(p -> withRecentFile(p, recent));
+    }
+
+    assertEquals(100, service.preferences().recentFiles().size());
+    assertEquals(0L, service.writes());
+    assertFalse(Files.exists(this.file));
+
+    service.close();
+    assertEquals(1L, service.writes());
+
+    try (var reopened = IdAGPreferencesService.openOrDefault(this.file)) {
+      assertEquals(
+        service.preferences().installationId(),
+        reopened.preferences().installationId()
+      );
+      assertEquals(100, reopened.preferences().recentFiles().size());
+    }
+  }
+
+  /**
+   * Write-behind updates are written by the background writer once the
+   * write delay has elapsed.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteBehindWritesAfterDelay()
+    throws Exception
+  {
+    try (var service = IdAGPreferencesService.openOrDefault(
+      this.file,
+      new IdAGPreferencesServiceConfiguration(Duration.ofMillis(50L)))) {
+
+      service.update(p -> withRecentFile(p, Path.of("/a")));
+      service.update(p -> withRecentFile(p, Path.of("/b")));
+
+      while (service.writes() == 0L) {
+        Thread.sleep(10L);
+      }
+
+      assertEquals(1L, service.writes());
+      try (var reopened = IdAGPreferencesService.openOrDefault(this.file)) {
+        assertEquals(2, reopened.preferences().recentFiles().size());
+      }
+    }
+  }
+
+  /**
+   * Flushing writes pending updates, and flushing again with nothing
+   * pending does not write.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteBehindFlush()
+    throws Exception
+  {
+    try (var service = IdAGPreferencesService.openOrDefault(
+      this.file,
+      new IdAGPreferencesServiceConfiguration(Duration.ofMinutes(1L)))) {
+
+      service.update(p -> withRecentFile(p, Path.of("/a")));
+      service.flush();
+      assertEquals(1L, service.writes());
+      assertTrue(Files.isRegularFile(this.file));
+
+      service.flush();
+      assertEquals(1L, service.writes());
+    }
+  }
+
+  /**
+   * Updates made after the service is closed are written synchronously.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteBehindAfterClose()
+    throws Exception
+  {
+    final var service =
+      IdAGPreferencesService.openOrDefault(
+        this.file,
+        new IdAGPreferencesServiceConfiguration(Duration.ofMinutes(1L))
+      );
+
+    service.close();
+    service.update(p -> withRecentFile(p, Path.of("/a")));
+
+    try (var reopened = IdAGPreferencesService.openOrDefault(this.file)) {
+      assertEquals(
+        List.of(Path.of("/a")),
+        reopened.preferences().recentFiles()
+      );
+    }
+  }
+
+  /**
+   * Closing a service whose preferences were loaded from disk and never
+   * changed does not write.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testWriteBehindCloseUnchanged()
+    throws Exception
+  {
+    try (var service = IdAGPreferencesService.openOrDefault(this.file)) {
+      service.update(p -> withRecentFile(p, Path.of("/a")));
+    }
+
+    final var service =
+      IdAGPreferencesService.openOrDefault(
+        this.file,
+        new IdAGPreferencesServiceConfiguration(Duration.ofMinutes(1L))
+      );
+
+    service.close();
+    assertEquals(0L, service.writes());
+  }
+}
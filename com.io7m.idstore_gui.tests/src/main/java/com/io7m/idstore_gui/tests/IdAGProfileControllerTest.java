@@ -20,12 +20,16 @@ import com.io7m.hibiscus.api.HBStateType;
 import com.io7m.idstore.admin_client.api.IdAClientAsynchronousType;
 import com.io7m.idstore.admin_client.api.IdAClientCredentials;
 import com.io7m.idstore.admin_client.api.IdAClientFactoryType;
+import com.io7m.idstore_gui.admin.internal.IdAGFXDispatcherService;
 import com.io7m.idstore_gui.admin.internal.IdAGStrings;
 import com.io7m.idstore_gui.admin.internal.IdAGStringsType;
 import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
 import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferences;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesAuditTail;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesBulk;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesDebuggingEnabled;
+import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesPaging;
 import com.io7m.idstore_gui.admin.internal.preferences.IdAGPreferencesServiceType;
 import com.io7m.idstore_gui.admin.internal.profile.IdAGProfileController;
 import com.io7m.idstore_gui.admin.internal.profile.IdAGProfileControllers;
@@ -92,7 +96,10 @@ public final class IdAGProfileControllerTest
         UUID.randomUUID(),
         IdAGPreferencesDebuggingEnabled.DEBUGGING_ENABLED,
         List.of(),
-        List.of()
+        List.of(),
+        IdAGPreferencesPaging.defaults(),
+        IdAGPreferencesAuditTail.defaults(),
+        IdAGPreferencesBulk.defaults()
       ));
 
     this.clients =
@@ -118,6 +125,9 @@ public final class IdAGProfileControllerTest
     this.services.register(IdAGPreferencesServiceType.class, this.preferences);
     this.services.register(IdAGStringsType.class, this.strings);
     this.services.register(IdAGClientService.class, this.clientService);
+    this.services.register(
+      IdAGFXDispatcherService.class,
+      new IdAGFXDispatcherService());
   }
 
   @AfterEach
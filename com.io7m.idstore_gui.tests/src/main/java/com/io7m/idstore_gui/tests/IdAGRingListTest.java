@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.paging.IdAGRingList;
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class IdAGRingListTest
+{
+  /**
+   * Appending to a full list evicts the oldest items.
+   */
+
+  @Test
+  public void testAppendEvicts()
+  {
+    final var list = new IdAGRingList<Integer>(4);
+    final var removed = new ArrayList<Integer>();
+    final var added = new ArrayList<Integer>();
+
+    list.addListener((ListChangeListener<Integer>) change -> {
+      while (change.next()) {
+        removed.addAll(change.getRemoved());
+        added.addAll(change.getAddedSubList());
+      }
+    });
+
+    list.addAll(List.of(0, 1, 2));
+    assertEquals(List.of(0, 1, 2), List.copyOf(list));
+
+    list.addAll(List.of(3, 4, 5));
+    assertEquals(List.of(2, 3, 4, 5), List.copyOf(list));
+    assertEquals(List.of(0, 1), removed);
+    assertEquals(List.of(0, 1, 2, 3, 4, 5), added);
+
+    list.addAll(List.of(6));
+    assertEquals(List.of(3, 4, 5, 6), List.copyOf(list));
+  }
+
+  /**
+   * Adding more items than the list can hold keeps only the last items.
+   */
+
+  @Test
+  public void testSetAllTruncates()
+  {
+    final var list = new IdAGRingList<Integer>(3);
+    list.addAll(List.of(0, 1));
+    list.setAll(List.of(10, 11, 12, 13, 14));
+    assertEquals(List.of(12, 13, 14), List.copyOf(list));
+
+    list.clear();
+    assertEquals(0, list.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+  }
+
+  /**
+   * The capacity must be positive.
+   */
+
+  @Test
+  public void testCapacityInvalid()
+  {
+    assertThrows(IllegalArgumentException.class, () -> new IdAGRingList<>(0));
+  }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.model.IdPage;
+import com.io7m.idstore.model.IdTimeRange;
+import com.io7m.idstore.model.IdUserSummary;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * <p>A driver that replays scripted operator sessions through a client
+ * service, and reports the latency of each class of command that the
+ * operations caused the service to send.</p>
+ *
+ * <p>Latencies are taken from the service's own
+ * {@link IdAGClientService#commandTimings()}, so operations answered from a
+ * cache send nothing and are not measured, and commands sent by prefetching
+ * are measured alongside those the operator asked for.</p>
+ *
+ * <p>A script has one operation per line. Blank lines and lines beginning
+ * with {@code #} are ignored. The operations are:</p>
+ *
+ * <ul>
+ *   <li>{@code userSearchBegin}, {@code userSearchNext},
+ *   {@code userSearchPrevious}, {@code userSearchPage n}</li>
+ *   <li>{@code userDetails n}, which loads the details of the n-th user on
+ *   the most recently received user page</li>
+ *   <li>{@code adminSearchBegin}, {@code adminSearchNext},
+ *   {@code adminSearchPrevious}</li>
+ *   <li>{@code auditSearchBegin}, {@code auditSearchNext},
+ *   {@code auditSearchPrevious}, {@code auditSearchPage n}</li>
+ *   <li>{@code think n}, which pauses for n milliseconds and is not
+ *   measured</li>
+ * </ul>
+ */
+
+public final class IdAGSessionReplay
+{
+  private static final Duration TIMEOUT = Duration.ofSeconds(30L);
+
+  private final IdAGClientService client;
+  private IdPage<IdUserSummary> userPage;
+
+  /**
+   * A step in a session.
+   *
+   * @param operation The operation
+   * @param argument  The argument, or 0
+   */
+
+  public record Step(
+    String operation,
+    int argument)
+  {
+    /**
+     * A step in a session.
+     *
+     * @param operation The operation
+     * @param argument  The argument, or 0
+     */
+
+    public Step
+    {
+      Objects.requireNonNull(operation, "operation");
+    }
+  }
+
+  /**
+   * The measured latencies of one class of command.
+   *
+   * @param count    The number of successful executions
+   * @param failures The number of failed executions
+   * @param p50      The median latency
+   * @param p99      The 99th percentile latency
+   * @param max      The maximum latency
+   */
+
+  public record Latencies(
+    long count,
+    long failures,
+    Duration p50,
+    Duration p99,
+    Duration max)
+  {
+
+  }
+
+  /**
+   * A driver that replays scripted operator sessions.
+   *
+   * @param inClient The client service
+   */
+
+  public IdAGSessionReplay(
+    final IdAGClientService inClient)
+  {
+    this.client =
+      Objects.requireNonNull(inClient, "client");
+  }
+
+  /**
+   * Parse a script.
+   *
+   * @param lines The script lines
+   *
+   * @return The steps
+   */
+
+  public static List<Step> parse(
+    final List<String> lines)
+  {
+    final var steps = new ArrayList<Step>();
+    for (final var line : lines) {
+      final var trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+
+      final var parts = trimmed.split("\\s+");
+      steps.add(new Step(
+        parts[0],
+        parts.length > 1 ? Integer.parseInt(parts[1]) : 0
+      ));
+    }
+    return List.copyOf(steps);
+  }
+
+  /**
+   * Load a script from a class resource.
+   *
+   * @param name The resource name, relative to this class
+   *
+   * @return The steps
+   */
+
+  public static List<Step> load(
+    final String name)
+  {
+    try (var stream = IdAGSessionReplay.class.getResourceAsStream(name)) {
+      Objects.requireNonNull(stream, name);
+      final var text =
+        new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+      return parse(Arrays.asList(text.split("\n")));
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Replay a session a number of times.
+   *
+   * @param steps       The session steps
+   * @param repetitions The number of times to replay the session
+   *
+   * @return The latencies of each command class, keyed by the simple name
+   * of the class
+   *
+   * @throws InterruptedException On interruption
+   */
+
+  public Map<String, Latencies> replay(
+    final List<Step> steps,
+    final int repetitions)
+    throws InterruptedException
+  {
+    for (int repetition = 0; repetition < repetitions; ++repetition) {
+      for (final var step : steps) {
+        this.run(step);
+      }
+    }
+    return this.latencies();
+  }
+
+  private void run(
+    final Step step)
+    throws InterruptedException
+  {
+    final var argument = step.argument();
+    final CompletableFuture<?> future = switch (step.operation()) {
+      case "think" -> {
+        Thread.sleep(argument);
+        yield null;
+      }
+      case "userSearchBegin" -> this.userPage(
+        this.client.userSearchBegin(
+          IdTimeRange.largest(), IdTimeRange.largest(), Optional.empty()));
+      case "userSearchNext" ->
+        this.userPage(this.client.userSearchNext());
+      case "userSearchPrevious" ->
+        this.userPage(this.client.userSearchPrevious());
+      case "userSearchPage" ->
+        this.userPage(this.client.userSearchPage(argument));
+      case "userDetails" -> this.userDetails(argument);
+      case "adminSearchBegin" ->
+        this.client.adminSearchBegin(
+          IdTimeRange.largest(), IdTimeRange.largest(), Optional.empty());
+      case "adminSearchNext" -> this.client.adminSearchNext();
+      case "adminSearchPrevious" -> this.client.adminSearchPrevious();
+      case "auditSearchBegin" ->
+        this.client.auditSearchBegin(
+          IdTimeRange.largest(),
+          Optional.empty(),
+          Optional.empty(),
+          Optional.empty());
+      case "auditSearchNext" -> this.client.auditSearchNext();
+      case "auditSearchPrevious" -> this.client.auditSearchPrevious();
+      case "auditSearchPage" -> this.client.auditSearchPage(argument);
+      default -> throw new IllegalArgumentException(
+        "Unrecognized operation: " + step.operation());
+    };
+
+    if (future != null) {
+      await(future);
+    }
+  }
+
+  private CompletableFuture<?> userPage(
+    final CompletableFuture<IdPage<IdUserSummary>> future)
+  {
+    return future.thenAccept(page -> this.userPage = page);
+  }
+
+  private CompletableFuture<?> userDetails(
+    final int index)
+  {
+    final var page = this.userPage;
+    if (page == null || page.items().isEmpty()) {
+      return CompletableFuture.failedFuture(
+        new IllegalStateException("No user page has been received."));
+    }
+
+    final var items = page.items();
+    return this.client.userDetails(items.get(index % items.size()).id());
+  }
+
+  private static void await(
+    final CompletableFuture<?> future)
+    throws InterruptedException
+  {
+    try {
+      future.get(TIMEOUT.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (final ExecutionException | TimeoutException e) {
+      // Failed commands are counted by the service's timings.
+    }
+  }
+
+  private Map<String, Latencies> latencies()
+  {
+    final var commands = new TreeMap<String, Latencies>();
+    for (final var s : this.client.commandTimings().statistics()) {
+      commands.put(s.command(), new Latencies(
+        s.succeeded(),
+        s.failed(),
+        s.p50(),
+        s.p99(),
+        s.maximum()
+      ));
+    }
+    return commands;
+  }
+
+  /**
+   * Format latencies as a table.
+   *
+   * @param latencies The latencies
+   *
+   * @return A table
+   */
+
+  public static String format(
+    final Map<String, Latencies> latencies)
+  {
+    final var text = new StringBuilder(256);
+    text.append(String.format(
+      Locale.ROOT,
+      "%-32s %8s %8s %10s %10s %10s%n",
+      "Command", "Count", "Failed", "p50 (ms)", "p99 (ms)", "max (ms)"));
+
+    for (final var entry : latencies.entrySet()) {
+      final var l = entry.getValue();
+      text.append(String.format(
+        Locale.ROOT,
+        "%-32s %8d %8d %10.3f %10.3f %10.3f%n",
+        entry.getKey(),
+        Long.valueOf(l.count()),
+        Long.valueOf(l.failures()),
+        Double.valueOf(l.p50().toNanos() / 1_000_000.0),
+        Double.valueOf(l.p99().toNanos() / 1_000_000.0),
+        Double.valueOf(l.max().toNanos() / 1_000_000.0)
+      ));
+    }
+    return text.toString();
+  }
+}
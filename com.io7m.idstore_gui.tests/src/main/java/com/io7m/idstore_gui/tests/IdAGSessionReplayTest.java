@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore.protocol.admin.IdACommandAdminSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandAuditSearchBegin;
+import com.io7m.idstore.protocol.admin.IdACommandUserGet;
+import com.io7m.idstore.protocol.admin.IdACommandUserSearchBegin;
+import com.io7m.idstore_gui.admin.internal.client.IdAGClientService;
+import com.io7m.idstore_gui.admin.internal.events.IdAGEventBus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 1L, unit = TimeUnit.MINUTES)
+public final class IdAGSessionReplayTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGSessionReplayTest.class);
+
+  private IdAGFakeServer server;
+  private IdAGClientService client;
+
+  private IdAGSessionReplay open(
+    final IdAGFakeServerConfiguration configuration)
+    throws Exception
+  {
+    this.server =
+      IdAGFakeServer.create(configuration);
+    this.client =
+      IdAGClientService.create(
+        new IdAGEventBus(),
+        this.server.clients(),
+        Locale.ROOT
+      );
+    return new IdAGSessionReplay(this.client);
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    if (this.client != null) {
+      this.client.close();
+    }
+    if (this.server != null) {
+      this.server.close();
+    }
+  }
+
+  /**
+   * A browsing session against a reliable server completes every command,
+   * and reports plausible latencies for each class of command sent.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testBrowse()
+    throws Exception
+  {
+    final var replay =
+      this.open(IdAGFakeServerConfiguration.defaults());
+    final var steps =
+      IdAGSessionReplay.load("session-browse.txt");
+
+    final var latencies = replay.replay(steps, 5);
+    LOG.info("Latencies:\n{}", IdAGSessionReplay.format(latencies));
+
+    for (final var command : List.of(
+      IdACommandUserSearchBegin.class,
+      IdACommandUserGet.class,
+      IdACommandAdminSearchBegin.class,
+      IdACommandAuditSearchBegin.class)) {
+      final var name = command.getSimpleName();
+      final var l = latencies.get(name);
+      assertNotNull(l, name);
+      assertTrue(l.count() <= this.server.receivedCount(command), name);
+    }
+
+    for (final var entry : latencies.entrySet()) {
+      final var name = entry.getKey();
+      final var l = entry.getValue();
+      assertTrue(l.count() > 0L, name);
+      assertEquals(0L, l.failures(), name);
+      assertTrue(l.p50().compareTo(l.p99()) <= 0, name);
+      assertTrue(l.p99().compareTo(l.max()) <= 0, name);
+    }
+  }
+
+  /**
+   * A browsing session against an unreliable server counts failures and
+   * still completes.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testUnreliable()
+    throws Exception
+  {
+    final var defaults =
+      IdAGFakeServerConfiguration.defaults();
+    final var replay =
+      this.open(new IdAGFakeServerConfiguration(
+        Duration.ofMillis(1L),
+        Duration.ZERO,
+        defaults.users(),
+        defaults.admins(),
+        defaults.auditEvents(),
+        0.3,
+        defaults.seed()
+      ));
+
+    final var latencies =
+      replay.replay(IdAGSessionReplay.load("session-browse.txt"), 5);
+    LOG.info("Latencies:\n{}", IdAGSessionReplay.format(latencies));
+
+    final var failures =
+      latencies.values()
+        .stream()
+        .mapToLong(IdAGSessionReplay.Latencies::failures)
+        .sum();
+
+    assertTrue(failures > 0L);
+  }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.IdAGUI;
+import com.io7m.idstore_gui.admin.internal.IdAGApplication;
+import com.io7m.idstore_gui.admin.internal.IdAGStartupMark;
+import com.io7m.idstore_gui.admin.internal.IdAGStartupTimeline;
+import com.io7m.idstore_gui.admin.internal.IdAGStrings;
+import com.io7m.idstore_gui.admin.internal.login.IdAGLoginControllers;
+import com.io7m.xoanon.extension.XoExtension;
+import com.io7m.xoanon.extension.XoFXThread;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * <p>A headless startup benchmark.</p>
+ *
+ * <p>The application is started several times in the test JVM. Each run
+ * records the startup timeline from the point at which the JavaFX platform
+ * would be started, through the start of the application, each boot event,
+ * the first frame and the completion of boot, to the first frame of the
+ * login dialog. The JavaFX platform itself is already running under the
+ * test harness, so its own startup cost is not included.</p>
+ *
+ * <p>The benchmark only runs when the {@code idstore.startup.benchmark}
+ * property is {@code true}, because it is slow and its result depends on
+ * the machine running it.</p>
+ *
+ * <p>A CSV report of every mark in every run, followed by the median of
+ * each mark, is written to the file named by the
+ * {@code idstore.startup.report} property. The test fails if the median
+ * time to the login dialog exceeds the committed baseline in
+ * {@code startup-baseline.properties} by more than
+ * {@code idstore.startup.tolerancePercent} percent, and fails after
+ * writing the report if no baseline has been recorded. A different baseline
+ * file can be named with {@code idstore.startup.baseline}. The number of
+ * measured runs and unmeasured warmup runs are set with
+ * {@code idstore.startup.runs} and {@code idstore.startup.warmups}.</p>
+ */
+
+@EnabledIfSystemProperty(named = "idstore.startup.benchmark", matches = "true")
+@ExtendWith(XoExtension.class)
+@Timeout(value = 5L, unit = TimeUnit.MINUTES)
+public final class IdAGStartupBenchmarkTest
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(IdAGStartupBenchmarkTest.class);
+
+  private static final String LOGIN_DIALOG =
+    "login.dialog";
+
+  private IdAGTemporaryConfiguration configuration;
+
+  private static OptionalLong baselineMillis()
+    throws IOException
+  {
+    final var properties = new Properties();
+    final var file = System.getProperty("idstore.startup.baseline");
+    if (file != null) {
+      try (var stream = Files.newInputStream(Path.of(file))) {
+        properties.load(stream);
+      }
+    } else {
+      try (var stream = IdAGStartupBenchmarkTest.class.getResourceAsStream(
+        "startup-baseline.properties")) {
+        Objects.requireNonNull(stream, "startup-baseline.properties");
+        properties.load(stream);
+      }
+    }
+
+    final var value = properties.getProperty(LOGIN_DIALOG);
+    if (value == null || value.isBlank()) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(Long.parseLong(value.trim()));
+  }
+
+  private static long longProperty(
+    final String name,
+    final long defaultValue)
+  {
+    return Long.parseLong(
+      System.getProperty(name, Long.toString(defaultValue)));
+  }
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.configuration =
+      new IdAGTemporaryConfiguration();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    this.configuration.close();
+  }
+
+  /**
+   * The median time to the first frame of the login dialog does not exceed
+   * the baseline by more than the configured tolerance.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testStartup()
+    throws Exception
+  {
+    final var warmups =
+      longProperty("idstore.startup.warmups", 1L);
+    final var runs =
+      longProperty("idstore.startup.runs", 5L);
+    final var tolerancePercent =
+      longProperty("idstore.startup.tolerancePercent", 25L);
+    final var baseline =
+      baselineMillis();
+    final var report =
+      Path.of(System.getProperty(
+        "idstore.startup.report", "target/startup-report.csv"))
+        .toAbsolutePath();
+
+    for (long index = 0L; index < warmups; ++index) {
+      this.runOnce();
+    }
+
+    final var results = new ArrayList<List<IdAGStartupMark>>();
+    for (long index = 0L; index < runs; ++index) {
+      results.add(this.runOnce());
+    }
+
+    final var medians = medians(results);
+
+    Files.createDirectories(report.getParent());
+    try (var writer = Files.newBufferedWriter(report, UTF_8)) {
+      writeReport(writer, results, medians);
+    }
+
+    final var text = new StringWriter();
+    writeReport(text, results, medians);
+    LOG.info("Startup report ({}):\n{}", report, text);
+
+    final var medianMillis =
+      TimeUnit.MICROSECONDS.toMillis(medians.get(LOGIN_DIALOG).longValue());
+
+    if (baseline.isEmpty()) {
+      fail(
+        ("No baseline recorded for %s. The median time to the login dialog "
+         + "on this machine was %d ms; see %s.").formatted(
+          LOGIN_DIALOG,
+          Long.valueOf(medianMillis),
+          report)
+      );
+    }
+
+    final var baselineMillis =
+      baseline.getAsLong();
+    final var thresholdMillis =
+      baselineMillis + (baselineMillis * tolerancePercent) / 100L;
+
+    assertTrue(
+      medianMillis <= thresholdMillis,
+      ("Median time to the login dialog %d ms exceeds the baseline %d ms "
+       + "by more than %d%%").formatted(
+          Long.valueOf(medianMillis),
+          Long.valueOf(baselineMillis),
+          Long.valueOf(tolerancePercent))
+    );
+  }
+
+  private List<IdAGStartupMark> runOnce()
+    throws Exception
+  {
+    final var timeline = IdAGStartupTimeline.shared();
+    timeline.clear();
+    IdAGUI.markPlatformStartup();
+
+    final var app =
+      new IdAGApplication(this.configuration.configuration());
+
+    final var stage =
+      XoFXThread.run(() -> {
+        final var newStage = new Stage();
+        app.start(newStage);
+        return newStage;
+      }).get();
+
+    final var services =
+      app.mainController()
+        .booted()
+        .get(1L, TimeUnit.MINUTES);
+
+    final var loginFrame =
+      new CompletableFuture<Void>();
+
+    final var dialogStage =
+      XoFXThread.run(() -> {
+        final var dialog =
+          new IdAGLoginControllers(
+            services,
+            this.configuration.configuration(),
+            new IdAGStrings(Locale.ROOT)
+          ).createDialog(null);
+
+        final var scene = dialog.stage().getScene();
+        scene.addPostLayoutPulseListener(new Runnable()
+        {
+          @Override
+          public void run()
+          {
+            if (!loginFrame.isDone()) {
+              timeline.mark(LOGIN_DIALOG);
+              loginFrame.complete(null);
+            }
+            Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+          }
+        });
+
+        dialog.stage().show();
+        return dialog.stage();
+      }).get();
+
+    loginFrame.get(1L, TimeUnit.MINUTES);
+
+    XoFXThread.run(() -> {
+      dialogStage.close();
+      stage.close();
+      return null;
+    }).get();
+
+    services.close();
+    return timeline.marks();
+  }
+
+  private static String keyOf(
+    final IdAGStartupMark mark)
+  {
+    if (mark.detail().isEmpty()) {
+      return mark.name();
+    }
+    return "%s:%s".formatted(mark.name(), mark.detail());
+  }
+
+  private static long elapsedMicros(
+    final List<IdAGStartupMark> marks,
+    final IdAGStartupMark mark)
+  {
+    final var origin =
+      marks.stream()
+        .filter(m -> m.name().equals(IdAGStartupTimeline.PLATFORM_STARTUP))
+        .findFirst()
+        .orElseThrow();
+
+    return TimeUnit.NANOSECONDS.toMicros(mark.timeNanos() - origin.timeNanos());
+  }
+
+  private static Map<String, Long> medians(
+    final List<List<IdAGStartupMark>> results)
+  {
+    final var samples = new LinkedHashMap<String, List<Long>>();
+    for (final var marks : results) {
+      for (final var mark : marks) {
+        samples.computeIfAbsent(keyOf(mark), k -> new ArrayList<>())
+          .add(Long.valueOf(elapsedMicros(marks, mark)));
+      }
+    }
+
+    final var medians = new LinkedHashMap<String, Long>();
+    for (final var entry : samples.entrySet()) {
+      medians.put(entry.getKey(), Long.valueOf(median(entry.getValue())));
+    }
+    return medians;
+  }
+
+  private static long median(
+    final List<Long> values)
+  {
+    final var sorted =
+      values.stream()
+        .mapToLong(Long::longValue)
+        .sorted()
+        .toArray();
+
+    final var middle = sorted.length / 2;
+    if (sorted.length % 2 == 0) {
+      return (sorted[middle - 1] + sorted[middle]) / 2L;
+    }
+    return sorted[middle];
+  }
+
+  private static String csvQuote(
+    final String text)
+  {
+    return "\"%s\"".formatted(text.replace("\"", "\"\""));
+  }
+
+  private static void writeReport(
+    final Writer writer,
+    final List<List<IdAGStartupMark>> results,
+    final Map<String, Long> medians)
+    throws IOException
+  {
+    writer.write("run,mark,elapsed_us\n");
+
+    for (int run = 0; run < results.size(); ++run) {
+      final var marks = results.get(run);
+      for (final var mark : marks) {
+        writer.write("%d,%s,%d\n".formatted(
+          Integer.valueOf(run),
+          csvQuote(keyOf(mark)),
+          Long.valueOf(elapsedMicros(marks, mark))
+        ));
+      }
+    }
+
+    for (final var entry : medians.entrySet()) {
+      writer.write("median,%s,%d\n".formatted(
+        csvQuote(entry.getKey()),
+        entry.getValue()
+      ));
+    }
+  }
+}
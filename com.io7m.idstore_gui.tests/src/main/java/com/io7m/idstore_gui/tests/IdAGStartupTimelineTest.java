@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.IdAGStartupTimeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGStartupTimelineTest
+{
+  private IdAGStartupTimeline timeline;
+
+  @BeforeEach
+  public void setup()
+  {
+    this.timeline = IdAGStartupTimeline.shared();
+    this.timeline.clear();
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.timeline.clear();
+  }
+
+  /**
+   * Marks are recorded in order, with monotonic times.
+   */
+
+  @Test
+  public void testMarksOrdered()
+  {
+    this.timeline.mark(IdAGStartupTimeline.PLATFORM_STARTUP);
+    this.timeline.mark(IdAGStartupTimeline.BOOT_EVENT, "Loading...");
+    this.timeline.mark(IdAGStartupTimeline.BOOT_EVENT, "Loaded.");
+    this.timeline.mark(IdAGStartupTimeline.BOOT_COMPLETED);
+
+    final var marks = this.timeline.marks();
+    assertEquals(4, marks.size());
+    assertEquals(IdAGStartupTimeline.PLATFORM_STARTUP, marks.get(0).name());
+    assertEquals("", marks.get(0).detail());
+    assertEquals("Loading...", marks.get(1).detail());
+    assertEquals("Loaded.", marks.get(2).detail());
+    assertEquals(IdAGStartupTimeline.BOOT_COMPLETED, marks.get(3).name());
+
+    for (int index = 1; index < marks.size(); ++index) {
+      assertTrue(
+        marks.get(index - 1).timeNanos() <= marks.get(index).timeNanos());
+    }
+
+    assertEquals(
+      Optional.of(marks.get(1)),
+      this.timeline.first(IdAGStartupTimeline.BOOT_EVENT)
+    );
+  }
+
+  /**
+   * Clearing the timeline discards every mark.
+   */
+
+  @Test
+  public void testClear()
+  {
+    this.timeline.mark(IdAGStartupTimeline.APPLICATION_START);
+    this.timeline.clear();
+
+    assertEquals(0, this.timeline.marks().size());
+    assertEquals(
+      Optional.empty(),
+      this.timeline.first(IdAGStartupTimeline.APPLICATION_START)
+    );
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportCheckpoint;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportWatermark;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class IdAGUserImportCheckpointTest
+{
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = IdTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  /**
+   * The watermark only advances over rows that have all finished.
+   */
+
+  @Test
+  public void testWatermark()
+  {
+    final var mark = new IdAGUserImportWatermark(10L);
+    assertEquals(10L, mark.finish(12L));
+    assertEquals(10L, mark.finish(13L));
+    assertEquals(13L, mark.finish(11L));
+    assertEquals(13L, mark.finish(5L));
+    assertEquals(13L, mark.finish(15L));
+    assertEquals(15L, mark.finish(14L));
+    assertEquals(16L, mark.finish(16L));
+  }
+
+  /**
+   * Checkpoints survive reloading, and are ignored when the import file
+   * changes.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCheckpoint()
+    throws Exception
+  {
+    final var file = this.directory.resolve("users.csv");
+    Files.writeString(file, "idName,realName,email,password\n", UTF_8);
+
+    final var initial = IdAGUserImportCheckpoint.load(file);
+    assertEquals(0L, initial.rowsProcessed());
+
+    initial.save(1500L);
+    assertEquals(1500L, IdAGUserImportCheckpoint.load(file).rowsProcessed());
+
+    Files.writeString(file, "idName,realName,email,password,id\n", UTF_8);
+    assertEquals(0L, IdAGUserImportCheckpoint.load(file).rowsProcessed());
+  }
+}
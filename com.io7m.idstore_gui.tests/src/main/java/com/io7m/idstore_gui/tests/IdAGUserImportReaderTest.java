@@ -0,0 +1,174 @@
+/*
+ * Copyright © 2023 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.idstore_gui.tests;
+
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportFormat;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportReader;
+import com.io7m.idstore_gui.admin.internal.user_import.IdAGUserImportRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class IdAGUserImportReaderTest
+{
+  private Path directory;
+
+  @BeforeEach
+  public void setup()
+    throws Exception
+  {
+    this.directory = IdTestDirectories.createTempDirectory();
+  }
+
+  @AfterEach
+  public void tearDown()
+    throws Exception
+  {
+    IdTestDirectories.deleteDirectory(this.directory);
+  }
+
+  private List<IdAGUserImportRow> readAll(
+    final String name,
+    final String text)
+    throws IOException
+  {
+    final var file = this.directory.resolve(name);
+    Files.writeString(file, text, UTF_8);
+
+    final var rows = new ArrayList<IdAGUserImportRow>();
+    try (var reader =
+           IdAGUserImportReader.open(file, IdAGUserImportFormat.ofFile(file))) {
+      while (true) {
+        final var row = reader.read();
+        if (row.isEmpty()) {
+          break;
+        }
+        rows.add(row.get());
+      }
+      assertEquals(reader.size(), reader.bytesRead());
+    }
+    return rows;
+  }
+
+  /**
+   * Quoted CSV fields may contain separators, quotes, and line breaks.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCSVQuoting()
+    throws Exception
+  {
+    final var rows = this.readAll("users.csv", String.join(
+      "\r\n",
+      "idName,realName,email,password",
+      "alice,\"Alice, Q.\",alice@example.com,x",
+      "",
+      "bob,\"Bob \"\"B\"\" \nSmith\",bob@example.com,y"
+    ));
+
+    assertEquals(2, rows.size());
+    assertEquals(1L, rows.get(0).row());
+    assertEquals("Alice, Q.", rows.get(0).fields().get("realName"));
+    assertEquals(2L, rows.get(1).row());
+    assertEquals("Bob \"B\" \nSmith", rows.get(1).fields().get("realName"));
+    assertEquals("y", rows.get(1).fields().get("password"));
+  }
+
+  /**
+   * Rows with the wrong number of fields are returned with errors, and do
+   * not stop the rows that follow.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCSVFieldCount()
+    throws Exception
+  {
+    final var rows = this.readAll("users.csv", String.join(
+      "\n",
+      "idName,realName,email,password",
+      "alice,Alice",
+      "bob,Bob,bob@example.com,y"
+    ));
+
+    assertEquals(2, rows.size());
+    assertTrue(rows.get(0).error().isPresent());
+    assertTrue(rows.get(1).error().isEmpty());
+  }
+
+  /**
+   * A CSV file must name every required column.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testCSVMissingColumn()
+    throws Exception
+  {
+    final var file = this.directory.resolve("users.csv");
+    Files.writeString(file, "idName,realName,email\n", UTF_8);
+
+    assertThrows(IOException.class, () -> {
+      IdAGUserImportReader.open(file, IdAGUserImportFormat.CSV);
+    });
+  }
+
+  /**
+   * JSON Lines rows are parsed as flat objects.
+   *
+   * @throws Exception On errors
+   */
+
+  @Test
+  public void testJSONLines()
+    throws Exception
+  {
+    final var rows = this.readAll("users.jsonl", String.join(
+      "\n",
+      "{\"idName\": \"alice\", \"realName\": \"Alice \\\"A\\\" \\u00e9\", \"n\": 23, \"x\": null}",
+      "",
+      "{\"idName\": {\"nested\": true}}",
+      "{}"
+    ));
+
+    assertEquals(3, rows.size());
+    assertEquals(
+      Map.of("idName", "alice", "realName", "Alice \"A\" \u00e9", "n", "23"),
+      rows.get(0).fields()
+    );
+    assertTrue(rows.get(1).error().isPresent());
+    assertEquals(Map.of(), rows.get(2).fields());
+    assertEquals(3L, rows.get(2).row());
+  }
+}
@@ -32,8 +32,10 @@ open module com.io7m.idstore_gui.tests
   requires com.io7m.jade.api;
   requires com.io7m.percentpass.extension;
   requires com.io7m.repetoir.core;
+  requires com.io7m.taskrecorder.core;
   requires com.io7m.xoanon.extension;
   requires javafx.fxml;
+  requires jdk.jfr;
   requires net.bytebuddy.agent;
   requires net.bytebuddy;
   requires org.mockito;